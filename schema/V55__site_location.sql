@@ -0,0 +1,13 @@
+alter table site add column latitude decimal(9,6);
+alter table site add column longitude decimal(9,6);
+
+/** location_valid => null if we don't know yet. False if the address cannot be geocoded. */
+alter table site add column location_valid boolean;
+
+alter table site
+  add constraint site_location_pair check
+    ((latitude is null and longitude is null) or (latitude is not null and longitude is not null));
+alter table site
+  add constraint site_latitude_value check (latitude between -90 and 90);
+alter table site
+  add constraint site_longitude_value check (longitude between -180 and 180);
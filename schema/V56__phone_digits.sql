@@ -0,0 +1,29 @@
+/**
+  Digits only copies of phone number columns. Phone numbers are stored as entered,
+  eg: '(828) 555-1234', lookups compare only the digits. Generated columns let
+  those lookups use an index instead of running a regex on every row.
+ */
+alter table wss_user
+  add column phone_digits varchar(32)
+    generated always as (regexp_replace(phone, '[^0-9]+', '', 'g')) stored;
+create index wss_user_phone_digits_idx on wss_user(phone_digits);
+
+alter table driver
+  add column phone_digits varchar(32)
+    generated always as (regexp_replace(phone, '[^0-9]+', '', 'g')) stored;
+create index driver_phone_digits_idx on driver(phone_digits);
+
+alter table site
+  add column contact_number_digits varchar(32)
+    generated always as (regexp_replace(contact_number, '[^0-9]+', '', 'g')) stored;
+create index site_contact_number_digits_idx on site(contact_number_digits);
+
+alter table site
+  add column og_contact_number_digits varchar(32)
+    generated always as (regexp_replace(og_contact_number, '[^0-9]+', '', 'g')) stored;
+create index site_og_contact_number_digits_idx on site(og_contact_number_digits);
+
+alter table additional_site_manager
+  add column phone_digits varchar(32)
+    generated always as (regexp_replace(phone, '[^0-9]+', '', 'g')) stored;
+create index additional_site_manager_phone_digits_idx on additional_site_manager(phone_digits);
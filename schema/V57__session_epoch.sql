@@ -0,0 +1,5 @@
+/**
+  Revocation counter for signed session tokens. Signed tokens carry the epoch
+  they were issued with, bumping the epoch revokes every token of the user.
+ */
+alter table wss_user add column session_epoch integer not null default 0;
@@ -0,0 +1,29 @@
+/**
+  Copy of county.state on site. Deployments are defined by their states, so
+  every deployment scoped query filters sites by state. With the state on
+  site (and indexed), that filter no longer needs a county join and only
+  reads the rows of the current deployment.
+
+  Kept in sync with county_id by trigger.
+ */
+alter table site add column state varchar(16);
+
+update site s set state = c.state
+from county c
+where c.id = s.county_id;
+
+alter table site alter column state set not null;
+
+create function site_set_state() returns trigger as $$
+begin
+  new.state := (select state from county where id = new.county_id);
+  return new;
+end;
+$$ language plpgsql;
+
+create trigger site_set_state_trigger
+  before insert or update of county_id on site
+  for each row execute function site_set_state();
+
+create index site_state_active_idx on site(state, id) where active = true;
+create index site_state_idx on site(state);
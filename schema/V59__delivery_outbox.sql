@@ -0,0 +1,26 @@
+/**
+  Outbox of delivery side effects (SMS notifications, Airtable status updates).
+  Rows are added in the same transaction as the delivery state change that
+  causes them, a background worker sends them and retries failures.
+ */
+create table delivery_outbox(
+  id serial primary key,
+  delivery_public_key varchar(16) not null,
+  action varchar(32) not null,
+  delivery_status varchar(64), -- AIRTABLE_UPDATE
+  domain_name varchar(128), -- AIRTABLE_UPDATE, DEPARTED_PICKUP_SMS
+  attempts integer not null default 0,
+  next_attempt_at timestamptz not null default now(),
+  last_error varchar(512),
+  date_created timestamptz not null default now(),
+  sent_at timestamptz,
+  failed_at timestamptz -- set when retries are exhausted
+);
+alter table delivery_outbox owner to wnc_helene;
+
+alter table delivery_outbox
+  add constraint delivery_outbox_action
+    check (action in ('AIRTABLE_UPDATE', 'DEPARTED_PICKUP_SMS'));
+
+create index delivery_outbox_pending_idx on delivery_outbox(next_attempt_at)
+  where sent_at is null and failed_at is null;
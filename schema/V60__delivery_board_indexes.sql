@@ -0,0 +1,17 @@
+/**
+  Indexes for the dispatcher delivery board. The board lists deliveries newest
+  target date first and pages with a (sort date, id) keyset. Deliveries without
+  a target date sort last, using date '0001-01-01' as their sort date.
+ */
+create index delivery_board_date_idx on delivery(
+  (coalesce(target_delivery_date, date '0001-01-01')), id);
+
+create index delivery_board_status_date_idx on delivery(
+  delivery_status, (coalesce(target_delivery_date, date '0001-01-01')), id);
+
+create index delivery_driver_name_idx on delivery(lower(driver_name));
+
+-- county filter, deliveries from or to any site in a county
+create index delivery_from_site_id_idx on delivery(from_site_id);
+create index delivery_to_site_id_idx on delivery(to_site_id);
+create index site_county_id_idx on site(county_id);
@@ -0,0 +1,20 @@
+/**
+  Queue of SMS messages to send. Requests add messages and return, a
+  background dispatcher sends them at the rate Twilio allows and retries
+  transient failures. Send results are recorded in sms_send_history.
+ */
+create table sms_queue(
+  id serial primary key,
+  phone varchar(32) not null,
+  message text not null,
+  attempts integer not null default 0,
+  next_attempt_at timestamptz not null default now(),
+  last_error varchar(512),
+  date_created timestamptz not null default now(),
+  sent_at timestamptz,
+  failed_at timestamptz -- set when retries are exhausted or the failure is permanent
+);
+alter table sms_queue owner to wnc_helene;
+
+create index sms_queue_pending_idx on sms_queue(next_attempt_at)
+  where sent_at is null and failed_at is null;
@@ -0,0 +1,15 @@
+/**
+  Coalescing of queued SMS messages. Messages to the same phone with the same
+  group key (eg: a delivery) are held for a short window and then sent as one
+  SMS. Of messages with the same topic (eg: delivery status) only the newest is
+  sent, older ones are marked superseded.
+ */
+alter table sms_queue add column group_key varchar(64);
+alter table sms_queue add column topic varchar(32);
+alter table sms_queue add column superseded_at timestamptz;
+
+drop index sms_queue_pending_idx;
+create index sms_queue_pending_idx on sms_queue(next_attempt_at)
+  where sent_at is null and failed_at is null and superseded_at is null;
+create index sms_queue_pending_group_idx on sms_queue(phone, group_key)
+  where sent_at is null and failed_at is null and superseded_at is null;
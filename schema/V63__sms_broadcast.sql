@@ -0,0 +1,29 @@
+/**
+  SMS broadcasts from coordinators to the site managers of a deployment.
+  Recipients are resolved (and deduplicated by phone digits) when the
+  broadcast is created. Each recipient is sent a message through sms_queue,
+  tagged with the broadcast ID; send results are those of the queued messages.
+ */
+create table sms_broadcast(
+  id serial primary key,
+  message varchar(1024) not null,
+  states varchar(128) not null, -- comma separated states of the deployment
+  created_by varchar(32),
+  recipient_count integer not null,
+  date_created timestamptz not null default now()
+);
+alter table sms_broadcast owner to wnc_helene;
+
+create table sms_broadcast_recipient(
+  id serial primary key,
+  sms_broadcast_id integer not null references sms_broadcast(id),
+  phone varchar(32) not null, -- digits only
+  name varchar(128),
+  site_name varchar(256),
+  constraint sms_broadcast_recipient_uk unique (sms_broadcast_id, phone)
+);
+alter table sms_broadcast_recipient owner to wnc_helene;
+
+alter table sms_queue add column sms_broadcast_id integer references sms_broadcast(id);
+create index sms_queue_broadcast_idx on sms_queue(sms_broadcast_id)
+  where sms_broadcast_id is not null;
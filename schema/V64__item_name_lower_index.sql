@@ -0,0 +1,4 @@
+/**
+  Basket coverage looks up items by case-insensitive name, 'lower(i.name) in (...)'.
+ */
+create index item_name_lower_idx on item(lower(name));
@@ -0,0 +1,113 @@
+package com.vanatta.helene.supplies.database;
+
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
+import com.zaxxer.hikari.metrics.PoolStats;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * Collects metrics of one Hikari connection pool: connection counts and a histogram of how long
+ * callers waited to acquire a connection.
+ */
+public class ConnectionPoolMetrics implements MetricsTrackerFactory {
+
+  /** Upper bounds (exclusive, in ms) of the acquire time histogram buckets. */
+  static final long[] BUCKET_BOUNDS_MS = {1, 5, 10, 50, 100, 500, 1000, 5000};
+
+  private final String name;
+  private final int maxSize;
+  private final LongAdder[] buckets = new LongAdder[BUCKET_BOUNDS_MS.length + 1];
+  private final LongAdder acquired = new LongAdder();
+  private final LongAdder totalAcquireMs = new LongAdder();
+  private final LongAccumulator maxAcquireMs = new LongAccumulator(Math::max, 0);
+  private final LongAdder timeouts = new LongAdder();
+  private volatile PoolStats poolStats;
+
+  ConnectionPoolMetrics(String name, int maxSize) {
+    this.name = name;
+    this.maxSize = maxSize;
+    for (int i = 0; i < buckets.length; i++) {
+      buckets[i] = new LongAdder();
+    }
+  }
+
+  String getName() {
+    return name;
+  }
+
+  @Override
+  public IMetricsTracker create(String poolName, PoolStats poolStats) {
+    this.poolStats = poolStats;
+    return new IMetricsTracker() {
+      @Override
+      public void recordConnectionAcquiredNanos(long elapsedAcquiredNanos) {
+        recordAcquire(Duration.ofNanos(elapsedAcquiredNanos).toMillis());
+      }
+
+      @Override
+      public void recordConnectionTimeout() {
+        timeouts.increment();
+      }
+    };
+  }
+
+  // @VisibleForTesting
+  void recordAcquire(long acquireMs) {
+    acquired.increment();
+    totalAcquireMs.add(acquireMs);
+    maxAcquireMs.accumulate(acquireMs);
+    int bucket = 0;
+    while (bucket < BUCKET_BOUNDS_MS.length && acquireMs >= BUCKET_BOUNDS_MS[bucket]) {
+      bucket++;
+    }
+    buckets[bucket].increment();
+  }
+
+  @Value
+  @Builder
+  public static class PoolReport {
+    String name;
+    int maxSize;
+    int active;
+    int idle;
+    int waiting;
+    long acquired;
+    long timeouts;
+    double averageAcquireMs;
+    long maxAcquireMs;
+
+    /** Bucket label (eg: "<10ms") -> number of connections acquired within that time. */
+    Map<String, Long> acquireTimeHistogram;
+  }
+
+  public PoolReport report() {
+    PoolStats stats = poolStats;
+    long count = acquired.sum();
+    Map<String, Long> histogram = new LinkedHashMap<>();
+    for (int i = 0; i < BUCKET_BOUNDS_MS.length; i++) {
+      histogram.put("<" + BUCKET_BOUNDS_MS[i] + "ms", buckets[i].sum());
+    }
+    histogram.put(
+        ">=" + BUCKET_BOUNDS_MS[BUCKET_BOUNDS_MS.length - 1] + "ms",
+        buckets[BUCKET_BOUNDS_MS.length].sum());
+
+    return PoolReport.builder()
+        .name(name)
+        .maxSize(maxSize)
+        .active(stats == null ? 0 : stats.getActiveConnections())
+        .idle(stats == null ? 0 : stats.getIdleConnections())
+        .waiting(stats == null ? 0 : stats.getPendingThreads())
+        .acquired(count)
+        .timeouts(timeouts.sum())
+        .averageAcquireMs(count == 0 ? 0 : (double) totalAcquireMs.sum() / count)
+        .maxAcquireMs(maxAcquireMs.get())
+        .acquireTimeHistogram(histogram)
+        .build();
+  }
+}
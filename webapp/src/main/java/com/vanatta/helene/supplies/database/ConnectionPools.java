@@ -0,0 +1,21 @@
+package com.vanatta.helene.supplies.database;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import org.springframework.stereotype.Component;
+
+/** Keeps the metrics of each database connection pool, see {@link JdbiConfiguration}. */
+@Component
+public class ConnectionPools {
+  private final List<ConnectionPoolMetrics> pools = new CopyOnWriteArrayList<>();
+
+  ConnectionPoolMetrics register(String name, int maxSize) {
+    ConnectionPoolMetrics metrics = new ConnectionPoolMetrics(name, maxSize);
+    pools.add(metrics);
+    return metrics;
+  }
+
+  public List<ConnectionPoolMetrics.PoolReport> report() {
+    return pools.stream().map(ConnectionPoolMetrics::report).toList();
+  }
+}
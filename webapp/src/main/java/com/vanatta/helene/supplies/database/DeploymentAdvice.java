@@ -3,9 +3,11 @@ package com.vanatta.helene.supplies.database;
 import com.vanatta.helene.supplies.database.data.HostNameLookup;
 import jakarta.servlet.http.HttpServletRequest;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.jdbi.v3.core.Jdbi;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ModelAttribute;
 
@@ -16,6 +18,8 @@ import org.springframework.web.bind.annotation.ModelAttribute;
  *
  * <p>Configures parameters based upon the requested domain. Different deployments are partitioned
  * by the domain name.
+ *
+ * <p>Deployments are looked up from {@link DeploymentRegistry}, without a query.
  */
 @ControllerAdvice
 @Slf4j
@@ -25,9 +29,16 @@ public class DeploymentAdvice {
   public static final String DEPLOYMENT_DOMAIN_NAME = "domainName";
   public static final String DEPLOYMENT_SHORT_NAME = "deploymentShortName";
   public static final String DEPLOYMENT_STATE_LIST = "deploymentStateList";
-  private final Jdbi jdbi;
+
+  /** Bounds the set of unknown domains remembered for logging, bots send arbitrary hosts. */
+  static final int MAX_LOGGED_UNKNOWN_DOMAINS = 1_000;
+
+  private final DeploymentRegistry deploymentRegistry;
   private final HostNameLookup hostNameLookup;
 
+  /** Unknown domains already logged, each one is logged at warn just once. */
+  private final Set<String> loggedUnknownDomains = ConcurrentHashMap.newKeySet();
+
   @ModelAttribute(DEPLOYMENT_DOMAIN_NAME)
   public String domainName(HttpServletRequest request) {
     return hostNameLookup.lookupHostName(request);
@@ -35,44 +46,31 @@ public class DeploymentAdvice {
 
   @ModelAttribute(DEPLOYMENT_SHORT_NAME)
   public String shortName(HttpServletRequest request) {
-    return getShortNameForHost(jdbi, hostNameLookup.lookupHostName(request));
-  }
-
-  // @VisibleForTesting
-  static String getShortNameForHost(Jdbi jdbi, String domain) {
-    try {
-      return jdbi.withHandle(
-          h ->
-              h.createQuery("select short_name from deployment where lower(domain) = :domain")
-                  .bind("domain", domain)
-                  .mapTo(String.class)
-                  .one());
-    } catch (Exception e) {
-      log.warn(
-          "Unable to lookup short name for domain: {}, if the domain is legit (not an IP address),"
-              + "then this is a real problem. Otherwise ignore this error. Error: {}",
-          domain,
-          e.getMessage());
-      throw e;
-    }
+    return lookupDeployment(request).map(DeploymentRegistry.Deployment::getShortName).orElse("");
   }
 
   @ModelAttribute(DEPLOYMENT_STATE_LIST)
   public List<String> stateList(HttpServletRequest request) {
-    return fetchStateListForHost(jdbi, hostNameLookup.lookupHostName(request));
+    return lookupDeployment(request)
+        .map(DeploymentRegistry.Deployment::getStates)
+        .orElse(List.of());
   }
 
-  static List<String> fetchStateListForHost(Jdbi jdbi, String domain) {
-    return jdbi.withHandle(
-        h ->
-            h.createQuery(
-                    """
-              select state
-              from deployment_states
-              where deployment_id = (select id from deployment where lower(domain) = :domain)
-            """)
-                .bind("domain", domain)
-                .mapTo(String.class)
-                .list());
+  private Optional<DeploymentRegistry.Deployment> lookupDeployment(HttpServletRequest request) {
+    String domain = hostNameLookup.lookupHostName(request);
+    var deployment = deploymentRegistry.lookup(domain);
+    if (deployment.isPresent()) {
+      return deployment;
+    }
+    if (loggedUnknownDomains.size() < MAX_LOGGED_UNKNOWN_DOMAINS
+        && loggedUnknownDomains.add(String.valueOf(domain))) {
+      log.warn(
+          "No deployment found for domain: {}, if the domain is legit (not an IP address),"
+              + " then this is a real problem. Otherwise ignore this error.",
+          domain);
+    } else {
+      log.debug("No deployment found for domain: {}", domain);
+    }
+    return deployment;
   }
 }
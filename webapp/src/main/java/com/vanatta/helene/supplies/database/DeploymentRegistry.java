@@ -0,0 +1,142 @@
+package com.vanatta.helene.supplies.database;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import org.jdbi.v3.core.Jdbi;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * In memory copy of the 'deployment' & 'deployment_states' tables, keyed by domain name.
+ * Deployments change rarely (a new domain is added with a schema migration), they are loaded at
+ * startup and reloaded every few minutes.
+ */
+@Slf4j
+@Component
+public class DeploymentRegistry {
+  private static final int REFRESH_INTERVAL_MS = 5 * 60 * 1000;
+
+  /** Always accepted as a host name, for local development. */
+  static final String LOCALHOST = "localhost";
+
+  private final Jdbi jdbi;
+
+  /** Normalized domain -> deployment. Replaced as a whole on refresh. */
+  private volatile Map<String, Deployment> deploymentsByDomain;
+
+  @Value
+  @Builder
+  public static class Deployment {
+    String domain;
+    String shortName;
+    String contactUsLink;
+    String siteDescription;
+    List<String> states;
+  }
+
+  public DeploymentRegistry(@Qualifier(JdbiConfiguration.BACKGROUND) Jdbi jdbi) {
+    this.jdbi = jdbi;
+    deploymentsByDomain = load(jdbi);
+  }
+
+  @Scheduled(fixedDelay = REFRESH_INTERVAL_MS, initialDelay = REFRESH_INTERVAL_MS)
+  public void refresh() {
+    try {
+      deploymentsByDomain = load(jdbi);
+    } catch (Exception e) {
+      log.warn("Failed to refresh deployments, keeping previously loaded deployments", e);
+    }
+  }
+
+  /** Looks up a deployment by host name, eg: 'www.wnc-supply-sites.com:443'. */
+  public Optional<Deployment> lookup(String host) {
+    return Optional.ofNullable(deploymentsByDomain.get(normalize(host)));
+  }
+
+  /** True if the host belongs to a deployment or is localhost. */
+  public boolean isValidHost(String host) {
+    String normalized = normalize(host);
+    return LOCALHOST.equals(normalized) || deploymentsByDomain.containsKey(normalized);
+  }
+
+  public List<String> domains() {
+    return List.copyOf(deploymentsByDomain.keySet());
+  }
+
+  /** Lower cases and removes any port and 'www.' prefix. */
+  static String normalize(String host) {
+    if (host == null) {
+      return "";
+    }
+    String normalized = host.trim().toLowerCase();
+    int portIndex = normalized.indexOf(':');
+    if (portIndex >= 0) {
+      normalized = normalized.substring(0, portIndex);
+    }
+    return normalized.startsWith("www.") ? normalized.substring("www.".length()) : normalized;
+  }
+
+  @Data
+  @NoArgsConstructor
+  public static class DeploymentRow {
+    long id;
+    String domain;
+    String shortName;
+    String contactUsLink;
+    String siteDescription;
+  }
+
+  @Data
+  @NoArgsConstructor
+  public static class DeploymentStateRow {
+    long deploymentId;
+    String state;
+  }
+
+  private static Map<String, Deployment> load(Jdbi jdbi) {
+    List<DeploymentRow> deployments =
+        jdbi.withHandle(
+            h ->
+                h.createQuery(
+                        "select id, domain, short_name, contact_us_link, site_description from deployment")
+                    .mapToBean(DeploymentRow.class)
+                    .list());
+    Map<Long, List<String>> statesByDeployment =
+        jdbi
+            .withHandle(
+                h ->
+                    h.createQuery(
+                            "select deployment_id, state from deployment_states order by state")
+                        .mapToBean(DeploymentStateRow.class)
+                        .list())
+            .stream()
+            .collect(
+                Collectors.groupingBy(
+                    DeploymentStateRow::getDeploymentId,
+                    Collectors.mapping(DeploymentStateRow::getState, Collectors.toList())));
+
+    List<Deployment> loaded = new ArrayList<>();
+    for (DeploymentRow row : deployments) {
+      loaded.add(
+          Deployment.builder()
+              .domain(row.getDomain())
+              .shortName(row.getShortName())
+              .contactUsLink(row.getContactUsLink())
+              .siteDescription(row.getSiteDescription())
+              .states(List.copyOf(statesByDeployment.getOrDefault(row.getId(), List.of())))
+              .build());
+    }
+    return loaded.stream()
+        .collect(Collectors.toUnmodifiableMap(d -> normalize(d.getDomain()), Function.identity()));
+  }
+}
@@ -16,19 +16,31 @@ public class EnvLoggingConfiguration {
       @Value("${make.enabled}") boolean makeEnabled,
       @Value("${distance.calculator.enabled}") boolean distanceCalculatorEnabled,
       @Value("${distance.calculator.delay.ms}") int distanceCalculatorDelayMs,
+      @Value("${site.geocoder.enabled}") boolean siteGeocoderEnabled,
       @Value("${google.maps.api.key}") String googleApiKey,
+      @Value("${distance.api.provider}") String distanceApiProvider,
+      @Value("${road.network.file}") String roadNetworkFile,
       @Value("${twilio.from.number}") String twilioFromNumber,
       @Value("${twilio.account.sid}") String twilioAccountSid,
-      @Value("${twilio.sms.enabled}") boolean twilioSmsEnabled) {
+      @Value("${twilio.sms.enabled}") boolean twilioSmsEnabled,
+      @Value("${login.bcrypt.threads}") int loginBcryptThreads,
+      @Value("${login.bcrypt.queue.size}") int loginBcryptQueueSize,
+      @Value("${session.token.secret}") String sessionTokenSecret) {
     log.info("ENV - JDBI URL: {}", url);
     log.info("ENV - JDBI USER: {}", user);
     log.info("ENV - AUTH ENABLED: {}", authEnabled);
     log.info("ENV - MAKE ENABLED: {}", makeEnabled);
     log.info("ENV - DISTANCE CALCULATOR ENABLED: {}", distanceCalculatorEnabled);
     log.info("ENV - DISTANCE CALCULATOR DELAY: {}", distanceCalculatorDelayMs);
+    log.info("ENV - SITE GEOCODER ENABLED: {}", siteGeocoderEnabled);
     log.info("ENV - GOOGLE API KEY: {}", googleApiKey);
+    log.info("ENV - DISTANCE API PROVIDER: {}", distanceApiProvider);
+    log.info("ENV - ROAD NETWORK FILE: {}", roadNetworkFile);
     log.info("ENV - TWILIO FROM NUMBER: {}", twilioFromNumber);
     log.info("ENV - TWILIO ACCOUNT SID: {}", twilioAccountSid);
     log.info("ENV - TWILIO SMS ENABLED: {}", twilioSmsEnabled);
+    log.info("ENV - LOGIN BCRYPT THREADS: {}", loginBcryptThreads);
+    log.info("ENV - LOGIN BCRYPT QUEUE SIZE: {}", loginBcryptQueueSize);
+    log.info("ENV - SIGNED SESSION TOKENS ENABLED: {}", !sessionTokenSecret.isBlank());
   }
 }
@@ -9,17 +9,65 @@ import org.jdbi.v3.sqlobject.SqlObjectPlugin;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
 
+/**
+ * Database connection pools, one per workload so that one workload cannot starve another of
+ * connections:
+ *
+ * <ul>
+ *   <li>{@link #WEB} (default): interactive page loads & writes from logged in users.
+ *   <li>{@link #WEBHOOK}: inbound webhooks (eg: Airtable updates), these can arrive in bursts.
+ *   <li>{@link #BACKGROUND}: scheduled jobs, bulk data export and buffered audit log writes.
+ * </ul>
+ *
+ * Inject a non-default pool with eg: {@code @Qualifier(JdbiConfiguration.WEBHOOK) Jdbi jdbi}. Pool
+ * metrics are reported at '/admin/report/db-pools'.
+ */
 @Configuration
 @Slf4j
 public class JdbiConfiguration {
+  public static final String WEB = "webJdbi";
+  public static final String WEBHOOK = "webhookJdbi";
+  public static final String BACKGROUND = "backgroundJdbi";
 
-  @Bean
+  @Value("${jdbi.url}")
+  String url;
+
+  @Value("${jdbi.user}")
+  String user;
+
+  @Value("${jdbi.password}")
+  String password;
+
+  @Primary
+  @Bean(WEB)
   public Jdbi jdbi(
-      @Value("${jdbi.url}") String url,
-      @Value("${jdbi.user}") String user,
-      @Value("${jdbi.password}") String password) {
+      ConnectionPools pools,
+      @Value("${jdbi.pool.web.size}") int size,
+      @Value("${jdbi.pool.web.timeout.ms}") long timeoutMs) {
+    return createJdbi(pools, "web", size, timeoutMs);
+  }
+
+  @Bean(WEBHOOK)
+  public Jdbi webhookJdbi(
+      ConnectionPools pools,
+      @Value("${jdbi.pool.webhook.size}") int size,
+      @Value("${jdbi.pool.webhook.timeout.ms}") long timeoutMs) {
+    return createJdbi(pools, "webhook", size, timeoutMs);
+  }
+
+  @Bean(BACKGROUND)
+  public Jdbi backgroundJdbi(
+      ConnectionPools pools,
+      @Value("${jdbi.pool.background.size}") int size,
+      @Value("${jdbi.pool.background.timeout.ms}") long timeoutMs) {
+    return createJdbi(pools, "background", size, timeoutMs);
+  }
+
+  private Jdbi createJdbi(ConnectionPools pools, String name, int size, long timeoutMs) {
     HikariConfig config = new HikariConfig();
+    config.setPoolName(name);
     config.setJdbcUrl(url);
     config.setUsername(user);
     config.setPassword(password);
@@ -27,12 +75,15 @@ public class JdbiConfiguration {
     // config values docs:
     // https://github.com/brettwooldridge/HikariCP?tab=readme-ov-file#gear-configuration-knobs-baby
 
-    // timeout DB connections at 10s instead of default of 30s
-    config.addDataSourceProperty("connectionTimeout", 10_000);
-
-    // Keep pool size small (default is 10). Target env is a single core linode.
+    // Keep pool sizes small (default is 10). Target env is a single core linode.
     // https://github.com/brettwooldridge/HikariCP/wiki/About-Pool-Sizing
-    config.addDataSourceProperty("maximumPoolSize", "4");
+    config.setMaximumPoolSize(size);
+    // idle connections are closed down to the minimum, quiet pools do not hold connections
+    config.setMinimumIdle(1);
+    config.setConnectionTimeout(timeoutMs);
+    config.setMetricsTrackerFactory(pools.register(name, size));
+
+    log.info("Creating DB connection pool: {}, size: {}, timeout ms: {}", name, size, timeoutMs);
     HikariDataSource ds = new HikariDataSource(config);
     var jdbi = Jdbi.create(ds).installPlugin(new SqlObjectPlugin());
     jdbi.setSqlLogger(new Slf4JSqlLogger());
@@ -0,0 +1,137 @@
+package com.vanatta.helene.supplies.database;
+
+import com.vanatta.helene.supplies.database.util.LazyValue;
+import jakarta.servlet.http.HttpServletRequest;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import lombok.Builder;
+import lombok.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.bind.annotation.ModelAttribute;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+
+/**
+ * Controller advice '@ModelAttribute' methods run before every handler, including JSON endpoints
+ * that never read them. This class lets the advice methods skip work that is not needed:
+ *
+ * <ul>
+ *   <li>Attributes that handlers read as parameters are only computed if the handler of the current
+ *       request declares that parameter.
+ *   <li>Attributes that templates read are returned as lazy values, they are computed when (and if)
+ *       the template prints them.
+ * </ul>
+ *
+ * Also counts, per endpoint, how many queries were skipped. See {@link #report()}.
+ */
+@Component
+public class ModelAttributeDemand {
+  private static final String REQUEST_COUNTED = ModelAttributeDemand.class.getName() + ".counted";
+
+  /** Handler method -> names of the '@ModelAttribute' parameters of the handler. */
+  private final Map<Method, Set<String>> parametersByHandler = new ConcurrentHashMap<>();
+
+  private final Map<String, EndpointStats> statsByEndpoint = new ConcurrentHashMap<>();
+
+  private static class EndpointStats {
+    final LongAdder requests = new LongAdder();
+    final LongAdder queriesSaved = new LongAdder();
+  }
+
+  @Value
+  @Builder
+  public static class EndpointReport {
+    String endpoint;
+    long requests;
+    long queriesSaved;
+    double queriesSavedPerRequest;
+  }
+
+  /**
+   * Returns true if the handler of the current request has a '@ModelAttribute(attributeName)'
+   * parameter. If not, 'queryCost' is counted as saved. If the handler cannot be determined,
+   * returns true.
+   */
+  public boolean isParameterOf(HttpServletRequest request, String attributeName, int queryCost) {
+    HandlerMethod handler = handlerOf(request);
+    if (handler == null) {
+      return true;
+    }
+    boolean needed =
+        parametersByHandler
+            .computeIfAbsent(handler.getMethod(), _ -> modelAttributeParameters(handler))
+            .contains(attributeName);
+    if (!needed) {
+      statsFor(request, handler).queriesSaved.add(queryCost);
+    }
+    return needed;
+  }
+
+  /**
+   * Returns a value that is computed at most once, when first read. If it is never read,
+   * 'queryCost' is counted as saved.
+   */
+  public <T> LazyValue<T> lazy(HttpServletRequest request, int queryCost, Supplier<T> supplier) {
+    HandlerMethod handler = handlerOf(request);
+    if (handler == null) {
+      return new LazyValue<>(supplier);
+    }
+    // count as saved up front, un-count if the value ends up being read.
+    EndpointStats stats = statsFor(request, handler);
+    stats.queriesSaved.add(queryCost);
+    return new LazyValue<>(supplier, () -> stats.queriesSaved.add(-queryCost));
+  }
+
+  /** Per endpoint count of queries saved, endpoints that saved the most are listed first. */
+  public List<EndpointReport> report() {
+    return statsByEndpoint.entrySet().stream()
+        .map(
+            entry -> {
+              long requests = entry.getValue().requests.sum();
+              long saved = entry.getValue().queriesSaved.sum();
+              return EndpointReport.builder()
+                  .endpoint(entry.getKey())
+                  .requests(requests)
+                  .queriesSaved(saved)
+                  .queriesSavedPerRequest(requests == 0 ? 0 : (double) saved / requests)
+                  .build();
+            })
+        .sorted(Comparator.comparingLong(EndpointReport::getQueriesSaved).reversed())
+        .toList();
+  }
+
+  private static HandlerMethod handlerOf(HttpServletRequest request) {
+    return request.getAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE)
+            instanceof HandlerMethod handlerMethod
+        ? handlerMethod
+        : null;
+  }
+
+  private EndpointStats statsFor(HttpServletRequest request, HandlerMethod handler) {
+    EndpointStats stats =
+        statsByEndpoint.computeIfAbsent(
+            handler.getBeanType().getSimpleName() + "." + handler.getMethod().getName(),
+            _ -> new EndpointStats());
+    if (request.getAttribute(REQUEST_COUNTED) == null) {
+      request.setAttribute(REQUEST_COUNTED, true);
+      stats.requests.increment();
+    }
+    return stats;
+  }
+
+  private static Set<String> modelAttributeParameters(HandlerMethod handler) {
+    return Arrays.stream(handler.getMethodParameters())
+        .map(parameter -> parameter.getParameterAnnotation(ModelAttribute.class))
+        .filter(annotation -> annotation != null)
+        .map(annotation -> annotation.value().isEmpty() ? annotation.name() : annotation.value())
+        .collect(Collectors.toSet());
+  }
+}
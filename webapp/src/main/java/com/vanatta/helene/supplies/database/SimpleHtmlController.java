@@ -10,8 +10,6 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import lombok.AllArgsConstructor;
-import lombok.Data;
-import org.jdbi.v3.core.Jdbi;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.ModelAttribute;
@@ -23,7 +21,7 @@ import org.springframework.web.servlet.view.RedirectView;
 @AllArgsConstructor
 public class SimpleHtmlController {
 
-  private final Jdbi jdbi;
+  private final DeploymentRegistry deploymentRegistry;
   private final HostNameLookup hostNameLookup;
 
   @GetMapping("/")
@@ -33,30 +31,14 @@ public class SimpleHtmlController {
     params.put("isAuthenticated", roles.contains(UserRole.AUTHORIZED));
     params.put("isDriver", roles.contains(UserRole.DRIVER));
     params.put("canManageSites", UserRole.canManageSites(roles));
-    DeploymentDescription deploymentDescription =
-        fetchDeploymentDescription(jdbi, hostNameLookup.lookupHostName(request));
-    params.put("siteDescription", deploymentDescription.getSiteDescription());
-    params.put("contactUsLink", deploymentDescription.getContactUsLink());
+    params.put("isDispatcher", UserRole.hasGodMode(roles));
+    var deployment =
+        deploymentRegistry.lookup(hostNameLookup.lookupHostName(request)).orElseThrow();
+    params.put("siteDescription", deployment.getSiteDescription());
+    params.put("contactUsLink", deployment.getContactUsLink());
     return new ModelAndView("home/home", params);
   }
 
-  @Data
-  public static class DeploymentDescription {
-    String contactUsLink;
-    String siteDescription;
-  }
-
-  // @VisibleForTesting
-  static DeploymentDescription fetchDeploymentDescription(Jdbi jdbi, String domain) {
-    return jdbi.withHandle(
-        h ->
-            h.createQuery(
-                    "select deployment.contact_us_link, site_description from deployment where lower(domain) = :domain")
-                .bind("domain", domain.toLowerCase())
-                .mapToBean(DeploymentDescription.class)
-                .one());
-  }
-
   @GetMapping("/log-out")
   public RedirectView logout(HttpServletResponse response) {
     Cookie cookie = new Cookie("auth", null);
@@ -94,11 +76,10 @@ public class SimpleHtmlController {
 
   @GetMapping("/registration/")
   ModelAndView showRegistrationPage(HttpServletRequest request) {
-
-    DeploymentDescription deploymentDescription =
-        fetchDeploymentDescription(jdbi, hostNameLookup.lookupHostName(request));
+    var deployment =
+        deploymentRegistry.lookup(hostNameLookup.lookupHostName(request)).orElseThrow();
     Map<String, Object> params = new HashMap<>();
-    params.put("contactUsLink", deploymentDescription.getContactUsLink());
+    params.put("contactUsLink", deployment.getContactUsLink());
     return new ModelAndView("registration/registration", params);
   }
 }
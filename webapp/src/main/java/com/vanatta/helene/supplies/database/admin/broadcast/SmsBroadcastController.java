@@ -0,0 +1,125 @@
+package com.vanatta.helene.supplies.database.admin.broadcast;
+
+import com.vanatta.helene.supplies.database.DeploymentAdvice;
+import com.vanatta.helene.supplies.database.auth.LoggedInAdvice;
+import com.vanatta.helene.supplies.database.auth.UserRole;
+import com.vanatta.helene.supplies.database.util.DateTimeFormat;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import lombok.AllArgsConstructor;
+import org.jdbi.v3.core.Jdbi;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.ModelAttribute;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.servlet.ModelAndView;
+
+/**
+ * Admin page to text every site manager of the current deployment (site contact numbers and
+ * additional site managers). Only dispatchers and data admins can send broadcasts.
+ */
+@Controller
+@AllArgsConstructor
+public class SmsBroadcastController {
+  static final String BROADCAST_PATH = "/admin/broadcast";
+  static final int MAX_MESSAGE_LENGTH = 1024;
+  private static final int RECENT_BROADCAST_COUNT = 10;
+
+  private final Jdbi jdbi;
+  private final SmsBroadcaster smsBroadcaster;
+
+  enum TemplateParams {
+    recipientCount,
+    recentBroadcasts,
+    maxMessageLength,
+    ;
+  }
+
+  @GetMapping(BROADCAST_PATH)
+  ModelAndView showBroadcast(
+      @ModelAttribute(LoggedInAdvice.USER_ROLES) List<UserRole> userRoles,
+      @ModelAttribute(DeploymentAdvice.DEPLOYMENT_STATE_LIST) List<String> stateList) {
+    if (!UserRole.hasGodMode(userRoles)) {
+      return new ModelAndView("redirect:/admin");
+    }
+    Map<String, Object> templateParams = new HashMap<>();
+    templateParams.put(
+        TemplateParams.recipientCount.name(),
+        SmsBroadcastDao.fetchRecipients(jdbi, stateList).size());
+    templateParams.put(
+        TemplateParams.recentBroadcasts.name(),
+        SmsBroadcastDao.fetchRecentSummaries(jdbi, stateList, RECENT_BROADCAST_COUNT).stream()
+            .map(
+                b ->
+                    Map.of(
+                        "id", b.getId(),
+                        "message", b.getMessage(),
+                        "dateCreated", DateTimeFormat.format(b.getDateCreated()),
+                        "recipientCount", b.getRecipientCount(),
+                        "sentCount", b.getSentCount(),
+                        "failedCount", b.getFailedCount(),
+                        "hasFailures", b.getFailedCount() > 0))
+            .toList());
+    templateParams.put(TemplateParams.maxMessageLength.name(), MAX_MESSAGE_LENGTH);
+    return new ModelAndView("admin/broadcast", templateParams);
+  }
+
+  /** Starts a broadcast, returns its ID; progress is polled from the progress path. */
+  @PostMapping(BROADCAST_PATH + "/send")
+  ResponseEntity<Map<String, Object>> sendBroadcast(
+      @ModelAttribute(LoggedInAdvice.USER_ROLES) List<UserRole> userRoles,
+      @ModelAttribute(LoggedInAdvice.USER_PHONE) String userPhone,
+      @ModelAttribute(DeploymentAdvice.DEPLOYMENT_STATE_LIST) List<String> stateList,
+      @RequestBody Map<String, String> params) {
+    if (!UserRole.hasGodMode(userRoles)) {
+      return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+    }
+    String message = params.get("message") == null ? "" : params.get("message").trim();
+    if (message.isEmpty() || message.length() > MAX_MESSAGE_LENGTH) {
+      return ResponseEntity.badRequest()
+          .body(
+              Map.of(
+                  "error", "Message must be between 1 and " + MAX_MESSAGE_LENGTH + " characters"));
+    }
+
+    List<SmsBroadcastDao.Recipient> recipients = SmsBroadcastDao.fetchRecipients(jdbi, stateList);
+    long broadcastId = smsBroadcaster.broadcast(message, stateList, userPhone, recipients);
+    return ResponseEntity.ok(
+        Map.of("broadcastId", broadcastId, "recipientCount", recipients.size()));
+  }
+
+  /** Not found for broadcasts of other deployments. */
+  @GetMapping(BROADCAST_PATH + "/{broadcastId}/progress")
+  ResponseEntity<SmsBroadcaster.BroadcastProgress> progress(
+      @ModelAttribute(LoggedInAdvice.USER_ROLES) List<UserRole> userRoles,
+      @ModelAttribute(DeploymentAdvice.DEPLOYMENT_STATE_LIST) List<String> stateList,
+      @PathVariable long broadcastId) {
+    if (!UserRole.hasGodMode(userRoles)) {
+      return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+    }
+    return smsBroadcaster
+        .progress(stateList, broadcastId)
+        .map(ResponseEntity::ok)
+        .orElseGet(() -> ResponseEntity.notFound().build());
+  }
+
+  /** Not found for broadcasts of other deployments. */
+  @GetMapping(BROADCAST_PATH + "/{broadcastId}/failed")
+  ResponseEntity<List<SmsBroadcastDao.RecipientRow>> failedRecipients(
+      @ModelAttribute(LoggedInAdvice.USER_ROLES) List<UserRole> userRoles,
+      @ModelAttribute(DeploymentAdvice.DEPLOYMENT_STATE_LIST) List<String> stateList,
+      @PathVariable long broadcastId) {
+    if (!UserRole.hasGodMode(userRoles)) {
+      return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+    }
+    if (SmsBroadcastDao.fetchSummary(jdbi, stateList, broadcastId).isEmpty()) {
+      return ResponseEntity.notFound().build();
+    }
+    return ResponseEntity.ok(SmsBroadcastDao.fetchFailedRecipients(jdbi, stateList, broadcastId));
+  }
+}
@@ -0,0 +1,213 @@
+package com.vanatta.helene.supplies.database.admin.broadcast;
+
+import com.vanatta.helene.supplies.database.twilio.sms.SmsQueueDao;
+import com.vanatta.helene.supplies.database.util.UnitOfWork;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.jdbi.v3.core.Jdbi;
+import org.jdbi.v3.core.statement.PreparedBatch;
+
+/**
+ * Broadcasts and their recipients. Each recipient is sent a message through the SMS queue (see
+ * {@link SmsQueueDao}), matched to the recipient by broadcast ID and phone.
+ */
+public class SmsBroadcastDao {
+
+  @Data
+  @NoArgsConstructor
+  public static class Recipient {
+    /** Digits only. */
+    String phone;
+
+    String name;
+    String siteName;
+  }
+
+  /**
+   * Site contacts & additional site managers of active sites in the given states. Each phone number
+   * is listed once (compared by digits), numbers that are not 10 digits are skipped.
+   */
+  static List<Recipient> fetchRecipients(Jdbi jdbi, List<String> states) {
+    String query =
+        """
+        select distinct on (phone) phone, name, siteName
+        from (
+          select s.contact_number_digits phone, s.contact_name name, s.name siteName, 0 priority, s.id siteId
+          from site s
+          where s.active and s.state in (<states>)
+          union all
+          select m.phone_digits, m.name, s.name, 1, s.id
+          from additional_site_manager m
+          join site s on s.id = m.site_id
+          where s.active and s.state in (<states>)
+        ) r
+        where length(phone) = 10
+        order by phone, priority, siteId
+        """;
+    return jdbi.withHandle(
+        handle ->
+            handle.createQuery(query).bindList("states", states).mapToBean(Recipient.class).list());
+  }
+
+  /**
+   * Stores a broadcast with its recipients and queues a message to each recipient, in one
+   * transaction. Returns the broadcast ID.
+   */
+  static long createBroadcast(
+      Jdbi jdbi,
+      String message,
+      List<String> states,
+      String createdBy,
+      List<Recipient> recipients) {
+    return UnitOfWork.inTransaction(
+        jdbi,
+        () -> {
+          long id =
+              jdbi.withHandle(
+                  handle ->
+                      handle
+                          .createUpdate(
+                              """
+                              insert into sms_broadcast(message, states, created_by, recipient_count)
+                              values(:message, :states, :createdBy, :recipientCount)
+                              """)
+                          .bind("message", message)
+                          .bind("states", String.join(",", states))
+                          .bind("createdBy", createdBy)
+                          .bind("recipientCount", recipients.size())
+                          .executeAndReturnGeneratedKeys("id")
+                          .mapTo(Long.class)
+                          .one());
+          if (!recipients.isEmpty()) {
+            jdbi.useHandle(
+                handle -> {
+                  PreparedBatch batch =
+                      handle.prepareBatch(
+                          """
+                          insert into sms_broadcast_recipient(sms_broadcast_id, phone, name, site_name)
+                          values(:broadcastId, :phone, :name, :siteName)
+                          """);
+                  recipients.forEach(
+                      r ->
+                          batch
+                              .bind("broadcastId", id)
+                              .bind("phone", r.getPhone())
+                              .bind("name", r.getName())
+                              .bind("siteName", r.getSiteName())
+                              .add());
+                  batch.execute();
+                });
+          }
+          SmsQueueDao.enqueueAll(
+              jdbi,
+              recipients.stream()
+                  .map(
+                      r ->
+                          SmsQueueDao.OutgoingSms.builder()
+                              .phone(r.getPhone())
+                              .message(message)
+                              .smsBroadcastId(id)
+                              .build())
+                  .toList());
+          return id;
+        });
+  }
+
+  @Data
+  @NoArgsConstructor
+  public static class BroadcastSummary {
+    long id;
+    String message;
+    String createdBy;
+    LocalDateTime dateCreated;
+    int recipientCount;
+    int sentCount;
+    int failedCount;
+
+    /** Messages still to be sent (or retried). */
+    int pendingCount;
+
+    boolean isComplete() {
+      return pendingCount == 0;
+    }
+  }
+
+  /** Send results of a broadcast are those of its queued messages. */
+  private static final String SELECT_SUMMARY =
+      """
+      select
+        b.id,
+        b.message,
+        b.created_by createdBy,
+        b.date_created dateCreated,
+        b.recipient_count recipientCount,
+        count(q.sent_at) sentCount,
+        count(q.failed_at) failedCount,
+        count(q.id) filter (where q.sent_at is null and q.failed_at is null) pendingCount
+      from sms_broadcast b
+      left join sms_queue q on q.sms_broadcast_id = b.id
+      """;
+
+  /** A broadcast of the deployment with the given states, empty if it is of another deployment. */
+  static Optional<BroadcastSummary> fetchSummary(Jdbi jdbi, List<String> states, long broadcastId) {
+    return jdbi.withHandle(
+        handle ->
+            handle
+                .createQuery(
+                    SELECT_SUMMARY + "where b.id = :id and b.states = :states group by b.id")
+                .bind("id", broadcastId)
+                .bind("states", String.join(",", states))
+                .mapToBean(BroadcastSummary.class)
+                .findOne());
+  }
+
+  /** Most recent broadcasts of a deployment. */
+  static List<BroadcastSummary> fetchRecentSummaries(Jdbi jdbi, List<String> states, int limit) {
+    return jdbi.withHandle(
+        handle ->
+            handle
+                .createQuery(
+                    SELECT_SUMMARY
+                        + "where b.states = :states group by b.id order by b.id desc limit :limit")
+                .bind("states", String.join(",", states))
+                .bind("limit", limit)
+                .mapToBean(BroadcastSummary.class)
+                .list());
+  }
+
+  @Data
+  @NoArgsConstructor
+  public static class RecipientRow {
+    String phone;
+    String name;
+    String siteName;
+    String error;
+  }
+
+  /** Failed recipients of a broadcast of the deployment with the given states. */
+  static List<RecipientRow> fetchFailedRecipients(
+      Jdbi jdbi, List<String> states, long broadcastId) {
+    return jdbi.withHandle(
+        handle ->
+            handle
+                .createQuery(
+                    """
+                    select r.phone, r.name, r.site_name siteName, q.last_error error
+                    from sms_broadcast_recipient r
+                    join sms_broadcast b on b.id = r.sms_broadcast_id
+                    join sms_queue q
+                      on q.sms_broadcast_id = r.sms_broadcast_id and q.phone = r.phone
+                    where r.sms_broadcast_id = :broadcastId
+                      and b.states = :states
+                      and q.failed_at is not null
+                    order by r.site_name, r.phone
+                    """)
+                .bind("broadcastId", broadcastId)
+                .bind("states", String.join(",", states))
+                .mapToBean(RecipientRow.class)
+                .list());
+  }
+}
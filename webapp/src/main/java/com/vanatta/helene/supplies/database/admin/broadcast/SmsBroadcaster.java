@@ -0,0 +1,56 @@
+package com.vanatta.helene.supplies.database.admin.broadcast;
+
+import com.vanatta.helene.supplies.database.twilio.sms.SmsDispatcher;
+import java.util.List;
+import java.util.Optional;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.extern.slf4j.Slf4j;
+import org.jdbi.v3.core.Jdbi;
+import org.springframework.stereotype.Component;
+
+/**
+ * Sends broadcasts through the SMS queue: a broadcast queues a message to each recipient and
+ * returns, {@link SmsDispatcher} sends them at the rate Twilio allows and retries transient
+ * failures. Progress is read from the queued messages, the admin page polls {@link #progress(List,
+ * long)}. Messages not sent before a restart stay queued and are sent after it.
+ */
+@Slf4j
+@Component
+@AllArgsConstructor
+public class SmsBroadcaster {
+
+  private final Jdbi jdbi;
+  private final SmsDispatcher smsDispatcher;
+
+  @lombok.Value
+  @Builder
+  public static class BroadcastProgress {
+    int total;
+    int sent;
+    int failed;
+    boolean complete;
+  }
+
+  /** Creates a broadcast to the given recipients and queues its messages, returns its ID. */
+  long broadcast(
+      String message, List<String> states, String createdBy, List<SmsBroadcastDao.Recipient> to) {
+    long id = SmsBroadcastDao.createBroadcast(jdbi, message, states, createdBy, to);
+    log.info("Queued SMS broadcast {} to {} recipients, by: {}", id, to.size(), createdBy);
+    smsDispatcher.wakeUp();
+    return id;
+  }
+
+  /** Progress of a broadcast of the deployment with the given states. */
+  Optional<BroadcastProgress> progress(List<String> states, long broadcastId) {
+    return SmsBroadcastDao.fetchSummary(jdbi, states, broadcastId)
+        .map(
+            summary ->
+                BroadcastProgress.builder()
+                    .total(summary.getRecipientCount())
+                    .sent(summary.getSentCount())
+                    .failed(summary.getFailedCount())
+                    .complete(summary.isComplete())
+                    .build());
+  }
+}
@@ -42,7 +42,7 @@ public class SendItemMergedUpdate {
     log.info(
         "Sending to airtable list of items that were merged and are now deleted: {}",
         deletedItemWssIds);
-    HttpPostSender.sendJson(
+    HttpPostSender.sendJsonAsync(
         airtableWebhookUrl,
         String.format(
             """
@@ -0,0 +1,110 @@
+package com.vanatta.helene.supplies.database.admin.report;
+
+import com.vanatta.helene.supplies.database.ConnectionPoolMetrics;
+import com.vanatta.helene.supplies.database.ConnectionPools;
+import com.vanatta.helene.supplies.database.ModelAttributeDemand;
+import com.vanatta.helene.supplies.database.audit.AuditLogWriter;
+import com.vanatta.helene.supplies.database.auth.LoggedInAdvice;
+import com.vanatta.helene.supplies.database.auth.PasswordVerifier;
+import com.vanatta.helene.supplies.database.auth.UserRole;
+import com.vanatta.helene.supplies.database.delivery.DeliveryOutboxWorker;
+import com.vanatta.helene.supplies.database.delivery.DeliveryViewCache;
+import com.vanatta.helene.supplies.database.twilio.sms.SmsDispatcher;
+import com.vanatta.helene.supplies.database.util.BackgroundExecutor;
+import com.vanatta.helene.supplies.database.util.OutboundHttp;
+import com.vanatta.helene.supplies.database.util.ThreadRunner;
+import java.util.List;
+import java.util.function.Supplier;
+import lombok.AllArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.ModelAttribute;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Operational reports (JSON) of caches, queues, pools and background work. Only dispatchers and
+ * data admins can read them.
+ */
+@RestController
+@AllArgsConstructor
+public class AdminReportController {
+  static final String REPORT_PATH = "/admin/report";
+
+  private final AuditLogWriter auditLogWriter;
+  private final ConnectionPools connectionPools;
+  private final DeliveryOutboxWorker deliveryOutboxWorker;
+  private final PasswordVerifier passwordVerifier;
+  private final ModelAttributeDemand modelAttributeDemand;
+  private final SmsDispatcher smsDispatcher;
+
+  private static <T> ResponseEntity<T> report(List<UserRole> userRoles, Supplier<T> report) {
+    if (!UserRole.hasGodMode(userRoles)) {
+      return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+    }
+    return ResponseEntity.ok(report.get());
+  }
+
+  /** How many audit rows are buffered, written, dropped or failed to write. */
+  @GetMapping(REPORT_PATH + "/audit-log")
+  ResponseEntity<AuditLogWriter.AuditLogMetrics> auditLogReport(
+      @ModelAttribute(LoggedInAdvice.USER_ROLES) List<UserRole> userRoles) {
+    return report(userRoles, auditLogWriter::metrics);
+  }
+
+  /** Running, waiting & completed background tasks and their wait & run times. */
+  @GetMapping(REPORT_PATH + "/background-tasks")
+  ResponseEntity<BackgroundExecutor.ExecutorMetrics> backgroundTaskReport(
+      @ModelAttribute(LoggedInAdvice.USER_ROLES) List<UserRole> userRoles) {
+    return report(userRoles, ThreadRunner::metrics);
+  }
+
+  /** Active, idle & waiting counts and connection acquire times of each DB pool. */
+  @GetMapping(REPORT_PATH + "/db-pools")
+  ResponseEntity<List<ConnectionPoolMetrics.PoolReport>> dbPoolReport(
+      @ModelAttribute(LoggedInAdvice.USER_ROLES) List<UserRole> userRoles) {
+    return report(userRoles, connectionPools::report);
+  }
+
+  /** Pending, sent, retried and failed delivery side effects (Airtable updates, pickup SMS). */
+  @GetMapping(REPORT_PATH + "/delivery-outbox")
+  ResponseEntity<DeliveryOutboxWorker.OutboxMetrics> deliveryOutboxReport(
+      @ModelAttribute(LoggedInAdvice.USER_ROLES) List<UserRole> userRoles) {
+    return report(userRoles, deliveryOutboxWorker::metrics);
+  }
+
+  /** Hit & miss counts of the delivery manifest page cache. */
+  @GetMapping(REPORT_PATH + "/delivery-cache")
+  ResponseEntity<DeliveryViewCache.CacheMetrics> deliveryCacheReport(
+      @ModelAttribute(LoggedInAdvice.USER_ROLES) List<UserRole> userRoles) {
+    return report(userRoles, DeliveryViewCache::metrics);
+  }
+
+  /** Login counts, password verification latency and queue depth. */
+  @GetMapping(REPORT_PATH + "/login")
+  ResponseEntity<PasswordVerifier.LoginMetrics> loginReport(
+      @ModelAttribute(LoggedInAdvice.USER_ROLES) List<UserRole> userRoles) {
+    return report(userRoles, passwordVerifier::metrics);
+  }
+
+  /** Per endpoint, how many queries were saved by computing model attributes on demand. */
+  @GetMapping(REPORT_PATH + "/model-attributes")
+  ResponseEntity<List<ModelAttributeDemand.EndpointReport>> modelAttributeReport(
+      @ModelAttribute(LoggedInAdvice.USER_ROLES) List<UserRole> userRoles) {
+    return report(userRoles, modelAttributeDemand::report);
+  }
+
+  /** Request counts, errors & latency of outbound HTTP calls per destination host. */
+  @GetMapping(REPORT_PATH + "/outbound-http")
+  ResponseEntity<List<OutboundHttp.HostReport>> outboundHttpReport(
+      @ModelAttribute(LoggedInAdvice.USER_ROLES) List<UserRole> userRoles) {
+    return report(userRoles, OutboundHttp::metrics);
+  }
+
+  /** Pending, sent, retried and failed SMS messages of the SMS queue. */
+  @GetMapping(REPORT_PATH + "/sms-queue")
+  ResponseEntity<SmsDispatcher.SmsQueueMetrics> smsQueueReport(
+      @ModelAttribute(LoggedInAdvice.USER_ROLES) List<UserRole> userRoles) {
+    return report(userRoles, smsDispatcher::metrics);
+  }
+}
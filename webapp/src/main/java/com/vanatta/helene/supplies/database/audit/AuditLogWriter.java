@@ -0,0 +1,176 @@
+package com.vanatta.helene.supplies.database.audit;
+
+import com.vanatta.helene.supplies.database.JdbiConfiguration;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import lombok.Builder;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import org.jdbi.v3.core.Jdbi;
+import org.jdbi.v3.core.statement.PreparedBatch;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+
+/**
+ * Write-behind buffer for audit rows (login history, SMS send history). Callers append an insert
+ * and return right away; a background thread writes buffered rows in JDBI batches every {@link
+ * #FLUSH_INTERVAL_MS} or as soon as {@link #BATCH_SIZE} rows are waiting.
+ *
+ * <p>The buffer is bounded, when full new rows are dropped (and counted) rather than slowing down
+ * requests. If a batch fails to write its rows are written one at a time, so only rows that cannot
+ * be written (eg: a value that is too long) are dropped, they are logged and counted. On shutdown
+ * the buffer is drained.
+ */
+@Slf4j
+@Component
+public class AuditLogWriter {
+  static final long FLUSH_INTERVAL_MS = 250;
+  static final int BATCH_SIZE = 100;
+  static final int CAPACITY = 10_000;
+
+  private final Jdbi jdbi;
+  private final BlockingQueue<PendingInsert> buffer;
+  private final AtomicBoolean flushRequested = new AtomicBoolean();
+  private ScheduledExecutorService flusher;
+
+  private final LongAdder written = new LongAdder();
+  private final LongAdder dropped = new LongAdder();
+  private final LongAdder flushes = new LongAdder();
+  private final LongAdder failedFlushes = new LongAdder();
+  private final LongAdder failedRows = new LongAdder();
+
+  /** An insert statement with named parameters. */
+  public record PendingInsert(String sql, Map<String, Object> params) {}
+
+  @Value
+  @Builder
+  public static class AuditLogMetrics {
+    int buffered;
+    long written;
+    long dropped;
+    long flushes;
+    long failedFlushes;
+    long failedRows;
+  }
+
+  @Autowired
+  public AuditLogWriter(@Qualifier(JdbiConfiguration.BACKGROUND) Jdbi jdbi) {
+    this(jdbi, CAPACITY);
+  }
+
+  // @VisibleForTesting
+  AuditLogWriter(Jdbi jdbi, int capacity) {
+    this.jdbi = jdbi;
+    this.buffer = new LinkedBlockingQueue<>(capacity);
+  }
+
+  /**
+   * Starts the background flush. Instances created outside of Spring (tests) are not started and
+   * are written only when {@link #flush()} is called.
+   */
+  @PostConstruct
+  void start() {
+    flusher =
+        Executors.newSingleThreadScheduledExecutor(
+            runnable -> {
+              Thread thread = new Thread(runnable, "audit-log-writer");
+              thread.setDaemon(true);
+              return thread;
+            });
+    flusher.scheduleWithFixedDelay(
+        this::flush, FLUSH_INTERVAL_MS, FLUSH_INTERVAL_MS, TimeUnit.MILLISECONDS);
+  }
+
+  /** Buffers an insert, returns false if the buffer is full and the row was dropped. */
+  public boolean append(String sql, Map<String, Object> params) {
+    if (!buffer.offer(new PendingInsert(sql, params))) {
+      dropped.increment();
+      if (dropped.sum() % 1000 == 1) {
+        log.warn("Audit log buffer is full, rows are being dropped. Dropped: {}", dropped.sum());
+      }
+      return false;
+    }
+    if (flusher != null
+        && buffer.size() >= BATCH_SIZE
+        && flushRequested.compareAndSet(false, true)) {
+      flusher.execute(this::flush);
+    }
+    return true;
+  }
+
+  /** Writes all buffered rows. */
+  public synchronized void flush() {
+    flushRequested.set(false);
+    List<PendingInsert> batch = new ArrayList<>(BATCH_SIZE);
+    while (buffer.drainTo(batch, BATCH_SIZE) > 0) {
+      write(batch);
+      batch.clear();
+    }
+  }
+
+  private void write(List<PendingInsert> rows) {
+    // group rows by statement, keeping the order statements were first seen
+    Map<String, List<Map<String, Object>>> bySql = new LinkedHashMap<>();
+    rows.forEach(row -> bySql.computeIfAbsent(row.sql, _ -> new ArrayList<>()).add(row.params));
+
+    flushes.increment();
+    try {
+      jdbi.useTransaction(
+          handle ->
+              bySql.forEach(
+                  (sql, paramsList) -> {
+                    PreparedBatch preparedBatch = handle.prepareBatch(sql);
+                    paramsList.forEach(params -> preparedBatch.bindMap(params).add());
+                    preparedBatch.execute();
+                  }));
+      written.add(rows.size());
+    } catch (Exception e) {
+      failedFlushes.increment();
+      log.warn("Failed to write {} audit log rows, writing them one at a time", rows.size(), e);
+      rows.forEach(this::writeRow);
+    }
+  }
+
+  private void writeRow(PendingInsert row) {
+    try {
+      jdbi.useHandle(handle -> handle.createUpdate(row.sql).bindMap(row.params).execute());
+      written.increment();
+    } catch (Exception e) {
+      failedRows.increment();
+      log.error("Failed to write audit log row: {}, params: {}", row.sql, row.params, e);
+    }
+  }
+
+  public AuditLogMetrics metrics() {
+    return AuditLogMetrics.builder()
+        .buffered(buffer.size())
+        .written(written.sum())
+        .dropped(dropped.sum())
+        .flushes(flushes.sum())
+        .failedFlushes(failedFlushes.sum())
+        .failedRows(failedRows.sum())
+        .build();
+  }
+
+  @PreDestroy
+  void shutdown() throws InterruptedException {
+    if (flusher != null) {
+      flusher.shutdown();
+      flusher.awaitTermination(5, TimeUnit.SECONDS);
+    }
+    flush();
+    log.info("Audit log writer stopped, {}", metrics());
+  }
+}
@@ -1,6 +1,7 @@
 package com.vanatta.helene.supplies.database.auth;
 
 import com.vanatta.helene.supplies.database.browse.routes.BrowseRoutesController;
+import com.vanatta.helene.supplies.database.delivery.DeliveryBoardController;
 import com.vanatta.helene.supplies.database.util.CookieUtil;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
@@ -53,7 +54,8 @@ public class AuthInterceptor implements WebMvcConfigurer {
       if (requestUri.startsWith("/manage/")
           || requestUri.startsWith("/admin")
           || requestUri.startsWith("/driver")
-          || requestUri.startsWith(BrowseRoutesController.BROWSE_ROUTES_PATH)) {
+          || requestUri.startsWith(BrowseRoutesController.BROWSE_ROUTES_PATH)
+          || requestUri.startsWith(DeliveryBoardController.BOARD_PATH)) {
         String queryString = request.getQueryString();
         if (queryString != null) {
           requestUri += URLEncoder.encode("?" + queryString, StandardCharsets.UTF_8);
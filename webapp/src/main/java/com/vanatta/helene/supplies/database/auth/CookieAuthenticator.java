@@ -18,14 +18,20 @@ public class CookieAuthenticator {
   /** AuthKey value is cached. */
   @Getter private final String authKey;
 
-  private final Jdbi jdbi;
+  private final PrincipalCache principalCache;
   private final boolean allowUniversalLogin;
 
+  public CookieAuthenticator(Jdbi jdbi, boolean allowUniversalLogin) {
+    this(jdbi, allowUniversalLogin, new PrincipalCache(jdbi));
+  }
+
   @Autowired
   public CookieAuthenticator(
-      Jdbi jdbi, @Value("${allow.universal.login}") boolean allowUniversalLogin) {
+      Jdbi jdbi,
+      @Value("${allow.universal.login}") boolean allowUniversalLogin,
+      PrincipalCache principalCache) {
     authKey = LoginDao.getAuthKeyOrGenerateIt(jdbi);
-    this.jdbi = jdbi;
+    this.principalCache = principalCache;
     this.allowUniversalLogin = allowUniversalLogin;
   }
 
@@ -33,9 +39,7 @@ public class CookieAuthenticator {
     if (allowUniversalLogin && isAuthenticatedWithUniversalPassword(request)) {
       return true;
     }
-    return CookieUtil.readAuthCookie(request)
-        .map(auth -> LoginDao.isLoggedIn(jdbi, auth))
-        .orElse(false);
+    return CookieUtil.readAuthCookie(request).map(principalCache::isValid).orElse(false);
   }
 
   public boolean isAuthenticatedWithUniversalPassword(HttpServletRequest request) {
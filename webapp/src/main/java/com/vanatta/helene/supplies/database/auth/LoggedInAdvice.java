@@ -1,7 +1,9 @@
 package com.vanatta.helene.supplies.database.auth;
 
+import com.vanatta.helene.supplies.database.ModelAttributeDemand;
 import com.vanatta.helene.supplies.database.util.CookieUtil;
 import com.vanatta.helene.supplies.database.util.HashingUtil;
+import com.vanatta.helene.supplies.database.util.LazyCondition;
 import jakarta.servlet.http.HttpServletRequest;
 import java.util.ArrayList;
 import java.util.List;
@@ -11,6 +13,10 @@ import org.jdbi.v3.core.Jdbi;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ModelAttribute;
 
+/**
+ * Adds who is logged in to the model of every request. Values are only computed when used, see
+ * {@link ModelAttributeDemand}.
+ */
 @ControllerAdvice
 @AllArgsConstructor
 public class LoggedInAdvice {
@@ -21,32 +27,42 @@ public class LoggedInAdvice {
   public static final String LOGGED_IN = "loggedIn";
 
   private final CookieAuthenticator cookieAuthenticator;
-  private final Jdbi jdbi;
+  private final PrincipalCache principalCache;
+  private final ModelAttributeDemand modelAttributeDemand;
 
+  /** Read by the page header template, computed when the template reaches a 'loggedIn' section. */
   @ModelAttribute(LOGGED_IN)
-  public boolean loggedIn(HttpServletRequest request) {
-    return cookieAuthenticator.isAuthenticated(request)
-        || cookieAuthenticator.isAuthenticatedWithUniversalPassword(request);
+  public LazyCondition loggedIn(HttpServletRequest request) {
+    int queryCost = CookieUtil.readAuthCookie(request).isPresent() ? 1 : 0;
+    return new LazyCondition(
+        modelAttributeDemand.lazy(
+            request,
+            queryCost,
+            () ->
+                cookieAuthenticator.isAuthenticated(request)
+                    || cookieAuthenticator.isAuthenticatedWithUniversalPassword(request)));
   }
 
   @ModelAttribute(USER_PHONE)
   public String userPhone(HttpServletRequest request) {
     String auth = CookieUtil.readAuthCookie(request).orElse(null);
-    if (auth == null) {
+    if (auth == null || !modelAttributeDemand.isParameterOf(request, USER_PHONE, 1)) {
       return null;
     } else {
-      return fetchPhoneNumberFromAuth(jdbi, auth).orElse(null);
+      return principalCache.lookup(auth).map(PrincipalCache.Principal::getPhone).orElse(null);
     }
   }
 
   @ModelAttribute(USER_SITES)
-  public List<Long> userSites(
-      @ModelAttribute(USER_ROLES) List<UserRole> roles, HttpServletRequest request) {
+  public List<Long> userSites(HttpServletRequest request) {
     String auth = CookieUtil.readAuthCookie(request).orElse(null);
-    if (auth == null) {
+    if (auth == null || !modelAttributeDemand.isParameterOf(request, USER_SITES, 1)) {
       return List.of();
     } else {
-      return computeUserSites(jdbi, auth, roles);
+      return principalCache
+          .lookup(auth)
+          .map(PrincipalCache.Principal::getSiteIds)
+          .orElse(List.of());
     }
   }
 
@@ -55,50 +71,54 @@ public class LoggedInAdvice {
     if (number == null) {
       return List.of();
     } else {
-      if (UserRole.hasGodMode(roles)) {
-        // get list of all sites
-        return jdbi
-            .withHandle(h -> h.createQuery("select id from site").mapTo(Long.class).list())
-            .stream()
-            .sorted()
-            .toList();
-      } else {
-        // get list of sites that user is primary or secondary
-        return jdbi
-            .withHandle(
-                h ->
-                    h.createQuery(
-                            """
+      return computeUserSitesForPhone(jdbi, number, roles);
+    }
+  }
+
+  static List<Long> computeUserSitesForPhone(Jdbi jdbi, String number, List<UserRole> roles) {
+    if (UserRole.hasGodMode(roles)) {
+      // get list of all sites
+      return jdbi
+          .withHandle(h -> h.createQuery("select id from site").mapTo(Long.class).list())
+          .stream()
+          .sorted()
+          .toList();
+    } else {
+      // get list of sites that user is primary or secondary
+      return jdbi
+          .withHandle(
+              h ->
+                  h.createQuery(
+                          """
                                 select id siteId
                                 from site
-                                where regexp_replace(contact_number, '[^0-9]+', '', 'g') = :number
+                                where contact_number_digits = :number
                                 union
                                 select id siteId
                                 from site
-                                where regexp_replace(og_contact_number, '[^0-9]+', '', 'g') = :number
+                                where og_contact_number_digits = :number
                                 union
                                 select site_id siteId
                                 from additional_site_manager
-                                where regexp_replace(phone, '[^0-9]+', '', 'g') = :number;
+                                where phone_digits = :number;
                                 """)
-                        .bind("number", number)
-                        .mapTo(Long.class)
-                        .list())
-            .stream()
-            .sorted()
-            .distinct()
-            .toList();
-      }
+                      .bind("number", number)
+                      .mapTo(Long.class)
+                      .list())
+          .stream()
+          .sorted()
+          .distinct()
+          .toList();
     }
   }
 
   @ModelAttribute(LoggedInAdvice.USER_ROLES)
   public List<UserRole> userRoles(HttpServletRequest request) {
     String auth = CookieUtil.readAuthCookie(request).orElse(null);
-    if (auth == null) {
+    if (auth == null || !modelAttributeDemand.isParameterOf(request, USER_ROLES, 1)) {
       return List.of();
     } else {
-      return computeUserRoles(jdbi, auth);
+      return principalCache.lookup(auth).map(PrincipalCache.Principal::getRoles).orElse(List.of());
     }
   }
 
@@ -107,7 +127,10 @@ public class LoggedInAdvice {
     if (userPhone == null) {
       return List.of();
     }
+    return computeUserRolesForPhone(jdbi, userPhone);
+  }
 
+  static List<UserRole> computeUserRolesForPhone(Jdbi jdbi, String userPhone) {
     List<UserRole> userRoles = new ArrayList<>();
     userRoles.add(UserRole.AUTHORIZED);
 
@@ -148,7 +171,7 @@ public class LoggedInAdvice {
                 h ->
                     h.createQuery(
                             """
-                            select 1 from driver where regexp_replace(phone, '[^0-9]+', '', 'g') = :phone
+                            select 1 from driver where phone_digits = :phone
                           """)
                         .bind("phone", userPhone)
                         .mapTo(Long.class)
@@ -164,11 +187,11 @@ public class LoggedInAdvice {
                 h ->
                     h.createQuery(
                             """
-                          select 1 from site where regexp_replace(contact_number, '[^0-9]+', '', 'g')  = :phone
+                          select 1 from site where contact_number_digits = :phone
                           union
-                          select 1 from site where regexp_replace(og_contact_number, '[^0-9]+', '', 'g')  = :phone
+                          select 1 from site where og_contact_number_digits = :phone
                           union
-                          select 1 from additional_site_manager where regexp_replace(phone, '[^0-9]+', '', 'g') = :phone
+                          select 1 from additional_site_manager where phone_digits = :phone
                         """)
                         .bind("phone", userPhone)
                         .mapTo(Long.class)
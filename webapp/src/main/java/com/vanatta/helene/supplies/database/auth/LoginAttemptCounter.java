@@ -0,0 +1,60 @@
+package com.vanatta.helene.supplies.database.auth;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Counts failed login attempts per key (eg: phone number or IP address) in fixed time windows. Once
+ * a key reaches the max number of failures, it is blocked until its window ends.
+ */
+class LoginAttemptCounter {
+  private final int maxFailures;
+  private final Duration window;
+  private final Clock clock;
+  private final Map<String, Window> windows = new ConcurrentHashMap<>();
+
+  private record Window(Instant end, int failures) {}
+
+  LoginAttemptCounter(int maxFailures, Duration window, Clock clock) {
+    this.maxFailures = maxFailures;
+    this.window = window;
+    this.clock = clock;
+  }
+
+  /** Returns how many seconds until the key may try again, zero if the key is not blocked. */
+  long secondsBlocked(String key) {
+    Window current = windows.get(key);
+    Instant now = clock.instant();
+    if (current == null || !current.end.isAfter(now) || current.failures < maxFailures) {
+      return 0;
+    }
+    return Math.max(1, Duration.between(now, current.end).toSeconds());
+  }
+
+  void recordFailure(String key) {
+    Instant now = clock.instant();
+    windows.compute(
+        key,
+        (_, current) ->
+            current == null || !current.end.isAfter(now)
+                ? new Window(now.plus(window), 1)
+                : new Window(current.end, current.failures + 1));
+  }
+
+  void reset(String key) {
+    windows.remove(key);
+  }
+
+  /** Drops windows that have ended, keeps memory use bounded to recently active keys. */
+  void removeExpired() {
+    Instant now = clock.instant();
+    windows.values().removeIf(w -> !w.end.isAfter(now));
+  }
+
+  int size() {
+    return windows.size();
+  }
+}
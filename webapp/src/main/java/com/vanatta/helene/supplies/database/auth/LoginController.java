@@ -1,7 +1,9 @@
 package com.vanatta.helene.supplies.database.auth;
 
+import com.vanatta.helene.supplies.database.audit.AuditLogWriter;
 import com.vanatta.helene.supplies.database.auth.setup.password.send.access.code.SendAccessTokenDao;
 import com.vanatta.helene.supplies.database.util.CookieUtil;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import java.util.HashMap;
 import java.util.List;
@@ -10,6 +12,8 @@ import java.util.Optional;
 import lombok.extern.slf4j.Slf4j;
 import org.jdbi.v3.core.Jdbi;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.stereotype.Controller;
 import org.springframework.util.MultiValueMap;
@@ -26,13 +30,22 @@ public class LoginController {
   private final String universalUser;
   private final String universalPassword;
   private final boolean allowUniversalLogin;
+  private final PasswordVerifier passwordVerifier;
+  private final SessionTokens sessionTokens;
+  private final AuditLogWriter auditLog;
 
   LoginController(
       Jdbi jdbi,
       @Value("${auth.user}") String user,
       @Value("${auth.pass}") String pass,
-      @Value("${allow.universal.login}") boolean allowUniversalLogin) {
+      @Value("${allow.universal.login}") boolean allowUniversalLogin,
+      PasswordVerifier passwordVerifier,
+      SessionTokens sessionTokens,
+      AuditLogWriter auditLog) {
     this.jdbi = jdbi;
+    this.passwordVerifier = passwordVerifier;
+    this.sessionTokens = sessionTokens;
+    this.auditLog = auditLog;
     this.universalUser = user;
     this.universalPassword = pass;
     this.allowUniversalLogin = allowUniversalLogin;
@@ -56,7 +69,9 @@ public class LoginController {
       path = "/doLogin",
       consumes = {MediaType.APPLICATION_FORM_URLENCODED_VALUE})
   public ModelAndView doLogin(
-      @RequestParam MultiValueMap<String, String> params, HttpServletResponse response) {
+      @RequestParam MultiValueMap<String, String> params,
+      HttpServletRequest request,
+      HttpServletResponse response) {
     String user = params.get("user").getFirst();
     String password = params.get("password").getFirst();
     String redirectUri =
@@ -67,16 +82,37 @@ public class LoginController {
       pageParams.put("redirectUri", redirectUri);
       pageParams.put("errorMessage", "Invalid Login");
       return new ModelAndView("login/login", pageParams);
-    } else if (PasswordDao.confirmPassword(jdbi, user, password)) {
-      LoginDao.recordLoginSuccess(jdbi, user);
-      String authToken = LoginDao.generateAuthToken(jdbi, user);
+    }
+
+    String clientIp = PasswordVerifier.clientIp(request);
+    PasswordVerifier.Verification verification = passwordVerifier.verify(user, password, clientIp);
+    if (verification.isRejected()) {
+      response.setHeader(
+          HttpHeaders.RETRY_AFTER, String.valueOf(verification.getRetryAfterSeconds()));
+      Map<String, String> pageParams = new HashMap<>();
+      pageParams.put("redirectUri", redirectUri);
+      pageParams.put(
+          "errorMessage",
+          String.format(
+              "Too many login attempts, please try again in %s seconds",
+              verification.getRetryAfterSeconds()));
+      ModelAndView modelAndView = new ModelAndView("login/login", pageParams);
+      modelAndView.setStatus(HttpStatus.TOO_MANY_REQUESTS);
+      return modelAndView;
+    } else if (verification.getOutcome() == PasswordVerifier.Outcome.VALID) {
+      LoginDao.recordLoginSuccess(auditLog, user);
+      String authToken =
+          sessionTokens.isEnabled()
+              ? sessionTokens.issue(user)
+              : LoginDao.generateAuthToken(jdbi, user);
       CookieUtil.setCookie(response, "auth", authToken);
       CookieUtil.setCookie(response, "user", user);
       return new ModelAndView("redirect:" + redirectUri);
     } else if (universalUser.equalsIgnoreCase(user.trim())
         && universalPassword.equalsIgnoreCase(password.trim())) {
       if (allowUniversalLogin) {
-        LoginDao.recordLoginSuccess(jdbi, user);
+        passwordVerifier.recordSuccess(user);
+        LoginDao.recordLoginSuccess(auditLog, user);
         String authToken = LoginDao.getAuthKeyOrGenerateIt(jdbi);
         CookieUtil.setCookie(response, "auth", authToken);
         return new ModelAndView("redirect:" + redirectUri);
@@ -87,7 +123,7 @@ public class LoginController {
         && SendAccessTokenDao.isPhoneNumberRegistered(jdbi, user)) {
       return new ModelAndView("redirect:/login/setup-password");
     } else {
-      LoginDao.recordLoginFailure(jdbi, user);
+      LoginDao.recordLoginFailure(auditLog, user);
       log.info("User login failed: {}", user);
       Map<String, String> pageParams = new HashMap<>();
       pageParams.put("redirectUri", redirectUri);
@@ -1,32 +1,35 @@
 package com.vanatta.helene.supplies.database.auth;
 
+import com.vanatta.helene.supplies.database.audit.AuditLogWriter;
 import com.vanatta.helene.supplies.database.util.HashingUtil;
 import com.vanatta.helene.supplies.database.util.PhoneNumberUtil;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.UUID;
 import org.jdbi.v3.core.Jdbi;
 
 public class LoginDao {
 
-  public static void recordLoginSuccess(Jdbi jdbi, String phoneNumber) {
-    String insert =
-        """
-        insert into login_history(phone_number, result) values
-        (:phoneNumber, true);
-        """;
+  private static final String INSERT_LOGIN_HISTORY =
+      """
+      insert into login_history(phone_number, result) values
+      (:phoneNumber, :result);
+      """;
 
-    jdbi.withHandle(
-        handle -> handle.createUpdate(insert).bind("phoneNumber", phoneNumber).execute());
+  public static void recordLoginSuccess(AuditLogWriter auditLog, String phoneNumber) {
+    recordLogin(auditLog, phoneNumber, true);
   }
 
-  public static void recordLoginFailure(Jdbi jdbi, String phoneNumber) {
-    String insert =
-        """
-        insert into login_history(phone_number, result) values
-        (:phoneNumber, false);
-        """;
+  public static void recordLoginFailure(AuditLogWriter auditLog, String phoneNumber) {
+    recordLogin(auditLog, phoneNumber, false);
+  }
 
-    jdbi.withHandle(
-        handle -> handle.createUpdate(insert).bind("phoneNumber", phoneNumber).execute());
+  /** Login history is written in the background, see {@link AuditLogWriter}. */
+  private static void recordLogin(AuditLogWriter auditLog, String phoneNumber, boolean result) {
+    Map<String, Object> params = new HashMap<>();
+    params.put("phoneNumber", phoneNumber);
+    params.put("result", result);
+    auditLog.append(INSERT_LOGIN_HISTORY, params);
   }
 
   public static String generateAuthToken(Jdbi jdbi, String user) {
@@ -0,0 +1,254 @@
+package com.vanatta.helene.supplies.database.auth;
+
+import com.vanatta.helene.supplies.database.util.PhoneNumberUtil;
+import jakarta.annotation.PreDestroy;
+import jakarta.servlet.http.HttpServletRequest;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import lombok.Builder;
+import lombok.extern.slf4j.Slf4j;
+import org.jdbi.v3.core.Jdbi;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Verifies login passwords on a small dedicated thread pool. Bcrypt is deliberately CPU heavy, on a
+ * single core host a burst of logins (or a password guessing bot) running bcrypt on request threads
+ * would starve every other request.
+ *
+ * <ul>
+ *   <li>The pool has a bounded queue, when full, logins are rejected right away with a retry hint.
+ *   <li>Failed attempts are counted per phone number and per IP address. Once either reaches its
+ *       limit, further attempts are rejected without checking the password until the window ends.
+ * </ul>
+ */
+@Slf4j
+@Component
+public class PasswordVerifier {
+  static final Duration ATTEMPT_WINDOW = Duration.ofMinutes(15);
+  static final Duration MAX_WAIT = Duration.ofSeconds(10);
+
+  /** Retry hint given when the verification queue is full. */
+  static final long BUSY_RETRY_SECONDS = 5;
+
+  private static final int CLEANUP_INTERVAL_MS = 5 * 60 * 1000;
+
+  /** Checks a phone number & password, returns true if valid. */
+  @FunctionalInterface
+  interface PasswordCheck {
+    boolean confirm(String phoneNumber, String password);
+  }
+
+  enum Outcome {
+    VALID,
+    INVALID,
+    /** Verification queue is full. */
+    BUSY,
+    /** Phone number or IP address has too many recent failed attempts. */
+    TOO_MANY_ATTEMPTS,
+  }
+
+  @lombok.Value
+  @Builder
+  static class Verification {
+    Outcome outcome;
+
+    /** For rejected logins, how long the client should wait before trying again. */
+    long retryAfterSeconds;
+
+    boolean isRejected() {
+      return outcome == Outcome.BUSY || outcome == Outcome.TOO_MANY_ATTEMPTS;
+    }
+  }
+
+  @lombok.Value
+  @Builder
+  public static class LoginMetrics {
+    long valid;
+    long invalid;
+    long rejectedBusy;
+    long rejectedTooManyAttempts;
+    int queueDepth;
+    int activeVerifications;
+    long verifications;
+    double averageLatencyMs;
+    long maxLatencyMs;
+  }
+
+  private final PasswordCheck passwordCheck;
+  private final ThreadPoolExecutor executor;
+  private final LoginAttemptCounter phoneAttempts;
+  private final LoginAttemptCounter ipAttempts;
+
+  private final LongAdder valid = new LongAdder();
+  private final LongAdder invalid = new LongAdder();
+  private final LongAdder rejectedBusy = new LongAdder();
+  private final LongAdder rejectedTooManyAttempts = new LongAdder();
+  private final LongAdder verifications = new LongAdder();
+  private final LongAdder totalLatencyMs = new LongAdder();
+  private final LongAccumulator maxLatencyMs = new LongAccumulator(Math::max, 0);
+
+  @Autowired
+  PasswordVerifier(
+      Jdbi jdbi,
+      @Value("${login.bcrypt.threads}") int threads,
+      @Value("${login.bcrypt.queue.size}") int queueSize,
+      @Value("${login.max.failures.per.phone}") int maxFailuresPerPhone,
+      @Value("${login.max.failures.per.ip}") int maxFailuresPerIp) {
+    this(
+        (phone, password) -> PasswordDao.confirmPassword(jdbi, phone, password),
+        threads,
+        queueSize,
+        maxFailuresPerPhone,
+        maxFailuresPerIp,
+        Clock.systemUTC());
+  }
+
+  // @VisibleForTesting
+  PasswordVerifier(
+      PasswordCheck passwordCheck,
+      int threads,
+      int queueSize,
+      int maxFailuresPerPhone,
+      int maxFailuresPerIp,
+      Clock clock) {
+    this.passwordCheck = passwordCheck;
+    AtomicInteger threadCount = new AtomicInteger();
+    this.executor =
+        new ThreadPoolExecutor(
+            threads,
+            threads,
+            0,
+            TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueSize),
+            runnable -> {
+              Thread thread = new Thread(runnable, "bcrypt-" + threadCount.incrementAndGet());
+              thread.setDaemon(true);
+              return thread;
+            },
+            new ThreadPoolExecutor.AbortPolicy());
+    this.phoneAttempts = new LoginAttemptCounter(maxFailuresPerPhone, ATTEMPT_WINDOW, clock);
+    this.ipAttempts = new LoginAttemptCounter(maxFailuresPerIp, ATTEMPT_WINDOW, clock);
+  }
+
+  Verification verify(String phoneNumber, String password, String clientIp) {
+    String phone = PhoneNumberUtil.removeNonNumeric(phoneNumber);
+    long blockedSeconds =
+        Math.max(phoneAttempts.secondsBlocked(phone), ipAttempts.secondsBlocked(clientIp));
+    if (blockedSeconds > 0) {
+      rejectedTooManyAttempts.increment();
+      log.warn("Login rejected, too many attempts. Phone: {}, IP: {}", phoneNumber, clientIp);
+      return Verification.builder()
+          .outcome(Outcome.TOO_MANY_ATTEMPTS)
+          .retryAfterSeconds(blockedSeconds)
+          .build();
+    }
+
+    long start = System.nanoTime();
+    final Future<Boolean> result;
+    try {
+      result = executor.submit(() -> passwordCheck.confirm(phoneNumber, password));
+    } catch (RejectedExecutionException e) {
+      return busy(phoneNumber);
+    }
+
+    final boolean isValid;
+    try {
+      isValid = result.get(MAX_WAIT.toMillis(), TimeUnit.MILLISECONDS);
+    } catch (TimeoutException e) {
+      result.cancel(true);
+      return busy(phoneNumber);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return busy(phoneNumber);
+    } catch (ExecutionException e) {
+      throw new RuntimeException("Error verifying password for: " + phoneNumber, e.getCause());
+    }
+
+    long latencyMs = Duration.ofNanos(System.nanoTime() - start).toMillis();
+    verifications.increment();
+    totalLatencyMs.add(latencyMs);
+    maxLatencyMs.accumulate(latencyMs);
+
+    if (isValid) {
+      valid.increment();
+      recordSuccess(phoneNumber);
+      return Verification.builder().outcome(Outcome.VALID).build();
+    } else {
+      invalid.increment();
+      phoneAttempts.recordFailure(phone);
+      ipAttempts.recordFailure(clientIp);
+      return Verification.builder().outcome(Outcome.INVALID).build();
+    }
+  }
+
+  private Verification busy(String phoneNumber) {
+    rejectedBusy.increment();
+    log.warn("Login rejected, password verification queue is full. Phone: {}", phoneNumber);
+    return Verification.builder()
+        .outcome(Outcome.BUSY)
+        .retryAfterSeconds(BUSY_RETRY_SECONDS)
+        .build();
+  }
+
+  /**
+   * Clears the failed attempt count of a phone number after a successful login. The count of the
+   * client IP is left to expire, otherwise logging into one valid account between guesses would let
+   * an IP try passwords of other phone numbers without limit.
+   */
+  void recordSuccess(String phoneNumber) {
+    phoneAttempts.reset(PhoneNumberUtil.removeNonNumeric(phoneNumber));
+  }
+
+  @Scheduled(fixedDelay = CLEANUP_INTERVAL_MS)
+  void removeExpiredAttempts() {
+    phoneAttempts.removeExpired();
+    ipAttempts.removeExpired();
+  }
+
+  public LoginMetrics metrics() {
+    long count = verifications.sum();
+    return LoginMetrics.builder()
+        .valid(valid.sum())
+        .invalid(invalid.sum())
+        .rejectedBusy(rejectedBusy.sum())
+        .rejectedTooManyAttempts(rejectedTooManyAttempts.sum())
+        .queueDepth(executor.getQueue().size())
+        .activeVerifications(executor.getActiveCount())
+        .verifications(count)
+        .averageLatencyMs(count == 0 ? 0 : (double) totalLatencyMs.sum() / count)
+        .maxLatencyMs(maxLatencyMs.get())
+        .build();
+  }
+
+  @PreDestroy
+  void shutdown() {
+    executor.shutdownNow();
+  }
+
+  /**
+   * Returns the IP address of the client. The app runs behind an nginx reverse proxy, nginx appends
+   * the client address as the last entry of 'X-Forwarded-For' (earlier entries can be set by the
+   * client and are not trusted).
+   */
+  static String clientIp(HttpServletRequest request) {
+    String forwardedFor = request.getHeader("X-Forwarded-For");
+    if (forwardedFor != null && !forwardedFor.isBlank()) {
+      String[] addresses = forwardedFor.split(",");
+      return addresses[addresses.length - 1].trim();
+    }
+    return request.getRemoteAddr();
+  }
+}
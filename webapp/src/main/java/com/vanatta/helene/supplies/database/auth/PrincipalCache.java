@@ -0,0 +1,185 @@
+package com.vanatta.helene.supplies.database.auth;
+
+import com.vanatta.helene.supplies.database.util.HashingUtil;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import org.jdbi.v3.core.Jdbi;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Caches who is logged in, keyed by the hash of their auth token. Holds the users phone number,
+ * roles and the sites they manage, so that a logged in page view does not need to query any of that
+ * from the database.
+ *
+ * <p>Entries expire after a short TTL. Anything that changes roles or site managers (white list
+ * webhook, site contact edits, driver upserts) should call {@link #invalidateAll()} so the change
+ * is picked up on the next request.
+ *
+ * <p>Signed session tokens (see {@link SessionTokens}) are checked for signature, expiry and
+ * revocation on every lookup, before the cache is consulted.
+ */
+@Slf4j
+@Component
+public class PrincipalCache {
+  static final Duration TTL = Duration.ofMinutes(1);
+
+  /** Max number of cached logins, when exceeded the cache is cleared. */
+  static final int MAX_ENTRIES = 10_000;
+
+  private final Jdbi jdbi;
+  private final SessionTokens sessionTokens;
+  private final Clock clock;
+  private final Map<String, CachedPrincipal> cache = new ConcurrentHashMap<>();
+
+  private record CachedPrincipal(Principal principal, Instant expiry) {}
+
+  /** The logged in user behind an auth token. */
+  @Value
+  @Builder
+  public static class Principal {
+    /** Null if the user has been removed, a removed user is logged in but has no roles. */
+    String phone;
+
+    List<UserRole> roles;
+    List<Long> siteIds;
+  }
+
+  public PrincipalCache(Jdbi jdbi) {
+    this(jdbi, new SessionTokens(jdbi, ""));
+  }
+
+  @Autowired
+  public PrincipalCache(Jdbi jdbi, SessionTokens sessionTokens) {
+    this(jdbi, sessionTokens, Clock.systemUTC());
+  }
+
+  // @VisibleForTesting
+  PrincipalCache(Jdbi jdbi, Clock clock) {
+    this(jdbi, new SessionTokens(jdbi, "", clock), clock);
+  }
+
+  // @VisibleForTesting
+  PrincipalCache(Jdbi jdbi, SessionTokens sessionTokens, Clock clock) {
+    this.jdbi = jdbi;
+    this.sessionTokens = sessionTokens;
+    this.clock = clock;
+  }
+
+  /**
+   * Returns true if the auth token is valid. Signed tokens are checked in memory without loading
+   * the principal.
+   */
+  public boolean isValid(String authToken) {
+    return SessionTokens.isSignedToken(authToken)
+        ? sessionTokens.verify(authToken).isPresent()
+        : lookup(authToken).isPresent();
+  }
+
+  /** Returns empty if the auth token is not valid. */
+  public Optional<Principal> lookup(String authToken) {
+    String tokenHash = HashingUtil.sha256(authToken);
+    final Supplier<Optional<Principal>> loader;
+    if (SessionTokens.isSignedToken(authToken)) {
+      Optional<Long> userId = sessionTokens.verify(authToken);
+      if (userId.isEmpty()) {
+        return Optional.empty();
+      }
+      loader = () -> loadByUserId(userId.get());
+    } else {
+      loader = () -> loadByTokenHash(tokenHash);
+    }
+
+    Instant now = clock.instant();
+    CachedPrincipal cached = cache.get(tokenHash);
+    if (cached != null && cached.expiry.isAfter(now)) {
+      return Optional.of(cached.principal);
+    }
+
+    // invalid tokens are not cached, otherwise garbage cookie values could fill the cache.
+    Optional<Principal> principal = loader.get();
+    principal.ifPresent(
+        p -> {
+          if (cache.size() >= MAX_ENTRIES) {
+            log.warn("Principal cache is full, clearing it. Size: {}", cache.size());
+            cache.clear();
+          }
+          cache.put(tokenHash, new CachedPrincipal(p, now.plus(TTL)));
+        });
+    return principal;
+  }
+
+  /** Drops all cached logins, they are reloaded from the database on next use. */
+  public void invalidateAll() {
+    cache.clear();
+  }
+
+  @Data
+  @NoArgsConstructor
+  public static class AuthTokenResult {
+    String phone;
+    boolean removed;
+  }
+
+  private Optional<Principal> loadByTokenHash(String tokenHash) {
+    String query =
+        """
+        select
+          wu.phone,
+          coalesce(wu.removed, false) removed
+        from wss_user_auth_key wuak
+        left join wss_user wu on wuak.wss_user_id = wu.id
+        where wuak.token_sha256 = :hashedToken
+        """;
+    Optional<AuthTokenResult> result =
+        jdbi.withHandle(
+            h ->
+                h.createQuery(query)
+                    .bind("hashedToken", tokenHash)
+                    .mapToBean(AuthTokenResult.class)
+                    .findFirst());
+    return result.map(this::toPrincipal);
+  }
+
+  private Optional<Principal> loadByUserId(long userId) {
+    String query =
+        """
+        select
+          phone,
+          coalesce(removed, false) removed
+        from wss_user
+        where id = :userId
+        """;
+    return jdbi.withHandle(
+            h ->
+                h.createQuery(query)
+                    .bind("userId", userId)
+                    .mapToBean(AuthTokenResult.class)
+                    .findFirst())
+        .map(this::toPrincipal);
+  }
+
+  private Principal toPrincipal(AuthTokenResult result) {
+    String phone = result.isRemoved() ? null : result.getPhone();
+    if (phone == null) {
+      return Principal.builder().roles(List.of()).siteIds(List.of()).build();
+    }
+    List<UserRole> roles = LoggedInAdvice.computeUserRolesForPhone(jdbi, phone);
+    return Principal.builder()
+        .phone(phone)
+        .roles(roles)
+        .siteIds(LoggedInAdvice.computeUserSitesForPhone(jdbi, phone, roles))
+        .build();
+  }
+}
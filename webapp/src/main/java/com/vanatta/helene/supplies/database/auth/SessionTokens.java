@@ -0,0 +1,179 @@
+package com.vanatta.helene.supplies.database.auth;
+
+import com.vanatta.helene.supplies.database.util.HashingUtil;
+import com.vanatta.helene.supplies.database.util.PhoneNumberUtil;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.jdbi.v3.core.Jdbi;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Signed session tokens, these are verified in memory without looking up the token in the database.
+ *
+ * <p>Format: "v1.[user id].[epoch].[expiry epoch seconds].[hmac]". The epoch is a per user
+ * revocation counter (wss_user.session_epoch), bumping it revokes every token of that user. Epochs
+ * are cached for a short time, so a revocation done directly in the database (eg: password change)
+ * takes up to {@link #EPOCH_CACHE_TTL} to take effect. {@link #revoke(String)} takes effect right
+ * away.
+ *
+ * <p>Signed tokens are only issued when 'session.token.secret' is set. Opaque tokens (random UUIDs
+ * stored hashed in wss_user_auth_key) remain valid either way.
+ */
+@Slf4j
+@Component
+public class SessionTokens {
+  static final String PREFIX = "v1.";
+
+  /** Matches how long the auth cookie lives. */
+  static final Duration TOKEN_TTL = Duration.ofDays(14);
+
+  static final Duration EPOCH_CACHE_TTL = Duration.ofSeconds(30);
+
+  private final Jdbi jdbi;
+  private final String secret;
+  private final Clock clock;
+  private final Map<Long, CachedEpoch> epochs = new ConcurrentHashMap<>();
+
+  private record CachedEpoch(Integer epoch, Instant expiry) {}
+
+  @Autowired
+  public SessionTokens(Jdbi jdbi, @Value("${session.token.secret}") String secret) {
+    this(jdbi, secret, Clock.systemUTC());
+  }
+
+  // @VisibleForTesting
+  SessionTokens(Jdbi jdbi, String secret, Clock clock) {
+    this.jdbi = jdbi;
+    this.secret = secret == null ? "" : secret.trim();
+    this.clock = clock;
+    if (isEnabled() && this.secret.length() < 32) {
+      log.warn("Session token secret is short, use at least 32 characters");
+    }
+  }
+
+  /** True if signed tokens are issued at login. */
+  public boolean isEnabled() {
+    return !secret.isEmpty();
+  }
+
+  static boolean isSignedToken(String token) {
+    return token != null && token.startsWith(PREFIX);
+  }
+
+  @Data
+  @NoArgsConstructor
+  public static class UserEpoch {
+    long id;
+    int sessionEpoch;
+  }
+
+  /** Issues a signed token for a (registered) user. */
+  String issue(String phoneNumber) {
+    if (!isEnabled()) {
+      throw new IllegalStateException("Session token secret is not configured");
+    }
+    UserEpoch user =
+        jdbi.withHandle(
+            handle ->
+                handle
+                    .createQuery("select id, session_epoch from wss_user where phone = :phone")
+                    .bind("phone", PhoneNumberUtil.removeNonNumeric(phoneNumber))
+                    .mapToBean(UserEpoch.class)
+                    .one());
+    // refresh the cache, otherwise a recently revoked epoch would reject the new token
+    cacheEpoch(user.getId(), user.getSessionEpoch());
+
+    long expiry = clock.instant().plus(TOKEN_TTL).getEpochSecond();
+    String payload = PREFIX + user.getId() + "." + user.getSessionEpoch() + "." + expiry;
+    return payload + "." + HashingUtil.hmacSha256(secret, payload);
+  }
+
+  /** Returns the user id of a signed token, empty if the token is not valid. */
+  Optional<Long> verify(String token) {
+    if (!isEnabled() || !isSignedToken(token)) {
+      return Optional.empty();
+    }
+    String[] parts = token.substring(PREFIX.length()).split("\\.");
+    if (parts.length != 4) {
+      return Optional.empty();
+    }
+    String payload = token.substring(0, token.lastIndexOf('.'));
+    if (!MessageDigest.isEqual(
+        HashingUtil.hmacSha256(secret, payload).getBytes(StandardCharsets.UTF_8),
+        parts[3].getBytes(StandardCharsets.UTF_8))) {
+      return Optional.empty();
+    }
+
+    final long userId;
+    final int epoch;
+    final long expiry;
+    try {
+      userId = Long.parseLong(parts[0]);
+      epoch = Integer.parseInt(parts[1]);
+      expiry = Long.parseLong(parts[2]);
+    } catch (NumberFormatException e) {
+      return Optional.empty();
+    }
+
+    if (clock.instant().getEpochSecond() >= expiry) {
+      return Optional.empty();
+    }
+    Integer currentEpoch = currentEpoch(userId);
+    return currentEpoch != null && currentEpoch == epoch ? Optional.of(userId) : Optional.empty();
+  }
+
+  /** Revokes all signed tokens of a user. */
+  public void revoke(String phoneNumber) {
+    jdbi.withHandle(
+            handle ->
+                handle
+                    .createQuery(
+                        """
+                        update wss_user set session_epoch = session_epoch + 1
+                        where phone = :phone
+                        returning id, session_epoch
+                        """)
+                    .bind("phone", PhoneNumberUtil.removeNonNumeric(phoneNumber))
+                    .mapToBean(UserEpoch.class)
+                    .findOne())
+        .ifPresent(user -> cacheEpoch(user.getId(), user.getSessionEpoch()));
+  }
+
+  /** Returns null if the user does not exist. */
+  private Integer currentEpoch(long userId) {
+    Instant now = clock.instant();
+    CachedEpoch cached = epochs.get(userId);
+    if (cached != null && cached.expiry.isAfter(now)) {
+      return cached.epoch;
+    }
+    Integer epoch =
+        jdbi.withHandle(
+            handle ->
+                handle
+                    .createQuery("select session_epoch from wss_user where id = :id")
+                    .bind("id", userId)
+                    .mapTo(Integer.class)
+                    .findOne()
+                    .orElse(null));
+    cacheEpoch(userId, epoch);
+    return epoch;
+  }
+
+  private void cacheEpoch(long userId, Integer epoch) {
+    if (epochs.size() >= PrincipalCache.MAX_ENTRIES) {
+      epochs.clear();
+    }
+    epochs.put(userId, new CachedEpoch(epoch, clock.instant().plus(EPOCH_CACHE_TTL)));
+  }
+}
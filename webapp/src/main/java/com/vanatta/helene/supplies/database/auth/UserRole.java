@@ -10,7 +10,7 @@ public enum UserRole {
   DATA_ADMIN,
   ;
 
-  static boolean hasGodMode(List<UserRole> userRoles) {
+  public static boolean hasGodMode(List<UserRole> userRoles) {
     return userRoles.contains(DISPATCHER) || userRoles.contains(DATA_ADMIN);
   }
 
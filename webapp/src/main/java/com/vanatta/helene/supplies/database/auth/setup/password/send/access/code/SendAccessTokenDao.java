@@ -19,19 +19,19 @@ public class SendAccessTokenDao {
         """
         select 1
         from wss_user
-        where regexp_replace(phone, '[^0-9]+', '', 'g') = :phoneNumber
+        where phone_digits = :phoneNumber
         union
         select 1
         from site
-        where regexp_replace(contact_number, '[^0-9]+', '', 'g') = :phoneNumber
+        where contact_number_digits = :phoneNumber
         union
         select 1
         from additional_site_manager
-        where regexp_replace(phone, '[^0-9]+', '', 'g') = :phoneNumber
+        where phone_digits = :phoneNumber
         union
         select 1
         from driver
-        where regexp_replace(phone, '[^0-9]+', '', 'g') = :phoneNumber
+        where phone_digits = :phoneNumber
         """;
     return jdbi.withHandle(
         handle ->
@@ -9,6 +9,8 @@ class SetPasswordDao {
    * Updates the password for a user, bcrypts the password and stores it. We know the identify of a
    * user based on the validation token present in the 'sms_passcode' table.
    *
+   * <p>Signed session tokens of the user are revoked by bumping their session epoch.
+   *
    * @return true if the change password is successful
    */
   public static boolean updatePassword(Jdbi jdbi, String validationToken, String password) {
@@ -17,6 +19,7 @@ class SetPasswordDao {
         """
         update wss_user
          set password_bcrypt = :hashedPassword,
+             session_epoch = session_epoch + 1,
              last_updated = now()
         where id = (
           select wss_user_id from sms_passcode
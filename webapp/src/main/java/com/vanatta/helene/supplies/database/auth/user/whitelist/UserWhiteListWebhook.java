@@ -1,6 +1,9 @@
 package com.vanatta.helene.supplies.database.auth.user.whitelist;
 
 import com.google.gson.Gson;
+import com.vanatta.helene.supplies.database.JdbiConfiguration;
+import com.vanatta.helene.supplies.database.auth.PrincipalCache;
+import com.vanatta.helene.supplies.database.auth.SessionTokens;
 import com.vanatta.helene.supplies.database.auth.UserRole;
 import com.vanatta.helene.supplies.database.util.PhoneNumberUtil;
 import java.util.Arrays;
@@ -12,6 +15,7 @@ import lombok.Builder;
 import lombok.Value;
 import lombok.extern.slf4j.Slf4j;
 import org.jdbi.v3.core.Jdbi;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.PostMapping;
@@ -26,8 +30,12 @@ import org.springframework.web.bind.annotation.RequestBody;
 @Slf4j
 @AllArgsConstructor
 public class UserWhiteListWebhook {
+  @Qualifier(JdbiConfiguration.WEBHOOK)
   private final Jdbi jdbi;
 
+  private final PrincipalCache principalCache;
+  private final SessionTokens sessionTokens;
+
   @Builder(toBuilder = true)
   @Value
   public static class UserWhiteListRequest {
@@ -66,6 +74,7 @@ public class UserWhiteListWebhook {
     }
 
     updateUserAndRoles(jdbi, request);
+    principalCache.invalidateAll();
 
     return ResponseEntity.ok().build();
   }
@@ -125,6 +134,10 @@ public class UserWhiteListWebhook {
 
     updateUserAndRoles(
         jdbi, request.getRemoved() ? request.toBuilder().roles(List.of()).build() : request);
+    if (request.getRemoved()) {
+      sessionTokens.revoke(request.getPhoneNumber());
+    }
+    principalCache.invalidateAll();
     return ResponseEntity.ok().build();
   }
 }
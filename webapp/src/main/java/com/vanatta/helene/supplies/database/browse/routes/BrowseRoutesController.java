@@ -3,6 +3,7 @@ package com.vanatta.helene.supplies.database.browse.routes;
 import com.vanatta.helene.supplies.database.DeploymentAdvice;
 import com.vanatta.helene.supplies.database.auth.LoggedInAdvice;
 import com.vanatta.helene.supplies.database.auth.UserRole;
+import com.vanatta.helene.supplies.database.data.CountyAdjacency;
 import com.vanatta.helene.supplies.database.data.CountyDao;
 import com.vanatta.helene.supplies.database.supplies.filters.AuthenticatedMode;
 import com.vanatta.helene.supplies.database.util.HtmlSelectOptionsUtil;
@@ -32,10 +33,17 @@ import org.springframework.web.servlet.ModelAndView;
 public class BrowseRoutesController {
 
   private final Jdbi jdbi;
+  private final CountyAdjacency countyAdjacency;
   private final String mapsApiKey;
 
   static final int PAGE_SIZE = 5;
 
+  /**
+   * When a county is selected and there are fewer than a page of results, we widen the search to
+   * neighboring counties, up to this many hops away.
+   */
+  static final int NEARBY_COUNTY_MAX_HOPS = 2;
+
   public static final String BROWSE_ROUTES_PATH = "/browse/routes";
 
   enum TemplateParams {
@@ -54,11 +62,17 @@ public class BrowseRoutesController {
     isDriver,
     fromVolunteerDates,
     toVolunteerDates,
+    hasNearbyCounties,
+    nearbyCounties,
     ;
   }
 
-  BrowseRoutesController(Jdbi jdbi, @Value("${google.maps.api.key}") String mapsApiKey) {
+  BrowseRoutesController(
+      Jdbi jdbi,
+      CountyAdjacency countyAdjacency,
+      @Value("${google.maps.api.key}") String mapsApiKey) {
     this.jdbi = jdbi;
+    this.countyAdjacency = countyAdjacency;
     this.mapsApiKey = mapsApiKey;
   }
 
@@ -97,12 +111,28 @@ public class BrowseRoutesController {
             ? null
             : counties.stream().filter(c -> c.startsWith(county)).findAny().orElse(null);
 
+    List<CountyAdjacency.County> searchCounties =
+        currentCounty == null ? List.of() : List.of(CountyAdjacency.County.parse(currentCounty));
     List<DeliveryOption> deliveryOptions =
-        BrowseRoutesDao.findDeliveryOptions(jdbi, siteWssIdCleaned, currentCounty, stateList)
-            .stream()
-            .filter(RouteWeighting::filter)
-            .sorted(Comparator.comparingDouble(DeliveryOption::sortScore))
+        findDeliveryOptions(siteWssIdCleaned, searchCounties, stateList);
+
+    // if a single county has few results, widen the search to nearby counties
+    List<CountyAdjacency.County> expandedCounties = searchCounties;
+    for (int hops = 1;
+        !searchCounties.isEmpty()
+            && hops <= NEARBY_COUNTY_MAX_HOPS
+            && deliveryOptions.size() < PAGE_SIZE;
+        hops++) {
+      expandedCounties = countyAdjacency.expand(searchCounties, hops);
+      deliveryOptions = findDeliveryOptions(siteWssIdCleaned, expandedCounties, stateList);
+    }
+    List<String> nearbyCounties =
+        expandedCounties.stream()
+            .filter(c -> !searchCounties.contains(c))
+            .map(CountyAdjacency.County::toString)
             .toList();
+    templateParams.put(TemplateParams.hasNearbyCounties.name(), !nearbyCounties.isEmpty());
+    templateParams.put(TemplateParams.nearbyCounties.name(), String.join("; ", nearbyCounties));
     int pageCount = (int) Math.ceil(((double) deliveryOptions.size()) / PAGE_SIZE);
     page = Math.min(page, pageCount);
 
@@ -148,6 +178,15 @@ public class BrowseRoutesController {
     return new ModelAndView("browse/routes", templateParams);
   }
 
+  private List<DeliveryOption> findDeliveryOptions(
+      long siteWssId, List<CountyAdjacency.County> counties, List<String> stateList) {
+    return BrowseRoutesDao.findDeliveryOptionsInCounties(jdbi, siteWssId, counties, stateList)
+        .stream()
+        .filter(RouteWeighting::filter)
+        .sorted(Comparator.comparingDouble(DeliveryOption::sortScore))
+        .toList();
+  }
+
   @lombok.Value
   @Builder
   static class PageNumber {
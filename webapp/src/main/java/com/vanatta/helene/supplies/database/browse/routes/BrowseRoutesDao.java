@@ -1,7 +1,9 @@
 package com.vanatta.helene.supplies.database.browse.routes;
 
+import com.vanatta.helene.supplies.database.data.CountyAdjacency;
 import com.vanatta.helene.supplies.database.data.ItemStatus;
 import com.vanatta.helene.supplies.database.supplies.site.details.SiteDetailController;
+import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
@@ -117,58 +119,44 @@ public class BrowseRoutesDao {
   // site in NC, when state list is just NC)
   public static List<DeliveryOption> findDeliveryOptions(
       Jdbi jdbi, Long siteWssId, String currentCounty, List<String> stateList) {
-    String county =
+    List<CountyAdjacency.County> counties =
         (currentCounty != null && currentCounty.contains(","))
-            ? currentCounty.split(",")[0].trim()
-            : null;
-    String state =
-        (currentCounty != null && currentCounty.contains(","))
-            ? currentCounty.split(",")[1].trim()
-            : null;
-
-    final String whereFilter;
-    final Consumer<SqlStatement<?>> bindings;
+            ? List.of(CountyAdjacency.County.parse(currentCounty))
+            : List.of();
+    return findDeliveryOptionsInCounties(jdbi, siteWssId, counties, stateList);
+  }
 
-    if (siteWssId != null
-        && siteWssId != 0L
-        && (currentCounty == null || currentCounty.isBlank())) {
-      whereFilter = "and (toSite.wss_id = :siteWssId or fromSite.wss_id = :siteWssId)\n";
-      bindings = q -> q.bind("siteWssId", siteWssId);
-    } else if ((siteWssId == null || siteWssId == 0L)
-        && (currentCounty != null && !currentCounty.isBlank())) {
-      whereFilter =
-          """
-          and (
-              (toCounty.name = :county and toCounty.state = :state)
-              or (fromCounty.name = :county and fromCounty.state = :state)
-          )
-        """;
-      bindings =
-          q ->
-              q.bind("county", county) //
-                  .bind("state", state);
-    } else if (siteWssId != null
-        && siteWssId != 0L
-        && currentCounty != null
-        && !currentCounty.isBlank()) {
-      // both site && county selected
-      whereFilter =
-          """
-          and (toSite.wss_id = :siteWssId or fromSite.wss_id = :siteWssId)
-          and (
-              (toCounty.name = :county and toCounty.state = :state)
-              or (fromCounty.name = :county and fromCounty.state = :state)
-          )
-        """;
+  /**
+   * Finds delivery options, optionally filtered to a given site and to routes that start or end in
+   * any of a list of counties.
+   */
+  public static List<DeliveryOption> findDeliveryOptionsInCounties(
+      Jdbi jdbi, Long siteWssId, List<CountyAdjacency.County> counties, List<String> stateList) {
+    StringBuilder whereFilter = new StringBuilder();
+    List<Consumer<SqlStatement<?>>> bindings = new ArrayList<>();
 
-      bindings =
-          q ->
-              q.bind("siteWssId", siteWssId) //
-                  .bind("county", county)
-                  .bind("state", state);
-    } else {
-      whereFilter = "";
-      bindings = _ -> {};
+    if (siteWssId != null && siteWssId != 0L) {
+      whereFilter.append("and (toSite.wss_id = :siteWssId or fromSite.wss_id = :siteWssId)\n");
+      bindings.add(q -> q.bind("siteWssId", siteWssId));
+    }
+    if (!counties.isEmpty()) {
+      // build up a list of "or" matching of county + state pairs, each bind variable
+      // is suffixed with a counter so it is unique.
+      List<String> queryParts = new ArrayList<>();
+      for (int i = 0; i < counties.size(); i++) {
+        queryParts.add(
+            String.format(
+                "(toCounty.name = :county%s and toCounty.state = :state%s)\n"
+                    + "or (fromCounty.name = :county%s and fromCounty.state = :state%s)",
+                i, i, i, i));
+        var county = counties.get(i);
+        int index = i;
+        bindings.add(
+            q ->
+                q.bind("county" + index, county.getName()) //
+                    .bind("state" + index, county.getState()));
+      }
+      whereFilter.append("and (\n").append(String.join("\nor ", queryParts)).append("\n)\n");
     }
 
     String query =
@@ -179,9 +167,8 @@ public class BrowseRoutesDao {
             FROM site_item si
             JOIN item_status ist ON si.item_status_id = ist.id
             JOIN site s on s.id = si.site_id
-            JOIN county c on c.id = s.county_id
             WHERE ist.name IN ('Urgently Needed', 'Needed')
-              and c.state in (<stateList>)
+              and s.state in (<stateList>)
               and s.active = true
               and s.accepting_donations = true
         ),
@@ -190,11 +177,10 @@ public class BrowseRoutesDao {
             FROM site_item si
             JOIN item_status ist ON si.item_status_id = ist.id
             JOIN site s on s.id = si.site_id
-            JOIN county c on c.id = s.county_id
             JOIN site_type st on st.id = s.site_type_id
             WHERE
               s.active = true
-              and c.state in (<stateList>)
+              and s.state in (<stateList>)
               and (ist.name = 'Oversupply' or (st.name = 'Supply Hub' and ist.name in ('Available', 'Oversupply')))
         )
         SELECT
@@ -249,7 +235,7 @@ public class BrowseRoutesDao {
         jdbi.withHandle(
             handle -> {
               Query qb = handle.createQuery(query).bindList("stateList", stateList);
-              bindings.accept(qb);
+              bindings.forEach(binding -> binding.accept(qb));
               return qb.mapToBean(DeliveryOptionDbResult.class).list();
             });
 
@@ -263,9 +249,8 @@ public class BrowseRoutesDao {
                     """
                           select s.wss_id, s.name siteName
                           from site s
-                          join county c on c.id = s.county_id
                           where s.active = true
-                            and c.state in (<stateList>)
+                            and s.state in (<stateList>)
                           order by s.name;
                         """)
                 .bindList("stateList", stateList)
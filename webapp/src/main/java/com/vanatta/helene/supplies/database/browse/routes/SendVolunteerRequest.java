@@ -28,7 +28,7 @@ public class SendVolunteerRequest {
     if (!enabled) {
       log.info("Send to airtable disabled, would have sent: {}", json);
     } else {
-      HttpPostSender.sendAsJson(webhookUrl, json);
+      HttpPostSender.sendAsJsonAsync(webhookUrl, json);
     }
   }
 }
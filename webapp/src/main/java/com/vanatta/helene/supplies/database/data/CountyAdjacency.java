@@ -0,0 +1,175 @@
+package com.vanatta.helene.supplies.database.data;
+
+import de.siegmar.fastcsv.reader.CommentStrategy;
+import de.siegmar.fastcsv.reader.CsvReader;
+import de.siegmar.fastcsv.reader.CsvRecord;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+/**
+ * Graph of which counties border each other, loaded once at startup from 'county-adjacency.csv'.
+ * Used to widen searches to nearby counties when a single county has few results.
+ *
+ * <p>For every county, the counties 1 to MAX_HOPS away are precomputed, so lookups are a map get.
+ */
+@Slf4j
+@Component
+public class CountyAdjacency {
+  public static final int MAX_HOPS = 3;
+
+  private static final String DATA_FILE = "/county-adjacency.csv";
+
+  /**
+   * County -> list indexed by hop count, each entry is the set of counties exactly that many hops
+   * away. Index 0 is the county itself.
+   */
+  private final Map<County, List<List<County>>> rings;
+
+  @lombok.Value
+  public static class County {
+    String name;
+    String state;
+
+    /** Parses "county,state" (whitespace is ignored), eg: "Buncombe, NC" */
+    public static County parse(String countyAndState) {
+      String[] split = countyAndState.split(",");
+      if (split.length != 2) {
+        throw new IllegalArgumentException(
+            "County must be formatted as 'county,state', invalid value: " + countyAndState);
+      }
+      return new County(split[0].trim(), split[1].trim());
+    }
+
+    /** Returns county in the same format as CountyDao, eg: "Buncombe, NC" */
+    @Override
+    public String toString() {
+      return name + ", " + state;
+    }
+  }
+
+  public CountyAdjacency() {
+    this(openDataFile());
+  }
+
+  // @VisibleForTesting
+  CountyAdjacency(Reader input) {
+    Map<County, Set<County>> neighbors = parse(input);
+    rings = new HashMap<>();
+    neighbors.keySet().forEach(county -> rings.put(county, computeRings(county, neighbors)));
+    log.info("County adjacency loaded, counties: {}", rings.size());
+  }
+
+  // @VisibleForTesting
+  static CountyAdjacency fromString(String csv) {
+    return new CountyAdjacency(new StringReader(csv));
+  }
+
+  private static Reader openDataFile() {
+    var stream = CountyAdjacency.class.getResourceAsStream(DATA_FILE);
+    if (stream == null) {
+      throw new IllegalStateException("Missing data file: " + DATA_FILE);
+    }
+    return new InputStreamReader(stream, StandardCharsets.UTF_8);
+  }
+
+  private static Map<County, Set<County>> parse(Reader input) {
+    Map<County, Set<County>> neighbors = new HashMap<>();
+    try (CsvReader<CsvRecord> csv =
+        CsvReader.builder()
+            .commentStrategy(CommentStrategy.SKIP)
+            .commentCharacter('#')
+            .skipEmptyLines(true)
+            .ofCsvRecord(input)) {
+      for (CsvRecord record : csv) {
+        if (record.getFieldCount() != 4) {
+          throw new IllegalArgumentException(
+              "Invalid county adjacency data on line: " + record.getStartingLineNumber());
+        }
+        County county = new County(record.getField(0).trim(), record.getField(1).trim());
+        County neighbor = new County(record.getField(2).trim(), record.getField(3).trim());
+        neighbors.computeIfAbsent(county, _ -> new HashSet<>()).add(neighbor);
+        neighbors.computeIfAbsent(neighbor, _ -> new HashSet<>()).add(county);
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return neighbors;
+  }
+
+  /** Breadth first search out to MAX_HOPS. */
+  private static List<List<County>> computeRings(County start, Map<County, Set<County>> neighbors) {
+    List<List<County>> result = new ArrayList<>();
+    Set<County> visited = new HashSet<>();
+    visited.add(start);
+    List<County> current = List.of(start);
+    result.add(current);
+    for (int hop = 1; hop <= MAX_HOPS; hop++) {
+      List<County> next = new ArrayList<>();
+      for (County county : current) {
+        for (County neighbor : neighbors.getOrDefault(county, Set.of())) {
+          if (visited.add(neighbor)) {
+            next.add(neighbor);
+          }
+        }
+      }
+      next.sort((a, b) -> a.toString().compareTo(b.toString()));
+      result.add(List.copyOf(next));
+      current = next;
+    }
+    return List.copyOf(result);
+  }
+
+  /**
+   * Returns the given counties plus all counties within 'hops' of any of them. Results are ordered
+   * by hop distance, the given counties are first. Unknown counties are returned as-is (they just
+   * have no neighbors).
+   */
+  public List<County> expand(List<County> counties, int hops) {
+    if (hops < 0 || hops > MAX_HOPS) {
+      throw new IllegalArgumentException(
+          "Hops must be between 0 and " + MAX_HOPS + ", invalid value: " + hops);
+    }
+    Set<County> result = new LinkedHashSet<>(counties);
+    for (int hop = 1; hop <= hops; hop++) {
+      for (County county : counties) {
+        List<List<County>> countyRings = rings.get(county);
+        if (countyRings != null) {
+          result.addAll(countyRings.get(hop));
+        }
+      }
+    }
+    return List.copyOf(result);
+  }
+
+  /**
+   * Returns the number of hops between two counties, or -1 if they are more than MAX_HOPS apart.
+   */
+  public int hopDistance(County from, County to) {
+    if (from.equals(to)) {
+      return 0;
+    }
+    List<List<County>> countyRings = rings.get(from);
+    if (countyRings == null) {
+      return -1;
+    }
+    for (int hop = 1; hop <= MAX_HOPS; hop++) {
+      if (countyRings.get(hop).contains(to)) {
+        return hop;
+      }
+    }
+    return -1;
+  }
+}
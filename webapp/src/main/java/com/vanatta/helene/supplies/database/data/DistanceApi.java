@@ -0,0 +1,46 @@
+package com.vanatta.helene.supplies.database.data;
+
+import java.util.ArrayList;
+import java.util.List;
+import lombok.Builder;
+
+/**
+ * Computes drive distance and drive time between two addresses. Implementations are either backed
+ * by Google (online, paid) or by a local road network file (offline).
+ *
+ * <p>See DistanceApiConfiguration for how the implementation is selected.
+ */
+public interface DistanceApi {
+
+  DistanceResponse queryDistance(SiteAddress from, SiteAddress to);
+
+  /**
+   * Computes a full distance matrix, result is indexed by [origin][destination]. Default
+   * implementation queries each pair one at a time, implementations that can do better should
+   * override this.
+   */
+  default List<List<DistanceResponse>> queryDistanceMatrix(
+      List<SiteAddress> origins, List<SiteAddress> destinations) {
+    List<List<DistanceResponse>> results = new ArrayList<>();
+    for (SiteAddress origin : origins) {
+      List<DistanceResponse> row = new ArrayList<>();
+      for (SiteAddress destination : destinations) {
+        row.add(queryDistance(origin, destination));
+      }
+      results.add(row);
+    }
+    return results;
+  }
+
+  @Builder
+  @lombok.Value
+  class DistanceResponse {
+    /** Drive time in seconds. */
+    Long duration;
+
+    /** Drive distance in miles. */
+    Double distance;
+
+    boolean valid;
+  }
+}
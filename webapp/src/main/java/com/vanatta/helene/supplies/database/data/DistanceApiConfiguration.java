@@ -0,0 +1,38 @@
+package com.vanatta.helene.supplies.database.data;
+
+import com.vanatta.helene.supplies.database.data.routing.RoadGraph;
+import com.vanatta.helene.supplies.database.data.routing.RoadNetworkDistanceApi;
+import java.io.IOException;
+import java.nio.file.Path;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Selects the distance API implementation. 'google' (default) queries the Google distance matrix,
+ * 'road-network' computes distances offline from a local road network file.
+ */
+@Configuration
+@Slf4j
+public class DistanceApiConfiguration {
+
+  @Bean
+  public DistanceApi distanceApi(
+      @Value("${distance.api.provider}") String provider,
+      @Value("${google.maps.api.key}") String googleApiKey,
+      @Value("${road.network.file}") String roadNetworkFile)
+      throws IOException {
+    return switch (provider.trim().toLowerCase()) {
+      case "google" -> new GoogleDistanceApi(googleApiKey);
+      case "road-network" -> {
+        if (roadNetworkFile.isBlank()) {
+          throw new IllegalStateException(
+              "Distance API provider is 'road-network' but no road network file is set");
+        }
+        yield new RoadNetworkDistanceApi(RoadGraph.load(Path.of(roadNetworkFile)));
+      }
+      default -> throw new IllegalStateException("Unknown distance API provider: " + provider);
+    };
+  }
+}
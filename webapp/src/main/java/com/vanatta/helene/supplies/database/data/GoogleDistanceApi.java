@@ -1,21 +1,11 @@
 package com.vanatta.helene.supplies.database.data;
 
-import com.vanatta.helene.supplies.database.delivery.Delivery;
-import com.vanatta.helene.supplies.database.util.DateTimeFormat;
 import com.vanatta.helene.supplies.database.util.HttpGetSender;
-import java.time.LocalDateTime;
-import java.time.ZoneId;
 import java.util.Map;
-import java.util.function.Supplier;
-import lombok.Builder;
-import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.stereotype.Component;
 
-@Component
-public class GoogleDistanceApi {
+/** Online distance API, queries the Google distance matrix for drive time & distance. */
+public class GoogleDistanceApi implements DistanceApi {
   private final String apiKey;
-  private final Supplier<LocalDateTime> timeSupplier;
 
   private static final String googleMapsApiUrl =
       "https://maps.googleapis.com/maps/api/distancematrix/json";
@@ -24,26 +14,18 @@ public class GoogleDistanceApi {
   public static GoogleDistanceApi stubbed() {
     return new GoogleDistanceApi("") {
       @Override
-      public GoogleDistanceResponse queryDistance(SiteAddress from, SiteAddress to) {
-        return GoogleDistanceResponse.builder().distance(20.0).duration(320L).build();
+      public DistanceResponse queryDistance(SiteAddress from, SiteAddress to) {
+        return DistanceResponse.builder().distance(20.0).duration(320L).build();
       }
     };
   }
 
-  @Autowired
-  public GoogleDistanceApi(@Value("${google.maps.api.key}") String apiKey) {
+  public GoogleDistanceApi(String apiKey) {
     this.apiKey = apiKey;
-    this.timeSupplier = () -> LocalDateTime.now(ZoneId.of("America/New_York"));
   }
 
-  // @VisibleForTesting
-  public GoogleDistanceApi(
-      @Value("${google.maps.api.key}") String apiKey, Supplier<LocalDateTime> timeSupplier) {
-    this.apiKey = apiKey;
-    this.timeSupplier = timeSupplier;
-  }
-
-  public GoogleDistanceResponse queryDistance(SiteAddress from, SiteAddress to) {
+  @Override
+  public DistanceResponse queryDistance(SiteAddress from, SiteAddress to) {
     Map<String, String> params =
         Map.of(
             "key",
@@ -55,40 +37,13 @@ public class GoogleDistanceApi {
 
     GoogleDistanceJson json =
         HttpGetSender.sendRequest(googleMapsApiUrl, params, GoogleDistanceJson.class);
-    return GoogleDistanceResponse.builder()
+    return DistanceResponse.builder()
         .duration(json.getDuration())
         .distance(json.getDistance())
         .valid(json.isValid())
         .build();
   }
 
-  public String estimateEta(Delivery delivery) {
-    var from =
-        SiteAddress.builder()
-            .address(delivery.getFromAddress())
-            .city(delivery.getFromCity())
-            .state(delivery.getFromState())
-            .build();
-    var to =
-        SiteAddress.builder()
-            .address(delivery.getToAddress())
-            .city(delivery.getToCity())
-            .state(delivery.getToState())
-            .build();
-    long seconds = queryDistance(from, to).duration;
-    var now = timeSupplier.get();
-    now = now.plusSeconds(seconds);
-    return DateTimeFormat.formatTime(now);
-  }
-
-  @Builder
-  @lombok.Value
-  public static class GoogleDistanceResponse {
-    Long duration;
-    Double distance;
-    boolean valid;
-  }
-
   public static class GoogleDistanceJson {
     DistanceMatrixRow[] rows;
 
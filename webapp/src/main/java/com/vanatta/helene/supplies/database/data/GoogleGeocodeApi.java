@@ -0,0 +1,70 @@
+package com.vanatta.helene.supplies.database.data;
+
+import com.vanatta.helene.supplies.database.util.HttpGetSender;
+import java.util.Map;
+import java.util.Optional;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/** Converts a street address to a latitude & longitude using the Google geocoding API. */
+@Component
+public class GoogleGeocodeApi {
+  private static final String googleGeocodeApiUrl =
+      "https://maps.googleapis.com/maps/api/geocode/json";
+
+  private final String apiKey;
+
+  public GoogleGeocodeApi(@Value("${google.maps.api.key}") String apiKey) {
+    this.apiKey = apiKey;
+  }
+
+  @lombok.Value
+  public static class GeoLocation {
+    double latitude;
+    double longitude;
+  }
+
+  /** Returns empty if the address could not be found. */
+  public Optional<GeoLocation> geocode(SiteAddress address) {
+    Map<String, String> params =
+        Map.of(
+            "key",
+            apiKey,
+            "address",
+            String.format(
+                "%s, %s, %s", address.getAddress(), address.getCity(), address.getState()));
+    GoogleGeocodeJson json =
+        HttpGetSender.sendRequest(googleGeocodeApiUrl, params, GoogleGeocodeJson.class);
+    return json.toLocation();
+  }
+
+  static class GoogleGeocodeJson {
+    String status;
+    Result[] results;
+
+    static class Result {
+      Geometry geometry;
+
+      static class Geometry {
+        Location location;
+
+        static class Location {
+          double lat;
+          double lng;
+        }
+      }
+    }
+
+    Optional<GeoLocation> toLocation() {
+      if (!"OK".equalsIgnoreCase(status)
+          || results == null
+          || results.length == 0
+          || results[0].geometry == null
+          || results[0].geometry.location == null) {
+        return Optional.empty();
+      }
+      var location = results[0].geometry.location;
+      return Optional.of(new GeoLocation(location.lat, location.lng));
+    }
+  }
+}
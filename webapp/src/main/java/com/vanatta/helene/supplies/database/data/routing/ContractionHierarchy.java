@@ -0,0 +1,533 @@
+package com.vanatta.helene.supplies.database.data.routing;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Contraction hierarchy built over a RoadGraph. Answers fastest-route (by drive time) queries, both
+ * one-to-one and many-to-many.
+ *
+ * <p>Preprocessing contracts nodes one at a time (least important first), adding 'shortcut' edges
+ * so that shortest paths are preserved. Queries then only need to search 'upward' in the hierarchy
+ * from both ends, which visits a few hundred nodes instead of the whole graph.
+ *
+ * <p>Many-to-many queries use the bucket algorithm: an upward backward search from each target
+ * leaves (target, time) entries in 'buckets' at every node it settles, then an upward forward
+ * search from each source scans the buckets of the nodes it settles.
+ *
+ * <p>Drive distance (meters) is carried along with the fastest path, it is not optimized for.
+ */
+@Slf4j
+public class ContractionHierarchy {
+
+  public static final int UNREACHABLE = Integer.MAX_VALUE;
+
+  /**
+   * Witness searches (that check if a shortcut is needed) stop after settling this many nodes. A
+   * lower value makes preprocessing faster at the cost of adding some unneeded shortcuts. Unneeded
+   * shortcuts do not affect correctness.
+   */
+  private static final int WITNESS_SETTLE_LIMIT = 500;
+
+  private final int nodeCount;
+
+  // upward graph, forward direction: edges u->w where rank[w] > rank[u]
+  private final int[] upStart;
+  private final int[] upTarget;
+  private final int[] upSeconds;
+  private final int[] upMeters;
+
+  // upward graph, backward direction: for edges w->u where rank[w] > rank[u], stored at u
+  private final int[] downStart;
+  private final int[] downTarget;
+  private final int[] downSeconds;
+  private final int[] downMeters;
+
+  private ContractionHierarchy(int nodeCount, List<List<Edge>> up, List<List<Edge>> down) {
+    this.nodeCount = nodeCount;
+    upStart = new int[nodeCount + 1];
+    downStart = new int[nodeCount + 1];
+    for (int i = 0; i < nodeCount; i++) {
+      upStart[i + 1] = upStart[i] + up.get(i).size();
+      downStart[i + 1] = downStart[i] + down.get(i).size();
+    }
+    upTarget = new int[upStart[nodeCount]];
+    upSeconds = new int[upStart[nodeCount]];
+    upMeters = new int[upStart[nodeCount]];
+    downTarget = new int[downStart[nodeCount]];
+    downSeconds = new int[downStart[nodeCount]];
+    downMeters = new int[downStart[nodeCount]];
+    for (int i = 0; i < nodeCount; i++) {
+      int slot = upStart[i];
+      for (Edge e : up.get(i)) {
+        upTarget[slot] = e.target;
+        upSeconds[slot] = e.seconds;
+        upMeters[slot] = e.meters;
+        slot++;
+      }
+      slot = downStart[i];
+      for (Edge e : down.get(i)) {
+        downTarget[slot] = e.target;
+        downSeconds[slot] = e.seconds;
+        downMeters[slot] = e.meters;
+        slot++;
+      }
+    }
+  }
+
+  /** Drive time and distance from one node to another. */
+  @lombok.Value
+  public static class Route {
+    /** Drive time in seconds, UNREACHABLE if there is no route. */
+    int seconds;
+
+    int meters;
+
+    public boolean isReachable() {
+      return seconds != UNREACHABLE;
+    }
+  }
+
+  /** Result of a many-to-many query, indexed by [source][target]. */
+  @lombok.Value
+  public static class RouteMatrix {
+    int[][] seconds;
+    int[][] meters;
+
+    public Route get(int source, int target) {
+      return new Route(seconds[source][target], meters[source][target]);
+    }
+  }
+
+  private static class Edge {
+    final int target;
+    int seconds;
+    int meters;
+
+    Edge(int target, int seconds, int meters) {
+      this.target = target;
+      this.seconds = seconds;
+      this.meters = meters;
+    }
+  }
+
+  /** Runs the (one time) preprocessing to build a hierarchy over a road graph. */
+  public static ContractionHierarchy build(RoadGraph graph) {
+    long start = System.currentTimeMillis();
+    int n = graph.getNodeCount();
+
+    // mutable copies of the graph, shortcuts are added to these as nodes are contracted
+    List<List<Edge>> out = new ArrayList<>(n);
+    List<List<Edge>> in = new ArrayList<>(n);
+    for (int i = 0; i < n; i++) {
+      out.add(new ArrayList<>());
+      in.add(new ArrayList<>());
+    }
+    for (int u = 0; u < n; u++) {
+      for (int e = graph.edgeStart[u]; e < graph.edgeStart[u + 1]; e++) {
+        int w = graph.edgeTarget[e];
+        if (w != u) {
+          addOrImprove(out.get(u), in.get(w), u, w, graph.edgeSeconds[e], graph.edgeMeters[e]);
+        }
+      }
+    }
+
+    boolean[] contracted = new boolean[n];
+    int[] contractedNeighbors = new int[n];
+    WitnessSearch witnessSearch = new WitnessSearch(n);
+
+    List<List<Edge>> up = new ArrayList<>(n);
+    List<List<Edge>> down = new ArrayList<>(n);
+    for (int i = 0; i < n; i++) {
+      up.add(List.of());
+      down.add(List.of());
+    }
+
+    // lazy-update priority queue, entries are [priority, node]
+    PriorityQueue<long[]> queue =
+        new PriorityQueue<>(
+            (a, b) -> a[0] != b[0] ? Long.compare(a[0], b[0]) : Long.compare(a[1], b[1]));
+    for (int v = 0; v < n; v++) {
+      queue.add(
+          new long[] {priority(v, out, in, contracted, contractedNeighbors, witnessSearch), v});
+    }
+
+    int shortcutCount = 0;
+    while (!queue.isEmpty()) {
+      int v = (int) queue.poll()[1];
+      if (contracted[v]) {
+        continue;
+      }
+      // re-check priority, if it got worse then put the node back
+      long current = priority(v, out, in, contracted, contractedNeighbors, witnessSearch);
+      if (!queue.isEmpty() && current > queue.peek()[0]) {
+        queue.add(new long[] {current, v});
+        continue;
+      }
+
+      List<Edge[]> shortcuts = findShortcuts(v, out, in, contracted, witnessSearch);
+      shortcutCount += shortcuts.size();
+
+      // every remaining neighbor has a higher rank than 'v'
+      up.set(v, out.get(v).stream().filter(e -> !contracted[e.target]).toList());
+      down.set(v, in.get(v).stream().filter(e -> !contracted[e.target]).toList());
+      contracted[v] = true;
+
+      for (Edge[] shortcut : shortcuts) {
+        // shortcut[0] holds the 'from' node in its target field
+        int from = shortcut[0].target;
+        Edge edge = shortcut[1];
+        addOrImprove(
+            out.get(from), in.get(edge.target), from, edge.target, edge.seconds, edge.meters);
+      }
+      for (Edge e : out.get(v)) {
+        contractedNeighbors[e.target]++;
+      }
+      for (Edge e : in.get(v)) {
+        contractedNeighbors[e.target]++;
+      }
+    }
+    log.info(
+        "Contraction hierarchy built, nodes: {}, shortcuts added: {}, time: {} ms",
+        n,
+        shortcutCount,
+        System.currentTimeMillis() - start);
+    return new ContractionHierarchy(n, up, down);
+  }
+
+  /**
+   * Adds a directed edge, or lowers the cost of an existing edge between the same two nodes. 'in'
+   * lists store the source node as the edge 'target'.
+   */
+  private static void addOrImprove(
+      List<Edge> outOfFrom, List<Edge> inOfTo, int from, int to, int seconds, int meters) {
+    for (Edge e : outOfFrom) {
+      if (e.target == to) {
+        if (seconds < e.seconds) {
+          e.seconds = seconds;
+          e.meters = meters;
+          for (Edge reverse : inOfTo) {
+            if (reverse.target == from) {
+              reverse.seconds = seconds;
+              reverse.meters = meters;
+            }
+          }
+        }
+        return;
+      }
+    }
+    outOfFrom.add(new Edge(to, seconds, meters));
+    inOfTo.add(new Edge(from, seconds, meters));
+  }
+
+  /**
+   * Priority is 'edge difference' plus number of contracted neighbors; lower is contracted first.
+   */
+  private static long priority(
+      int v,
+      List<List<Edge>> out,
+      List<List<Edge>> in,
+      boolean[] contracted,
+      int[] contractedNeighbors,
+      WitnessSearch witnessSearch) {
+    int shortcuts = findShortcuts(v, out, in, contracted, witnessSearch).size();
+    int removed = 0;
+    for (Edge e : out.get(v)) {
+      removed += contracted[e.target] ? 0 : 1;
+    }
+    for (Edge e : in.get(v)) {
+      removed += contracted[e.target] ? 0 : 1;
+    }
+    return 2L * (shortcuts - removed) + contractedNeighbors[v];
+  }
+
+  /**
+   * Returns the shortcuts needed if 'v' were contracted. Each result is a pair: [from, edge], where
+   * from is encoded as an Edge whose target is the 'from' node.
+   */
+  private static List<Edge[]> findShortcuts(
+      int v,
+      List<List<Edge>> out,
+      List<List<Edge>> in,
+      boolean[] contracted,
+      WitnessSearch witnessSearch) {
+    List<Edge[]> shortcuts = new ArrayList<>();
+    int maxOut = 0;
+    for (Edge e : out.get(v)) {
+      if (!contracted[e.target]) {
+        maxOut = Math.max(maxOut, e.seconds);
+      }
+    }
+    for (Edge incoming : in.get(v)) {
+      int u = incoming.target;
+      if (contracted[u]) {
+        continue;
+      }
+      witnessSearch.run(u, v, incoming.seconds + maxOut, out, contracted);
+      for (Edge outgoing : out.get(v)) {
+        int w = outgoing.target;
+        if (contracted[w] || w == u) {
+          continue;
+        }
+        int viaV = incoming.seconds + outgoing.seconds;
+        if (witnessSearch.distance(w) > viaV) {
+          shortcuts.add(
+              new Edge[] {new Edge(u, 0, 0), new Edge(w, viaV, incoming.meters + outgoing.meters)});
+        }
+      }
+    }
+    return shortcuts;
+  }
+
+  /** Dijkstra search that ignores one node, used to find paths that make a shortcut unneeded. */
+  private static class WitnessSearch {
+    private final int[] dist;
+    private final List<Integer> touched = new ArrayList<>();
+
+    WitnessSearch(int nodeCount) {
+      dist = new int[nodeCount];
+      Arrays.fill(dist, UNREACHABLE);
+    }
+
+    void run(int source, int ignore, int maxSeconds, List<List<Edge>> out, boolean[] contracted) {
+      for (int node : touched) {
+        dist[node] = UNREACHABLE;
+      }
+      touched.clear();
+
+      PriorityQueue<long[]> queue = new PriorityQueue<>((a, b) -> Long.compare(a[0], b[0]));
+      dist[source] = 0;
+      touched.add(source);
+      queue.add(new long[] {0, source});
+      int settled = 0;
+      while (!queue.isEmpty() && settled < WITNESS_SETTLE_LIMIT) {
+        long[] entry = queue.poll();
+        int u = (int) entry[1];
+        if (entry[0] > dist[u]) {
+          continue;
+        }
+        if (entry[0] > maxSeconds) {
+          break;
+        }
+        settled++;
+        for (Edge e : out.get(u)) {
+          int w = e.target;
+          if (w == ignore || contracted[w]) {
+            continue;
+          }
+          int candidate = dist[u] + e.seconds;
+          if (candidate < dist[w]) {
+            if (dist[w] == UNREACHABLE) {
+              touched.add(w);
+            }
+            dist[w] = candidate;
+            queue.add(new long[] {candidate, w});
+          }
+        }
+      }
+    }
+
+    int distance(int node) {
+      return dist[node];
+    }
+  }
+
+  /**
+   * Search state of one query. Arrays are sized to the whole graph, so they are pooled and reused
+   * rather than allocated per query; a query only resets the nodes it touched.
+   */
+  private static class QueryState {
+    final UpwardSearch forward;
+    final UpwardSearch backward;
+
+    /** Index into 'buckets' per node, -1 if the node has no bucket. */
+    final int[] bucketOf;
+
+    final List<int[]> buckets = new ArrayList<>();
+    int[] bucketSize = new int[16];
+    final List<Integer> bucketNodes = new ArrayList<>();
+
+    QueryState(int nodeCount) {
+      forward = new UpwardSearch(nodeCount);
+      backward = new UpwardSearch(nodeCount);
+      bucketOf = new int[nodeCount];
+      Arrays.fill(bucketOf, -1);
+    }
+
+    /** Adds a [target index, seconds, meters] entry to the bucket of a node. */
+    void addToBucket(int node, int targetIndex, int seconds, int meters) {
+      int slot = bucketOf[node];
+      if (slot == -1) {
+        slot = buckets.size();
+        bucketOf[node] = slot;
+        bucketNodes.add(node);
+        buckets.add(new int[12]);
+        if (slot == bucketSize.length) {
+          bucketSize = Arrays.copyOf(bucketSize, slot * 2);
+        }
+        bucketSize[slot] = 0;
+      }
+      int[] bucket = buckets.get(slot);
+      int size = bucketSize[slot];
+      if (size + 3 > bucket.length) {
+        bucket = Arrays.copyOf(bucket, bucket.length * 2);
+        buckets.set(slot, bucket);
+      }
+      bucket[size] = targetIndex;
+      bucket[size + 1] = seconds;
+      bucket[size + 2] = meters;
+      bucketSize[slot] = size + 3;
+    }
+
+    void clearBuckets() {
+      for (int node : bucketNodes) {
+        bucketOf[node] = -1;
+      }
+      bucketNodes.clear();
+      buckets.clear();
+    }
+  }
+
+  private final Queue<QueryState> idleQueryStates = new ConcurrentLinkedQueue<>();
+
+  private QueryState acquireQueryState() {
+    QueryState state = idleQueryStates.poll();
+    return state == null ? new QueryState(nodeCount) : state;
+  }
+
+  private void releaseQueryState(QueryState state) {
+    state.clearBuckets();
+    idleQueryStates.offer(state);
+  }
+
+  /**
+   * Fastest route between two nodes: an upward search from both ends, the route goes through the
+   * node settled by both searches with the lowest combined time.
+   */
+  public Route query(int source, int target) {
+    QueryState state = acquireQueryState();
+    try {
+      UpwardSearch forward = state.forward;
+      UpwardSearch backward = state.backward;
+      forward.run(source, upStart, upTarget, upSeconds, upMeters);
+      backward.run(target, downStart, downTarget, downSeconds, downMeters);
+
+      int bestSeconds = UNREACHABLE;
+      int bestMeters = 0;
+      for (int i = 0; i < backward.settledCount; i++) {
+        int node = backward.settled[i];
+        if (forward.dist[node] == UNREACHABLE) {
+          continue;
+        }
+        int total = forward.dist[node] + backward.dist[node];
+        if (total < bestSeconds) {
+          bestSeconds = total;
+          bestMeters = forward.meters[node] + backward.meters[node];
+        }
+      }
+      return new Route(bestSeconds, bestMeters);
+    } finally {
+      releaseQueryState(state);
+    }
+  }
+
+  /** Fastest routes from every source to every target. */
+  public RouteMatrix queryMatrix(int[] sources, int[] targets) {
+    int[][] seconds = new int[sources.length][targets.length];
+    int[][] meters = new int[sources.length][targets.length];
+    for (int[] row : seconds) {
+      Arrays.fill(row, UNREACHABLE);
+    }
+
+    QueryState state = acquireQueryState();
+    try {
+      UpwardSearch search = state.backward;
+      for (int t = 0; t < targets.length; t++) {
+        search.run(targets[t], downStart, downTarget, downSeconds, downMeters);
+        for (int i = 0; i < search.settledCount; i++) {
+          int node = search.settled[i];
+          state.addToBucket(node, t, search.dist[node], search.meters[node]);
+        }
+      }
+
+      search = state.forward;
+      for (int s = 0; s < sources.length; s++) {
+        search.run(sources[s], upStart, upTarget, upSeconds, upMeters);
+        int[] rowSeconds = seconds[s];
+        int[] rowMeters = meters[s];
+        for (int i = 0; i < search.settledCount; i++) {
+          int node = search.settled[i];
+          int slot = state.bucketOf[node];
+          if (slot == -1) {
+            continue;
+          }
+          int[] bucket = state.buckets.get(slot);
+          int forwardSeconds = search.dist[node];
+          int forwardMeters = search.meters[node];
+          for (int b = 0; b < state.bucketSize[slot]; b += 3) {
+            int total = forwardSeconds + bucket[b + 1];
+            int t = bucket[b];
+            if (total < rowSeconds[t]) {
+              rowSeconds[t] = total;
+              rowMeters[t] = forwardMeters + bucket[b + 2];
+            }
+          }
+        }
+      }
+    } finally {
+      releaseQueryState(state);
+    }
+    return new RouteMatrix(seconds, meters);
+  }
+
+  /** Full Dijkstra search over one direction of the upward graph. */
+  private static class UpwardSearch {
+    final int[] dist;
+    final int[] meters;
+    final int[] settled;
+    int settledCount;
+
+    UpwardSearch(int nodeCount) {
+      dist = new int[nodeCount];
+      meters = new int[nodeCount];
+      settled = new int[nodeCount];
+      Arrays.fill(dist, UNREACHABLE);
+    }
+
+    void run(int source, int[] start, int[] target, int[] edgeSeconds, int[] edgeMeters) {
+      // reset only the nodes touched by the previous search (a full search settles every node it
+      // reaches)
+      for (int i = 0; i < settledCount; i++) {
+        dist[settled[i]] = UNREACHABLE;
+      }
+      settledCount = 0;
+
+      PriorityQueue<long[]> queue = new PriorityQueue<>((a, b) -> Long.compare(a[0], b[0]));
+      dist[source] = 0;
+      meters[source] = 0;
+      queue.add(new long[] {0, source});
+      while (!queue.isEmpty()) {
+        long[] entry = queue.poll();
+        int u = (int) entry[1];
+        if (entry[0] > dist[u]) {
+          continue;
+        }
+        settled[settledCount++] = u;
+        for (int e = start[u]; e < start[u + 1]; e++) {
+          int w = target[e];
+          int candidate = dist[u] + edgeSeconds[e];
+          if (candidate < dist[w]) {
+            dist[w] = candidate;
+            meters[w] = meters[u] + edgeMeters[e];
+            queue.add(new long[] {candidate, w});
+          }
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,203 @@
+package com.vanatta.helene.supplies.database.data.routing;
+
+import de.siegmar.fastcsv.reader.CommentStrategy;
+import de.siegmar.fastcsv.reader.CsvReader;
+import de.siegmar.fastcsv.reader.CsvRecord;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Immutable road network, loaded from a local file. Nodes are road intersections, edges are road
+ * segments with a drive time (seconds) and a length (meters).
+ *
+ * <p>The file is expected to be a pre-simplified extract (eg: from OSM) for the states of a
+ * deployment. File format is CSV, one record per line, lines starting with '#' are comments:
+ *
+ * <pre>
+ * node,[node id]
+ * edge,[from node id],[to node id],[drive seconds],[meters],[optional: 'oneway']
+ * place,[city],[state],[node id]
+ * </pre>
+ *
+ * Edges are two-way unless marked 'oneway'. 'place' records map a city to the node that is used as
+ * the location of any address in that city. Any extra columns (eg: node coordinates) are ignored.
+ */
+@Slf4j
+public class RoadGraph {
+
+  @Getter private final int nodeCount;
+
+  /**
+   * Edges are stored in 'compressed sparse row' form, edges of node N are at [start[N], start[N+1])
+   */
+  final int[] edgeStart;
+
+  final int[] edgeTarget;
+  final int[] edgeSeconds;
+  final int[] edgeMeters;
+
+  private final Map<String, Integer> places;
+
+  private RoadGraph(Builder builder) {
+    nodeCount = builder.nodeIds.size();
+    places = Map.copyOf(builder.places);
+
+    int edgeCount = builder.edgeFrom.size();
+    edgeStart = new int[nodeCount + 1];
+    for (int i = 0; i < edgeCount; i++) {
+      edgeStart[builder.edgeFrom.get(i) + 1]++;
+    }
+    for (int i = 0; i < nodeCount; i++) {
+      edgeStart[i + 1] += edgeStart[i];
+    }
+    edgeTarget = new int[edgeCount];
+    edgeSeconds = new int[edgeCount];
+    edgeMeters = new int[edgeCount];
+    int[] next = edgeStart.clone();
+    for (int i = 0; i < edgeCount; i++) {
+      int slot = next[builder.edgeFrom.get(i)]++;
+      edgeTarget[slot] = builder.edgeTo.get(i);
+      edgeSeconds[slot] = builder.edgeSeconds.get(i);
+      edgeMeters[slot] = builder.edgeMeters.get(i);
+    }
+  }
+
+  public static RoadGraph load(Path file) throws IOException {
+    log.info("Loading road network from file: {}", file);
+    try (var reader = Files.newBufferedReader(file)) {
+      RoadGraph graph = parse(reader);
+      log.info(
+          "Road network loaded, nodes: {}, edges: {}, places: {}",
+          graph.nodeCount,
+          graph.edgeTarget.length,
+          graph.places.size());
+      return graph;
+    }
+  }
+
+  // @VisibleForTesting
+  static RoadGraph parse(String csv) {
+    try {
+      return parse(new StringReader(csv));
+    } catch (IOException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  static RoadGraph parse(Reader input) throws IOException {
+    Builder builder = new Builder();
+    try (CsvReader<CsvRecord> csv =
+        CsvReader.builder()
+            .commentStrategy(CommentStrategy.SKIP)
+            .commentCharacter('#')
+            .skipEmptyLines(true)
+            .ignoreDifferentFieldCount(true)
+            .ofCsvRecord(input)) {
+      for (CsvRecord record : csv) {
+        String type = record.getField(0).trim();
+        try {
+          switch (type) {
+            case "node" -> builder.addNode(Long.parseLong(record.getField(1).trim()));
+            case "edge" ->
+                builder.addEdge(
+                    Long.parseLong(record.getField(1).trim()),
+                    Long.parseLong(record.getField(2).trim()),
+                    Integer.parseInt(record.getField(3).trim()),
+                    Integer.parseInt(record.getField(4).trim()),
+                    record.getFieldCount() > 5
+                        && record.getField(5).trim().equalsIgnoreCase("oneway"));
+            case "place" ->
+                builder.addPlace(
+                    record.getField(1),
+                    record.getField(2),
+                    Long.parseLong(record.getField(3).trim()));
+            default -> throw new IllegalArgumentException("Unknown record type: " + type);
+          }
+        } catch (RuntimeException e) {
+          throw new IllegalArgumentException(
+              "Invalid road network data on line: " + record.getStartingLineNumber(), e);
+        }
+      }
+    }
+    return builder.build();
+  }
+
+  /** Returns the node used as the location for a given city, if the city is known. */
+  public Optional<Integer> lookupPlace(String city, String state) {
+    return Optional.ofNullable(places.get(placeKey(city, state)));
+  }
+
+  private static String placeKey(String city, String state) {
+    return (city == null ? "" : city.trim().toLowerCase())
+        + "|"
+        + (state == null ? "" : state.trim().toLowerCase());
+  }
+
+  /** Builds a road graph in memory, node ids are mapped to dense (zero based) indices. */
+  public static class Builder {
+    private final Map<Long, Integer> nodeIds = new HashMap<>();
+
+    private final List<Integer> edgeFrom = new ArrayList<>();
+    private final List<Integer> edgeTo = new ArrayList<>();
+    private final List<Integer> edgeSeconds = new ArrayList<>();
+    private final List<Integer> edgeMeters = new ArrayList<>();
+
+    private final Map<String, Integer> places = new HashMap<>();
+
+    public Builder addNode(long id) {
+      if (nodeIds.containsKey(id)) {
+        throw new IllegalArgumentException("Duplicate node id: " + id);
+      }
+      nodeIds.put(id, nodeIds.size());
+      return this;
+    }
+
+    public Builder addEdge(long fromId, long toId, int seconds, int meters, boolean oneWay) {
+      if (seconds < 0 || meters < 0) {
+        throw new IllegalArgumentException(
+            String.format("Negative edge cost, %s -> %s", fromId, toId));
+      }
+      int from = index(fromId);
+      int to = index(toId);
+      addDirected(from, to, seconds, meters);
+      if (!oneWay) {
+        addDirected(to, from, seconds, meters);
+      }
+      return this;
+    }
+
+    public Builder addPlace(String city, String state, long nodeId) {
+      places.put(placeKey(city, state), index(nodeId));
+      return this;
+    }
+
+    private void addDirected(int from, int to, int seconds, int meters) {
+      edgeFrom.add(from);
+      edgeTo.add(to);
+      edgeSeconds.add(seconds);
+      edgeMeters.add(meters);
+    }
+
+    private int index(long nodeId) {
+      Integer index = nodeIds.get(nodeId);
+      if (index == null) {
+        throw new IllegalArgumentException("Unknown node id: " + nodeId);
+      }
+      return index;
+    }
+
+    public RoadGraph build() {
+      return new RoadGraph(this);
+    }
+  }
+}
@@ -0,0 +1,114 @@
+package com.vanatta.helene.supplies.database.data.routing;
+
+import com.vanatta.helene.supplies.database.data.DistanceApi;
+import com.vanatta.helene.supplies.database.data.SiteAddress;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Offline distance API, computes drive time & distance from a local road network. Needs no network
+ * access and has no per-query cost.
+ *
+ * <p>Addresses are located by city & state (street addresses are not geocoded), so results are
+ * accurate to the town level. Addresses in a city that is not in the road network are reported as
+ * invalid, the same as an address that Google cannot find.
+ */
+@Slf4j
+public class RoadNetworkDistanceApi implements DistanceApi {
+
+  private final RoadGraph roadGraph;
+  private final ContractionHierarchy contractionHierarchy;
+
+  public RoadNetworkDistanceApi(RoadGraph roadGraph) {
+    this.roadGraph = roadGraph;
+    this.contractionHierarchy = ContractionHierarchy.build(roadGraph);
+  }
+
+  @Override
+  public DistanceResponse queryDistance(SiteAddress from, SiteAddress to) {
+    return queryDistanceMatrix(List.of(from), List.of(to)).getFirst().getFirst();
+  }
+
+  @Override
+  public List<List<DistanceResponse>> queryDistanceMatrix(
+      List<SiteAddress> origins, List<SiteAddress> destinations) {
+    int[] sources = locate(origins);
+    int[] targets = locate(destinations);
+
+    // only located addresses are routed, row & column of the others stay -1
+    int[] sourceRows = locatedIndices(sources);
+    int[] targetColumns = locatedIndices(targets);
+    ContractionHierarchy.RouteMatrix routes =
+        contractionHierarchy.queryMatrix(
+            nodesAt(sources, sourceRows), nodesAt(targets, targetColumns));
+
+    List<List<DistanceResponse>> results = new ArrayList<>();
+    for (int s = 0; s < sources.length; s++) {
+      List<DistanceResponse> row = new ArrayList<>();
+      for (int t = 0; t < targets.length; t++) {
+        if (sourceRows[s] < 0 || targetColumns[t] < 0) {
+          row.add(DistanceResponse.builder().valid(false).build());
+        } else {
+          row.add(toResponse(routes.get(sourceRows[s], targetColumns[t])));
+        }
+      }
+      results.add(row);
+    }
+    return results;
+  }
+
+  /** Maps addresses to graph nodes, -1 for any address that cannot be located. */
+  private int[] locate(List<SiteAddress> addresses) {
+    int[] nodes = new int[addresses.size()];
+    for (int i = 0; i < addresses.size(); i++) {
+      SiteAddress address = addresses.get(i);
+      Optional<Integer> node = roadGraph.lookupPlace(address.getCity(), address.getState());
+      if (node.isEmpty()) {
+        log.warn("City not found in road network: {}, {}", address.getCity(), address.getState());
+      }
+      nodes[i] = node.orElse(-1);
+    }
+    return nodes;
+  }
+
+  /**
+   * Position of each located node among the located nodes, -1 for nodes that are not located. Eg:
+   * [7, -1, 3] maps to [0, -1, 1].
+   */
+  private static int[] locatedIndices(int[] nodes) {
+    int[] indices = new int[nodes.length];
+    int count = 0;
+    for (int i = 0; i < nodes.length; i++) {
+      indices[i] = nodes[i] < 0 ? -1 : count++;
+    }
+    return indices;
+  }
+
+  /** The located nodes, in order. */
+  private static int[] nodesAt(int[] nodes, int[] locatedIndices) {
+    int[] located = new int[(int) Arrays.stream(locatedIndices).filter(i -> i >= 0).count()];
+    for (int i = 0; i < nodes.length; i++) {
+      if (locatedIndices[i] >= 0) {
+        located[locatedIndices[i]] = nodes[i];
+      }
+    }
+    return located;
+  }
+
+  private static DistanceResponse toResponse(ContractionHierarchy.Route route) {
+    if (!route.isReachable()) {
+      return DistanceResponse.builder().valid(false).build();
+    }
+    double miles = route.getMeters() / 1609.34;
+    // round to the nearest tenth
+    miles = Math.round(miles * 10) / 10.0;
+    return DistanceResponse.builder()
+        .duration((long) route.getSeconds())
+        .distance(miles)
+        .valid(true)
+        .build();
+  }
+}
@@ -23,14 +23,16 @@ public class ConfirmationDao {
     Arrays.stream(DeliveryConfirmation.ConfirmRole.values())
         .forEach(
             role ->
-                jdbi.withHandle(
-                    handle ->
-                        handle
-                            .createUpdate(insert)
-                            .bind("publicUrlKey", publicUrlKey)
-                            .bind("confirmType", role.name())
-                            .bind("secretCode", SecretCodeGenerator.generateCode())
-                            .execute()));
+                jdbi.useHandle(
+                    handle -> {
+                      handle
+                          .createUpdate(insert)
+                          .bind("publicUrlKey", publicUrlKey)
+                          .bind("confirmType", role.name())
+                          .bind("secretCode", SecretCodeGenerator.generateCode())
+                          .execute();
+                      DeliveryChanges.changed(handle, publicUrlKey);
+                    }));
   }
 
   public static void confirmDelivery(
@@ -45,13 +47,15 @@ public class ConfirmationDao {
           confirm_type = :confirmRole
           and delivery_id = (select id from delivery where public_url_key = :publicUrlKey)
         """;
-    jdbi.withHandle(
-        handle ->
-            handle
-                .createUpdate(update)
-                .bind("confirmRole", confirmRole.name())
-                .bind("publicUrlKey", publicUrlKey)
-                .execute());
+    jdbi.useHandle(
+        handle -> {
+          handle
+              .createUpdate(update)
+              .bind("confirmRole", confirmRole.name())
+              .bind("publicUrlKey", publicUrlKey)
+              .execute();
+          DeliveryChanges.changed(handle, publicUrlKey);
+        });
   }
 
   public static void cancelDelivery(
@@ -76,17 +80,19 @@ public class ConfirmationDao {
                 .bind("publicUrlKey", publicUrlKey)
                 .execute());
 
-    jdbi.withHandle(
-        handle ->
-            handle
-                .createUpdate(
-                    """
+    jdbi.useHandle(
+        handle -> {
+          handle
+              .createUpdate(
+                  """
           update delivery set cancel_reason = :cancelReason
             where public_url_key = :publicUrlKey
         """)
-                .bind("cancelReason", cancelReason)
-                .bind("publicUrlKey", publicUrlKey)
-                .execute());
+              .bind("cancelReason", cancelReason)
+              .bind("publicUrlKey", publicUrlKey)
+              .execute();
+          DeliveryChanges.changed(handle, publicUrlKey);
+        });
   }
 
   public static void updateDriverStatus(
@@ -99,12 +105,14 @@ public class ConfirmationDao {
         where public_url_key = :deliveryPublicKey
         """;
 
-    jdbi.withHandle(
-        handle ->
-            handle
-                .createUpdate(update)
-                .bind("deliveryPublicKey", deliveryPublicKey)
-                .bind("driverStatus", driverStatus.name())
-                .execute());
+    jdbi.useHandle(
+        handle -> {
+          handle
+              .createUpdate(update)
+              .bind("deliveryPublicKey", deliveryPublicKey)
+              .bind("driverStatus", driverStatus.name())
+              .execute();
+          DeliveryChanges.changed(handle, deliveryPublicKey);
+        });
   }
 }
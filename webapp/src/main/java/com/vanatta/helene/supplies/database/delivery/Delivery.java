@@ -26,9 +26,11 @@ public class Delivery {
 
   private final String publicKey;
 
+  private final Long fromSiteId;
   private final String fromSite;
   private final String fromSiteLink;
 
+  private final Long toSiteId;
   private final String toSite;
   private final String toSiteLink;
   private final String deliveryDate;
@@ -94,6 +96,7 @@ public class Delivery {
     this.dispatcherName = dbData.getDispatcherName();
     this.dispatcherPhoneNumber = dbData.getDispatcherNumber();
     this.dispatcherNotes = dbData.getDispatcherNotes();
+    this.fromSiteId = dbData.getFromSiteId();
     this.fromSite = dbData.getFromSiteName();
     this.fromSiteLink =
         dbData.getFromSiteId() == null
@@ -105,6 +108,7 @@ public class Delivery {
     this.fromContactName = dbData.getFromContactName();
     this.fromContactPhoneNumber = dbData.getFromContactPhone();
     this.fromHours = dbData.getFromHours();
+    this.toSiteId = dbData.getToSiteId();
     this.toSite = dbData.getToSiteName();
     this.toSiteLink =
         dbData.getToSiteId() == null
@@ -0,0 +1,151 @@
+package com.vanatta.helene.supplies.database.delivery;
+
+import com.vanatta.helene.supplies.database.DeploymentAdvice;
+import com.vanatta.helene.supplies.database.auth.LoggedInAdvice;
+import com.vanatta.helene.supplies.database.auth.UserRole;
+import com.vanatta.helene.supplies.database.data.CountyAdjacency;
+import com.vanatta.helene.supplies.database.data.CountyDao;
+import com.vanatta.helene.supplies.database.supplies.filters.AuthenticatedMode;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Value;
+import org.jdbi.v3.core.Jdbi;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.ModelAttribute;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.servlet.ModelAndView;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Dispatcher board, lists deliveries of the current deployment with filters. The page loads
+ * deliveries a page at a time from {@link #BOARD_DELIVERIES_PATH} and receives changed deliveries
+ * from {@link #BOARD_EVENTS_PATH}. Only dispatchers and data admins can see the board.
+ */
+@Controller
+@AllArgsConstructor
+public class DeliveryBoardController {
+  public static final String BOARD_PATH = "/delivery/board";
+  static final String BOARD_DELIVERIES_PATH = BOARD_PATH + "/deliveries";
+  static final String BOARD_EVENTS_PATH = BOARD_PATH + "/events";
+
+  static final int DEFAULT_PAGE_SIZE = 50;
+  static final int MAX_PAGE_SIZE = 200;
+
+  private final Jdbi jdbi;
+  private final DeliveryBoardEvents deliveryBoardEvents;
+
+  enum TemplateParams {
+    statusList,
+    countyList,
+    ;
+  }
+
+  @GetMapping(BOARD_PATH)
+  ModelAndView showBoard(
+      @ModelAttribute(LoggedInAdvice.USER_ROLES) List<UserRole> userRoles,
+      @ModelAttribute(DeploymentAdvice.DEPLOYMENT_STATE_LIST) List<String> stateList) {
+    if (!UserRole.hasGodMode(userRoles)) {
+      return new ModelAndView("redirect:/");
+    }
+    Map<String, Object> templateParams = new HashMap<>();
+    templateParams.put(
+        TemplateParams.statusList.name(),
+        Arrays.stream(DeliveryStatus.values()).map(DeliveryStatus::getAirtableName).toList());
+    templateParams.put(
+        TemplateParams.countyList.name(),
+        CountyDao.fetchActiveCountyList(jdbi, AuthenticatedMode.AUTHENTICATED, stateList));
+    return new ModelAndView("delivery/board", templateParams);
+  }
+
+  @Value
+  @Builder
+  static class BoardPage {
+    List<DeliveryBoardDao.BoardRow> deliveries;
+
+    /** Pass as 'after' to fetch the next page, null if this is the last page. */
+    String nextCursor;
+  }
+
+  /**
+   * Returns a page of deliveries, newest target date first.
+   *
+   * @param status Delivery status (airtable name), can be repeated.
+   * @param from Earliest target date, yyyy-MM-dd.
+   * @param to Latest target date, yyyy-MM-dd.
+   * @param county County & state, eg: "Buncombe, NC".
+   * @param after Cursor of the previous page.
+   */
+  @GetMapping(BOARD_DELIVERIES_PATH)
+  ResponseEntity<BoardPage> fetchDeliveries(
+      @ModelAttribute(LoggedInAdvice.USER_ROLES) List<UserRole> userRoles,
+      @ModelAttribute(DeploymentAdvice.DEPLOYMENT_STATE_LIST) List<String> stateList,
+      @RequestParam(required = false) List<String> status,
+      @RequestParam(required = false) String from,
+      @RequestParam(required = false) String to,
+      @RequestParam(required = false) String driver,
+      @RequestParam(required = false) String county,
+      @RequestParam(required = false) String after,
+      @RequestParam(required = false) Integer limit) {
+    if (!UserRole.hasGodMode(userRoles)) {
+      return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+    }
+    DeliveryBoardDao.BoardFilter filter =
+        DeliveryBoardDao.BoardFilter.builder()
+            .statuses(
+                status == null ? List.of() : status.stream().filter(s -> !s.isBlank()).toList())
+            .fromDate(parseDate(from))
+            .toDate(parseDate(to))
+            .driver(driver)
+            .county(isBlank(county) ? null : CountyAdjacency.County.parse(county))
+            .states(stateList)
+            .build();
+    int pageSize = limit == null ? DEFAULT_PAGE_SIZE : Math.clamp(limit, 1, MAX_PAGE_SIZE);
+    DeliveryBoardDao.Cursor cursor = isBlank(after) ? null : DeliveryBoardDao.Cursor.parse(after);
+
+    // fetch one extra row to know if there is a next page
+    List<DeliveryBoardDao.BoardRow> rows =
+        DeliveryBoardDao.fetchBoard(jdbi, filter, cursor, pageSize + 1);
+    if (rows.size() > pageSize) {
+      rows = rows.subList(0, pageSize);
+      return ResponseEntity.ok(
+          BoardPage.builder()
+              .deliveries(rows)
+              .nextCursor(rows.getLast().cursor().encode())
+              .build());
+    }
+    return ResponseEntity.ok(BoardPage.builder().deliveries(rows).build());
+  }
+
+  @GetMapping(BOARD_EVENTS_PATH)
+  ResponseEntity<SseEmitter> subscribe(
+      @ModelAttribute(LoggedInAdvice.USER_ROLES) List<UserRole> userRoles,
+      @ModelAttribute(DeploymentAdvice.DEPLOYMENT_STATE_LIST) List<String> stateList) {
+    if (!UserRole.hasGodMode(userRoles)) {
+      return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+    }
+    return ResponseEntity.ok(deliveryBoardEvents.subscribe(stateList));
+  }
+
+  private static LocalDate parseDate(String value) {
+    if (isBlank(value)) {
+      return null;
+    }
+    try {
+      return LocalDate.parse(value.trim());
+    } catch (RuntimeException e) {
+      throw new IllegalArgumentException("Invalid date, expected yyyy-MM-dd: " + value);
+    }
+  }
+
+  private static boolean isBlank(String value) {
+    return value == null || value.isBlank();
+  }
+}
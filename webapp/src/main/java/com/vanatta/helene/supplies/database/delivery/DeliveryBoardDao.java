@@ -0,0 +1,204 @@
+package com.vanatta.helene.supplies.database.delivery;
+
+import com.vanatta.helene.supplies.database.data.CountyAdjacency;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.Value;
+import org.jdbi.v3.core.Jdbi;
+import org.jdbi.v3.core.statement.Query;
+
+/**
+ * Queries for the dispatcher delivery board. Deliveries are listed newest target date first and
+ * paged with a keyset (sort date, id) rather than an offset, so fetching a page reads only that
+ * page from the index no matter how many older deliveries there are. See the V60 schema migration
+ * for the indexes.
+ */
+public class DeliveryBoardDao {
+
+  /** Sort date of deliveries without a target date, sorts them last. */
+  static final LocalDate NO_DATE = LocalDate.of(1, 1, 1);
+
+  /** Must match the expression of the board indexes. */
+  private static final String SORT_DATE = "coalesce(d.target_delivery_date, date '0001-01-01')";
+
+  @Data
+  @NoArgsConstructor
+  public static class BoardRow {
+    long id;
+    LocalDate sortDate;
+    long deliveryId;
+    String publicUrlKey;
+    String deliveryStatus;
+    String driverStatus;
+    String targetDeliveryDate;
+    String driverName;
+    String driverNumber;
+    String dispatcherName;
+    String fromSiteName;
+    String fromCity;
+    String fromState;
+    String toSiteName;
+    String toCity;
+    String toState;
+
+    Cursor cursor() {
+      return new Cursor(sortDate, id);
+    }
+  }
+
+  /** Position on the board, a page starts after the cursor of the last row of the previous page. */
+  record Cursor(LocalDate sortDate, long id) {
+
+    /** Encodes as "[sort date]_[id]", eg: "2024-12-13_42". */
+    String encode() {
+      return sortDate + "_" + id;
+    }
+
+    static Cursor parse(String value) {
+      String[] split = value.split("_");
+      if (split.length != 2) {
+        throw new IllegalArgumentException("Invalid board cursor: " + value);
+      }
+      try {
+        return new Cursor(LocalDate.parse(split[0]), Long.parseLong(split[1]));
+      } catch (RuntimeException e) {
+        throw new IllegalArgumentException("Invalid board cursor: " + value);
+      }
+    }
+  }
+
+  /** Board filters, null or empty values do not filter. */
+  @Value
+  @Builder
+  static class BoardFilter {
+    /** Delivery status airtable names, eg: 'Confirmed'. */
+    List<String> statuses;
+
+    LocalDate fromDate;
+    LocalDate toDate;
+
+    /** Driver name, case insensitive. */
+    String driver;
+
+    /** Deliveries from or to a site in this county. */
+    CountyAdjacency.County county;
+
+    /** States of the current deployment. */
+    List<String> states;
+  }
+
+  private static final String SELECT =
+      String.format(
+          """
+      select
+        d.id,
+        %s sortDate,
+        d.airtable_id deliveryId,
+        d.public_url_key publicUrlKey,
+        d.delivery_status deliveryStatus,
+        d.driver_status driverStatus,
+        to_char(d.target_delivery_date, 'YYYY-MM-DD') targetDeliveryDate,
+        d.driver_name driverName,
+        d.driver_number driverNumber,
+        d.dispatcher_name dispatcherName,
+        coalesce(fromSite.name, d.pickup_site_name) fromSiteName,
+        coalesce(fromSite.city, d.pickup_city) fromCity,
+        coalesce(fromSite.state, d.pickup_state) fromState,
+        coalesce(toSite.name, d.dropoff_site_name) toSiteName,
+        coalesce(toSite.city, d.dropoff_city) toCity,
+        coalesce(toSite.state, d.dropoff_state) toState
+      from delivery d
+      left join site fromSite on fromSite.id = d.from_site_id
+      left join site toSite on toSite.id = d.to_site_id
+      """,
+          SORT_DATE);
+
+  /** Fetches up to 'limit' deliveries matching a filter, starting after a cursor (if any). */
+  static List<BoardRow> fetchBoard(Jdbi jdbi, BoardFilter filter, Cursor after, int limit) {
+    List<String> conditions = new ArrayList<>();
+    if (filter.getStatuses() != null && !filter.getStatuses().isEmpty()) {
+      conditions.add("d.delivery_status in (<statuses>)");
+    }
+    if (filter.getFromDate() != null || filter.getToDate() != null) {
+      conditions.add("d.target_delivery_date is not null");
+    }
+    if (filter.getFromDate() != null) {
+      conditions.add(SORT_DATE + " >= :fromDate");
+    }
+    if (filter.getToDate() != null) {
+      conditions.add(SORT_DATE + " <= :toDate");
+    }
+    if (filter.getDriver() != null && !filter.getDriver().isBlank()) {
+      conditions.add("lower(d.driver_name) = lower(:driver)");
+    }
+    if (filter.getCounty() != null) {
+      conditions.add(
+          """
+          (d.from_site_id in (select s.id from site s join county c on c.id = s.county_id
+                              where c.name = :countyName and c.state = :countyState)
+           or d.to_site_id in (select s.id from site s join county c on c.id = s.county_id
+                               where c.name = :countyName and c.state = :countyState))
+          """);
+    }
+    if (filter.getStates() != null && !filter.getStates().isEmpty()) {
+      conditions.add(
+          """
+          (coalesce(fromSite.state, d.pickup_state) in (<states>)
+           or coalesce(toSite.state, d.dropoff_state) in (<states>))
+          """);
+    }
+    if (after != null) {
+      conditions.add("(" + SORT_DATE + ", d.id) < (:afterDate, :afterId)");
+    }
+
+    String query =
+        SELECT
+            + (conditions.isEmpty() ? "" : "where " + String.join("\nand ", conditions))
+            + "\norder by "
+            + SORT_DATE
+            + " desc, d.id desc\nlimit :limit";
+
+    return jdbi.withHandle(
+        handle -> {
+          Query q = handle.createQuery(query).bind("limit", limit);
+          if (filter.getStatuses() != null && !filter.getStatuses().isEmpty()) {
+            q.bindList("statuses", filter.getStatuses());
+          }
+          if (filter.getStates() != null && !filter.getStates().isEmpty()) {
+            q.bindList("states", filter.getStates());
+          }
+          if (filter.getFromDate() != null) {
+            q.bind("fromDate", filter.getFromDate());
+          }
+          if (filter.getToDate() != null) {
+            q.bind("toDate", filter.getToDate());
+          }
+          if (filter.getDriver() != null && !filter.getDriver().isBlank()) {
+            q.bind("driver", filter.getDriver().trim());
+          }
+          if (filter.getCounty() != null) {
+            q.bind("countyName", filter.getCounty().getName())
+                .bind("countyState", filter.getCounty().getState());
+          }
+          if (after != null) {
+            q.bind("afterDate", after.sortDate()).bind("afterId", after.id());
+          }
+          return q.mapToBean(BoardRow.class).list();
+        });
+  }
+
+  static Optional<BoardRow> fetchBoardRow(Jdbi jdbi, String publicUrlKey) {
+    return jdbi.withHandle(
+        handle ->
+            handle
+                .createQuery(SELECT + "where d.public_url_key = :publicUrlKey")
+                .bind("publicUrlKey", publicUrlKey)
+                .mapToBean(BoardRow.class)
+                .findOne());
+  }
+}
@@ -0,0 +1,118 @@
+package com.vanatta.helene.supplies.database.delivery;
+
+import com.vanatta.helene.supplies.database.JdbiConfiguration;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+import lombok.extern.slf4j.Slf4j;
+import org.jdbi.v3.core.Jdbi;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Pushes delivery changes to open dispatcher boards as server-sent events. When a delivery changes
+ * (see {@link DeliveryChanges}) its board row is fetched once and sent as a 'delivery' event to
+ * every board of a deployment the delivery belongs to.
+ */
+@Slf4j
+@Component
+public class DeliveryBoardEvents {
+  static final String DELIVERY_EVENT = "delivery";
+
+  /** Browsers reconnect (EventSource) after this. */
+  static final long EMITTER_TIMEOUT_MS = 30 * 60 * 1000;
+
+  /** Keeps idle connections from being closed by proxies. */
+  private static final int KEEP_ALIVE_INTERVAL_MS = 30 * 1000;
+
+  private final Jdbi jdbi;
+  private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+  private final Consumer<String> listener = this::deliveryChanged;
+  private final ExecutorService executor =
+      Executors.newSingleThreadExecutor(
+          runnable -> {
+            Thread thread = new Thread(runnable, "delivery-board-events");
+            thread.setDaemon(true);
+            return thread;
+          });
+
+  private record Subscriber(SseEmitter emitter, List<String> states) {
+    boolean isInterestedIn(DeliveryBoardDao.BoardRow row) {
+      return states.contains(row.getFromState()) || states.contains(row.getToState());
+    }
+  }
+
+  DeliveryBoardEvents(@Qualifier(JdbiConfiguration.BACKGROUND) Jdbi jdbi) {
+    this.jdbi = jdbi;
+  }
+
+  @PostConstruct
+  void start() {
+    DeliveryChanges.addListener(listener);
+  }
+
+  /** Opens an event stream for a board showing deliveries of the given states. */
+  SseEmitter subscribe(List<String> states) {
+    SseEmitter emitter = new SseEmitter(EMITTER_TIMEOUT_MS);
+    Subscriber subscriber = new Subscriber(emitter, List.copyOf(states));
+    subscribers.add(subscriber);
+    emitter.onCompletion(() -> subscribers.remove(subscriber));
+    emitter.onTimeout(() -> subscribers.remove(subscriber));
+    emitter.onError(_ -> subscribers.remove(subscriber));
+    return emitter;
+  }
+
+  int subscriberCount() {
+    return subscribers.size();
+  }
+
+  private void deliveryChanged(String publicUrlKey) {
+    if (subscribers.isEmpty()) {
+      return;
+    }
+    executor.execute(
+        () -> {
+          try {
+            DeliveryBoardDao.fetchBoardRow(jdbi, publicUrlKey).ifPresent(this::send);
+          } catch (Exception e) {
+            log.warn("Failed to send delivery board event, delivery: {}", publicUrlKey, e);
+          }
+        });
+  }
+
+  private void send(DeliveryBoardDao.BoardRow row) {
+    for (Subscriber subscriber : subscribers) {
+      if (subscriber.isInterestedIn(row)) {
+        send(subscriber, SseEmitter.event().name(DELIVERY_EVENT).data(row));
+      }
+    }
+  }
+
+  @Scheduled(fixedDelay = KEEP_ALIVE_INTERVAL_MS)
+  void keepAlive() {
+    subscribers.forEach(subscriber -> send(subscriber, SseEmitter.event().comment("")));
+  }
+
+  private void send(Subscriber subscriber, SseEmitter.SseEventBuilder event) {
+    try {
+      subscriber.emitter.send(event);
+    } catch (IOException | IllegalStateException e) {
+      // browser went away
+      subscribers.remove(subscriber);
+    }
+  }
+
+  @PreDestroy
+  void shutdown() {
+    DeliveryChanges.removeListener(listener);
+    executor.shutdownNow();
+    subscribers.forEach(subscriber -> subscriber.emitter.complete());
+  }
+}
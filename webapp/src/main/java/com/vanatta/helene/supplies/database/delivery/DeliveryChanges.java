@@ -0,0 +1,48 @@
+package com.vanatta.helene.supplies.database.delivery;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import lombok.extern.slf4j.Slf4j;
+import org.jdbi.v3.core.Handle;
+
+/**
+ * Called by DAO methods that write a delivery. Invalidates the cached manifest page of the delivery
+ * and, once the write is committed, tells listeners (eg: the dispatcher board) which delivery
+ * changed. Listeners are called on the thread that committed and should return quickly.
+ */
+@Slf4j
+public class DeliveryChanges {
+
+  private static final List<Consumer<String>> listeners = new CopyOnWriteArrayList<>();
+
+  static void addListener(Consumer<String> listener) {
+    listeners.add(listener);
+  }
+
+  static void removeListener(Consumer<String> listener) {
+    listeners.remove(listener);
+  }
+
+  static void changed(Handle handle, String publicUrlKey) {
+    if (publicUrlKey == null) {
+      return;
+    }
+    DeliveryViewCache.invalidate(handle, publicUrlKey);
+    if (handle.isInTransaction()) {
+      handle.afterCommit(() -> notifyListeners(publicUrlKey));
+    } else {
+      notifyListeners(publicUrlKey);
+    }
+  }
+
+  private static void notifyListeners(String publicUrlKey) {
+    for (Consumer<String> listener : listeners) {
+      try {
+        listener.accept(publicUrlKey);
+      } catch (Exception e) {
+        log.warn("Delivery change listener failed, delivery: {}", publicUrlKey, e);
+      }
+    }
+  }
+}
@@ -1,8 +1,9 @@
 package com.vanatta.helene.supplies.database.delivery;
 
 import com.vanatta.helene.supplies.database.DeploymentAdvice;
-import com.vanatta.helene.supplies.database.twilio.sms.SmsSender;
+import com.vanatta.helene.supplies.database.util.UnitOfWork;
 import java.util.Arrays;
+import java.util.List;
 import java.util.Optional;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -14,7 +15,13 @@ import org.springframework.web.bind.annotation.ModelAttribute;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.servlet.ModelAndView;
 
-/** Has endpoints dedicated for handling delivery 'confirm' and 'cancel' button actions. */
+/**
+ * Has endpoints dedicated for handling delivery 'confirm' and 'cancel' button actions.
+ *
+ * <p>State changes are committed together with their side effects: SMS messages go to the SMS
+ * queue, Airtable updates to the delivery outbox. Both are sent in the background, see {@link
+ * DeliveryOutboxWorker}.
+ */
 @AllArgsConstructor
 @Controller
 @Slf4j
@@ -24,8 +31,7 @@ class DeliveryConfirmationController {
   private static final String driverPath = "/confirm/driver";
 
   private final Jdbi jdbi;
-  private final SmsSender smsSender;
-  private final SendDeliveryUpdate sendDeliveryUpdate;
+  private final DeliveryOutboxWorker outboxWorker;
   private final NotificationStateMachine notificationStateMachine;
 
   public static String buildConfirmUrl(String deliveryPublicKey, String confirmationCode) {
@@ -75,38 +81,39 @@ class DeliveryConfirmationController {
         newDriverStatus);
 
     DriverStatus newStatus = DriverStatus.valueOf(newDriverStatus);
-    ConfirmationDao.updateDriverStatus(jdbi, deliveryKey, newStatus);
-
-    switch (newStatus) {
-      case PENDING -> {}
-      case DRIVER_EN_ROUTE -> {
-        notificationStateMachine
-            .driverEnRoute(delivery, domainName)
-            .forEach(message -> smsSender.send(message.getPhone(), message.getMessage()));
-        sendDeliveryUpdate.send(deliveryKey, DeliveryStatus.DELIVERY_IN_PROGRESS, domainName);
-        DeliveryDao.updateDeliveryStatus(jdbi, deliveryKey, DeliveryStatus.DELIVERY_IN_PROGRESS);
-      }
-      case ARRIVED_AT_PICKUP -> {
-        notificationStateMachine
-            .driverArrivedToPickup(delivery, domainName)
-            .forEach(message -> smsSender.send(message.getPhone(), message.getMessage()));
-        sendDeliveryUpdate.send(deliveryKey, DeliveryStatus.DELIVERY_IN_PROGRESS, domainName);
-        DeliveryDao.updateDeliveryStatus(jdbi, deliveryKey, DeliveryStatus.DELIVERY_IN_PROGRESS);
-      }
-      case DEPARTED_PICKUP -> {
-        notificationStateMachine
-            .driverLeavingPickup(delivery, domainName)
-            .forEach(message -> smsSender.send(message.getPhone(), message.getMessage()));
-        sendDeliveryUpdate.send(deliveryKey, DeliveryStatus.DELIVERY_IN_PROGRESS, domainName);
-        DeliveryDao.updateDeliveryStatus(jdbi, deliveryKey, DeliveryStatus.DELIVERY_IN_PROGRESS);
-      }
-      case ARRIVED_AT_DROP_OFF -> {
-        NotificationStateMachine.driverArrivedToDropOff(delivery)
-            .forEach(message -> smsSender.send(message.getPhone(), message.getMessage()));
-        sendDeliveryUpdate.send(deliveryKey, DeliveryStatus.DELIVERY_COMPLETED, domainName);
-        DeliveryDao.updateDeliveryStatus(jdbi, deliveryKey, DeliveryStatus.DELIVERY_COMPLETED);
-      }
-    }
+    UnitOfWork.useTransaction(
+        jdbi,
+        () -> {
+          ConfirmationDao.updateDriverStatus(jdbi, deliveryKey, newStatus);
+
+          switch (newStatus) {
+            case PENDING -> {}
+            case DRIVER_EN_ROUTE ->
+                updateStatus(
+                    deliveryKey,
+                    DeliveryStatus.DELIVERY_IN_PROGRESS,
+                    notificationStateMachine.driverEnRoute(delivery, domainName),
+                    domainName);
+            case ARRIVED_AT_PICKUP ->
+                updateStatus(
+                    deliveryKey,
+                    DeliveryStatus.DELIVERY_IN_PROGRESS,
+                    notificationStateMachine.driverArrivedToPickup(delivery, domainName),
+                    domainName);
+            case DEPARTED_PICKUP -> {
+              // ETA lookup can be slow, the SMS messages are built by the outbox worker
+              DeliveryOutboxDao.addDepartedPickupSms(jdbi, deliveryKey, domainName);
+              updateStatus(deliveryKey, DeliveryStatus.DELIVERY_IN_PROGRESS, List.of(), domainName);
+            }
+            case ARRIVED_AT_DROP_OFF ->
+                updateStatus(
+                    deliveryKey,
+                    DeliveryStatus.DELIVERY_COMPLETED,
+                    NotificationStateMachine.driverArrivedToDropOff(delivery),
+                    domainName);
+          }
+        });
+    outboxWorker.wakeUp();
 
     String driverConfirmCode =
         delivery
@@ -141,34 +148,45 @@ class DeliveryConfirmationController {
                 () -> new IllegalArgumentException("Invalid delivery code: " + deliveryKey));
 
     if (delivery.getDispatchCode().equals(code)) {
-      ConfirmationDao.dispatcherConfirm(jdbi, deliveryKey);
-      var messages =
-          notificationStateMachine.requestConfirmations(
-              DeliveryDao.fetchDeliveryByPublicKey(jdbi, deliveryKey).orElseThrow(), domainName);
-      messages.forEach(message -> smsSender.send(message.getPhone(), message.getMessage()));
-      sendDeliveryUpdate.send(deliveryKey, DeliveryStatus.CONFIRMING, domainName);
-      DeliveryDao.updateDeliveryStatus(jdbi, deliveryKey, DeliveryStatus.CONFIRMING);
+      UnitOfWork.useTransaction(
+          jdbi,
+          () -> {
+            ConfirmationDao.dispatcherConfirm(jdbi, deliveryKey);
+            var messages =
+                notificationStateMachine.requestConfirmations(
+                    DeliveryDao.fetchDeliveryByPublicKey(jdbi, deliveryKey).orElseThrow(),
+                    domainName);
+            updateStatus(deliveryKey, DeliveryStatus.CONFIRMING, messages, domainName);
+          });
+      outboxWorker.wakeUp();
     } else if (!delivery.getConfirmations().isEmpty()) {
-      Arrays.stream(DeliveryConfirmation.ConfirmRole.values())
-          .map(delivery::getConfirmation)
-          .filter(Optional::isPresent)
-          .map(Optional::get)
-          .filter(c -> c.getCode().equals(code))
-          .findAny()
-          .ifPresent(
-              confirm ->
-                  ConfirmationDao.confirmDelivery(
-                      jdbi,
-                      deliveryKey,
-                      DeliveryConfirmation.ConfirmRole.valueOf(confirm.getConfirmRole())));
-      delivery = DeliveryDao.fetchDeliveryByPublicKey(jdbi, deliveryKey).orElseThrow();
-
-      var messages = notificationStateMachine.confirm(delivery, domainName);
-      messages.forEach(message -> smsSender.send(message.getPhone(), message.getMessage()));
-      if (delivery.isConfirmed()) {
-        sendDeliveryUpdate.send(deliveryKey, DeliveryStatus.CONFIRMED, domainName);
-        DeliveryDao.updateDeliveryStatus(jdbi, deliveryKey, DeliveryStatus.CONFIRMED);
-      }
+      Optional<DeliveryConfirmation> confirmation =
+          Arrays.stream(DeliveryConfirmation.ConfirmRole.values())
+              .map(delivery::getConfirmation)
+              .filter(Optional::isPresent)
+              .map(Optional::get)
+              .filter(c -> c.getCode().equals(code))
+              .findAny();
+      UnitOfWork.useTransaction(
+          jdbi,
+          () -> {
+            confirmation.ifPresent(
+                confirm ->
+                    ConfirmationDao.confirmDelivery(
+                        jdbi,
+                        deliveryKey,
+                        DeliveryConfirmation.ConfirmRole.valueOf(confirm.getConfirmRole())));
+            Delivery updated =
+                DeliveryDao.fetchDeliveryByPublicKey(jdbi, deliveryKey).orElseThrow();
+
+            var messages = notificationStateMachine.confirm(updated, domainName);
+            if (updated.isConfirmed()) {
+              updateStatus(deliveryKey, DeliveryStatus.CONFIRMED, messages, domainName);
+            } else {
+              NotificationStateMachine.queueMessages(jdbi, messages);
+            }
+          });
+      outboxWorker.wakeUp();
     }
 
     return new ModelAndView("redirect:/delivery/" + deliveryKey);
@@ -186,29 +204,48 @@ class DeliveryConfirmationController {
             .orElseThrow(
                 () -> new IllegalArgumentException("Invalid delivery code: " + deliveryKey));
 
-    Arrays.stream(DeliveryConfirmation.ConfirmRole.values())
-        .map(delivery::getConfirmation)
-        .filter(Optional::isPresent)
-        .map(Optional::get)
-        .filter(c -> c.getCode().equals(code))
-        .findAny()
-        .ifPresent(
-            confirm ->
-                ConfirmationDao.cancelDelivery(
-                    jdbi,
-                    deliveryKey,
-                    cancelReason,
-                    DeliveryConfirmation.ConfirmRole.valueOf(confirm.getConfirmRole())));
-
-    var messages =
-        notificationStateMachine.cancel(
-            DeliveryDao.fetchDeliveryByPublicKey(jdbi, deliveryKey).orElseThrow(), domainName);
-    messages.forEach(message -> smsSender.send(message.getPhone(), message.getMessage()));
-    sendDeliveryUpdate.send(deliveryKey, DeliveryStatus.DELIVERY_CANCELLED, domainName);
-    DeliveryDao.updateDeliveryStatus(jdbi, deliveryKey, DeliveryStatus.DELIVERY_CANCELLED);
+    Optional<DeliveryConfirmation> confirmation =
+        Arrays.stream(DeliveryConfirmation.ConfirmRole.values())
+            .map(delivery::getConfirmation)
+            .filter(Optional::isPresent)
+            .map(Optional::get)
+            .filter(c -> c.getCode().equals(code))
+            .findAny();
+
+    UnitOfWork.useTransaction(
+        jdbi,
+        () -> {
+          confirmation.ifPresent(
+              confirm ->
+                  ConfirmationDao.cancelDelivery(
+                      jdbi,
+                      deliveryKey,
+                      cancelReason,
+                      DeliveryConfirmation.ConfirmRole.valueOf(confirm.getConfirmRole())));
+          var messages =
+              notificationStateMachine.cancel(
+                  DeliveryDao.fetchDeliveryByPublicKey(jdbi, deliveryKey).orElseThrow(),
+                  domainName);
+          updateStatus(deliveryKey, DeliveryStatus.DELIVERY_CANCELLED, messages, domainName);
+        });
+    outboxWorker.wakeUp();
     return ResponseEntity.ok(
         """
            {"status": "cancelled"}
            """);
   }
+
+  /**
+   * Updates delivery status, queues the SMS messages and adds the Airtable status update to the
+   * outbox. Call within a unit of work.
+   */
+  private void updateStatus(
+      String deliveryKey,
+      DeliveryStatus newStatus,
+      List<NotificationStateMachine.SmsMessage> messages,
+      String domainName) {
+    DeliveryDao.updateDeliveryStatus(jdbi, deliveryKey, newStatus);
+    NotificationStateMachine.queueMessages(jdbi, messages);
+    DeliveryOutboxDao.addAirtableUpdate(jdbi, deliveryKey, newStatus, domainName);
+  }
 }
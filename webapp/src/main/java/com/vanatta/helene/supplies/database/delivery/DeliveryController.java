@@ -5,6 +5,7 @@ import com.vanatta.helene.supplies.database.data.SiteAddress;
 import com.vanatta.helene.supplies.database.util.EnumUtil;
 import com.vanatta.helene.supplies.database.util.ListSplitter;
 import com.vanatta.helene.supplies.database.util.TruncateString;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -135,12 +136,11 @@ class DeliveryController {
   ModelAndView showDeliveryDetailPage(
       @PathVariable("publicUrlKey") String publicUrlKey,
       @RequestParam(required = false) String code) {
-    Map<String, Object> templateParams = new HashMap<>();
-
-    Delivery delivery =
-        DeliveryDao.fetchDeliveryByPublicKey(jdbi, publicUrlKey)
-            .orElseThrow(
-                () -> new IllegalArgumentException("Invalid delivery key: " + publicUrlKey));
+    DeliveryViewCache.DeliveryView view =
+        DeliveryViewCache.get(publicUrlKey, () -> buildDeliveryView(publicUrlKey));
+    Delivery delivery = view.delivery();
+    // cached params are shared, add the params that depend on 'code' to a copy
+    Map<String, Object> templateParams = new HashMap<>(view.templateParams());
 
     DeliveryConfirmation driverConfirm =
         delivery.getConfirmation(DeliveryConfirmation.ConfirmRole.DRIVER).orElse(null);
@@ -149,12 +149,6 @@ class DeliveryController {
     DeliveryConfirmation dropOffConfirm =
         delivery.getConfirmation(DeliveryConfirmation.ConfirmRole.DROPOFF_SITE).orElse(null);
 
-    if (delivery.getConfirmations().isEmpty()) {
-      assert driverConfirm == null && pickupConfirm == null && dropOffConfirm == null;
-    } else {
-      assert driverConfirm != null && pickupConfirm != null && dropOffConfirm != null;
-    }
-
     if (delivery.isConfirmed()) {
       templateParams.put(TemplateParams.confirmButton.name(), ConfirmButton.driverStatus(delivery));
     } else {
@@ -236,6 +230,31 @@ class DeliveryController {
       templateParams.put(TemplateParams.sendConfirmationVisible.name(), false);
     }
 
+    return new ModelAndView("delivery/delivery", templateParams);
+  }
+
+  /** Builds the template params of a delivery page that are the same for everyone viewing it. */
+  private DeliveryViewCache.DeliveryView buildDeliveryView(String publicUrlKey) {
+    Map<String, Object> templateParams = new HashMap<>();
+
+    Delivery delivery =
+        DeliveryDao.fetchDeliveryByPublicKey(jdbi, publicUrlKey)
+            .orElseThrow(
+                () -> new IllegalArgumentException("Invalid delivery key: " + publicUrlKey));
+
+    DeliveryConfirmation driverConfirm =
+        delivery.getConfirmation(DeliveryConfirmation.ConfirmRole.DRIVER).orElse(null);
+    DeliveryConfirmation pickupConfirm =
+        delivery.getConfirmation(DeliveryConfirmation.ConfirmRole.PICKUP_SITE).orElse(null);
+    DeliveryConfirmation dropOffConfirm =
+        delivery.getConfirmation(DeliveryConfirmation.ConfirmRole.DROPOFF_SITE).orElse(null);
+
+    if (delivery.getConfirmations().isEmpty()) {
+      assert driverConfirm == null && pickupConfirm == null && dropOffConfirm == null;
+    } else {
+      assert driverConfirm != null && pickupConfirm != null && dropOffConfirm != null;
+    }
+
     templateParams.put(TemplateParams.driverConfirmed.name(), driverConfirm);
     templateParams.put(TemplateParams.pickupConfirmed.name(), pickupConfirm);
     templateParams.put(TemplateParams.dropOffConfirmed.name(), dropOffConfirm);
@@ -329,7 +348,8 @@ class DeliveryController {
     templateParams.put(TemplateParams.items2.name(), split.size() > 1 ? split.get(1) : List.of());
     templateParams.put(TemplateParams.items3.name(), split.size() > 2 ? split.get(2) : List.of());
 
-    return new ModelAndView("delivery/delivery", templateParams);
+    return new DeliveryViewCache.DeliveryView(
+        delivery, Collections.unmodifiableMap(templateParams));
   }
 
   private static String nullsToDash(String input) {
@@ -1,19 +1,104 @@
 package com.vanatta.helene.supplies.database.delivery;
 
 import com.vanatta.helene.supplies.database.util.SecretCodeGenerator;
+import com.vanatta.helene.supplies.database.util.UnitOfWork;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.jdbi.v3.core.Handle;
 import org.jdbi.v3.core.Jdbi;
+import org.jdbi.v3.core.statement.PreparedBatch;
 
 @Slf4j
 public class DeliveryDao {
 
+  /** Upserts a delivery and updates its items, atomically. */
   public static void upsert(Jdbi jdbi, DeliveryUpdate deliveryUpdate) {
+    upsertAll(jdbi, List.of(deliveryUpdate));
+  }
+
+  /**
+   * Upserts deliveries and updates their items in one transaction. Each statement is sent once for
+   * all deliveries (as a batch), so the number of round trips does not grow with the number of
+   * deliveries. Items are diffed against the stored items, only changed items are deleted or added.
+   */
+  public static void upsertAll(Jdbi jdbi, List<DeliveryUpdate> deliveryUpdates) {
+    if (deliveryUpdates.isEmpty()) {
+      return;
+    }
+    // if a delivery is listed more than once, the last update wins
+    List<DeliveryUpdate> latestUpdates =
+        List.copyOf(
+            deliveryUpdates.stream()
+                .collect(
+                    Collectors.toMap(
+                        DeliveryUpdate::getDeliveryId,
+                        Function.identity(),
+                        (_, later) -> later,
+                        LinkedHashMap::new))
+                .values());
+    UnitOfWork.useTransaction(
+        jdbi, () -> jdbi.useHandle(handle -> doUpsertAll(handle, latestUpdates)));
+  }
+
+  /** Returns the delivery status of each delivery found, keyed by public URL key. */
+  public static Map<String, String> fetchDeliveryStatuses(Jdbi jdbi, List<String> publicUrlKeys) {
+    if (publicUrlKeys.isEmpty()) {
+      return Map.of();
+    }
+    return jdbi.withHandle(
+        handle ->
+            handle
+                .createQuery(
+                    """
+                    select public_url_key, delivery_status
+                    from delivery
+                    where public_url_key in (<publicUrlKeys>)
+                    """)
+                .bindList("publicUrlKeys", publicUrlKeys)
+                .mapToBean(DeliveryData.class)
+                .stream()
+                .collect(
+                    Collectors.toMap(
+                        DeliveryData::getPublicUrlKey,
+                        d -> Objects.requireNonNullElse(d.getDeliveryStatus(), ""))));
+  }
+
+  @Data
+  @NoArgsConstructor
+  public static class DeliveryIdRow {
+    long id;
+    long airtableId;
+  }
+
+  @Data
+  @NoArgsConstructor
+  public static class ItemIdRow {
+    long id;
+    long wssId;
+  }
+
+  @Data
+  @NoArgsConstructor
+  public static class StoredDeliveryItem {
+    long id;
+    long deliveryId;
+    Long itemId;
+    String itemName;
+  }
+
+  private static void doUpsertAll(Handle handle, List<DeliveryUpdate> deliveryUpdates) {
     String upsert =
         """
         insert into delivery(
@@ -81,97 +166,143 @@ public class DeliveryDao {
           dropoff_city = :dropoffCity,
           dropoff_state = :dropoffState
         """;
-    jdbi.withHandle(
-        handle ->
-            handle
-                .createUpdate(upsert)
-                .bind("fromSiteWssId", firstValue(deliveryUpdate.getPickupSiteWssId()))
-                .bind("toSiteWssId", firstValue(deliveryUpdate.getDropOffSiteWssId()))
-                .bind("deliveryStatus", deliveryUpdate.getDeliveryStatus())
-                .bind("targetDeliveryDate", deliveryUpdate.getTargetDeliveryDate())
-                .bind("dispatcherName", firstValue(deliveryUpdate.getDispatcherName()))
-                .bind("dispatcherNumber", firstValue(deliveryUpdate.getDispatcherNumber()))
-                .bind("driverName", firstValue(deliveryUpdate.getDriverName()))
-                .bind("driverNumber", firstValue(deliveryUpdate.getDriverNumber()))
-                .bind(
-                    "driverLicensePlateNumbers",
-                    firstValue(deliveryUpdate.getLicensePlateNumbers()))
-                .bind("airtableId", deliveryUpdate.getDeliveryId())
-                .bind("dispatcherNotes", deliveryUpdate.getDispatcherNotes())
-                .bind("dispatchCode", deliveryUpdate.getDispatcherCode())
-                .bind("driverCode", SecretCodeGenerator.generateCode())
-                .bind("publicUrlKey", deliveryUpdate.getPublicUrlKey())
-                .bind("pickupSiteName", firstValue(deliveryUpdate.getPickupSiteName()))
-                .bind("pickupContactName", firstValue(deliveryUpdate.getPickupContactName()))
-                .bind("pickupContactPhone", firstValue(deliveryUpdate.getPickupContactPhone()))
-                .bind("pickupHours", firstValue(deliveryUpdate.getPickupHours()))
-                .bind("pickupAddress", firstValue(deliveryUpdate.getPickupAddress()))
-                .bind("pickupCity", firstValue(deliveryUpdate.getPickupCity()))
-                .bind("pickupState", firstValue(deliveryUpdate.getPickupState()))
-                .bind("dropoffSiteName", firstValue(deliveryUpdate.getDropoffSiteName()))
-                .bind("dropoffContactName", firstValue(deliveryUpdate.getDropoffContactName()))
-                .bind("dropoffContactPhone", firstValue(deliveryUpdate.getDropoffContactPhone()))
-                .bind("dropoffHours", firstValue(deliveryUpdate.getDropoffHours()))
-                .bind("dropoffAddress", firstValue(deliveryUpdate.getDropoffAddress()))
-                .bind("dropoffCity", firstValue(deliveryUpdate.getDropoffCity()))
-                .bind("dropoffState", firstValue(deliveryUpdate.getDropoffState()))
-                .execute());
-
-    String deletePreviousItems =
-        """
-      delete from delivery_item where delivery_id =
-        (select id from delivery where airtable_id = :deliveryId)
-    """;
+    PreparedBatch upsertBatch = handle.prepareBatch(upsert);
+    for (DeliveryUpdate update : deliveryUpdates) {
+      upsertBatch
+          .bind("fromSiteWssId", firstValue(update.getPickupSiteWssId()))
+          .bind("toSiteWssId", firstValue(update.getDropOffSiteWssId()))
+          .bind("deliveryStatus", update.getDeliveryStatus())
+          .bind("targetDeliveryDate", update.getTargetDeliveryDate())
+          .bind("dispatcherName", firstValue(update.getDispatcherName()))
+          .bind("dispatcherNumber", firstValue(update.getDispatcherNumber()))
+          .bind("driverName", firstValue(update.getDriverName()))
+          .bind("driverNumber", firstValue(update.getDriverNumber()))
+          .bind("driverLicensePlateNumbers", firstValue(update.getLicensePlateNumbers()))
+          .bind("airtableId", update.getDeliveryId())
+          .bind("dispatcherNotes", update.getDispatcherNotes())
+          .bind("dispatchCode", update.getDispatcherCode())
+          .bind("driverCode", SecretCodeGenerator.generateCode())
+          .bind("publicUrlKey", update.getPublicUrlKey())
+          .bind("pickupSiteName", firstValue(update.getPickupSiteName()))
+          .bind("pickupContactName", firstValue(update.getPickupContactName()))
+          .bind("pickupContactPhone", firstValue(update.getPickupContactPhone()))
+          .bind("pickupHours", firstValue(update.getPickupHours()))
+          .bind("pickupAddress", firstValue(update.getPickupAddress()))
+          .bind("pickupCity", firstValue(update.getPickupCity()))
+          .bind("pickupState", firstValue(update.getPickupState()))
+          .bind("dropoffSiteName", firstValue(update.getDropoffSiteName()))
+          .bind("dropoffContactName", firstValue(update.getDropoffContactName()))
+          .bind("dropoffContactPhone", firstValue(update.getDropoffContactPhone()))
+          .bind("dropoffHours", firstValue(update.getDropoffHours()))
+          .bind("dropoffAddress", firstValue(update.getDropoffAddress()))
+          .bind("dropoffCity", firstValue(update.getDropoffCity()))
+          .bind("dropoffState", firstValue(update.getDropoffState()))
+          .add();
+    }
+    upsertBatch.execute();
+    deliveryUpdates.forEach(update -> DeliveryChanges.changed(handle, update.getPublicUrlKey()));
 
-    jdbi.withHandle(
-        handle ->
-            handle
-                .createUpdate(deletePreviousItems)
-                .bind("deliveryId", deliveryUpdate.getDeliveryId())
-                .execute());
+    // resolve delivery ids & item ids once for all deliveries
+    Map<Long, Long> deliveryIdByAirtableId =
+        handle
+            .createQuery(
+                "select id, airtable_id from delivery where airtable_id in (<airtableIds>)")
+            .bindList(
+                "airtableIds", deliveryUpdates.stream().map(DeliveryUpdate::getDeliveryId).toList())
+            .mapToBean(DeliveryIdRow.class)
+            .stream()
+            .collect(Collectors.toMap(DeliveryIdRow::getAirtableId, DeliveryIdRow::getId));
 
-    // insert all the latest items
-    String insert =
-        """
-    insert into delivery_item(delivery_id, item_id)
-    values(
-      (select id from delivery where airtable_id = :airtableId),
-      (select id from item where wss_id = :itemWssId)
-    )
-    """;
-    List<Long> itemIds = deliveryUpdate.getItemListWssIds();
-    if (itemIds != null) {
-      for (long itemWssId : itemIds) {
-        jdbi.withHandle(
-            handle ->
-                handle
-                    .createUpdate(insert)
-                    .bind("airtableId", deliveryUpdate.getDeliveryId())
-                    .bind("itemWssId", itemWssId)
-                    .execute());
+    List<Long> itemWssIds =
+        deliveryUpdates.stream()
+            .flatMap(update -> nullToEmpty(update.getItemListWssIds()).stream())
+            .distinct()
+            .toList();
+    Map<Long, Long> itemIdByWssId =
+        itemWssIds.isEmpty()
+            ? Map.of()
+            : handle
+                .createQuery("select id, wss_id from item where wss_id in (<wssIds>)")
+                .bindList("wssIds", itemWssIds)
+                .mapToBean(ItemIdRow.class)
+                .stream()
+                .collect(Collectors.toMap(ItemIdRow::getWssId, ItemIdRow::getId));
+
+    Map<Long, List<StoredDeliveryItem>> storedItemsByDelivery =
+        handle
+            .createQuery(
+                """
+                select id, delivery_id, item_id, item_name
+                from delivery_item
+                where delivery_id in (<deliveryIds>)
+                """)
+            .bindList("deliveryIds", List.copyOf(deliveryIdByAirtableId.values()))
+            .mapToBean(StoredDeliveryItem.class)
+            .stream()
+            .collect(Collectors.groupingBy(StoredDeliveryItem::getDeliveryId));
+
+    // diff the stored items against the latest items
+    List<Long> deliveryItemsToDelete = new ArrayList<>();
+    PreparedBatch insertBatch =
+        handle.prepareBatch(
+            """
+            insert into delivery_item(delivery_id, item_id, item_name)
+            values(:deliveryId, :itemId, :itemName)
+            """);
+    for (DeliveryUpdate update : deliveryUpdates) {
+      long deliveryId = deliveryIdByAirtableId.get(update.getDeliveryId());
+
+      Set<Long> itemIds = new LinkedHashSet<>();
+      for (Long itemWssId : nullToEmpty(update.getItemListWssIds())) {
+        Long itemId = itemIdByWssId.get(itemWssId);
+        if (itemId == null) {
+          throw new IllegalArgumentException(
+              String.format(
+                  "Delivery %s has an unknown item WSS ID: %s", update.getDeliveryId(), itemWssId));
+        }
+        itemIds.add(itemId);
       }
-    }
-    // insert items that are provided by name (sometimes items won't have a WSS-ID)
-    String insertByName =
-        """
-    insert into delivery_item(delivery_id, item_name)
-    values(
-      (select id from delivery where airtable_id = :airtableId),
-      :itemName
-    )
-    """;
-    List<String> itemNames = deliveryUpdate.getItemList();
-    if (itemNames != null) {
-      for (String itemName : itemNames) {
-        jdbi.withHandle(
-            handle ->
-                handle
-                    .createUpdate(insertByName)
-                    .bind("airtableId", deliveryUpdate.getDeliveryId())
-                    .bind("itemName", itemName)
-                    .execute());
+      // items that are provided by name (sometimes items won't have a WSS-ID)
+      Set<String> itemNames = new LinkedHashSet<>(nullToEmpty(update.getItemList()));
+
+      for (StoredDeliveryItem stored : storedItemsByDelivery.getOrDefault(deliveryId, List.of())) {
+        boolean stillListed =
+            stored.getItemId() != null
+                ? itemIds.remove(stored.getItemId())
+                : itemNames.remove(stored.getItemName());
+        if (!stillListed) {
+          deliveryItemsToDelete.add(stored.getId());
+        }
       }
+      itemIds.forEach(
+          itemId ->
+              insertBatch
+                  .bind("deliveryId", deliveryId)
+                  .bind("itemId", itemId)
+                  .bind("itemName", (String) null)
+                  .add());
+      itemNames.forEach(
+          itemName ->
+              insertBatch
+                  .bind("deliveryId", deliveryId)
+                  .bind("itemId", (Long) null)
+                  .bind("itemName", itemName)
+                  .add());
     }
+
+    if (!deliveryItemsToDelete.isEmpty()) {
+      handle
+          .createUpdate("delete from delivery_item where id in (<ids>)")
+          .bindList("ids", deliveryItemsToDelete)
+          .execute();
+    }
+    if (insertBatch.size() > 0) {
+      insertBatch.execute();
+    }
+  }
+
+  private static <T> List<T> nullToEmpty(List<T> list) {
+    return list == null ? List.of() : list;
   }
 
   private static <T> T firstValue(List<T> input) {
@@ -186,13 +317,15 @@ public class DeliveryDao {
         set delivery_status = :deliveryStatus
       where public_url_key = :publicKey
       """;
-    jdbi.withHandle(
-        handle ->
-            handle
-                .createUpdate(update)
-                .bind("publicKey", publicKey)
-                .bind("deliveryStatus", deliveryStatus.getAirtableName())
-                .execute());
+    jdbi.useHandle(
+        handle -> {
+          handle
+              .createUpdate(update)
+              .bind("publicKey", publicKey)
+              .bind("deliveryStatus", deliveryStatus.getAirtableName())
+              .execute();
+          DeliveryChanges.changed(handle, publicKey);
+        });
   }
 
   // get
@@ -260,6 +393,30 @@ public class DeliveryDao {
     return fetchDeliveries(jdbi, whereClause, siteId);
   }
 
+  /** Delivery item name keyed by delivery (airtable) id. */
+  @Data
+  @NoArgsConstructor
+  public static class DeliveryItemRow {
+    long deliveryId;
+    String name;
+  }
+
+  /** Delivery confirmation keyed by delivery public url key. */
+  @Data
+  @NoArgsConstructor
+  public static class DeliveryConfirmationRow {
+    String publicUrlKey;
+    String confirmRole;
+    Boolean confirmed;
+    String code;
+  }
+
+  /**
+   * Fetches deliveries matching a where clause along with their items and confirmations. Items and
+   * confirmations of all matching deliveries are each fetched with one query (filtered by the same
+   * where clause) and matched up in memory, so the number of queries does not grow with the number
+   * of deliveries.
+   */
   private static List<Delivery> fetchDeliveries(Jdbi jdbi, String whereClause, Object idValue) {
     String select =
         String.format(
@@ -281,7 +438,7 @@ public class DeliveryDao {
       fromSite.id fromSiteId,
       coalesce(fromSite.address, d.pickup_address) fromAddress,
       coalesce(fromSite.city, d.pickup_city) fromCity,
-      coalesce(fromCounty.state, d.pickup_state) fromState,
+      coalesce(fromSite.state, d.pickup_state) fromState,
       coalesce(fromSite.contact_name, d.pickup_contact_name) fromContactName,
       coalesce(fromSite.contact_number, d.pickup_contact_phone) fromContactPhone,
       coalesce(fromSite.hours, d.pickup_hours) fromHours,
@@ -290,7 +447,7 @@ public class DeliveryDao {
       toSite.id toSiteId,
       coalesce(toSite.address, d.dropoff_address) toAddress,
       coalesce(toSite.city, d.dropoff_city) toCity,
-      coalesce(toCounty.state, d.dropoff_state) toState,
+      coalesce(toSite.state, d.dropoff_state) toState,
       coalesce(toSite.contact_name, d.dropoff_contact_name) toContactName,
       coalesce(toSite.contact_number, d.dropoff_contact_phone) toContactPhone,
       coalesce(toSite.hours, d.dropoff_hours) toHours,
@@ -300,78 +457,95 @@ public class DeliveryDao {
       d.driver_code driverCode
     from delivery d
     left join site fromSite on fromSite.id = d.from_site_id
-    left join county fromCounty on fromCounty.id = fromSite.county_id
     left join site toSite on toSite.id = d.to_site_id
-    left join county toCounty on toCounty.id = toSite.county_id
     where (%s)
     order by d.target_delivery_date desc
     """,
             whereClause);
-    List<Delivery> deliveries =
-        jdbi
-            .withHandle(
-                handle ->
-                    handle
-                        .createQuery(select)
-                        .bind("id", idValue)
-                        .mapToBean(DeliveryData.class)
-                        .list())
-            .stream()
-            .map(Delivery::new)
-            .toList();
 
+    // items are referenced either by item id, or by name when they do not have a WSS-ID
     String selectDeliveryItems =
-        """
-      select distinct A.name
-      from
-      (
-      select
-        i.name
+        String.format(
+            """
+      select d.airtable_id deliveryId, i.name
       from delivery_item di
+      join delivery d on d.id = di.delivery_id
       join item i on i.id = di.item_id
-      where di.delivery_id = (select id from delivery where airtable_id = :deliveryId)
+      where (%s)
       union
-      select
-        di.item_name name
+      select d.airtable_id deliveryId, di.item_name name
       from delivery_item di
-      where di.delivery_id = (select id from delivery where airtable_id = :deliveryId)
-      ) A
-      order by A.name;
-      """;
+      join delivery d on d.id = di.delivery_id
+      where (%s)
+        and di.item_name is not null
+      """,
+            whereClause, whereClause);
 
     String selectConfirmations =
-        """
+        String.format(
+            """
       select
+         d.public_url_key publicUrlKey,
          dc.confirm_type confirmRole,
          dc.delivery_accepted confirmed,
          dc.secret_code code
       from delivery_confirmation dc
       join delivery d on d.id = dc.delivery_id
-      where d.public_url_key = :publicUrlKey
-      """;
+      where (%s)
+      order by dc.id
+      """,
+            whereClause);
 
-    for (Delivery delivery : deliveries) {
-      List<String> items =
-          jdbi.withHandle(
-              handle ->
-                  handle
-                      .createQuery(selectDeliveryItems)
-                      .bind("deliveryId", delivery.getDeliveryNumber())
-                      .mapTo(String.class)
-                      .list());
-      delivery.addItems(items.stream().filter(Objects::nonNull).sorted().toList());
-
-      List<DeliveryConfirmation> confirmations =
-          jdbi.withHandle(
-              handle ->
-                  handle
-                      .createQuery(selectConfirmations)
-                      .bind("publicUrlKey", delivery.getPublicKey())
-                      .mapToBean(DeliveryConfirmation.class)
-                      .list());
-      delivery.addConfirmations(confirmations);
-    }
+    return jdbi.withHandle(
+        handle -> {
+          List<Delivery> deliveries =
+              handle.createQuery(select).bind("id", idValue).mapToBean(DeliveryData.class).stream()
+                  .map(Delivery::new)
+                  .toList();
+          if (deliveries.isEmpty()) {
+            return deliveries;
+          }
+
+          Map<Long, List<String>> itemsByDelivery =
+              handle
+                  .createQuery(selectDeliveryItems)
+                  .bind("id", idValue)
+                  .mapToBean(DeliveryItemRow.class)
+                  .stream()
+                  .collect(
+                      Collectors.groupingBy(
+                          DeliveryItemRow::getDeliveryId,
+                          Collectors.mapping(DeliveryItemRow::getName, Collectors.toList())));
+
+          Map<String, List<DeliveryConfirmation>> confirmationsByDelivery =
+              handle
+                  .createQuery(selectConfirmations)
+                  .bind("id", idValue)
+                  .mapToBean(DeliveryConfirmationRow.class)
+                  .stream()
+                  .collect(
+                      Collectors.groupingBy(
+                          DeliveryConfirmationRow::getPublicUrlKey,
+                          Collectors.mapping(
+                              row ->
+                                  DeliveryConfirmation.builder()
+                                      .confirmRole(row.getConfirmRole())
+                                      .confirmed(row.getConfirmed())
+                                      .code(row.getCode())
+                                      .build(),
+                              Collectors.toList())));
 
-    return deliveries;
+          for (Delivery delivery : deliveries) {
+            delivery.addItems(
+                itemsByDelivery.getOrDefault(delivery.getDeliveryNumber(), List.of()).stream()
+                    .filter(Objects::nonNull)
+                    .distinct()
+                    .sorted()
+                    .toList());
+            delivery.addConfirmations(
+                confirmationsByDelivery.getOrDefault(delivery.getPublicKey(), List.of()));
+          }
+          return deliveries;
+        });
   }
 }
@@ -0,0 +1,115 @@
+package com.vanatta.helene.supplies.database.delivery;
+
+import com.vanatta.helene.supplies.database.util.WorkQueueDao;
+import java.util.List;
+import java.util.Map;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.jdbi.v3.core.Jdbi;
+
+/**
+ * Table of pending delivery side effects, see {@link DeliveryOutboxWorker}. Entries are added
+ * within the transaction that changes delivery state, so a side effect is recorded if and only if
+ * the state change commits. SMS messages are not sent through the outbox, they are added to the SMS
+ * queue within the same transaction.
+ */
+public class DeliveryOutboxDao {
+
+  public enum Action {
+    /** Send the delivery status to Airtable. */
+    AIRTABLE_UPDATE,
+    /**
+     * Send 'driver departed pickup' SMS messages. These are built when sent, they contain an ETA
+     * that needs a (slow) distance API lookup.
+     */
+    DEPARTED_PICKUP_SMS,
+  }
+
+  @Data
+  @NoArgsConstructor
+  public static class OutboxEntry {
+    long id;
+    String deliveryPublicKey;
+    Action action;
+    DeliveryStatus deliveryStatus;
+    String domainName;
+    int attempts;
+  }
+
+  static void addAirtableUpdate(
+      Jdbi jdbi, String publicKey, DeliveryStatus deliveryStatus, String domainName) {
+    jdbi.useHandle(
+        handle ->
+            handle
+                .createUpdate(
+                    """
+                    insert into delivery_outbox(
+                      delivery_public_key, action, delivery_status, domain_name)
+                    values(:publicKey, 'AIRTABLE_UPDATE', :deliveryStatus, :domainName)
+                    """)
+                .bind("publicKey", publicKey)
+                .bind("deliveryStatus", deliveryStatus.name())
+                .bind("domainName", domainName)
+                .execute());
+  }
+
+  static void addDepartedPickupSms(Jdbi jdbi, String publicKey, String domainName) {
+    jdbi.useHandle(
+        handle ->
+            handle
+                .createUpdate(
+                    """
+                    insert into delivery_outbox(delivery_public_key, action, domain_name)
+                    values(:publicKey, 'DEPARTED_PICKUP_SMS', :domainName)
+                    """)
+                .bind("publicKey", publicKey)
+                .bind("domainName", domainName)
+                .execute());
+  }
+
+  static final WorkQueueDao.Table TABLE =
+      WorkQueueDao.Table.builder().name("delivery_outbox").build();
+
+  /**
+   * Claims entries that are due, oldest first, see {@link WorkQueueDao#claim}.
+   *
+   * <p>Airtable updates of a delivery are sent in order. An Airtable update is not claimed while an
+   * older Airtable update of the same delivery is pending, otherwise a retried older status could
+   * overwrite a newer one.
+   */
+  static List<OutboxEntry> claimDue(Jdbi jdbi, int limit, int leaseSeconds) {
+    String claimableIds =
+        """
+        select o.id
+        from delivery_outbox o
+        where o.sent_at is null
+          and o.failed_at is null
+          and o.next_attempt_at <= now()
+          and (
+            o.action <> 'AIRTABLE_UPDATE'
+            or not exists (
+              select 1
+              from delivery_outbox earlier
+              where earlier.delivery_public_key = o.delivery_public_key
+                and earlier.action = 'AIRTABLE_UPDATE'
+                and earlier.id < o.id
+                and earlier.sent_at is null
+                and earlier.failed_at is null))
+        order by o.id
+        limit :limit
+        for update skip locked
+        """;
+    return WorkQueueDao.claim(
+        jdbi,
+        TABLE,
+        claimableIds,
+        Map.of("limit", limit),
+        leaseSeconds,
+        "id, delivery_public_key, action, delivery_status, domain_name, attempts",
+        OutboxEntry.class);
+  }
+
+  static int countPending(Jdbi jdbi) {
+    return WorkQueueDao.countPending(jdbi, TABLE);
+  }
+}
@@ -0,0 +1,162 @@
+package com.vanatta.helene.supplies.database.delivery;
+
+import com.vanatta.helene.supplies.database.JdbiConfiguration;
+import com.vanatta.helene.supplies.database.twilio.sms.SmsDispatcher;
+import com.vanatta.helene.supplies.database.util.WorkQueue;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.util.List;
+import lombok.Builder;
+import lombok.Value;
+import org.jdbi.v3.core.Jdbi;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Sends delivery side effects recorded in the delivery outbox (see {@link DeliveryOutboxDao}):
+ * Airtable status updates and 'driver departed' SMS notifications, which are built here and handed
+ * to the SMS queue. Requests that change delivery state add outbox entries and return without
+ * waiting on Airtable or the distance API.
+ *
+ * <p>Entries are polled every {@link #POLL_INTERVAL_MS}, or right away after {@link #wakeUp()}.
+ * Failed entries are retried with exponential backoff, after {@link #MAX_ATTEMPTS} they are marked
+ * as failed and logged, see {@link WorkQueue}.
+ */
+@Component
+public class DeliveryOutboxWorker {
+  static final long POLL_INTERVAL_MS = 2_000;
+  static final int BATCH_SIZE = 20;
+  static final int MAX_ATTEMPTS = 8;
+
+  /** Claimed entries are retried after this long if the worker dies while sending. */
+  static final int LEASE_SECONDS = 5 * 60;
+
+  static final long FIRST_RETRY_DELAY_SECONDS = 30;
+  static final long MAX_RETRY_DELAY_SECONDS = 30 * 60;
+
+  private static final int SENT_RETENTION_DAYS = 30;
+  private static final int CLEANUP_INTERVAL_MS = 60 * 60 * 1000;
+
+  private final Jdbi jdbi;
+  private final SmsDispatcher smsDispatcher;
+  private final SendDeliveryUpdate sendDeliveryUpdate;
+  private final NotificationStateMachine notificationStateMachine;
+  private final WorkQueue workQueue;
+
+  @Value
+  @Builder
+  public static class OutboxMetrics {
+    int pending;
+    long sent;
+    long retried;
+    long failed;
+  }
+
+  DeliveryOutboxWorker(
+      @Qualifier(JdbiConfiguration.BACKGROUND) Jdbi jdbi,
+      SmsDispatcher smsDispatcher,
+      SendDeliveryUpdate sendDeliveryUpdate,
+      NotificationStateMachine notificationStateMachine) {
+    this.jdbi = jdbi;
+    this.smsDispatcher = smsDispatcher;
+    this.sendDeliveryUpdate = sendDeliveryUpdate;
+    this.notificationStateMachine = notificationStateMachine;
+    this.workQueue =
+        WorkQueue.builder()
+            .jdbi(jdbi)
+            .table(DeliveryOutboxDao.TABLE)
+            .maxAttempts(MAX_ATTEMPTS)
+            .firstRetryDelaySeconds(FIRST_RETRY_DELAY_SECONDS)
+            .maxRetryDelaySeconds(MAX_RETRY_DELAY_SECONDS)
+            .build();
+  }
+
+  /**
+   * Starts polling. Instances created outside of Spring (tests) are not started, entries are sent
+   * only when {@link #processDue()} is called.
+   */
+  @PostConstruct
+  void start() {
+    workQueue.start("delivery-outbox", POLL_INTERVAL_MS, this::processDue);
+  }
+
+  /**
+   * Sends due entries and queued SMS messages without waiting for the next poll, call after new
+   * entries are committed.
+   */
+  void wakeUp() {
+    smsDispatcher.wakeUp();
+    workQueue.wakeUp();
+  }
+
+  /** Sends all entries that are due. */
+  synchronized void processDue() {
+    List<DeliveryOutboxDao.OutboxEntry> entries;
+    do {
+      entries = DeliveryOutboxDao.claimDue(jdbi, BATCH_SIZE, LEASE_SECONDS);
+      entries.forEach(this::process);
+    } while (entries.size() == BATCH_SIZE);
+  }
+
+  private void process(DeliveryOutboxDao.OutboxEntry entry) {
+    try {
+      send(entry);
+    } catch (Exception e) {
+      workQueue.failed(
+          List.of(entry.getId()),
+          entry.getAttempts(),
+          e.getClass().getSimpleName() + ": " + e.getMessage(),
+          true,
+          entry,
+          e);
+      return;
+    }
+    workQueue.sent(List.of(entry.getId()));
+  }
+
+  private void send(DeliveryOutboxDao.OutboxEntry entry) {
+    switch (entry.getAction()) {
+      case AIRTABLE_UPDATE ->
+          sendDeliveryUpdate.send(
+              entry.getDeliveryPublicKey(), entry.getDeliveryStatus(), entry.getDomainName());
+      case DEPARTED_PICKUP_SMS -> {
+        Delivery delivery =
+            DeliveryDao.fetchDeliveryByPublicKey(jdbi, entry.getDeliveryPublicKey())
+                .orElseThrow(
+                    () ->
+                        new IllegalStateException(
+                            "No delivery for public key: " + entry.getDeliveryPublicKey()));
+        NotificationStateMachine.queueMessages(
+            jdbi, notificationStateMachine.driverLeavingPickup(delivery, entry.getDomainName()));
+        smsDispatcher.wakeUp();
+      }
+    }
+  }
+
+  /** Doubles with each attempt: 30s, 1m, 2m, .. up to 30m. */
+  // @VisibleForTesting
+  static long retryDelaySeconds(int attempts) {
+    return WorkQueue.retryDelaySeconds(
+        attempts, FIRST_RETRY_DELAY_SECONDS, MAX_RETRY_DELAY_SECONDS);
+  }
+
+  @Scheduled(fixedDelay = CLEANUP_INTERVAL_MS)
+  void deleteOldEntries() {
+    workQueue.deleteCompletedBefore(SENT_RETENTION_DAYS);
+  }
+
+  public OutboxMetrics metrics() {
+    return OutboxMetrics.builder()
+        .pending(workQueue.countPending())
+        .sent(workQueue.sentCount())
+        .retried(workQueue.retriedCount())
+        .failed(workQueue.failedCount())
+        .build();
+  }
+
+  @PreDestroy
+  void shutdown() throws InterruptedException {
+    workQueue.shutdown();
+  }
+}
@@ -61,6 +61,15 @@ public class DeliveryUpdate {
     return new Gson().fromJson(inputJson, DeliveryUpdate.class);
   }
 
+  /** Parses either a single delivery update or a JSON array of delivery updates. */
+  static List<DeliveryUpdate> parseJsonList(String inputJson) {
+    if (inputJson.trim().startsWith("[")) {
+      return List.of(new Gson().fromJson(inputJson, DeliveryUpdate[].class));
+    } else {
+      return List.of(parseJson(inputJson));
+    }
+  }
+
   boolean isComplete() {
     return deliveryStatus != null && deliveryStatus.toLowerCase().contains("complete");
   }
@@ -1,9 +1,15 @@
 package com.vanatta.helene.supplies.database.delivery;
 
+import com.vanatta.helene.supplies.database.JdbiConfiguration;
 import com.vanatta.helene.supplies.database.manage.inventory.InventoryDao;
+import com.vanatta.helene.supplies.database.util.UnitOfWork;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.jdbi.v3.core.Jdbi;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.PostMapping;
@@ -18,38 +24,53 @@ class DeliveryUpdateWebhook {
   // also does delivery upserts
   private static final String PATH_UPDATE_DELIVERY = "/webhook/update-delivery";
 
+  @Qualifier(JdbiConfiguration.WEBHOOK)
   private final Jdbi jdbi;
 
+  /**
+   * Receives either one delivery update, or a JSON array of delivery updates (eg: from a bulk edit
+   * in Airtable). All updates are applied in one transaction.
+   */
   @PostMapping(PATH_UPDATE_DELIVERY)
   ResponseEntity<String> upsertDelivery(@RequestBody String body) {
     log.info("Delivery update endpoint received: {}", body);
-    DeliveryUpdate deliveryUpdate = DeliveryUpdate.parseJson(body);
-
-    String oldStatus =
-        DeliveryDao.fetchDeliveryByPublicKey(jdbi, deliveryUpdate.getPublicUrlKey())
-            .map(Delivery::getDeliveryStatus)
-            .orElse("");
-
-    DeliveryDao.upsert(jdbi, deliveryUpdate);
-
-    // if the delivery was already completed, and we get an update and the delivery is still
-    // complete, then
-    // we should skip any automations.
-    boolean deliveryWasNotComplete = !oldStatus.toLowerCase().contains("complete");
-    boolean deliveryIsNowComplete = deliveryUpdate.isComplete();
-    boolean deliveryContainsItems = !deliveryUpdate.getItemListWssIds().isEmpty();
-    if (deliveryWasNotComplete && deliveryIsNowComplete && deliveryContainsItems) {
-      log.info(
-          "Delivery completion received! Updating site inventory items to no longer be needed."
-              + "Site WSS ID: {}, item WSS IDs: {}",
-          deliveryUpdate.dropOffSiteWssId,
-          deliveryUpdate.getItemListWssIds());
-      if (!deliveryUpdate.dropOffSiteWssId.isEmpty()) {
-        InventoryDao.markItemsAsNotNeeded(
-            jdbi, deliveryUpdate.dropOffSiteWssId.getFirst(), deliveryUpdate.getItemListWssIds());
-      }
-    }
+    List<DeliveryUpdate> deliveryUpdates = DeliveryUpdate.parseJsonList(body);
 
+    // one connection & transaction for the read of the old status, the upsert and inventory update
+    UnitOfWork.useTransaction(jdbi, () -> applyDeliveryUpdates(deliveryUpdates));
     return ResponseEntity.ok("ok");
   }
+
+  private void applyDeliveryUpdates(List<DeliveryUpdate> deliveryUpdates) {
+    Map<String, String> oldStatuses =
+        DeliveryDao.fetchDeliveryStatuses(
+            jdbi,
+            deliveryUpdates.stream()
+                .map(DeliveryUpdate::getPublicUrlKey)
+                .filter(Objects::nonNull)
+                .toList());
+
+    DeliveryDao.upsertAll(jdbi, deliveryUpdates);
+
+    for (DeliveryUpdate deliveryUpdate : deliveryUpdates) {
+      String oldStatus = oldStatuses.getOrDefault(deliveryUpdate.getPublicUrlKey(), "");
+      // if the delivery was already completed, and we get an update and the delivery is still
+      // complete, then
+      // we should skip any automations.
+      boolean deliveryWasNotComplete = !oldStatus.toLowerCase().contains("complete");
+      boolean deliveryIsNowComplete = deliveryUpdate.isComplete();
+      boolean deliveryContainsItems = !deliveryUpdate.getItemListWssIds().isEmpty();
+      if (deliveryWasNotComplete && deliveryIsNowComplete && deliveryContainsItems) {
+        log.info(
+            "Delivery completion received! Updating site inventory items to no longer be needed."
+                + "Site WSS ID: {}, item WSS IDs: {}",
+            deliveryUpdate.dropOffSiteWssId,
+            deliveryUpdate.getItemListWssIds());
+        if (!deliveryUpdate.dropOffSiteWssId.isEmpty()) {
+          InventoryDao.markItemsAsNotNeeded(
+              jdbi, deliveryUpdate.dropOffSiteWssId.getFirst(), deliveryUpdate.getItemListWssIds());
+        }
+      }
+    }
+  }
 }
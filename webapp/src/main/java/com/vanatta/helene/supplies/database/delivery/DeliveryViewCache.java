@@ -0,0 +1,99 @@
+package com.vanatta.helene.supplies.database.delivery;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import lombok.Builder;
+import lombok.Value;
+import org.jdbi.v3.core.Handle;
+
+/**
+ * Caches delivery manifest page view models, keyed by delivery public URL key. Everyone on a
+ * delivery (driver, dispatcher, both sites) opens the manifest page when the delivery is
+ * dispatched, those views are served from memory.
+ *
+ * <p>The DAO methods that write delivery data ({@link DeliveryDao}, {@link ConfirmationDao})
+ * invalidate the delivery they change, right away and again when their transaction ends. The cache
+ * is static since those DAO methods are static.
+ *
+ * <p>Changes not made through those DAOs (eg: a site name or address edit) show up once the entry
+ * expires after {@link #TTL}.
+ */
+public class DeliveryViewCache {
+  static final Duration TTL = Duration.ofMinutes(1);
+
+  /** Max number of cached deliveries, when exceeded the cache is cleared. */
+  static final int MAX_ENTRIES = 1_000;
+
+  private static final Map<String, CachedView> cache = new ConcurrentHashMap<>();
+  private static final LongAdder hits = new LongAdder();
+  private static final LongAdder misses = new LongAdder();
+  private static final LongAdder invalidations = new LongAdder();
+
+  /** A delivery and the template params of its manifest page that do not depend on the viewer. */
+  record DeliveryView(Delivery delivery, Map<String, Object> templateParams) {}
+
+  private record CachedView(DeliveryView view, long expiryNanos) {}
+
+  @Value
+  @Builder
+  public static class CacheMetrics {
+    int size;
+    long hits;
+    long misses;
+    long invalidations;
+  }
+
+  /** Returns the cached view of a delivery, or loads (and caches) it. */
+  static DeliveryView get(String publicUrlKey, Supplier<DeliveryView> loader) {
+    long now = System.nanoTime();
+    CachedView cached = cache.get(publicUrlKey);
+    if (cached != null && now - cached.expiryNanos < 0) {
+      hits.increment();
+      return cached.view;
+    }
+    misses.increment();
+    DeliveryView view = loader.get();
+    if (cache.size() >= MAX_ENTRIES) {
+      cache.clear();
+    }
+    cache.put(publicUrlKey, new CachedView(view, now + TTL.toNanos()));
+    return view;
+  }
+
+  /**
+   * Removes a delivery from the cache. If the handle is in a transaction the delivery is removed
+   * again once the transaction commits or rolls back, in case a concurrent page view cached data
+   * from before the commit.
+   */
+  static void invalidate(Handle handle, String publicUrlKey) {
+    if (publicUrlKey == null) {
+      return;
+    }
+    invalidate(publicUrlKey);
+    if (handle.isInTransaction()) {
+      handle.afterCommit(() -> invalidate(publicUrlKey));
+      handle.afterRollback(() -> invalidate(publicUrlKey));
+    }
+  }
+
+  private static void invalidate(String publicUrlKey) {
+    invalidations.increment();
+    cache.remove(publicUrlKey);
+  }
+
+  public static void invalidateAll() {
+    cache.clear();
+  }
+
+  public static CacheMetrics metrics() {
+    return CacheMetrics.builder()
+        .size(cache.size())
+        .hits(hits.sum())
+        .misses(misses.sum())
+        .invalidations(invalidations.sum())
+        .build();
+  }
+}
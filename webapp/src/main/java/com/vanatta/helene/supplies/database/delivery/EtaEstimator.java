@@ -0,0 +1,105 @@
+package com.vanatta.helene.supplies.database.delivery;
+
+import com.vanatta.helene.supplies.database.data.DistanceApi;
+import com.vanatta.helene.supplies.database.data.SiteAddress;
+import com.vanatta.helene.supplies.database.jobs.distance.DistanceDao;
+import com.vanatta.helene.supplies.database.util.DateTimeFormat;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import lombok.extern.slf4j.Slf4j;
+import org.jdbi.v3.core.Jdbi;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Estimates what time a driver will arrive at a drop off site. Drive time is taken from the site
+ * distance matrix when it has been computed, otherwise the distance API is queried and the result
+ * is cached for a short while (keyed by the pickup & drop off address).
+ */
+@Slf4j
+@Component
+class EtaEstimator {
+  static final Duration CACHE_TTL = Duration.ofMinutes(30);
+
+  private final Jdbi jdbi;
+  private final DistanceApi distanceApi;
+  private final Supplier<LocalDateTime> timeSupplier;
+
+  private final Map<String, CachedDriveTime> cache = new ConcurrentHashMap<>();
+
+  private record CachedDriveTime(long seconds, Instant expiry) {}
+
+  @Autowired
+  EtaEstimator(Jdbi jdbi, DistanceApi distanceApi) {
+    this(jdbi, distanceApi, () -> LocalDateTime.now(ZoneId.of("America/New_York")));
+  }
+
+  // @VisibleForTesting
+  EtaEstimator(Jdbi jdbi, DistanceApi distanceApi, Supplier<LocalDateTime> timeSupplier) {
+    this.jdbi = jdbi;
+    this.distanceApi = distanceApi;
+    this.timeSupplier = timeSupplier;
+  }
+
+  /**
+   * Returns the time of day a driver leaving the pickup site 'now' would arrive at drop off, or
+   * 'unknown' if drive time cannot be computed.
+   */
+  String estimateEta(Delivery delivery) {
+    return driveSeconds(delivery)
+        .map(seconds -> DateTimeFormat.formatTime(timeSupplier.get().plusSeconds(seconds)))
+        .orElse("unknown");
+  }
+
+  Optional<Long> driveSeconds(Delivery delivery) {
+    return lookupStoredDriveTime(delivery).or(() -> lookupCachedDriveTime(delivery));
+  }
+
+  private Optional<Long> lookupStoredDriveTime(Delivery delivery) {
+    if (delivery.getFromSiteId() == null || delivery.getToSiteId() == null) {
+      return Optional.empty();
+    }
+    return DistanceDao.queryDistance(jdbi, delivery.getFromSiteId(), delivery.getToSiteId())
+        .map(DistanceDao.DistanceResult::getDurationSeconds);
+  }
+
+  private Optional<Long> lookupCachedDriveTime(Delivery delivery) {
+    var from =
+        SiteAddress.builder()
+            .address(delivery.getFromAddress())
+            .city(delivery.getFromCity())
+            .state(delivery.getFromState())
+            .build();
+    var to =
+        SiteAddress.builder()
+            .address(delivery.getToAddress())
+            .city(delivery.getToCity())
+            .state(delivery.getToState())
+            .build();
+    String key = from.toEncodedUrlValue() + "|" + to.toEncodedUrlValue();
+
+    Instant now = Instant.now();
+    cache.values().removeIf(cached -> cached.expiry().isBefore(now));
+    CachedDriveTime cached = cache.get(key);
+    if (cached != null) {
+      return Optional.of(cached.seconds());
+    }
+
+    var response = distanceApi.queryDistance(from, to);
+    if (response.getDuration() == null) {
+      log.warn(
+          "Unable to compute drive time between: {}, and: {}",
+          from.toEncodedUrlValue(),
+          to.toEncodedUrlValue());
+      return Optional.empty();
+    }
+    cache.put(key, new CachedDriveTime(response.getDuration(), now.plus(CACHE_TTL)));
+    return Optional.of(response.getDuration());
+  }
+}
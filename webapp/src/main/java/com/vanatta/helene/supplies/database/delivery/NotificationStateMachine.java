@@ -1,7 +1,7 @@
 package com.vanatta.helene.supplies.database.delivery;
 
-import com.vanatta.helene.supplies.database.data.GoogleDistanceApi;
 import com.vanatta.helene.supplies.database.delivery.DeliveryConfirmation.ConfirmRole;
+import com.vanatta.helene.supplies.database.twilio.sms.SmsQueueDao;
 import com.vanatta.helene.supplies.database.util.TruncateString;
 import jakarta.annotation.Nonnull;
 import java.util.ArrayList;
@@ -9,6 +9,7 @@ import java.util.List;
 import java.util.Optional;
 import java.util.stream.Stream;
 import lombok.Builder;
+import org.jdbi.v3.core.Jdbi;
 import org.springframework.stereotype.Component;
 
 /**
@@ -18,10 +19,22 @@ import org.springframework.stereotype.Component;
 @Component
 class NotificationStateMachine {
 
-  private final GoogleDistanceApi googleDistanceApi;
+  private final EtaEstimator etaEstimator;
 
-  NotificationStateMachine(GoogleDistanceApi googleDistanceApi) {
-    this.googleDistanceApi = googleDistanceApi;
+  NotificationStateMachine(EtaEstimator etaEstimator) {
+    this.etaEstimator = etaEstimator;
+  }
+
+  /**
+   * Kind of status a message reports. An unsent message is superseded by a newer message of the
+   * same delivery, to the same phone, with the same topic.
+   */
+  enum Topic {
+    /** Confirmed, confirmation received and cancelled messages. */
+    DELIVERY_STATUS,
+    /** Driver en route, arrived and leaving messages. */
+    DRIVER_STATUS,
+    ;
   }
 
   @Builder
@@ -29,6 +42,29 @@ class NotificationStateMachine {
   static class SmsMessage {
     @Nonnull String phone;
     @Nonnull String message;
+
+    /**
+     * Public key of the delivery the message is about. Messages of the same delivery to the same
+     * phone are coalesced into one SMS by the SMS dispatcher.
+     */
+    String deliveryKey;
+
+    /** Null if the message is never superseded (eg: a request to confirm). */
+    Topic topic;
+
+    SmsQueueDao.OutgoingSms toOutgoingSms() {
+      return SmsQueueDao.OutgoingSms.builder()
+          .phone(phone)
+          .message(message)
+          .groupKey(deliveryKey)
+          .topic(topic == null ? null : topic.name())
+          .build();
+    }
+  }
+
+  /** Adds messages to the SMS queue, they are sent by the SMS dispatcher once committed. */
+  static void queueMessages(Jdbi jdbi, List<SmsMessage> messages) {
+    SmsQueueDao.enqueueAll(jdbi, messages.stream().map(SmsMessage::toOutgoingSms).toList());
   }
 
   List<SmsMessage> requestConfirmations(Delivery delivery, String domainName) {
@@ -36,6 +72,7 @@ class NotificationStateMachine {
 
     messages.add(
         SmsMessage.builder()
+            .deliveryKey(delivery.getPublicKey())
             .phone(delivery.getDriverPhoneNumber())
             .message(
                 String.format(
@@ -61,6 +98,7 @@ class NotificationStateMachine {
 
     messages.add(
         SmsMessage.builder()
+            .deliveryKey(delivery.getPublicKey())
             .phone(delivery.getFromContactPhoneNumber())
             .message(
                 String.format(
@@ -87,6 +125,7 @@ class NotificationStateMachine {
 
     messages.add(
         SmsMessage.builder()
+            .deliveryKey(delivery.getPublicKey())
             .phone(delivery.getToContactPhoneNumber())
             .message(
                 String.format(
@@ -145,6 +184,8 @@ class NotificationStateMachine {
       List<SmsMessage> messages = new ArrayList<>();
       messages.add(
           SmsMessage.builder()
+              .deliveryKey(delivery.getPublicKey())
+              .topic(Topic.DELIVERY_STATUS)
               .phone(delivery.getDriverPhoneNumber())
               .message(messageToDriver)
               .build());
@@ -154,13 +195,22 @@ class NotificationStateMachine {
                   delivery.getDispatcherPhoneNumber(),
                   delivery.getToContactPhoneNumber(),
                   delivery.getFromContactPhoneNumber())
-              .map(number -> SmsMessage.builder().phone(number).message(messageToOthers).build())
+              .map(
+                  number ->
+                      SmsMessage.builder()
+                          .deliveryKey(delivery.getPublicKey())
+                          .topic(Topic.DELIVERY_STATUS)
+                          .phone(number)
+                          .message(messageToOthers)
+                          .build())
               .toList());
       return messages;
     } else {
       // send a confirmation received notification to just the dispatcher
       return List.of(
           SmsMessage.builder()
+              .deliveryKey(delivery.getPublicKey())
+              .topic(Topic.DELIVERY_STATUS)
               .phone(delivery.getDispatcherPhoneNumber())
               .message(
                   String.format(
@@ -202,6 +252,8 @@ class NotificationStateMachine {
           .map(
               number ->
                   SmsMessage.builder()
+                      .deliveryKey(delivery.getPublicKey())
+                      .topic(Topic.DELIVERY_STATUS)
                       .phone(number)
                       .message(
                           String.format(
@@ -229,6 +281,8 @@ class NotificationStateMachine {
         .map(
             number ->
                 SmsMessage.builder()
+                    .deliveryKey(delivery.getPublicKey())
+                    .topic(Topic.DRIVER_STATUS)
                     .phone(number)
                     .message(
                         String.format(
@@ -253,6 +307,8 @@ class NotificationStateMachine {
         .map(
             number ->
                 SmsMessage.builder()
+                    .deliveryKey(delivery.getPublicKey())
+                    .topic(Topic.DRIVER_STATUS)
                     .phone(number)
                     .message(
                         String.format(
@@ -271,11 +327,18 @@ class NotificationStateMachine {
         .toList();
   }
 
+  /**
+   * Note, computing the ETA might query the distance API, callers should avoid invoking this on a
+   * request thread.
+   */
   List<SmsMessage> driverLeavingPickup(Delivery delivery, String domainName) {
+    String eta = etaEstimator.estimateEta(delivery);
     return Stream.of(delivery.getDispatcherPhoneNumber(), delivery.getToContactPhoneNumber())
         .map(
             number ->
                 SmsMessage.builder()
+                    .deliveryKey(delivery.getPublicKey())
+                    .topic(Topic.DRIVER_STATUS)
                     .phone(number)
                     .message(
                         String.format(
@@ -288,7 +351,7 @@ class NotificationStateMachine {
                 Full Details: %s
                 """,
                             delivery.getToSite(),
-                            googleDistanceApi.estimateEta(delivery),
+                            eta,
                             delivery.getDriverName(),
                             delivery.getDriverLicensePlate(),
                             delivery.getFromSite(),
@@ -306,6 +369,8 @@ class NotificationStateMachine {
         .map(
             number ->
                 SmsMessage.builder()
+                    .deliveryKey(delivery.getPublicKey())
+                    .topic(Topic.DRIVER_STATUS)
                     .phone(number)
                     .message(
                         String.format(
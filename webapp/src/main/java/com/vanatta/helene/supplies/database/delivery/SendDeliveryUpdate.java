@@ -1,13 +1,15 @@
 package com.vanatta.helene.supplies.database.delivery;
 
+import com.vanatta.helene.supplies.database.JdbiConfiguration;
 import com.vanatta.helene.supplies.database.util.HttpPostSender;
 import jakarta.annotation.Nonnull;
 import lombok.Builder;
 import org.jdbi.v3.core.Jdbi;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
-/** Sends an updated delivery status to Airtable. */
+/** Sends an updated delivery status to Airtable, see {@link DeliveryOutboxWorker}. */
 @Component
 public class SendDeliveryUpdate {
 
@@ -31,7 +33,7 @@ public class SendDeliveryUpdate {
   private final String airtableWebhookUrl;
 
   SendDeliveryUpdate(
-      Jdbi jdbi,
+      @Qualifier(JdbiConfiguration.BACKGROUND) Jdbi jdbi,
       @Value("${make.enabled}") boolean enabled,
       @Value("${airtable.webhook.delivery.update}") String airtableWebhookUrl) {
 
@@ -40,12 +42,13 @@ public class SendDeliveryUpdate {
     this.airtableWebhookUrl = airtableWebhookUrl;
   }
 
+  /** Throws if the update is not accepted, so the outbox retries it. */
   void send(String publicKey, DeliveryStatus newStatus, String domainName) {
     if (!enabled) {
       return;
     }
     UpdateDeliveryJson updateDeliveryJson = createPayload(jdbi, publicKey, newStatus, domainName);
-    HttpPostSender.sendAsJson(airtableWebhookUrl, updateDeliveryJson);
+    HttpPostSender.sendAsJsonOrThrow(airtableWebhookUrl, updateDeliveryJson);
   }
 
   UpdateDeliveryJson createPayload(
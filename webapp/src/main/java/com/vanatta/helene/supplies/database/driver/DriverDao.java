@@ -26,7 +26,7 @@ public class DriverDao {
                       license_plates,
                       availability,
                       comments
-                    from driver where regexp_replace(phone, '[^0-9]+', '', 'g') = :phone
+                    from driver where phone_digits = :phone
                     """)
                 .bind("phone", PhoneNumberUtil.removeNonNumeric(phoneNumber))
                 .mapToBean(Driver.class)
@@ -131,10 +131,10 @@ public class DriverDao {
                           active = (
                             select not active
                             from driver
-                            where regexp_replace(phone, '[^0-9]+', '', 'g') = :phone
+                            where phone_digits = :phone
                           ),
                           last_updated = now()
-                        where phone = :phone
+                        where phone_digits = :phone
                         """)
                 .bind("phone", PhoneNumberUtil.removeNonNumeric(phone))
                 .execute());
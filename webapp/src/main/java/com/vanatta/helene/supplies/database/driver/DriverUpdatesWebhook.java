@@ -1,8 +1,11 @@
 package com.vanatta.helene.supplies.database.driver;
 
+import com.vanatta.helene.supplies.database.JdbiConfiguration;
+import com.vanatta.helene.supplies.database.auth.PrincipalCache;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.jdbi.v3.core.Jdbi;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.PostMapping;
@@ -13,8 +16,11 @@ import org.springframework.web.bind.annotation.RequestBody;
 @AllArgsConstructor
 public class DriverUpdatesWebhook {
 
+  @Qualifier(JdbiConfiguration.WEBHOOK)
   private final Jdbi jdbi;
 
+  private final PrincipalCache principalCache;
+
   @PostMapping("/webhook/driver/upsert")
   ResponseEntity<String> receiveDriverUpdates(@RequestBody String driver) {
     log.info("Received driver upsert: {}", driver);
@@ -31,6 +37,9 @@ public class DriverUpdatesWebhook {
       }
     }
 
+    // a new driver (or a driver with a new phone number) gains the driver role
+    principalCache.invalidateAll();
+
     return ResponseEntity.ok("ok");
   }
 
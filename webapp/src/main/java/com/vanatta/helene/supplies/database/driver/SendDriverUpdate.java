@@ -1,7 +1,6 @@
 package com.vanatta.helene.supplies.database.driver;
 
 import com.vanatta.helene.supplies.database.util.HttpPostSender;
-import com.vanatta.helene.supplies.database.util.ThreadRunner;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
@@ -27,6 +26,6 @@ public class SendDriverUpdate {
       return;
     }
 
-    ThreadRunner.run(() -> HttpPostSender.sendAsJson(airtableWebhookUrl, driver));
+    HttpPostSender.sendAsJsonAsync(airtableWebhookUrl, driver);
   }
 }
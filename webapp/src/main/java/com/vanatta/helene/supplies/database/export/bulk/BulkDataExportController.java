@@ -1,11 +1,13 @@
 package com.vanatta.helene.supplies.database.export.bulk;
 
+import com.vanatta.helene.supplies.database.JdbiConfiguration;
 import java.util.List;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.jdbi.v3.core.Jdbi;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RestController;
@@ -20,6 +22,7 @@ import org.springframework.web.bind.annotation.RestController;
 @AllArgsConstructor
 public class BulkDataExportController {
 
+  @Qualifier(JdbiConfiguration.BACKGROUND)
   private final Jdbi jdbi;
 
   @GetMapping("/export/data")
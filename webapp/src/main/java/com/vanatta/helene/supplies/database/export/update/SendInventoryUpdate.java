@@ -1,7 +1,6 @@
 package com.vanatta.helene.supplies.database.export.update;
 
 import com.vanatta.helene.supplies.database.util.HttpPostSender;
-import com.vanatta.helene.supplies.database.util.ThreadRunner;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -60,7 +59,7 @@ public class SendInventoryUpdate {
               .itemStatus("Removed")
               .itemNeedWssId(wssId)
               .build();
-      ThreadRunner.run(() -> HttpPostSender.sendAsJson(webhookUrl, dataToSend));
+      HttpPostSender.sendAsJsonAsync(webhookUrl, dataToSend);
     }
   }
 
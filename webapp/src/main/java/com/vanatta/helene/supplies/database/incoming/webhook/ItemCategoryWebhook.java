@@ -1,12 +1,14 @@
 package com.vanatta.helene.supplies.database.incoming.webhook;
 
 import com.google.gson.Gson;
+import com.vanatta.helene.supplies.database.JdbiConfiguration;
 import com.vanatta.helene.supplies.database.manage.inventory.ItemTagDao;
 import java.util.List;
 import lombok.AllArgsConstructor;
 import lombok.Value;
 import lombok.extern.slf4j.Slf4j;
 import org.jdbi.v3.core.Jdbi;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.PostMapping;
@@ -18,6 +20,7 @@ import org.springframework.web.bind.annotation.RequestBody;
 @AllArgsConstructor
 public class ItemCategoryWebhook {
 
+  @Qualifier(JdbiConfiguration.WEBHOOK)
   private final Jdbi jdbi;
 
   @PostMapping("/webhook/inventory/update-item-tags")
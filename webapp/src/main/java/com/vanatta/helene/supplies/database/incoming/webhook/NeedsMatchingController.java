@@ -2,12 +2,14 @@ package com.vanatta.helene.supplies.database.incoming.webhook;
 
 import com.google.gson.Gson;
 import com.google.gson.internal.LinkedTreeMap;
+import com.vanatta.helene.supplies.database.JdbiConfiguration;
 import com.vanatta.helene.supplies.database.util.HttpPostSender;
 import java.util.ArrayList;
 import java.util.List;
 import lombok.Builder;
 import lombok.extern.slf4j.Slf4j;
 import org.jdbi.v3.core.Jdbi;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PostMapping;
@@ -28,7 +30,7 @@ public class NeedsMatchingController {
   private final Jdbi jdbi;
 
   NeedsMatchingController(
-      Jdbi jdbi,
+      @Qualifier(JdbiConfiguration.WEBHOOK) Jdbi jdbi,
       @Value("${make.enabled}") boolean makeEnabled,
       @Value("${make.webhoook.addToDelivery}") String addToDeliveryWebhook) {
     this.jdbi = jdbi;
@@ -82,7 +84,7 @@ public class NeedsMatchingController {
     if (!neededItems.isEmpty() && makeEnabled) {
       var computedNeed =
           ComputedNeeds.builder().deliveryId(deliveryId).itemList(neededItems).build();
-      HttpPostSender.sendAsJson(addToDeliveryWebhook, computedNeed);
+      HttpPostSender.sendAsJsonAsync(addToDeliveryWebhook, computedNeed);
     }
     return ResponseEntity.ok("Matches: " + neededItems.size());
   }
@@ -1,11 +1,13 @@
 package com.vanatta.helene.supplies.database.jobs.distance;
 
-import com.vanatta.helene.supplies.database.data.GoogleDistanceApi;
+import com.vanatta.helene.supplies.database.JdbiConfiguration;
+import com.vanatta.helene.supplies.database.data.DistanceApi;
 import com.vanatta.helene.supplies.database.data.SiteAddress;
 import com.vanatta.helene.supplies.database.supplies.site.details.SiteDetailDao;
 import java.util.List;
 import lombok.extern.slf4j.Slf4j;
 import org.jdbi.v3.core.Jdbi;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
@@ -16,17 +18,17 @@ import org.springframework.stereotype.Component;
 public class DistanceCalculator {
   private static final int EVERY_MINUTE_IN_MS = 3 * 60 * 1000;
   private final Jdbi jdbi;
-  private final GoogleDistanceApi googleDistanceApi;
+  private final DistanceApi distanceApi;
   private final boolean enabled;
   private final long delayBetweenRequestsInMs;
 
   DistanceCalculator(
-      Jdbi jdbi,
-      GoogleDistanceApi googleDistanceApi,
+      @Qualifier(JdbiConfiguration.BACKGROUND) Jdbi jdbi,
+      DistanceApi distanceApi,
       @Value("${distance.calculator.enabled}") boolean enabled,
       @Value("${distance.calculator.delay.ms}") int delayBetweenRequestsInMs) {
     this.jdbi = jdbi;
-    this.googleDistanceApi = googleDistanceApi;
+    this.distanceApi = distanceApi;
     this.enabled = enabled;
     this.delayBetweenRequestsInMs = delayBetweenRequestsInMs;
   }
@@ -59,8 +61,8 @@ public class DistanceCalculator {
               .state(to.getState())
               .build();
 
-      GoogleDistanceApi.GoogleDistanceResponse distanceResponse =
-          googleDistanceApi.queryDistance(fromAddress, toAddress);
+      DistanceApi.DistanceResponse distanceResponse =
+          distanceApi.queryDistance(fromAddress, toAddress);
 
       log.info(
           "Distance between : {}, and: {}, is: {}",
@@ -0,0 +1,73 @@
+package com.vanatta.helene.supplies.database.jobs.geocode;
+
+import com.vanatta.helene.supplies.database.JdbiConfiguration;
+import com.vanatta.helene.supplies.database.data.GoogleGeocodeApi;
+import com.vanatta.helene.supplies.database.data.SiteAddress;
+import java.util.List;
+import java.util.Optional;
+import lombok.extern.slf4j.Slf4j;
+import org.jdbi.v3.core.Jdbi;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/** Runs periodically, looks for sites that have no latitude & longitude and geocodes them. */
+@Slf4j
+@Component
+public class SiteGeocoder {
+  private static final int EVERY_THREE_MINUTES_IN_MS = 3 * 60 * 1000;
+  private final Jdbi jdbi;
+  private final GoogleGeocodeApi googleGeocodeApi;
+  private final boolean enabled;
+  private final long delayBetweenRequestsInMs;
+
+  SiteGeocoder(
+      @Qualifier(JdbiConfiguration.BACKGROUND) Jdbi jdbi,
+      GoogleGeocodeApi googleGeocodeApi,
+      @Value("${site.geocoder.enabled}") boolean enabled,
+      @Value("${distance.calculator.delay.ms}") int delayBetweenRequestsInMs) {
+    this.jdbi = jdbi;
+    this.googleGeocodeApi = googleGeocodeApi;
+    this.enabled = enabled;
+    this.delayBetweenRequestsInMs = delayBetweenRequestsInMs;
+  }
+
+  @Scheduled(fixedDelay = EVERY_THREE_MINUTES_IN_MS)
+  public void geocodeSites() {
+    if (!enabled) {
+      return;
+    }
+
+    List<SiteLocationDao.SiteAddressData> sites = SiteLocationDao.fetchSitesWithoutLocation(jdbi);
+    if (!sites.isEmpty()) {
+      log.info("Site geocoder is locating: {} sites", sites.size());
+    }
+
+    for (SiteLocationDao.SiteAddressData site : sites) {
+      var address =
+          SiteAddress.builder()
+              .address(site.getAddress())
+              .city(site.getCity())
+              .state(site.getState())
+              .build();
+      Optional<GoogleGeocodeApi.GeoLocation> location = googleGeocodeApi.geocode(address);
+      log.info("Location of site id: {}, is: {}", site.getSiteId(), location);
+
+      location.ifPresentOrElse(
+          l ->
+              SiteLocationDao.updateLocation(
+                  jdbi, site.getSiteId(), l.getLatitude(), l.getLongitude()),
+          () -> SiteLocationDao.updateLocationInvalid(jdbi, site.getSiteId()));
+
+      // brief sleep so we can space out the API calls somewhat.
+      try {
+        Thread.sleep(delayBetweenRequestsInMs);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        log.warn("Site geocoding process interrupted cleanly, aborting..");
+        break;
+      }
+    }
+  }
+}
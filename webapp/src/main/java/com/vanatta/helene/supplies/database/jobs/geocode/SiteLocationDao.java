@@ -0,0 +1,71 @@
+package com.vanatta.helene.supplies.database.jobs.geocode;
+
+import java.util.List;
+import lombok.Data;
+import org.jdbi.v3.core.Jdbi;
+
+public class SiteLocationDao {
+
+  @Data
+  public static class SiteAddressData {
+    long siteId;
+    String address;
+    String city;
+    String state;
+  }
+
+  /** Returns active sites that have not yet been geocoded. */
+  static List<SiteAddressData> fetchSitesWithoutLocation(Jdbi jdbi) {
+    String query =
+        """
+        select
+          s.id siteId,
+          s.address,
+          s.city,
+          c.state
+        from site s
+        join county c on c.id = s.county_id
+        where s.location_valid is null and s.active = true
+        """;
+    return jdbi.withHandle(
+        handle -> handle.createQuery(query).mapToBean(SiteAddressData.class).list());
+  }
+
+  static void updateLocation(Jdbi jdbi, long siteId, double latitude, double longitude) {
+    String update =
+        """
+        update site
+        set latitude = :latitude, longitude = :longitude, location_valid = true
+        where id = :siteId
+        """;
+    jdbi.withHandle(
+        handle ->
+            handle
+                .createUpdate(update)
+                .bind("latitude", latitude)
+                .bind("longitude", longitude)
+                .bind("siteId", siteId)
+                .execute());
+  }
+
+  static void updateLocationInvalid(Jdbi jdbi, long siteId) {
+    String update =
+        """
+        update site
+        set latitude = null, longitude = null, location_valid = false
+        where id = :siteId
+        """;
+    jdbi.withHandle(handle -> handle.createUpdate(update).bind("siteId", siteId).execute());
+  }
+
+  /** Clears the location of a site, it will be re-computed by the site geocoder. */
+  public static void clearLocation(Jdbi jdbi, long siteId) {
+    String update =
+        """
+        update site
+        set latitude = null, longitude = null, location_valid = null
+        where id = :siteId
+        """;
+    jdbi.withHandle(handle -> handle.createUpdate(update).bind("siteId", siteId).execute());
+  }
+}
@@ -1,6 +1,7 @@
 package com.vanatta.helene.supplies.database.manage;
 
 import com.vanatta.helene.supplies.database.data.SiteType;
+import com.vanatta.helene.supplies.database.jobs.geocode.SiteLocationDao;
 import com.vanatta.helene.supplies.database.manage.SelectSiteController.SiteSelection;
 import jakarta.annotation.Nullable;
 import java.util.Arrays;
@@ -24,8 +25,7 @@ public class ManageSiteDao {
                     """
                    select s.id, s.name
                    from site s
-                   join county c on c.id = s.county_id
-                   where s.id in (<sites>) and c.state in (<states>)
+                   where s.id in (<sites>) and s.state in (<states>)
                    order by lower(s.name)
                     """)
                 .bindList("sites", sites)
@@ -124,6 +124,7 @@ public class ManageSiteDao {
           """;
       jdbi.withHandle(
           handle -> handle.createUpdate(deleteDistances).bind("siteId", siteId).execute());
+      SiteLocationDao.clearLocation(jdbi, siteId);
     }
   }
 
@@ -1,5 +1,6 @@
 package com.vanatta.helene.supplies.database.manage;
 
+import com.vanatta.helene.supplies.database.auth.PrincipalCache;
 import com.vanatta.helene.supplies.database.export.update.SendSiteUpdate;
 import java.util.Map;
 import lombok.AllArgsConstructor;
@@ -17,6 +18,7 @@ import org.springframework.web.bind.annotation.ResponseBody;
 public class UpdateSiteDataController {
   private final Jdbi jdbi;
   private final SendSiteUpdate sendSiteUpdate;
+  private final PrincipalCache principalCache;
 
   /** Info update for a site, eg: site-rename, site contact info changed. */
   @PostMapping("/manage/update-site")
@@ -43,6 +45,10 @@ public class UpdateSiteDataController {
       return ResponseEntity.badRequest().body("Invalid field: " + field);
     }
     ManageSiteDao.updateSiteField(jdbi, Long.parseLong(siteId), siteField, newValue);
+    if (siteField == ManageSiteDao.SiteField.CONTACT_NUMBER) {
+      // contact number determines who manages the site
+      principalCache.invalidateAll();
+    }
     log.info("Site updated: {}", params);
     sendSiteUpdate.sendFullUpdate(Long.parseLong(siteId));
 
@@ -2,6 +2,7 @@ package com.vanatta.helene.supplies.database.manage.add.site;
 
 import com.vanatta.helene.supplies.database.DeploymentAdvice;
 import com.vanatta.helene.supplies.database.auth.LoggedInAdvice;
+import com.vanatta.helene.supplies.database.auth.PrincipalCache;
 import com.vanatta.helene.supplies.database.data.CountyDao;
 import com.vanatta.helene.supplies.database.data.SiteType;
 import com.vanatta.helene.supplies.database.export.update.SendSiteUpdate;
@@ -31,6 +32,7 @@ public class AddSiteController {
 
   private final Jdbi jdbi;
   private final SendSiteUpdate sendSiteUpdate;
+  private final PrincipalCache principalCache;
 
   /** Shows the form for adding a brand new site */
   @GetMapping("/manage/new-site/add-site")
@@ -102,6 +104,8 @@ public class AddSiteController {
     }
     try {
       long newSiteId = AddSiteDao.addSite(jdbi, addSiteData);
+      // the contact number of the new site now manages it
+      principalCache.invalidateAll();
       sendSiteUpdate.sendFullUpdate(newSiteId);
 
       String manageSiteUrl = SelectSiteController.buildSiteSelectedUrl(newSiteId);
@@ -1,6 +1,7 @@
 package com.vanatta.helene.supplies.database.manage.contact;
 
 import com.vanatta.helene.supplies.database.auth.LoggedInAdvice;
+import com.vanatta.helene.supplies.database.auth.PrincipalCache;
 import com.vanatta.helene.supplies.database.manage.SelectSiteController;
 import com.vanatta.helene.supplies.database.manage.UserSiteAuthorization;
 import com.vanatta.helene.supplies.database.supplies.site.details.SiteDetailDao;
@@ -26,6 +27,7 @@ import org.springframework.web.servlet.ModelAndView;
 public class SiteContactController {
 
   private final Jdbi jdbi;
+  private final PrincipalCache principalCache;
 
   public static final String PATH_MANAGE_CONTACTS = "/manage/contact/contact";
 
@@ -81,6 +83,7 @@ public class SiteContactController {
             .orElse(null);
 
     ContactDao.removeAdditionalSiteManager(jdbi, siteId, managerId);
+    principalCache.invalidateAll();
 
     return ResponseEntity.ok(
         """
@@ -136,6 +139,7 @@ public class SiteContactController {
       ContactDao.updateAdditionalSiteManager(jdbi, siteId, manager);
       idUpdated = managerId;
     }
+    principalCache.invalidateAll();
 
     return ResponseEntity.ok(
         String.format(
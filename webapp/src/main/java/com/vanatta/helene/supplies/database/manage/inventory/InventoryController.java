@@ -10,6 +10,7 @@ import com.vanatta.helene.supplies.database.manage.SelectSiteController;
 import com.vanatta.helene.supplies.database.manage.UserSiteAuthorization;
 import com.vanatta.helene.supplies.database.supplies.site.details.SiteDetailDao;
 import com.vanatta.helene.supplies.database.util.ThreadRunner;
+import com.vanatta.helene.supplies.database.util.UnitOfWork;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
@@ -254,11 +255,7 @@ public class InventoryController {
 
     InventoryDao.getInventoryWssId(jdbi, Long.parseLong(siteId), itemName)
         .ifPresent(
-            wssId ->
-                ThreadRunner.run(
-                    () ->
-                        sendInventoryUpdate.sendItemRemoval(
-                            itemName, siteData.getSiteName(), wssId)));
+            wssId -> sendInventoryUpdate.sendItemRemoval(itemName, siteData.getSiteName(), wssId));
     InventoryDao.updateSiteItemInactive(jdbi, Long.parseLong(siteId), itemName);
     return ResponseEntity.ok("Updated");
   }
@@ -280,14 +277,22 @@ public class InventoryController {
     log.info(
         "Updating item status, site: {}, item name: {}, status: {}", siteName, itemName, newStatus);
 
-    ItemStatus oldStatus = InventoryDao.fetchItemStatus(jdbi, Long.parseLong(siteId), itemName);
-
-    if (oldStatus != ItemStatus.fromTextValue(newStatus)) {
-      InventoryDao.updateItemStatus(jdbi, Long.parseLong(siteId), itemName, newStatus);
-      var latestStatus = ItemStatus.fromTextValue(newStatus);
-      if (oldStatus != latestStatus) {
-        ThreadRunner.run(() -> sendInventoryUpdate.send(Long.parseLong(siteId), itemName));
-      }
+    // read of the old status & the update share one connection & transaction
+    boolean changed =
+        UnitOfWork.inTransaction(
+            jdbi,
+            () -> {
+              ItemStatus oldStatus =
+                  InventoryDao.fetchItemStatus(jdbi, Long.parseLong(siteId), itemName);
+              if (oldStatus == ItemStatus.fromTextValue(newStatus)) {
+                return false;
+              }
+              InventoryDao.updateItemStatus(jdbi, Long.parseLong(siteId), itemName, newStatus);
+              return true;
+            });
+    // send the update after commit, the sender reads the new status from the database
+    if (changed) {
+      ThreadRunner.run(() -> sendInventoryUpdate.send(Long.parseLong(siteId), itemName));
     }
 
     return ResponseEntity.ok("Updated");
@@ -2,6 +2,7 @@ package com.vanatta.helene.supplies.database.manage.inventory;
 
 import com.vanatta.helene.supplies.database.data.ItemStatus;
 import com.vanatta.helene.supplies.database.manage.ManageSiteDao;
+import com.vanatta.helene.supplies.database.util.UnitOfWork;
 import java.util.List;
 import java.util.Optional;
 import lombok.extern.slf4j.Slf4j;
@@ -98,7 +99,12 @@ public class InventoryDao {
                 .execute());
   }
 
+  /** Removes an item from a site, records an audit row and the inventory last updated date. */
   static void updateSiteItemInactive(Jdbi jdbi, long siteId, String itemName) {
+    UnitOfWork.useTransaction(jdbi, () -> doUpdateSiteItemInactive(jdbi, siteId, itemName));
+  }
+
+  private static void doUpdateSiteItemInactive(Jdbi jdbi, long siteId, String itemName) {
     String delete =
         """
             delete from site_item
@@ -119,10 +125,16 @@ public class InventoryDao {
     ManageSiteDao.updateSiteInventoryLastUpdated(jdbi, siteId);
   }
 
+  /** Updates the status, records an audit row and the inventory last updated date, atomically. */
   public static void updateItemStatus(Jdbi jdbi, long siteId, String itemName, String itemStatus) {
     if (!ItemStatus.allItemStatus().contains(itemStatus)) {
       throw new IllegalArgumentException("Invalid item status: " + itemStatus);
     }
+    UnitOfWork.useTransaction(jdbi, () -> doUpdateItemStatus(jdbi, siteId, itemName, itemStatus));
+  }
+
+  private static void doUpdateItemStatus(
+      Jdbi jdbi, long siteId, String itemName, String itemStatus) {
     String oldStatusQuery =
         """
         select its.name
@@ -24,4 +24,10 @@ public class SiteSupplyRequest {
   @Builder.Default Boolean acceptingDonations = true;
   @Builder.Default Boolean notAcceptingDonations = true;
   @Builder.Default Boolean isAuthenticatedUser = false;
+
+  /**
+   * If a county filter returns few sites, search is widened to neighboring counties up to this many
+   * hops away. Zero (default) means no widening.
+   */
+  @Builder.Default Integer nearbyCountyHops = 0;
 }
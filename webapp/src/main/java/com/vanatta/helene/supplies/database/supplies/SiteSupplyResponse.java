@@ -13,6 +13,9 @@ public class SiteSupplyResponse {
   int resultCount;
   List<SiteSupplyData> results;
 
+  /** Counties that were added to the search because the requested counties had few results. */
+  @Builder.Default List<String> nearbyCounties = new ArrayList<>();
+
   @Value
   @Builder
   static class SiteSupplyData {
@@ -2,6 +2,7 @@ package com.vanatta.helene.supplies.database.supplies;
 
 import com.vanatta.helene.supplies.database.DeploymentAdvice;
 import com.vanatta.helene.supplies.database.auth.CookieAuthenticator;
+import com.vanatta.helene.supplies.database.data.CountyAdjacency;
 import com.vanatta.helene.supplies.database.data.ItemStatus;
 import com.vanatta.helene.supplies.database.manage.inventory.ItemTagDao;
 import com.vanatta.helene.supplies.database.supplies.SiteSupplyResponse.SiteItem;
@@ -26,8 +27,12 @@ import org.springframework.web.servlet.ModelAndView;
 public class SuppliesController {
   public static final String PATH_SUPPLY_SEARCH = "/supplies/site-list";
 
+  /** Nearby county search widening stops once at least this many sites are found. */
+  static final int NEARBY_COUNTY_MIN_SITES = 5;
+
   private final Jdbi jdbi;
   private final CookieAuthenticator cookieAuthenticator;
+  private final CountyAdjacency countyAdjacency;
 
   @GetMapping("/supplies/needs")
   public ModelAndView needs() {
@@ -84,6 +89,35 @@ public class SuppliesController {
     List<SuppliesDao.SuppliesQueryResult> results =
         SuppliesDao.getSupplyResults(jdbi, request, stateList);
 
+    // if the requested counties have few results, widen the search to nearby counties
+    List<CountyAdjacency.County> requestedCounties =
+        request.getCounties().stream()
+            .filter(c -> c.contains(","))
+            .map(CountyAdjacency.County::parse)
+            .toList();
+    int maxHops =
+        Math.min(
+            Optional.ofNullable(request.getNearbyCountyHops()).orElse(0), CountyAdjacency.MAX_HOPS);
+    List<CountyAdjacency.County> expandedCounties = requestedCounties;
+    for (int hops = 1;
+        !requestedCounties.isEmpty()
+            && hops <= maxHops
+            && countSites(results) < NEARBY_COUNTY_MIN_SITES;
+        hops++) {
+      expandedCounties = countyAdjacency.expand(requestedCounties, hops);
+      var expandedRequest =
+          request.toBuilder()
+              .counties(
+                  expandedCounties.stream().map(c -> c.getName() + "," + c.getState()).toList())
+              .build();
+      results = SuppliesDao.getSupplyResults(jdbi, expandedRequest, stateList);
+    }
+    List<String> nearbyCounties =
+        expandedCounties.stream()
+            .filter(c -> !requestedCounties.contains(c))
+            .map(CountyAdjacency.County::toString)
+            .toList();
+
     Map<Long, SiteSupplyData> aggregatedResults = new HashMap<>();
 
     results.forEach(
@@ -145,6 +179,11 @@ public class SuppliesController {
     return SiteSupplyResponse.builder() //
         .resultCount(resultData.size())
         .results(resultData)
+        .nearbyCounties(nearbyCounties)
         .build();
   }
+
+  private static long countSites(List<SuppliesDao.SuppliesQueryResult> results) {
+    return results.stream().map(SuppliesDao.SuppliesQueryResult::getSiteId).distinct().count();
+  }
 }
@@ -56,7 +56,7 @@ public class SuppliesDao {
       left join item_status ist on ist.id = si.item_status_id
       left join delivery d on d.to_site_id = s.id
       where s.active = true
-        and c.state in (<stateList>)
+        and s.state in (<stateList>)
       """);
 
     if (!request.getSites().isEmpty()) {
@@ -0,0 +1,260 @@
+package com.vanatta.helene.supplies.database.supplies.basket;
+
+import com.vanatta.helene.supplies.database.supplies.basket.BasketCoverageResponse.SiteCombination;
+import com.vanatta.helene.supplies.database.supplies.basket.BasketCoverageResponse.SiteCoverage;
+import com.vanatta.helene.supplies.database.util.DurationFormatter;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import lombok.Builder;
+
+/**
+ * Ranks pickup sites by how much of a basket of items they can supply.
+ *
+ * <p>Each basket item is given a bit position, each candidate site gets a bitset of the basket
+ * items it has available. Coverage of a site or a group of sites is then a couple of bitset
+ * operations. Items that are urgently needed at the destination count double.
+ *
+ * <p>Combinations of sites are found with greedy set cover: starting from each of the best single
+ * sites, repeatedly add the site that covers the most (weighted) remaining items, until the basket
+ * is covered or the combination has reached its max size. Greedy is not optimal, but is fast and
+ * gives good answers for the handful of sites a driver can visit.
+ */
+class BasketCoverage {
+  static final int DEFAULT_MAX_SITES = 3;
+  static final int MAX_SITES_LIMIT = 5;
+  static final int DEFAULT_MAX_RESULTS = 10;
+  static final int MAX_RESULTS_LIMIT = 25;
+
+  static final double NEEDED_WEIGHT = 1.0;
+  static final double URGENT_WEIGHT = 2.0;
+
+  /** Basket item names, index is the bit position of the item. */
+  private final List<String> basket;
+
+  private final double[] weights;
+  private final BitSet urgent;
+  private final BitSet all;
+  private final List<Candidate> candidates;
+
+  @Builder
+  static class Candidate {
+    final long siteId;
+    final String siteName;
+    final String city;
+    final String county;
+    final String state;
+    final Integer driveTimeSeconds;
+    final Double distanceMiles;
+
+    /** Basket items (by bit position) that the site has available. */
+    final BitSet items;
+
+    double sortDistance() {
+      return distanceMiles == null ? Double.MAX_VALUE : distanceMiles;
+    }
+  }
+
+  /**
+   * @param basket Item names, duplicates (case insensitive) are ignored.
+   * @param urgentItems Items that are urgently needed at the destination.
+   * @param supplierItems One entry per (site, item) that the site has available.
+   */
+  BasketCoverage(
+      List<String> basket,
+      Set<String> urgentItems,
+      List<BasketCoverageDao.SupplierItemResult> supplierItems) {
+    Map<String, Integer> bitPosition = new LinkedHashMap<>();
+    basket.forEach(item -> bitPosition.putIfAbsent(item.toLowerCase(), bitPosition.size()));
+    this.basket = new ArrayList<>();
+    Set<String> seen = new HashSet<>();
+    basket.stream().filter(item -> seen.add(item.toLowerCase())).forEach(this.basket::add);
+
+    weights = new double[this.basket.size()];
+    urgent = new BitSet(this.basket.size());
+    all = new BitSet(this.basket.size());
+    all.set(0, this.basket.size());
+    Set<String> urgentLowerCase = new HashSet<>();
+    urgentItems.forEach(item -> urgentLowerCase.add(item.toLowerCase()));
+    for (int i = 0; i < this.basket.size(); i++) {
+      boolean isUrgent = urgentLowerCase.contains(this.basket.get(i).toLowerCase());
+      weights[i] = isUrgent ? URGENT_WEIGHT : NEEDED_WEIGHT;
+      urgent.set(i, isUrgent);
+    }
+
+    Map<Long, Candidate> bySite = new LinkedHashMap<>();
+    for (var row : supplierItems) {
+      Integer bit = bitPosition.get(row.getItemName().toLowerCase());
+      if (bit == null) {
+        continue;
+      }
+      bySite
+          .computeIfAbsent(
+              row.getSiteId(),
+              _ ->
+                  Candidate.builder()
+                      .siteId(row.getSiteId())
+                      .siteName(row.getSiteName())
+                      .city(row.getCity())
+                      .county(row.getCounty())
+                      .state(row.getState())
+                      .driveTimeSeconds(row.getDriveTimeSeconds())
+                      .distanceMiles(row.getDistanceMiles())
+                      .items(new BitSet(this.basket.size()))
+                      .build())
+          .items
+          .set(bit);
+    }
+    candidates = new ArrayList<>(bySite.values());
+  }
+
+  private double weight(BitSet items) {
+    double total = 0;
+    for (int i = items.nextSetBit(0); i >= 0; i = items.nextSetBit(i + 1)) {
+      total += weights[i];
+    }
+    return total;
+  }
+
+  /** Weight of the items in 'items' that are not already in 'covered'. */
+  private double gain(BitSet items, BitSet covered) {
+    BitSet remaining = (BitSet) items.clone();
+    remaining.andNot(covered);
+    return weight(remaining);
+  }
+
+  private final Comparator<Candidate> bestCoverageFirst =
+      Comparator.<Candidate>comparingDouble(c -> weight(c.items))
+          .reversed()
+          .thenComparingDouble(Candidate::sortDistance)
+          .thenComparing(c -> c.siteName);
+
+  BasketCoverageResponse compute(int maxSites, int maxResults) {
+    List<Candidate> singles = candidates.stream().sorted(bestCoverageFirst).toList();
+
+    BitSet available = new BitSet(basket.size());
+    candidates.forEach(c -> available.or(c.items));
+    BitSet unavailable = (BitSet) all.clone();
+    unavailable.andNot(available);
+
+    return BasketCoverageResponse.builder()
+        .basketSize(basket.size())
+        .unavailableItems(itemNames(unavailable))
+        .sites(singles.stream().limit(maxResults).map(this::toSiteCoverage).toList())
+        .combinations(combinations(singles, maxSites, maxResults))
+        .build();
+  }
+
+  private List<SiteCombination> combinations(
+      List<Candidate> singles, int maxSites, int maxResults) {
+    if (maxSites < 2) {
+      return List.of();
+    }
+    Map<Set<Long>, List<Candidate>> found = new LinkedHashMap<>();
+    for (Candidate seed : singles.subList(0, Math.min(maxResults, singles.size()))) {
+      List<Candidate> chosen = greedyCover(seed, maxSites);
+      if (chosen.size() > 1) {
+        Set<Long> key = new HashSet<>();
+        chosen.forEach(c -> key.add(c.siteId));
+        found.putIfAbsent(key, chosen);
+      }
+    }
+
+    Map<List<Candidate>, BitSet> coverage = new HashMap<>();
+    found.values().forEach(chosen -> coverage.put(chosen, union(chosen)));
+    return found.values().stream()
+        .sorted(
+            Comparator.<List<Candidate>>comparingDouble(chosen -> weight(coverage.get(chosen)))
+                .reversed()
+                .thenComparingInt(List::size)
+                .thenComparingDouble(
+                    chosen -> chosen.stream().mapToDouble(Candidate::sortDistance).sum()))
+        .limit(maxResults)
+        .map(chosen -> toSiteCombination(chosen, coverage.get(chosen)))
+        .toList();
+  }
+
+  /** Starting from 'seed', adds the site with the largest gain until nothing more is gained. */
+  private List<Candidate> greedyCover(Candidate seed, int maxSites) {
+    List<Candidate> chosen = new ArrayList<>();
+    chosen.add(seed);
+    BitSet covered = (BitSet) seed.items.clone();
+    while (chosen.size() < maxSites && !covered.equals(all)) {
+      Candidate best = null;
+      double bestGain = 0;
+      for (Candidate candidate : candidates) {
+        double gain = gain(candidate.items, covered);
+        if (gain > bestGain
+            || (gain == bestGain && gain > 0 && candidate.sortDistance() < best.sortDistance())) {
+          best = candidate;
+          bestGain = gain;
+        }
+      }
+      if (best == null) {
+        break;
+      }
+      chosen.add(best);
+      covered.or(best.items);
+    }
+    return chosen;
+  }
+
+  private static BitSet union(List<Candidate> chosen) {
+    BitSet result = new BitSet();
+    chosen.forEach(c -> result.or(c.items));
+    return result;
+  }
+
+  private List<String> itemNames(BitSet items) {
+    List<String> names = new ArrayList<>();
+    for (int i = items.nextSetBit(0); i >= 0; i = items.nextSetBit(i + 1)) {
+      names.add(basket.get(i));
+    }
+    return names;
+  }
+
+  private int urgentCount(BitSet items) {
+    BitSet urgentItems = (BitSet) items.clone();
+    urgentItems.and(urgent);
+    return urgentItems.cardinality();
+  }
+
+  private SiteCoverage toSiteCoverage(Candidate candidate) {
+    return SiteCoverage.builder()
+        .siteId(candidate.siteId)
+        .siteName(candidate.siteName)
+        .city(candidate.city)
+        .county(candidate.county)
+        .state(candidate.state)
+        .distanceMiles(candidate.distanceMiles)
+        .driveTime(
+            candidate.driveTimeSeconds == null
+                ? ""
+                : DurationFormatter.formatDuration(Duration.ofSeconds(candidate.driveTimeSeconds)))
+        .itemCount(candidate.items.cardinality())
+        .urgentItemCount(urgentCount(candidate.items))
+        .items(itemNames(candidate.items))
+        .build();
+  }
+
+  private SiteCombination toSiteCombination(List<Candidate> chosen, BitSet covered) {
+    BitSet missing = (BitSet) all.clone();
+    missing.andNot(covered);
+    boolean distancesKnown = chosen.stream().allMatch(c -> c.distanceMiles != null);
+    return SiteCombination.builder()
+        .sites(chosen.stream().map(this::toSiteCoverage).toList())
+        .itemCount(covered.cardinality())
+        .urgentItemCount(urgentCount(covered))
+        .missingItems(itemNames(missing))
+        .totalDistanceMiles(
+            distancesKnown ? chosen.stream().mapToDouble(c -> c.distanceMiles).sum() : null)
+        .build();
+  }
+}
@@ -0,0 +1,88 @@
+package com.vanatta.helene.supplies.database.supplies.basket;
+
+import com.vanatta.helene.supplies.database.DeploymentAdvice;
+import com.vanatta.helene.supplies.database.auth.CookieAuthenticator;
+import com.vanatta.helene.supplies.database.data.ItemStatus;
+import jakarta.servlet.http.HttpServletRequest;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.jdbi.v3.core.Jdbi;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.ModelAttribute;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Answers "which sites can fill this list of items?" for a destination site. Returns single pickup
+ * sites and small combinations of pickup sites, ranked by how much of the basket they cover.
+ */
+@Slf4j
+@RestController
+@AllArgsConstructor
+public class BasketCoverageController {
+  public static final String PATH_BASKET_COVERAGE = "/supplies/basket-coverage";
+  static final int MAX_BASKET_SIZE = 200;
+
+  private final Jdbi jdbi;
+  private final CookieAuthenticator cookieAuthenticator;
+
+  @CrossOrigin
+  @PostMapping(PATH_BASKET_COVERAGE)
+  public BasketCoverageResponse basketCoverage(
+      HttpServletRequest httpRequest,
+      @RequestBody BasketCoverageRequest request,
+      @ModelAttribute(DeploymentAdvice.DEPLOYMENT_STATE_LIST) List<String> stateList) {
+    return basketCoverage(request, stateList, cookieAuthenticator.isAuthenticated(httpRequest));
+  }
+
+  // @VisibleForTesting
+  BasketCoverageResponse basketCoverage(
+      BasketCoverageRequest request, List<String> stateList, boolean isAuthenticated) {
+    if (request.getSiteId() == null || !BasketCoverageDao.siteExists(jdbi, request.getSiteId())) {
+      throw new IllegalArgumentException("Invalid site id: " + request.getSiteId());
+    }
+    List<String> items =
+        Optional.ofNullable(request.getItems()).orElse(List.of()).stream()
+            .filter(item -> item != null && !item.isBlank())
+            .map(String::trim)
+            .toList();
+    if (items.size() > MAX_BASKET_SIZE) {
+      throw new IllegalArgumentException("Too many items, max basket size is: " + MAX_BASKET_SIZE);
+    }
+    int maxSites =
+        clamp(
+            request.getMaxSites(),
+            BasketCoverage.DEFAULT_MAX_SITES,
+            BasketCoverage.MAX_SITES_LIMIT);
+    int maxResults =
+        clamp(
+            request.getMaxResults(),
+            BasketCoverage.DEFAULT_MAX_RESULTS,
+            BasketCoverage.MAX_RESULTS_LIMIT);
+
+    if (items.isEmpty()) {
+      return new BasketCoverage(List.of(), Set.of(), List.of()).compute(maxSites, maxResults);
+    }
+
+    Set<String> urgentItems =
+        BasketCoverageDao.fetchDestinationNeeds(jdbi, request.getSiteId(), items).stream()
+            .filter(
+                need ->
+                    ItemStatus.fromTextValue(need.getItemStatus()) == ItemStatus.URGENTLY_NEEDED)
+            .map(BasketCoverageDao.DestinationNeedResult::getItemName)
+            .collect(Collectors.toSet());
+    var suppliers =
+        BasketCoverageDao.fetchSuppliers(
+            jdbi, request.getSiteId(), items, stateList, isAuthenticated);
+    return new BasketCoverage(items, urgentItems, suppliers).compute(maxSites, maxResults);
+  }
+
+  private static int clamp(Integer value, int defaultValue, int max) {
+    return value == null ? defaultValue : Math.min(Math.max(value, 1), max);
+  }
+}
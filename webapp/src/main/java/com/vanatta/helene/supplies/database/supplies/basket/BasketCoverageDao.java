@@ -0,0 +1,124 @@
+package com.vanatta.helene.supplies.database.supplies.basket;
+
+import com.vanatta.helene.supplies.database.data.ItemStatus;
+import java.util.Collection;
+import java.util.List;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.jdbi.v3.core.Jdbi;
+
+class BasketCoverageDao {
+
+  @NoArgsConstructor
+  @Data
+  public static class SupplierItemResult {
+    long siteId;
+    String siteName;
+    String city;
+    String county;
+    String state;
+    String itemName;
+    Integer driveTimeSeconds;
+    Double distanceMiles;
+  }
+
+  /**
+   * Returns one row per (site, item) for every active site distributing supplies that has an item
+   * from the basket available or in oversupply. Drive distance is to the destination site and is
+   * null if it has not been computed yet. The destination site itself is excluded.
+   */
+  static List<SupplierItemResult> fetchSuppliers(
+      Jdbi jdbi,
+      long destinationSiteId,
+      Collection<String> items,
+      List<String> stateList,
+      boolean isAuthenticated) {
+    String query =
+        """
+        select
+          s.id siteId,
+          s.name siteName,
+          s.city,
+          c.name county,
+          c.state,
+          i.name itemName,
+          sdm.drive_time_seconds driveTimeSeconds,
+          sdm.distance_miles distanceMiles
+        from site_item si
+        join item i on i.id = si.item_id
+        join item_status ist on ist.id = si.item_status_id
+        join site s on s.id = si.site_id
+        join county c on c.id = s.county_id
+        left join site_distance_matrix sdm on sdm.valid = true and (
+          (sdm.site1_id = :siteId and sdm.site2_id = s.id) or
+          (sdm.site2_id = :siteId and sdm.site1_id = s.id))
+        where s.active = true
+          and s.distributing_supplies = true
+          and s.id != :siteId
+          and s.state in (<stateList>)
+          and ist.name in (<availableStatus>)
+          and lower(i.name) in (<items>)
+          and (:isAuthenticated or s.publicly_visible = true)
+        """;
+    return jdbi.withHandle(
+        handle ->
+            handle
+                .createQuery(query)
+                .bind("siteId", destinationSiteId)
+                .bind("isAuthenticated", isAuthenticated)
+                .bindList("stateList", stateList)
+                .bindList(
+                    "availableStatus",
+                    List.of(ItemStatus.AVAILABLE.getText(), ItemStatus.OVERSUPPLY.getText()))
+                .bindList("items", items.stream().map(String::toLowerCase).toList())
+                .mapToBean(SupplierItemResult.class)
+                .list());
+  }
+
+  @NoArgsConstructor
+  @Data
+  public static class DestinationNeedResult {
+    String itemName;
+    String itemStatus;
+  }
+
+  /** Returns the basket items that the destination site has listed as needed or urgently needed. */
+  static List<DestinationNeedResult> fetchDestinationNeeds(
+      Jdbi jdbi, long destinationSiteId, Collection<String> items) {
+    String query =
+        """
+        select
+          i.name itemName,
+          ist.name itemStatus
+        from site_item si
+        join item i on i.id = si.item_id
+        join item_status ist on ist.id = si.item_status_id
+        where si.site_id = :siteId
+          and ist.name in (<neededStatus>)
+          and lower(i.name) in (<items>)
+        """;
+    return jdbi.withHandle(
+        handle ->
+            handle
+                .createQuery(query)
+                .bind("siteId", destinationSiteId)
+                .bindList(
+                    "neededStatus",
+                    List.of(ItemStatus.URGENTLY_NEEDED.getText(), ItemStatus.NEEDED.getText()))
+                .bindList("items", items.stream().map(String::toLowerCase).toList())
+                .mapToBean(DestinationNeedResult.class)
+                .list());
+  }
+
+  /** Returns true if the site exists. */
+  static boolean siteExists(Jdbi jdbi, long siteId) {
+    return jdbi.withHandle(
+        handle ->
+            handle
+                    .createQuery("select count(*) from site where id = :siteId")
+                    .bind("siteId", siteId)
+                    .mapTo(Integer.class)
+                    .one()
+                > 0);
+  }
+}
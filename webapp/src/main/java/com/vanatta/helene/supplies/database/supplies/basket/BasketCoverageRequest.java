@@ -0,0 +1,26 @@
+package com.vanatta.helene.supplies.database.supplies.basket;
+
+import java.util.ArrayList;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder(toBuilder = true)
+@AllArgsConstructor
+@NoArgsConstructor
+public class BasketCoverageRequest {
+  /** Internal ID of the site that the items are being delivered to. */
+  Long siteId;
+
+  /** Names of the items in the basket. */
+  @Builder.Default List<String> items = new ArrayList<>();
+
+  /** Largest number of pickup sites in a suggested combination. */
+  @Builder.Default Integer maxSites = BasketCoverage.DEFAULT_MAX_SITES;
+
+  /** Max number of single sites and of site combinations returned. */
+  @Builder.Default Integer maxResults = BasketCoverage.DEFAULT_MAX_RESULTS;
+}
@@ -0,0 +1,52 @@
+package com.vanatta.helene.supplies.database.supplies.basket;
+
+import java.util.List;
+import lombok.Builder;
+import lombok.Value;
+
+@Value
+@Builder
+public class BasketCoverageResponse {
+  int basketSize;
+
+  /** Basket items that no site has available. */
+  List<String> unavailableItems;
+
+  /** Single pickup sites, best coverage first. */
+  List<SiteCoverage> sites;
+
+  /** Combinations of pickup sites that together cover more of the basket, best coverage first. */
+  List<SiteCombination> combinations;
+
+  @Value
+  @Builder
+  static class SiteCoverage {
+    long siteId;
+    String siteName;
+    String city;
+    String county;
+    String state;
+
+    /** Null if the distance to the destination is not known. */
+    Double distanceMiles;
+
+    /** Formatted drive time to the destination, empty if not known. */
+    String driveTime;
+
+    int itemCount;
+    int urgentItemCount;
+    List<String> items;
+  }
+
+  @Value
+  @Builder
+  static class SiteCombination {
+    List<SiteCoverage> sites;
+    int itemCount;
+    int urgentItemCount;
+    List<String> missingItems;
+
+    /** Sum of the distances of each site to the destination, null if any distance is unknown. */
+    Double totalDistanceMiles;
+  }
+}
@@ -22,10 +22,9 @@ public class FilterDataDao {
             """
         select s.name
         from site s
-        join county c on c.id = s.county_id
         where s.active = true
           %s
-          and c.state in (<stateList>)
+          and s.state in (<stateList>)
         order by lower(s.name)
         """,
             authenticatedFilter);
@@ -0,0 +1,60 @@
+package com.vanatta.helene.supplies.database.supplies.nearby;
+
+import com.vanatta.helene.supplies.database.DeploymentAdvice;
+import com.vanatta.helene.supplies.database.auth.CookieAuthenticator;
+import jakarta.servlet.http.HttpServletRequest;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.ModelAttribute;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/** Answers "what is needed near me?", returns sites with needs ordered by distance from a point. */
+@RestController
+@AllArgsConstructor
+public class NearbyNeedsController {
+  public static final String PATH_NEARBY_NEEDS = "/supplies/nearby-needs";
+  static final double DEFAULT_RADIUS_MILES = 20;
+  static final double MAX_RADIUS_MILES = 200;
+
+  private final NearbyNeedsIndex nearbyNeedsIndex;
+  private final CookieAuthenticator cookieAuthenticator;
+
+  @CrossOrigin
+  @GetMapping(PATH_NEARBY_NEEDS)
+  public NearbyNeedsResponse nearbyNeeds(
+      HttpServletRequest httpRequest,
+      @RequestParam double latitude,
+      @RequestParam double longitude,
+      @RequestParam(required = false) Double radiusMiles,
+      @ModelAttribute(DeploymentAdvice.DEPLOYMENT_STATE_LIST) List<String> stateList) {
+    return nearbyNeeds(
+        latitude,
+        longitude,
+        radiusMiles,
+        stateList,
+        cookieAuthenticator.isAuthenticated(httpRequest));
+  }
+
+  // @VisibleForTesting
+  NearbyNeedsResponse nearbyNeeds(
+      double latitude,
+      double longitude,
+      Double radiusMiles,
+      List<String> stateList,
+      boolean isAuthenticated) {
+    if (latitude < -90 || latitude > 90 || longitude < -180 || longitude > 180) {
+      throw new IllegalArgumentException(
+          String.format("Invalid location, latitude: %s, longitude: %s", latitude, longitude));
+    }
+    double radius =
+        radiusMiles == null
+            ? DEFAULT_RADIUS_MILES
+            : Math.min(Math.max(radiusMiles, 0), MAX_RADIUS_MILES);
+
+    var results = nearbyNeedsIndex.search(latitude, longitude, radius, stateList, isAuthenticated);
+    return NearbyNeedsResponse.builder().resultCount(results.size()).results(results).build();
+  }
+}
@@ -0,0 +1,73 @@
+package com.vanatta.helene.supplies.database.supplies.nearby;
+
+import com.vanatta.helene.supplies.database.data.ItemStatus;
+import java.util.Arrays;
+import java.util.List;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.jdbi.v3.core.Jdbi;
+
+class NearbyNeedsDao {
+
+  @NoArgsConstructor
+  @Data
+  public static class SiteNeedResult {
+    long siteId;
+    String site;
+    String siteType;
+    String county;
+    String state;
+    double latitude;
+    double longitude;
+    boolean publiclyVisible;
+    boolean givingDonations;
+    String item;
+    String itemStatus;
+  }
+
+  /**
+   * Returns all active sites that are accepting donations and have a known location, one row per
+   * needed item (or a single row with a null item if the site has no needs).
+   */
+  static List<SiteNeedResult> fetchSiteNeeds(Jdbi jdbi) {
+    String query =
+        """
+        select
+          s.id siteId,
+          s.name site,
+          st.name siteType,
+          c.name county,
+          c.state state,
+          s.latitude,
+          s.longitude,
+          s.publicly_visible publiclyVisible,
+          s.distributing_supplies givingDonations,
+          i.name item,
+          ist.name itemStatus
+        from site s
+        join site_type st on st.id = s.site_type_id
+        join county c on c.id = s.county_id
+        left join site_item si on si.site_id = s.id
+          and si.item_status_id in (
+            select id from item_status where name in (<neededStatus>))
+        left join item i on i.id = si.item_id
+        left join item_status ist on ist.id = si.item_status_id
+        where s.active = true
+          and s.accepting_donations = true
+          and s.latitude is not null
+        order by s.id, ist.sort_order, i.name
+        """;
+    return jdbi.withHandle(
+        handle ->
+            handle
+                .createQuery(query)
+                .bindList(
+                    "neededStatus",
+                    Arrays.stream(ItemStatus.values())
+                        .filter(ItemStatus::isNeeded)
+                        .map(ItemStatus::getText)
+                        .toList())
+                .mapToBean(SiteNeedResult.class)
+                .list());
+  }
+}
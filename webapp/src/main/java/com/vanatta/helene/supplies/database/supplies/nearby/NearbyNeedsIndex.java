@@ -0,0 +1,212 @@
+package com.vanatta.helene.supplies.database.supplies.nearby;
+
+import com.vanatta.helene.supplies.database.JdbiConfiguration;
+import com.vanatta.helene.supplies.database.data.ItemStatus;
+import com.vanatta.helene.supplies.database.supplies.nearby.NearbyNeedsResponse.NearbySite;
+import com.vanatta.helene.supplies.database.supplies.nearby.NearbyNeedsResponse.NeededItem;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import lombok.Builder;
+import lombok.extern.slf4j.Slf4j;
+import org.jdbi.v3.core.Jdbi;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * In-memory index of site needs by location. Sites are bucketed into a grid of fixed size
+ * latitude/longitude cells, a radius search only needs to look at the handful of cells that overlap
+ * the search circle.
+ *
+ * <p>The index is rebuilt from the database once a minute, so inventory changes show up in search
+ * results after a short delay.
+ */
+@Slf4j
+@Component
+public class NearbyNeedsIndex {
+  private static final int EVERY_MINUTE_IN_MS = 60 * 1000;
+
+  /** Grid cell size, 0.1 degree is roughly 7 miles (north-south). */
+  static final double CELL_DEGREES = 0.1;
+
+  static final double EARTH_RADIUS_MILES = 3958.8;
+  private static final double MILES_PER_DEGREE_LATITUDE = 69.0;
+
+  private final Jdbi jdbi;
+  private volatile Snapshot snapshot;
+
+  NearbyNeedsIndex(@Qualifier(JdbiConfiguration.BACKGROUND) Jdbi jdbi) {
+    this.jdbi = jdbi;
+  }
+
+  @Builder
+  static class IndexedSite {
+    final long id;
+    final String site;
+    final String siteType;
+    final String county;
+    final String state;
+    final double latitude;
+    final double longitude;
+    final boolean publiclyVisible;
+    final boolean givingDonations;
+    final List<NeededItem> neededItems;
+  }
+
+  /** Immutable index data, swapped out as a whole on refresh. */
+  private static class Snapshot {
+    final IndexedSite[] sites;
+
+    /** Grid cell key -> indices of the sites in that cell. */
+    final Map<Long, int[]> cells;
+
+    Snapshot(List<IndexedSite> siteList) {
+      sites = siteList.toArray(new IndexedSite[0]);
+      Map<Long, List<Integer>> building = new HashMap<>();
+      for (int i = 0; i < sites.length; i++) {
+        long key = cellKey(row(sites[i].latitude), column(sites[i].longitude));
+        building.computeIfAbsent(key, _ -> new ArrayList<>()).add(i);
+      }
+      cells = new HashMap<>();
+      building.forEach(
+          (key, list) -> cells.put(key, list.stream().mapToInt(Integer::intValue).toArray()));
+    }
+  }
+
+  private static int row(double latitude) {
+    return (int) Math.floor(latitude / CELL_DEGREES);
+  }
+
+  private static int column(double longitude) {
+    return (int) Math.floor(longitude / CELL_DEGREES);
+  }
+
+  private static long cellKey(int row, int column) {
+    return ((long) row << 32) | (column & 0xFFFFFFFFL);
+  }
+
+  @Scheduled(fixedDelay = EVERY_MINUTE_IN_MS)
+  public void refresh() {
+    Map<Long, IndexedSite.IndexedSiteBuilder> builders = new LinkedHashMap<>();
+    Map<Long, List<NeededItem>> items = new HashMap<>();
+    for (NearbyNeedsDao.SiteNeedResult result : NearbyNeedsDao.fetchSiteNeeds(jdbi)) {
+      builders.computeIfAbsent(
+          result.getSiteId(),
+          _ ->
+              IndexedSite.builder()
+                  .id(result.getSiteId())
+                  .site(result.getSite())
+                  .siteType(result.getSiteType())
+                  .county(result.getCounty())
+                  .state(result.getState())
+                  .latitude(result.getLatitude())
+                  .longitude(result.getLongitude())
+                  .publiclyVisible(result.isPubliclyVisible())
+                  .givingDonations(result.isGivingDonations()));
+      List<NeededItem> siteItems =
+          items.computeIfAbsent(result.getSiteId(), _ -> new ArrayList<>());
+      if (result.getItem() != null) {
+        siteItems.add(
+            NeededItem.builder()
+                .name(result.getItem())
+                .displayClass(ItemStatus.fromTextValue(result.getItemStatus()).getCssClass())
+                .build());
+      }
+    }
+    List<IndexedSite> sites = new ArrayList<>();
+    builders.forEach(
+        (id, builder) -> sites.add(builder.neededItems(List.copyOf(items.get(id))).build()));
+    load(sites);
+  }
+
+  // @VisibleForTesting
+  void load(List<IndexedSite> sites) {
+    snapshot = new Snapshot(sites);
+  }
+
+  /**
+   * Finds sites with needs within a given radius of a point.
+   *
+   * @param states Only sites in these states are returned (the states of the current deployment).
+   * @param isAuthenticated Same semantics as supplies search. Logged in users can see sites that
+   *     are not publicly visible and can see needs of all sites. Otherwise needs are only listed
+   *     for sites that are giving donations.
+   */
+  List<NearbySite> search(
+      double latitude,
+      double longitude,
+      double radiusMiles,
+      Collection<String> states,
+      boolean isAuthenticated) {
+    if (snapshot == null) {
+      refresh();
+    }
+    Snapshot current = snapshot;
+
+    double latitudeDelta = radiusMiles / MILES_PER_DEGREE_LATITUDE;
+    // longitude degrees shrink towards the poles, use the latitude furthest from the equator
+    double widestLatitude =
+        Math.min(
+            89.0, Math.max(Math.abs(latitude - latitudeDelta), Math.abs(latitude + latitudeDelta)));
+    double longitudeDelta =
+        radiusMiles / (MILES_PER_DEGREE_LATITUDE * Math.cos(Math.toRadians(widestLatitude)));
+
+    List<NearbySite> results = new ArrayList<>();
+    for (int row = row(latitude - latitudeDelta); row <= row(latitude + latitudeDelta); row++) {
+      for (int col = column(longitude - longitudeDelta);
+          col <= column(longitude + longitudeDelta);
+          col++) {
+        int[] cell = current.cells.get(cellKey(row, col));
+        if (cell == null) {
+          continue;
+        }
+        for (int index : cell) {
+          IndexedSite site = current.sites[index];
+          if (!states.contains(site.state) || (!isAuthenticated && !site.publiclyVisible)) {
+            continue;
+          }
+          List<NeededItem> neededItems =
+              isAuthenticated || site.givingDonations ? site.neededItems : List.of();
+          if (neededItems.isEmpty()) {
+            continue;
+          }
+          double miles = distanceMiles(latitude, longitude, site.latitude, site.longitude);
+          if (miles <= radiusMiles) {
+            results.add(
+                NearbySite.builder()
+                    .id(site.id)
+                    .site(site.site)
+                    .siteType(site.siteType)
+                    .county(site.county)
+                    .state(site.state)
+                    .distanceMiles(Math.round(miles * 10) / 10.0)
+                    .neededItems(neededItems)
+                    .build());
+          }
+        }
+      }
+    }
+    results.sort(
+        Comparator.comparingDouble(NearbySite::getDistanceMiles)
+            .thenComparing(NearbySite::getSite));
+    return results;
+  }
+
+  /** Great circle (haversine) distance between two points. */
+  static double distanceMiles(double lat1, double lon1, double lat2, double lon2) {
+    double dLat = Math.toRadians(lat2 - lat1);
+    double dLon = Math.toRadians(lon2 - lon1);
+    double a =
+        Math.sin(dLat / 2) * Math.sin(dLat / 2)
+            + Math.cos(Math.toRadians(lat1))
+                * Math.cos(Math.toRadians(lat2))
+                * Math.sin(dLon / 2)
+                * Math.sin(dLon / 2);
+    return 2 * EARTH_RADIUS_MILES * Math.asin(Math.sqrt(a));
+  }
+}
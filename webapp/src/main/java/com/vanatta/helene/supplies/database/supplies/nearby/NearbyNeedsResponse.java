@@ -0,0 +1,35 @@
+package com.vanatta.helene.supplies.database.supplies.nearby;
+
+import java.util.List;
+import lombok.Builder;
+import lombok.Value;
+
+@Value
+@Builder
+public class NearbyNeedsResponse {
+  int resultCount;
+
+  /** Sites with needs, sorted by distance (closest first). */
+  List<NearbySite> results;
+
+  @Value
+  @Builder
+  static class NearbySite {
+    long id;
+    String site;
+    String siteType;
+    String county;
+    String state;
+    double distanceMiles;
+    List<NeededItem> neededItems;
+  }
+
+  @Value
+  @Builder
+  static class NeededItem {
+    String name;
+
+    /** 'urgent' or 'needed' */
+    String displayClass;
+  }
+}
@@ -160,7 +160,6 @@ public class NeedsMatchingDao {
             FROM site_item si
             JOIN item_status ist ON si.item_status_id = ist.id
             JOIN site s on s.id = si.site_id
-            JOIN county c on c.id = s.county_id
             WHERE s.id = :siteId AND ist.name IN ('Urgently Needed', 'Needed')
         ),
         oversupply_sites AS (
@@ -168,11 +167,10 @@ public class NeedsMatchingDao {
             FROM site_item si
             JOIN item_status ist ON si.item_status_id = ist.id
             JOIN site s on s.id = si.site_id
-            JOIN county c on c.id = s.county_id
             JOIN site_type st on st.id = s.site_type_id
             WHERE
               s.active = true
-              and c.state in (<stateList>)
+              and s.state in (<stateList>)
               and (ist.name = 'Oversupply' or (st.name = 'Supply Hub' and ist.name in ('Available', 'Oversupply')))
         ), need_match AS (
             SELECT
@@ -0,0 +1,105 @@
+package com.vanatta.helene.supplies.database.twilio.sms;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * Merges claimed SMS queue messages into the SMS messages to send. Messages to the same phone with
+ * the same group key (eg: status updates of one delivery) are sent as one SMS, oldest message
+ * first. Of messages in a group with the same topic only the newest is sent, older ones are
+ * superseded (eg: 'Confirmation received' followed by 'Delivery confirmed').
+ *
+ * <p>A merged SMS is kept within {@link SmsSender#MAX_MESSAGE_LENGTH}, messages of a group that do
+ * not fit are sent as the next SMS rather than cut off by the sender.
+ */
+class SmsCoalescer {
+  private static final String SEPARATOR = "\n\n";
+
+  /** One SMS to send, made up of one or more queued messages. */
+  @Value
+  @Builder
+  static class CoalescedSms {
+    String phone;
+    String message;
+
+    /** Queued messages sent by this SMS. */
+    List<Long> ids;
+
+    /** Queued messages replaced by a newer message of this SMS, they are not sent. */
+    List<Long> supersededIds;
+
+    /** Highest attempt count of the queued messages. */
+    int attempts;
+  }
+
+  private record GroupKey(String phone, String groupKey) {}
+
+  static List<CoalescedSms> coalesce(List<SmsQueueDao.QueuedSms> messages) {
+    Map<Object, List<SmsQueueDao.QueuedSms>> groups = new LinkedHashMap<>();
+    messages.stream()
+        .sorted(Comparator.comparingLong(SmsQueueDao.QueuedSms::getId))
+        .forEach(
+            sms ->
+                groups
+                    .computeIfAbsent(
+                        sms.getGroupKey() == null
+                            ? sms.getId()
+                            : new GroupKey(sms.getPhone(), sms.getGroupKey()),
+                        _ -> new ArrayList<>())
+                    .add(sms));
+    return groups.values().stream().flatMap(group -> merge(group).stream()).toList();
+  }
+
+  /** Merges messages of one group, which are sorted oldest first. */
+  private static List<CoalescedSms> merge(List<SmsQueueDao.QueuedSms> group) {
+    List<SmsQueueDao.QueuedSms> kept = new ArrayList<>();
+    List<Long> supersededIds = new ArrayList<>();
+    for (int i = 0; i < group.size(); i++) {
+      SmsQueueDao.QueuedSms sms = group.get(i);
+      if (isSuperseded(sms, group.subList(i + 1, group.size()))) {
+        supersededIds.add(sms.getId());
+      } else {
+        kept.add(sms);
+      }
+    }
+    List<CoalescedSms> merged = new ArrayList<>();
+    List<SmsQueueDao.QueuedSms> chunk = new ArrayList<>();
+    int chunkLength = 0;
+    for (SmsQueueDao.QueuedSms sms : kept) {
+      int length = sms.getMessage().strip().length();
+      if (!chunk.isEmpty()
+          && chunkLength + SEPARATOR.length() + length > SmsSender.MAX_MESSAGE_LENGTH) {
+        merged.add(toSms(chunk, merged.isEmpty() ? supersededIds : List.of()));
+        chunk = new ArrayList<>();
+        chunkLength = 0;
+      }
+      chunkLength += (chunk.isEmpty() ? 0 : SEPARATOR.length()) + length;
+      chunk.add(sms);
+    }
+    merged.add(toSms(chunk, merged.isEmpty() ? supersededIds : List.of()));
+    return merged;
+  }
+
+  private static CoalescedSms toSms(List<SmsQueueDao.QueuedSms> kept, List<Long> supersededIds) {
+    return CoalescedSms.builder()
+        .phone(kept.getFirst().getPhone())
+        .message(
+            String.join(SEPARATOR, kept.stream().map(sms -> sms.getMessage().strip()).toList()))
+        .ids(kept.stream().map(SmsQueueDao.QueuedSms::getId).toList())
+        .supersededIds(supersededIds)
+        .attempts(kept.stream().mapToInt(SmsQueueDao.QueuedSms::getAttempts).max().orElse(0))
+        .build();
+  }
+
+  private static boolean isSuperseded(
+      SmsQueueDao.QueuedSms sms, List<SmsQueueDao.QueuedSms> newer) {
+    return sms.getTopic() != null
+        && newer.stream().anyMatch(n -> Objects.equals(n.getTopic(), sms.getTopic()));
+  }
+}
@@ -0,0 +1,163 @@
+package com.vanatta.helene.supplies.database.twilio.sms;
+
+import com.vanatta.helene.supplies.database.JdbiConfiguration;
+import com.vanatta.helene.supplies.database.util.WorkQueue;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+import lombok.Builder;
+import org.jdbi.v3.core.Jdbi;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Sends the SMS messages of the SMS queue (see {@link SmsQueueDao}) on a background thread, at the
+ * rate {@link SmsSender} allows. Requests queue their messages and return without waiting on
+ * Twilio, a burst of messages is spread out over time instead of adding latency to requests.
+ *
+ * <p>Messages are polled every {@link #POLL_INTERVAL_MS}, or right away after {@link #wakeUp()}.
+ * Transient failures (rate limited, Twilio unavailable) are retried with exponential backoff up to
+ * {@link #MAX_ATTEMPTS} times, other failures (eg: invalid phone number) are not retried.
+ *
+ * <p>Messages with a group key wait for the coalescing window ('sms.coalesce.window.seconds') and
+ * are then merged with the other pending messages of their group, see {@link SmsCoalescer}. A
+ * driver updating a delivery several times in a row sends one SMS to each recipient rather than one
+ * per update.
+ */
+@Component
+public class SmsDispatcher {
+  static final long POLL_INTERVAL_MS = 2_000;
+  static final int BATCH_SIZE = 20;
+  static final int MAX_ATTEMPTS = 6;
+
+  /** Claimed messages are retried after this long if the dispatcher dies while sending. */
+  static final int LEASE_SECONDS = 5 * 60;
+
+  static final long FIRST_RETRY_DELAY_SECONDS = 15;
+  static final long MAX_RETRY_DELAY_SECONDS = 15 * 60;
+
+  private static final int SENT_RETENTION_DAYS = 30;
+  private static final int CLEANUP_INTERVAL_MS = 60 * 60 * 1000;
+
+  private final Jdbi jdbi;
+  private final SmsSender smsSender;
+  private final int coalesceWindowSeconds;
+  private final WorkQueue workQueue;
+
+  private final LongAdder coalesced = new LongAdder();
+  private final LongAdder superseded = new LongAdder();
+
+  @lombok.Value
+  @Builder
+  public static class SmsQueueMetrics {
+    int pending;
+    long sent;
+    long retried;
+    long failed;
+
+    /** Messages sent as part of another message's SMS. */
+    long coalesced;
+
+    /** Messages not sent because a newer message replaced them. */
+    long superseded;
+  }
+
+  public SmsDispatcher(
+      @Qualifier(JdbiConfiguration.BACKGROUND) Jdbi jdbi,
+      SmsSender smsSender,
+      @Value("${sms.coalesce.window.seconds}") int coalesceWindowSeconds) {
+    this.jdbi = jdbi;
+    this.smsSender = smsSender;
+    this.coalesceWindowSeconds = coalesceWindowSeconds;
+    this.workQueue =
+        WorkQueue.builder()
+            .jdbi(jdbi)
+            .table(SmsQueueDao.TABLE)
+            .maxAttempts(MAX_ATTEMPTS)
+            .firstRetryDelaySeconds(FIRST_RETRY_DELAY_SECONDS)
+            .maxRetryDelaySeconds(MAX_RETRY_DELAY_SECONDS)
+            .build();
+  }
+
+  /**
+   * Starts polling. Instances created outside of Spring (tests) are not started, messages are sent
+   * only when {@link #processDue()} is called.
+   */
+  @PostConstruct
+  void start() {
+    workQueue.start("sms-dispatcher", POLL_INTERVAL_MS, this::processDue);
+  }
+
+  /** Sends due messages without waiting for the next poll, call after messages are committed. */
+  public void wakeUp() {
+    workQueue.wakeUp();
+  }
+
+  /** Sends all messages that are due. */
+  public synchronized void processDue() {
+    List<SmsQueueDao.QueuedSms> messages;
+    do {
+      messages = SmsQueueDao.claimDue(jdbi, BATCH_SIZE, LEASE_SECONDS, coalesceWindowSeconds);
+      for (SmsCoalescer.CoalescedSms sms : SmsCoalescer.coalesce(messages)) {
+        if (!sms.getSupersededIds().isEmpty()) {
+          superseded.add(sms.getSupersededIds().size());
+          SmsQueueDao.markSuperseded(jdbi, sms.getSupersededIds());
+        }
+        send(sms);
+      }
+      // grouped messages are claimed beyond the batch size
+    } while (messages.size() >= BATCH_SIZE);
+  }
+
+  /**
+   * Sends one SMS and records the result right away. A sent message is marked sent before the next
+   * one is sent, so if the dispatcher dies mid batch, messages Twilio accepted are not sent again
+   * once their lease expires.
+   */
+  private void send(SmsCoalescer.CoalescedSms sms) {
+    SmsSender.SendResult result;
+    try {
+      result = smsSender.attempt(sms.getPhone(), sms.getMessage());
+    } catch (Exception e) {
+      result = SmsSender.SendResult.builder().retryable(true).error(e.toString()).build();
+    }
+    if (result.isSuccess()) {
+      workQueue.sent(sms.getIds());
+      coalesced.add(sms.getIds().size() - 1);
+    } else {
+      workQueue.failed(
+          sms.getIds(), sms.getAttempts(), result.getError(), result.isRetryable(), result, null);
+    }
+  }
+
+  /** Doubles with each attempt: 15s, 30s, 1m, .. up to 15m. */
+  // @VisibleForTesting
+  static long retryDelaySeconds(int attempts) {
+    return WorkQueue.retryDelaySeconds(
+        attempts, FIRST_RETRY_DELAY_SECONDS, MAX_RETRY_DELAY_SECONDS);
+  }
+
+  @Scheduled(fixedDelay = CLEANUP_INTERVAL_MS)
+  void deleteOldMessages() {
+    workQueue.deleteCompletedBefore(SENT_RETENTION_DAYS);
+  }
+
+  public SmsQueueMetrics metrics() {
+    return SmsQueueMetrics.builder()
+        .pending(workQueue.countPending())
+        .sent(workQueue.sentCount())
+        .retried(workQueue.retriedCount())
+        .failed(workQueue.failedCount())
+        .coalesced(coalesced.sum())
+        .superseded(superseded.sum())
+        .build();
+  }
+
+  @PreDestroy
+  void shutdown() throws InterruptedException {
+    workQueue.shutdown();
+  }
+}
@@ -0,0 +1,147 @@
+package com.vanatta.helene.supplies.database.twilio.sms;
+
+import com.vanatta.helene.supplies.database.util.WorkQueueDao;
+import java.util.List;
+import java.util.Map;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.jdbi.v3.core.Jdbi;
+import org.jdbi.v3.core.statement.PreparedBatch;
+
+/**
+ * Table of SMS messages waiting to be sent by {@link SmsDispatcher}. Messages can be added within a
+ * transaction, they are then sent if and only if the transaction commits.
+ *
+ * <p>Messages with a group key are held for the coalescing window, pending messages to the same
+ * phone with the same group key are then sent as one SMS, see {@link SmsCoalescer}.
+ *
+ * <p>Messages of an admin SMS broadcast are tagged with the broadcast ID, they are kept as the
+ * record of the broadcast and are sent after other due messages.
+ */
+public class SmsQueueDao {
+
+  @lombok.Value
+  @Builder
+  public static class OutgoingSms {
+    String phone;
+    String message;
+
+    /** Optional, messages to the same phone with the same group key are coalesced. */
+    String groupKey;
+
+    /** Optional, a message supersedes unsent messages of its group that have the same topic. */
+    String topic;
+
+    /** Optional, the admin SMS broadcast the message is part of. */
+    Long smsBroadcastId;
+  }
+
+  @Data
+  @NoArgsConstructor
+  public static class QueuedSms {
+    long id;
+    String phone;
+    String message;
+    String groupKey;
+    String topic;
+    int attempts;
+  }
+
+  public static void enqueue(Jdbi jdbi, String phone, String message) {
+    enqueueAll(jdbi, List.of(OutgoingSms.builder().phone(phone).message(message).build()));
+  }
+
+  public static void enqueueAll(Jdbi jdbi, List<OutgoingSms> messages) {
+    if (messages.isEmpty()) {
+      return;
+    }
+    jdbi.useHandle(
+        handle -> {
+          PreparedBatch batch =
+              handle.prepareBatch(
+                  """
+                  insert into sms_queue(phone, message, group_key, topic, sms_broadcast_id)
+                  values(:phone, :message, :groupKey, :topic, :smsBroadcastId)
+                  """);
+          messages.forEach(
+              sms ->
+                  batch
+                      .bind("phone", sms.getPhone())
+                      .bind("message", sms.getMessage())
+                      .bind("groupKey", sms.getGroupKey())
+                      .bind("topic", sms.getTopic())
+                      .bind("smsBroadcastId", sms.getSmsBroadcastId())
+                      .add());
+          batch.execute();
+        });
+  }
+
+  static final WorkQueueDao.Table TABLE =
+      WorkQueueDao.Table.builder()
+          .name("sms_queue")
+          .pendingCondition("superseded_at is null")
+          .completedAt("coalesce(sent_at, superseded_at)")
+          .keepCondition("sms_broadcast_id is not null")
+          .build();
+
+  /**
+   * Claims messages that are due, oldest first, see {@link WorkQueueDao#claim}. Broadcast messages
+   * are claimed after other messages, so a large broadcast does not hold up delivery notifications.
+   *
+   * <p>A message with a group key is due once it is older than the coalescing window. It is claimed
+   * together with the other pending messages to the same phone with the same group key that are
+   * still in their coalescing window, so they can be sent as one SMS. Messages waiting for a retry
+   * (or leased by another claim) are not claimed early.
+   */
+  static List<QueuedSms> claimDue(
+      Jdbi jdbi, int limit, int leaseSeconds, int coalesceWindowSeconds) {
+    String claimableIds =
+        """
+        with due as (
+          select id, phone, group_key
+          from sms_queue
+          where sent_at is null
+            and failed_at is null
+            and superseded_at is null
+            and next_attempt_at <= now()
+            and (group_key is null
+                 or date_created <= now() - make_interval(secs => :coalesceWindowSeconds))
+          order by (sms_broadcast_id is not null), id
+          limit :limit
+          for update skip locked
+        ), grouped as (
+          select q.id
+          from sms_queue q
+          join due on due.phone = q.phone and due.group_key = q.group_key
+          where q.sent_at is null
+            and q.failed_at is null
+            and q.superseded_at is null
+            and q.next_attempt_at <= now()
+          for update of q skip locked
+        )
+        select id from due union select id from grouped
+        """;
+    return WorkQueueDao.claim(
+        jdbi,
+        TABLE,
+        claimableIds,
+        Map.of("limit", limit, "coalesceWindowSeconds", coalesceWindowSeconds),
+        leaseSeconds,
+        "id, phone, message, group_key groupKey, topic, attempts",
+        QueuedSms.class);
+  }
+
+  /** Marks messages that were replaced by a newer message with the same topic. */
+  static void markSuperseded(Jdbi jdbi, List<Long> ids) {
+    if (ids.isEmpty()) {
+      return;
+    }
+    jdbi.useHandle(
+        handle ->
+            handle
+                .createUpdate("update sms_queue set superseded_at = now() where id in (<ids>)")
+                .bindList("ids", ids)
+                .execute());
+  }
+}
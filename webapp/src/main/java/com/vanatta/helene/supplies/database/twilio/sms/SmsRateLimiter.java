@@ -0,0 +1,34 @@
+package com.vanatta.helene.supplies.database.twilio.sms;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Spaces out SMS sends to stay within Twilio's messages per second limit. Each caller reserves the
+ * next free send slot and sleeps until it.
+ */
+class SmsRateLimiter {
+  private final long intervalNanos;
+  private long nextPermitNanos = System.nanoTime();
+
+  SmsRateLimiter(double permitsPerSecond) {
+    if (permitsPerSecond <= 0) {
+      throw new IllegalArgumentException(
+          "Permits per second must be positive: " + permitsPerSecond);
+    }
+    this.intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / permitsPerSecond);
+  }
+
+  /** Blocks until a send is permitted. */
+  void acquire() throws InterruptedException {
+    long waitNanos;
+    synchronized (this) {
+      long now = System.nanoTime();
+      long permitAt = Math.max(now, nextPermitNanos);
+      nextPermitNanos = permitAt + intervalNanos;
+      waitNanos = permitAt - now;
+    }
+    if (waitNanos > 0) {
+      TimeUnit.NANOSECONDS.sleep(waitNanos);
+    }
+  }
+}
@@ -1,48 +1,116 @@
 package com.vanatta.helene.supplies.database.twilio.sms;
 
-import com.twilio.Twilio;
-import com.twilio.rest.api.v2010.account.Message;
-import com.twilio.type.PhoneNumber;
+import com.google.gson.FieldNamingPolicy;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonParseException;
+import com.vanatta.helene.supplies.database.audit.AuditLogWriter;
+import com.vanatta.helene.supplies.database.util.OutboundHttp;
 import com.vanatta.helene.supplies.database.util.TruncateString;
+import com.vanatta.helene.supplies.database.util.UrlEncode;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.stream.Collectors;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.extern.slf4j.Slf4j;
 import org.jdbi.v3.core.Jdbi;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+/**
+ * Sends SMS messages with the Twilio REST API. Sends are spaced out to stay within the Twilio send
+ * rate ('twilio.sms.max.per.second'). Most messages should be queued with {@link SmsQueueDao} and
+ * are then sent by {@link SmsDispatcher}, sending directly is for when the caller needs the result
+ * (eg: access codes).
+ *
+ * <p>Every send is recorded in sms_send_history. Requests go through the shared {@link
+ * OutboundHttp} client.
+ */
 @Component
 @Slf4j
 public class SmsSender {
+  /** Longer messages are cut off. */
+  static final int MAX_MESSAGE_LENGTH = 1500;
 
   // @VisibleForTesting
   public static SmsSender newDisabled(Jdbi jdbi) {
-    return new SmsSender("+1", "", "", false, jdbi);
+    return newDisabled(new AuditLogWriter(jdbi));
   }
 
+  // @VisibleForTesting
+  public static SmsSender newDisabled(AuditLogWriter auditLog) {
+    return new SmsSender("+1", "", "", "http://localhost", false, 1, auditLog);
+  }
+
+  private static final Gson gson =
+      new GsonBuilder()
+          .setFieldNamingPolicy(FieldNamingPolicy.LOWER_CASE_WITH_UNDERSCORES)
+          .create();
+
   private final String twilioFromNumber;
+  private final String messagesUrl;
+  private final String authorization;
   private final boolean twilioSmsEnabled;
-  private final Jdbi jdbi;
+  private final SmsRateLimiter rateLimiter;
+  private final AuditLogWriter auditLog;
+
+  /** Result of one send attempt. */
+  @Builder
+  @lombok.Value
+  public static class SendResult {
+    boolean success;
+
+    /** True if the failure is transient (eg: rate limited, Twilio unavailable). */
+    boolean retryable;
+
+    String error;
+
+    static SendResult sent() {
+      return SendResult.builder().success(true).build();
+    }
+  }
 
+  @Autowired
   SmsSender(
       @Value("${twilio.from.number}") String twilioFromNumber,
       @Value("${twilio.account.sid}") String twilioAccountSid,
       @Value("${twilio.auth.token}") String twilioAuthToken,
+      @Value("${twilio.api.url}") String twilioApiUrl,
       @Value("${twilio.sms.enabled}") boolean twilioSmsEnabled,
-      Jdbi jdbi) {
+      @Value("${twilio.sms.max.per.second}") double maxPerSecond,
+      AuditLogWriter auditLog) {
     this.twilioFromNumber = twilioFromNumber;
     if (!twilioFromNumber.startsWith("+1")) {
       throw new IllegalArgumentException(
           "Twilio from number must start with '+1', number provided: " + twilioFromNumber);
     }
+    this.messagesUrl =
+        String.format("%s/2010-04-01/Accounts/%s/Messages.json", twilioApiUrl, twilioAccountSid);
+    this.authorization =
+        "Basic "
+            + Base64.getEncoder()
+                .encodeToString(
+                    (twilioAccountSid + ":" + twilioAuthToken).getBytes(StandardCharsets.UTF_8));
     this.twilioSmsEnabled = twilioSmsEnabled;
-    if (twilioSmsEnabled) {
-      Twilio.init(twilioAccountSid, twilioAuthToken);
-    }
-    this.jdbi = jdbi;
+    this.rateLimiter = new SmsRateLimiter(maxPerSecond);
+    this.auditLog = auditLog;
   }
 
+  /** Sends a message right away (within the send rate), returns true if Twilio accepted it. */
   public boolean send(String phoneNumber, String message) {
+    return attempt(phoneNumber, message).isSuccess();
+  }
+
+  /** Makes one attempt to send a message. Blocks until the send rate allows another message. */
+  public SendResult attempt(String phoneNumber, String message) {
     if (phoneNumber == null || message == null) {
       throw new IllegalArgumentException(
           String.format("Null input, phoneNumber: %s, message: %s", phoneNumber, message));
@@ -51,7 +119,7 @@ public class SmsSender {
     if (!twilioSmsEnabled) {
       log.info("SMS disabled, would have sent to: {}, message: {}", phoneNumber, message);
       recordMessage(
-          jdbi,
+          auditLog,
           MessageResult.builder()
               .toNumber(phoneNumber)
               .messageLength(message.length())
@@ -60,32 +128,100 @@ public class SmsSender {
               .errorCode(-1)
               .errorMessage("SMS not enabled")
               .build());
-      return true;
-    } else {
-      log.info("Sending SMS to: {}, message length: {}", phoneNumber, message.length());
-
-      try {
-        Message smsMessage =
-            Message.creator(
-                    new PhoneNumber(
-                        phoneNumber.startsWith("+1") ? phoneNumber : "+1" + phoneNumber),
-                    new PhoneNumber(twilioFromNumber),
-                    TruncateString.truncate(message, 1500))
-                .create();
-        recordMessage(jdbi, new MessageResult(smsMessage, message.length()));
-        return true;
-      } catch (Exception e) {
-        log.warn("Failed to send SMS to: {}, with message: {}", phoneNumber, message, e);
+      return SendResult.sent();
+    }
+
+    log.info("Sending SMS to: {}, message length: {}", phoneNumber, message.length());
+    try {
+      rateLimiter.acquire();
+      HttpResponse<String> response = OutboundHttp.send(buildRequest(phoneNumber, message));
+      TwilioResponse twilioResponse = parseResponse(response.body());
+
+      if (response.statusCode() / 100 == 2) {
         recordMessage(
-            jdbi,
+            auditLog,
             MessageResult.builder()
                 .toNumber(phoneNumber)
                 .messageLength(message.length())
-                .errorMessage(
-                    "Potentially invalid phone number. Failed to send SMS: " + e.getMessage())
+                .success(twilioResponse.errorCode == null)
+                .messageLink(twilioResponse.uri)
+                .errorCode(twilioResponse.errorCode)
+                .errorMessage(twilioResponse.errorMessage)
                 .build());
-        return false;
+        return SendResult.sent();
       }
+
+      // 429: too many requests, 5xx: Twilio unavailable, others: invalid request (eg: bad number)
+      boolean retryable = response.statusCode() == 429 || response.statusCode() >= 500;
+      String error =
+          String.format(
+              "HTTP %s, Twilio error %s: %s",
+              response.statusCode(), twilioResponse.code, twilioResponse.message);
+      log.warn("Failed to send SMS to: {}, with message: {}, {}", phoneNumber, message, error);
+      recordMessage(
+          auditLog,
+          MessageResult.builder()
+              .toNumber(phoneNumber)
+              .messageLength(message.length())
+              .errorCode(twilioResponse.code)
+              .errorMessage(
+                  retryable
+                      ? "Failed to send SMS: " + error
+                      : "Potentially invalid phone number. Failed to send SMS: " + error)
+              .build());
+      return SendResult.builder().retryable(retryable).error(error).build();
+    } catch (IOException e) {
+      log.warn("Failed to send SMS to: {}, with message: {}", phoneNumber, message, e);
+      recordMessage(
+          auditLog,
+          MessageResult.builder()
+              .toNumber(phoneNumber)
+              .messageLength(message.length())
+              .errorMessage("Failed to send SMS: " + e.getMessage())
+              .build());
+      return SendResult.builder().retryable(true).error(e.toString()).build();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return SendResult.builder().retryable(true).error("Interrupted").build();
+    }
+  }
+
+  private HttpRequest.Builder buildRequest(String phoneNumber, String message) {
+    Map<String, String> form = new HashMap<>();
+    form.put("To", phoneNumber.startsWith("+1") ? phoneNumber : "+1" + phoneNumber);
+    form.put("From", twilioFromNumber);
+    form.put("Body", TruncateString.truncate(message, MAX_MESSAGE_LENGTH));
+    String body =
+        form.entrySet().stream()
+            .map(e -> e.getKey() + "=" + UrlEncode.encode(e.getValue()))
+            .collect(Collectors.joining("&"));
+
+    return HttpRequest.newBuilder(URI.create(messagesUrl))
+        .header("Authorization", authorization)
+        .header("Content-Type", "application/x-www-form-urlencoded")
+        .POST(HttpRequest.BodyPublishers.ofString(body));
+  }
+
+  /**
+   * Fields of the Twilio message resource (success) and of a Twilio error response (code &
+   * message).
+   */
+  static class TwilioResponse {
+    String uri;
+    Integer errorCode;
+    String errorMessage;
+    Integer code;
+    String message;
+  }
+
+  private static TwilioResponse parseResponse(String body) {
+    try {
+      TwilioResponse response = gson.fromJson(body, TwilioResponse.class);
+      return response == null ? new TwilioResponse() : response;
+    } catch (JsonParseException e) {
+      TwilioResponse response = new TwilioResponse();
+      response.message = TruncateString.truncate(body, 256);
+      return response;
     }
   }
 
@@ -99,34 +235,24 @@ public class SmsSender {
     String messageLink;
     Integer errorCode;
     String errorMessage;
-
-    MessageResult(Message smsMessage, int messageLength) {
-      toNumber = smsMessage.getTo();
-      this.messageLength = messageLength;
-      success = smsMessage.getErrorCode() == null;
-      messageLink = smsMessage.getUri();
-      errorCode = smsMessage.getErrorCode();
-      errorMessage = smsMessage.getErrorMessage();
-    }
   }
 
+  private static final String INSERT_SEND_HISTORY =
+      """
+      insert into sms_send_history(number, message_length, success, message_link, error_code, error_message)
+      values(:number, :messageLength, :success, :messageLink, :errorCode, :errorMessage)
+      """;
+
+  /** Send history is written in the background, see {@link AuditLogWriter}. */
   // @VisibleForTesting
-  static void recordMessage(Jdbi jdbi, MessageResult result) {
-    String insert =
-        """
-        insert into sms_send_history(number, message_length, success, message_link, error_code, error_message)
-        values(:number, :messageLength, :success, :messageLink, :errorCode, :errorMessage)
-        """;
-    jdbi.withHandle(
-        handle ->
-            handle
-                .createUpdate(insert)
-                .bind("number", result.getToNumber())
-                .bind("messageLength", result.getMessageLength())
-                .bind("success", result.isSuccess())
-                .bind("messageLink", result.getMessageLink())
-                .bind("errorCode", result.getErrorCode())
-                .bind("errorMessage", result.getErrorMessage())
-                .execute());
+  static void recordMessage(AuditLogWriter auditLog, MessageResult result) {
+    Map<String, Object> params = new HashMap<>();
+    params.put("number", result.getToNumber());
+    params.put("messageLength", result.getMessageLength());
+    params.put("success", result.isSuccess());
+    params.put("messageLink", result.getMessageLink());
+    params.put("errorCode", result.getErrorCode());
+    params.put("errorMessage", TruncateString.truncate(result.getErrorMessage(), 512));
+    auditLog.append(INSERT_SEND_HISTORY, params);
   }
 }
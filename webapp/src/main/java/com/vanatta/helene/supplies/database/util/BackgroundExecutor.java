@@ -0,0 +1,167 @@
+package com.vanatta.helene.supplies.database.util;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import lombok.Builder;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import org.slf4j.MDC;
+
+/**
+ * Runs tasks on virtual threads with at most 'maxInFlight' tasks running at once. When the limit is
+ * reached {@link #run(Runnable)} blocks the caller until a task finishes, so a burst of tasks (eg:
+ * a bulk inventory edit) slows down the caller instead of piling up threads & connections.
+ *
+ * <p>The MDC of the caller is copied to the task. Once {@link #drain(Duration)} is called, new
+ * tasks run on the caller's thread.
+ */
+@Slf4j
+public class BackgroundExecutor {
+
+  private final int maxInFlight;
+  private final Semaphore permits;
+  private final ExecutorService executor;
+  private volatile boolean draining = false;
+
+  private final LongAdder submitted = new LongAdder();
+  private final LongAdder completed = new LongAdder();
+  private final LongAdder failed = new LongAdder();
+  private final LongAdder waiting = new LongAdder();
+  private final LongAdder totalWaitMs = new LongAdder();
+  private final LongAccumulator maxWaitMs = new LongAccumulator(Math::max, 0);
+  private final LongAdder totalRunMs = new LongAdder();
+  private final LongAccumulator maxRunMs = new LongAccumulator(Math::max, 0);
+
+  public BackgroundExecutor(String name, int maxInFlight) {
+    this.maxInFlight = maxInFlight;
+    this.permits = new Semaphore(maxInFlight);
+    this.executor =
+        Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name(name + "-", 0).factory());
+  }
+
+  public void run(Runnable runnable) {
+    final Map<String, String> mdcCopy = MDC.getCopyOfContextMap();
+    submitted.increment();
+    if (draining) {
+      runTask(runnable, mdcCopy);
+      return;
+    }
+
+    long waitStart = System.nanoTime();
+    waiting.increment();
+    try {
+      permits.acquire();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      waiting.decrement();
+      runTask(runnable, mdcCopy);
+      return;
+    }
+    waiting.decrement();
+    long waitMs = Duration.ofNanos(System.nanoTime() - waitStart).toMillis();
+    totalWaitMs.add(waitMs);
+    maxWaitMs.accumulate(waitMs);
+
+    try {
+      executor.execute(
+          () -> {
+            try {
+              runTask(runnable, mdcCopy);
+            } finally {
+              permits.release();
+            }
+          });
+    } catch (RuntimeException e) {
+      // executor shut down
+      permits.release();
+      runTask(runnable, mdcCopy);
+    }
+  }
+
+  private void runTask(Runnable runnable, Map<String, String> mdcCopy) {
+    long start = System.nanoTime();
+    Map<String, String> callerMdc = MDC.getCopyOfContextMap();
+    try {
+      if (mdcCopy == null) {
+        MDC.clear();
+      } else {
+        MDC.setContextMap(mdcCopy);
+      }
+      runnable.run();
+    } catch (RuntimeException e) {
+      failed.increment();
+      log.error("Background task failed", e);
+    } finally {
+      long runMs = Duration.ofNanos(System.nanoTime() - start).toMillis();
+      totalRunMs.add(runMs);
+      maxRunMs.accumulate(runMs);
+      completed.increment();
+      if (callerMdc == null) {
+        MDC.clear();
+      } else {
+        MDC.setContextMap(callerMdc);
+      }
+    }
+  }
+
+  /**
+   * Stops handing new tasks to background threads and waits for running tasks to finish. Returns
+   * false if tasks were still running after the timeout.
+   */
+  public boolean drain(Duration timeout) {
+    draining = true;
+    try {
+      boolean drained = permits.tryAcquire(maxInFlight, timeout.toMillis(), TimeUnit.MILLISECONDS);
+      if (drained) {
+        permits.release(maxInFlight);
+      }
+      return drained;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return false;
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @Value
+  @Builder
+  public static class ExecutorMetrics {
+    int maxInFlight;
+    int inFlight;
+
+    /** Callers blocked until a running task finishes. */
+    long waiting;
+
+    long submitted;
+    long completed;
+    long failed;
+    long averageWaitMs;
+    long maxWaitMs;
+    long averageRunMs;
+    long maxRunMs;
+  }
+
+  public ExecutorMetrics metrics() {
+    long submittedCount = submitted.sum();
+    long completedCount = completed.sum();
+    return ExecutorMetrics.builder()
+        .maxInFlight(maxInFlight)
+        .inFlight(maxInFlight - permits.availablePermits())
+        .waiting(waiting.sum())
+        .submitted(submittedCount)
+        .completed(completedCount)
+        .failed(failed.sum())
+        .averageWaitMs(submittedCount == 0 ? 0 : totalWaitMs.sum() / submittedCount)
+        .maxWaitMs(maxWaitMs.get())
+        .averageRunMs(completedCount == 0 ? 0 : totalRunMs.sum() / completedCount)
+        .maxRunMs(maxRunMs.get())
+        .build();
+  }
+}
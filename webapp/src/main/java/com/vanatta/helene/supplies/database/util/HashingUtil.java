@@ -3,6 +3,8 @@ package com.vanatta.helene.supplies.database.util;
 import at.favre.lib.crypto.bcrypt.BCrypt;
 import at.favre.lib.crypto.bcrypt.LongPasswordStrategies;
 import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.codec.digest.HmacAlgorithms;
+import org.apache.commons.codec.digest.HmacUtils;
 
 public class HashingUtil {
 
@@ -10,6 +12,10 @@ public class HashingUtil {
     return DigestUtils.sha256Hex(input);
   }
 
+  public static String hmacSha256(String key, String input) {
+    return new HmacUtils(HmacAlgorithms.HMAC_SHA_256, key).hmacHex(input);
+  }
+
   public static String bcrypt(final String password) {
     return BCrypt.with(LongPasswordStrategies.none()).hashToString(10, password.toCharArray());
   }
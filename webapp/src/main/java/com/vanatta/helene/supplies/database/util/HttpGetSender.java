@@ -3,17 +3,19 @@ package com.vanatta.helene.supplies.database.util;
 import com.google.gson.Gson;
 import java.io.IOException;
 import java.net.URI;
-import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 import lombok.extern.slf4j.Slf4j;
 
-/** Utility class for sending HTTP POST messages. */
+/** Utility class for sending HTTP GET requests, sent with the shared {@link OutboundHttp}. */
 @Slf4j
 public class HttpGetSender {
 
+  private static final Gson gson = new Gson();
+
   // @VisibleForTesting
   static String buildUrl(String url, Map<String, String> params) {
     if (url == null) {
@@ -32,29 +34,37 @@ public class HttpGetSender {
   }
 
   public static <T> T sendRequest(String url, Map<String, String> params, Class<T> responseClass) {
+    try {
+      return parseResponse(OutboundHttp.send(buildRequest(url, params)), responseClass);
+    } catch (IOException | InterruptedException e) {
+      log.error("Failed to send data to URL: {}", url, e);
+      throw new RuntimeException(e);
+    }
+  }
+
+  /** Sends without blocking, the future completes exceptionally if the request fails. */
+  public static <T> CompletableFuture<T> sendRequestAsync(
+      String url, Map<String, String> params, Class<T> responseClass) {
+    return OutboundHttp.sendAsync(buildRequest(url, params))
+        .thenApply(response -> parseResponse(response, responseClass));
+  }
+
+  private static HttpRequest.Builder buildRequest(String url, Map<String, String> params) {
     if (!url.startsWith("http")) {
       throw new IllegalArgumentException("Invalid url: " + url);
     }
-
     var uri = URI.create(buildUrl(url, params));
     log.info("Sending get request to uri: {}", uri);
-    try (var client = HttpClient.newHttpClient()) {
-      var request = HttpRequest.newBuilder(uri).GET().build();
-
-      try {
-        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
-        if (response.statusCode() == 200) {
-          log.info("Response success: 200, response length: {}", response.body().length());
-        } else {
-          log.error(
-              "Failed, bad response received: {}, {}", response.statusCode(), response.body());
-        }
-        log.debug("raw response: {}", response.body());
-        return new Gson().fromJson(response.body(), responseClass);
-      } catch (IOException | InterruptedException e) {
-        log.error("Failed to send data to URL: {}", url, e);
-        throw new RuntimeException(e);
-      }
+    return HttpRequest.newBuilder(uri).GET();
+  }
+
+  private static <T> T parseResponse(HttpResponse<String> response, Class<T> responseClass) {
+    if (response.statusCode() == 200) {
+      log.info("Response success: 200, response length: {}", response.body().length());
+    } else {
+      log.error("Failed, bad response received: {}, {}", response.statusCode(), response.body());
     }
+    log.debug("raw response: {}", response.body());
+    return gson.fromJson(response.body(), responseClass);
   }
 }
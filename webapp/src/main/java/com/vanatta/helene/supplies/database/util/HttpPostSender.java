@@ -3,50 +3,93 @@ package com.vanatta.helene.supplies.database.util;
 import com.google.gson.Gson;
 import java.io.IOException;
 import java.net.URI;
-import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.util.concurrent.CompletableFuture;
 import lombok.extern.slf4j.Slf4j;
 
-/** Utility class for sending HTTP POST messages. */
+/** Utility class for sending HTTP POST messages, sent with the shared {@link OutboundHttp}. */
 @Slf4j
 public class HttpPostSender {
 
+  private static final Gson gson = new Gson();
+
   public static void sendAsJson(String url, Object toSend) {
-    String message = new Gson().toJson(toSend);
-    sendJson(url, message);
+    sendJson(url, gson.toJson(toSend));
   }
 
   /** Sends a string message already formatted as a JSON. */
   public static void sendJson(String url, String json) {
+    try {
+      logResponse(url, json, OutboundHttp.send(buildRequest(url, json)));
+    } catch (IOException | InterruptedException e) {
+      throw new RuntimeException(String.format("Error sending JSON: %s, to URL: %s", json, url), e);
+    }
+  }
+
+  /**
+   * Sends and throws if the request fails or the response is not a 2xx, for callers that retry
+   * failed sends (eg: the delivery outbox).
+   */
+  public static void sendAsJsonOrThrow(String url, Object toSend) {
+    sendJsonOrThrow(url, gson.toJson(toSend));
+  }
+
+  public static void sendJsonOrThrow(String url, String json) {
+    HttpResponse<String> response;
+    try {
+      response = OutboundHttp.send(buildRequest(url, json));
+    } catch (IOException | InterruptedException e) {
+      throw new RuntimeException(String.format("Error sending JSON: %s, to URL: %s", json, url), e);
+    }
+    if (response.statusCode() < 200 || response.statusCode() >= 300) {
+      throw new IllegalStateException(
+          String.format(
+              "Bad response sending to URL: %s, status: %s, body: %s",
+              url, response.statusCode(), response.body()));
+    }
+    log.info("Successfully sent to url: {}, JSON: {}", url, json);
+  }
+
+  /**
+   * Sends without waiting for the response, for updates the caller does not need to wait on. The
+   * future completes with true if the request succeeded, failures are logged.
+   */
+  public static CompletableFuture<Boolean> sendAsJsonAsync(String url, Object toSend) {
+    return sendJsonAsync(url, gson.toJson(toSend));
+  }
+
+  public static CompletableFuture<Boolean> sendJsonAsync(String url, String json) {
+    return OutboundHttp.sendAsync(buildRequest(url, json))
+        .thenApply(response -> logResponse(url, json, response))
+        .exceptionally(
+            e -> {
+              log.error("Error sending JSON: {}, to URL: {}", json, url, e);
+              return false;
+            });
+  }
+
+  private static HttpRequest.Builder buildRequest(String url, String json) {
     if (!url.startsWith("http")) {
       throw new IllegalArgumentException("Invalid url: " + url);
     }
+    return HttpRequest.newBuilder(URI.create(url))
+        .POST(HttpRequest.BodyPublishers.ofString(json))
+        .header("Content-type", "application/json");
+  }
 
-    try (var client = HttpClient.newHttpClient()) {
-      var uri = URI.create(url);
-      var request =
-          HttpRequest.newBuilder(uri)
-              .POST(HttpRequest.BodyPublishers.ofString(json))
-              .header("Content-type", "application/json")
-              .build();
-
-      try {
-        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
-        if (response.statusCode() == 200) {
-          log.info("Successfully sent to url: {}, JSON: {}", url, json);
-        } else {
-          log.error(
-              "Failed to send JSON: {}, to URL: {}, bad response received: {}, {}",
-              json,
-              url,
-              response,
-              response.body());
-        }
-      } catch (IOException | InterruptedException e) {
-        throw new RuntimeException(
-            String.format("Error sending JSON: %s, to URL: %s", json, url), e);
-      }
+  private static boolean logResponse(String url, String json, HttpResponse<String> response) {
+    if (response.statusCode() == 200) {
+      log.info("Successfully sent to url: {}, JSON: {}", url, json);
+      return true;
+    } else {
+      log.error(
+          "Failed to send JSON: {}, to URL: {}, bad response received: {}, {}",
+          json,
+          url,
+          response,
+          response.body());
+      return false;
     }
   }
 }
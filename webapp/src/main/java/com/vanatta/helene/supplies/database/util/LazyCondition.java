@@ -0,0 +1,42 @@
+package com.vanatta.helene.supplies.database.util;
+
+import com.samskivert.mustache.Mustache;
+import com.samskivert.mustache.Template;
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * A lazily computed boolean for use as a mustache section, eg: "{{#loggedIn}}..{{/loggedIn}}" and
+ * "{{^loggedIn}}..{{/loggedIn}}". The condition is computed when a template first reaches one of
+ * those sections.
+ */
+public class LazyCondition implements Mustache.InvertibleLambda {
+  private final LazyValue<Boolean> condition;
+
+  public LazyCondition(LazyValue<Boolean> condition) {
+    this.condition = condition;
+  }
+
+  public boolean get() {
+    return Boolean.TRUE.equals(condition.get());
+  }
+
+  @Override
+  public void execute(Template.Fragment frag, Writer out) throws IOException {
+    if (get()) {
+      frag.execute(out);
+    }
+  }
+
+  @Override
+  public void executeInverse(Template.Fragment frag, Writer out) throws IOException {
+    if (!get()) {
+      frag.execute(out);
+    }
+  }
+
+  @Override
+  public String toString() {
+    return String.valueOf(get());
+  }
+}
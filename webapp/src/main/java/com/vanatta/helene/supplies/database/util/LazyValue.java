@@ -0,0 +1,45 @@
+package com.vanatta.helene.supplies.database.util;
+
+import java.util.function.Supplier;
+
+/**
+ * A value that is computed on first use and then remembered. Templates print values with
+ * 'toString()', so a lazy value in a template model is only computed if the template prints it.
+ */
+public class LazyValue<T> implements Supplier<T> {
+  private final Supplier<T> supplier;
+  private final Runnable onResolve;
+  private boolean resolved;
+  private T value;
+
+  public LazyValue(Supplier<T> supplier) {
+    this(supplier, () -> {});
+  }
+
+  /**
+   * @param onResolve Called once, when the value is computed.
+   */
+  public LazyValue(Supplier<T> supplier, Runnable onResolve) {
+    this.supplier = supplier;
+    this.onResolve = onResolve;
+  }
+
+  @Override
+  public synchronized T get() {
+    if (!resolved) {
+      value = supplier.get();
+      resolved = true;
+      onResolve.run();
+    }
+    return value;
+  }
+
+  public synchronized boolean isResolved() {
+    return resolved;
+  }
+
+  @Override
+  public String toString() {
+    return String.valueOf(get());
+  }
+}
@@ -0,0 +1,158 @@
+package com.vanatta.helene.supplies.database.util;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * The one HTTP client for outbound calls (Make webhooks, Google APIs, Twilio). Sharing the client
+ * keeps connections alive between calls, so a call to a host we talked to recently does not pay for
+ * a new TCP & TLS handshake. HTTP/2 is used when the server supports it.
+ *
+ * <p>Each request gets the timeout of its destination host (see {@link #timeoutFor(String)}), and
+ * latency & error counts are kept per host, see {@link #metrics()}.
+ */
+public class OutboundHttp {
+
+  static final Duration CONNECT_TIMEOUT = Duration.ofSeconds(10);
+  static final Duration DEFAULT_TIMEOUT = Duration.ofSeconds(30);
+
+  /** Request timeouts by host, a key starting with '.' matches any sub-domain. */
+  private static final Map<String, Duration> hostTimeouts =
+      Map.of(
+          // distance & geocode lookups, used while building pages
+          "maps.googleapis.com", Duration.ofSeconds(10),
+          "api.twilio.com", Duration.ofSeconds(20),
+          // Make scenarios can run for a while before answering the webhook
+          ".make.com", Duration.ofSeconds(60));
+
+  private static final HttpClient client =
+      HttpClient.newBuilder()
+          .version(HttpClient.Version.HTTP_2)
+          .connectTimeout(CONNECT_TIMEOUT)
+          .followRedirects(HttpClient.Redirect.NORMAL)
+          .build();
+
+  private static final Map<String, HostMetrics> metricsByHost = new ConcurrentHashMap<>();
+
+  /** Sends a request and waits for the response. */
+  public static HttpResponse<String> send(HttpRequest.Builder request)
+      throws IOException, InterruptedException {
+    HttpRequest built = withTimeout(request);
+    long start = System.nanoTime();
+    try {
+      HttpResponse<String> response = client.send(built, HttpResponse.BodyHandlers.ofString());
+      record(built.uri(), start, response.statusCode(), null);
+      return response;
+    } catch (IOException | InterruptedException | RuntimeException e) {
+      record(built.uri(), start, 0, e);
+      throw e;
+    }
+  }
+
+  /**
+   * Sends a request without blocking the caller. The future completes with the response, or
+   * exceptionally if the request fails (eg: timeout, connection refused).
+   */
+  public static CompletableFuture<HttpResponse<String>> sendAsync(HttpRequest.Builder request) {
+    HttpRequest built = withTimeout(request);
+    long start = System.nanoTime();
+    return client
+        .sendAsync(built, HttpResponse.BodyHandlers.ofString())
+        .whenComplete(
+            (response, error) ->
+                record(built.uri(), start, response == null ? 0 : response.statusCode(), error));
+  }
+
+  private static HttpRequest withTimeout(HttpRequest.Builder request) {
+    HttpRequest built = request.build();
+    return request.timeout(timeoutFor(built.uri().getHost())).build();
+  }
+
+  static Duration timeoutFor(String host) {
+    if (host == null) {
+      return DEFAULT_TIMEOUT;
+    }
+    Duration timeout = hostTimeouts.get(host);
+    if (timeout != null) {
+      return timeout;
+    }
+    return hostTimeouts.entrySet().stream()
+        .filter(e -> e.getKey().startsWith(".") && host.endsWith(e.getKey()))
+        .map(Map.Entry::getValue)
+        .findFirst()
+        .orElse(DEFAULT_TIMEOUT);
+  }
+
+  private static class HostMetrics {
+    final LongAdder requests = new LongAdder();
+    final LongAdder errorResponses = new LongAdder();
+    final LongAdder failures = new LongAdder();
+    final LongAdder totalLatencyMs = new LongAdder();
+    final LongAccumulator maxLatencyMs = new LongAccumulator(Math::max, 0);
+  }
+
+  private static void record(URI uri, long startNanos, int status, Throwable error) {
+    long latencyMs = Duration.ofNanos(System.nanoTime() - startNanos).toMillis();
+    HostMetrics metrics =
+        metricsByHost.computeIfAbsent(String.valueOf(uri.getHost()), _ -> new HostMetrics());
+    metrics.requests.increment();
+    metrics.totalLatencyMs.add(latencyMs);
+    metrics.maxLatencyMs.accumulate(latencyMs);
+    if (error != null) {
+      metrics.failures.increment();
+    } else if (status >= 400) {
+      metrics.errorResponses.increment();
+    }
+  }
+
+  @Value
+  @Builder
+  public static class HostReport {
+    String host;
+    long requests;
+
+    /** Responses with a 4xx or 5xx status. */
+    long errorResponses;
+
+    /** Requests without a response, eg: timeout, connection refused. */
+    long failures;
+
+    long averageLatencyMs;
+    long maxLatencyMs;
+    long timeoutMs;
+  }
+
+  /** Metrics of every host called since startup, busiest host first. */
+  public static List<HostReport> metrics() {
+    return metricsByHost.entrySet().stream()
+        .map(
+            e -> {
+              HostMetrics m = e.getValue();
+              long requests = m.requests.sum();
+              return HostReport.builder()
+                  .host(e.getKey())
+                  .requests(requests)
+                  .errorResponses(m.errorResponses.sum())
+                  .failures(m.failures.sum())
+                  .averageLatencyMs(requests == 0 ? 0 : m.totalLatencyMs.sum() / requests)
+                  .maxLatencyMs(m.maxLatencyMs.get())
+                  .timeoutMs(timeoutFor(e.getKey()).toMillis())
+                  .build();
+            })
+        .sorted(Comparator.comparingLong(HostReport::getRequests).reversed())
+        .toList();
+  }
+}
@@ -1,23 +1,32 @@
 package com.vanatta.helene.supplies.database.util;
 
-import java.util.Map;
-import org.slf4j.MDC;
+import java.time.Duration;
 
-/** Util to run new threads and copy over MDC to the new thread. */
+/**
+ * Runs background tasks (eg: sending updates to Make) on virtual threads, copying over the MDC to
+ * the task. At most {@link #MAX_IN_FLIGHT} tasks run at once, callers wait when that many are
+ * running, see {@link BackgroundExecutor}. Running tasks are drained when the application shuts
+ * down, see {@link ThreadRunnerLifecycle}.
+ */
 public class ThreadRunner {
 
+  /**
+   * Tasks mostly wait on HTTP calls & DB queries, a bulk edit should not take every DB connection.
+   */
+  static final int MAX_IN_FLIGHT = 16;
+
+  private static final BackgroundExecutor executor =
+      new BackgroundExecutor("thread-runner", MAX_IN_FLIGHT);
+
   public static void run(Runnable runnable) {
-    final Map<String, String> mdcCopy = MDC.getCopyOfContextMap();
+    executor.run(runnable);
+  }
+
+  public static BackgroundExecutor.ExecutorMetrics metrics() {
+    return executor.metrics();
+  }
 
-    new Thread(
-            () -> {
-              try {
-                MDC.setContextMap(mdcCopy);
-                runnable.run();
-              } finally {
-                MDC.clear();
-              }
-            })
-        .start();
+  static boolean drain(Duration timeout) {
+    return executor.drain(timeout);
   }
 }
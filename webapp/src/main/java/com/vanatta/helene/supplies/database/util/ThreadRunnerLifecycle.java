@@ -0,0 +1,38 @@
+package com.vanatta.helene.supplies.database.util;
+
+import java.time.Duration;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+/**
+ * Drains {@link ThreadRunner} tasks on shutdown. Lifecycle beans are stopped before any bean is
+ * destroyed, so running tasks can still use the DB connection pools.
+ */
+@Slf4j
+@Component
+public class ThreadRunnerLifecycle implements SmartLifecycle {
+  static final Duration DRAIN_TIMEOUT = Duration.ofSeconds(20);
+
+  private volatile boolean running = false;
+
+  @Override
+  public void start() {
+    running = true;
+  }
+
+  @Override
+  public void stop() {
+    running = false;
+    log.info("Draining background tasks: {}", ThreadRunner.metrics());
+    if (!ThreadRunner.drain(DRAIN_TIMEOUT)) {
+      log.warn(
+          "Background tasks still running after {}: {}", DRAIN_TIMEOUT, ThreadRunner.metrics());
+    }
+  }
+
+  @Override
+  public boolean isRunning() {
+    return running;
+  }
+}
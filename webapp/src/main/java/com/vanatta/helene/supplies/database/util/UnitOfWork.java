@@ -0,0 +1,27 @@
+package com.vanatta.helene.supplies.database.util;
+
+import java.util.function.Supplier;
+import org.jdbi.v3.core.Jdbi;
+
+/**
+ * Runs a group of DAO calls on one database handle and in one transaction.
+ *
+ * <p>DAO methods call 'jdbi.withHandle' per statement. Jdbi binds the handle of an open
+ * 'withHandle' or 'inTransaction' to the current thread, nested calls on the same thread reuse it.
+ * So DAO methods called within a unit of work share one pooled connection (instead of acquiring a
+ * connection per statement) and their statements commit or roll back together.
+ *
+ * <p>Keep units of work short, the connection is held until the unit of work is done. Do not send
+ * SMS, call external services or start threads that read the changes from within a unit of work,
+ * other threads do not see the changes until it commits.
+ */
+public class UnitOfWork {
+
+  public static <T> T inTransaction(Jdbi jdbi, Supplier<T> work) {
+    return jdbi.inTransaction(_ -> work.get());
+  }
+
+  public static void useTransaction(Jdbi jdbi, Runnable work) {
+    jdbi.useTransaction(_ -> work.run());
+  }
+}
@@ -0,0 +1,164 @@
+package com.vanatta.helene.supplies.database.util;
+
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import lombok.Builder;
+import lombok.extern.slf4j.Slf4j;
+import org.jdbi.v3.core.Jdbi;
+
+/**
+ * Worker side of a table of work sent in the background (delivery outbox, SMS queue), the table
+ * queries are in {@link WorkQueueDao}. Polls for due work on a background thread, or right away
+ * after {@link #wakeUp()}. Failed work is retried with exponential backoff, after 'maxAttempts' it
+ * is marked as failed. Keeps counts of sent, retried and failed work.
+ *
+ * <p>The owner claims & sends the work, and reports each result with {@link #sent(List)} or {@link
+ * #failed(List, int, String, boolean, Object, Throwable)}.
+ */
+@Slf4j
+public class WorkQueue {
+
+  private final Jdbi jdbi;
+  private final WorkQueueDao.Table table;
+  private final int maxAttempts;
+  private final long firstRetryDelaySeconds;
+  private final long maxRetryDelaySeconds;
+
+  private final AtomicBoolean wakeUpRequested = new AtomicBoolean();
+  private ScheduledExecutorService executor;
+  private Runnable processDue;
+
+  private final LongAdder sent = new LongAdder();
+  private final LongAdder retried = new LongAdder();
+  private final LongAdder failed = new LongAdder();
+
+  @Builder
+  WorkQueue(
+      Jdbi jdbi,
+      WorkQueueDao.Table table,
+      int maxAttempts,
+      long firstRetryDelaySeconds,
+      long maxRetryDelaySeconds) {
+    this.jdbi = jdbi;
+    this.table = table;
+    this.maxAttempts = maxAttempts;
+    this.firstRetryDelaySeconds = firstRetryDelaySeconds;
+    this.maxRetryDelaySeconds = maxRetryDelaySeconds;
+  }
+
+  /**
+   * Starts polling. Queues that are not started (tests) only send work when the owner's
+   * 'processDue' is called directly.
+   */
+  public void start(String threadName, long pollIntervalMs, Runnable processDue) {
+    this.processDue = processDue;
+    executor =
+        Executors.newSingleThreadScheduledExecutor(
+            runnable -> {
+              Thread thread = new Thread(runnable, threadName);
+              thread.setDaemon(true);
+              return thread;
+            });
+    executor.scheduleWithFixedDelay(
+        this::poll, pollIntervalMs, pollIntervalMs, TimeUnit.MILLISECONDS);
+  }
+
+  private void poll() {
+    wakeUpRequested.set(false);
+    try {
+      processDue.run();
+    } catch (Exception e) {
+      // keep the scheduled task alive, eg: database is unavailable
+      log.error("Failed to process {}", table.getName(), e);
+    }
+  }
+
+  /** Sends due work without waiting for the next poll, call after new work is committed. */
+  public void wakeUp() {
+    if (executor != null && wakeUpRequested.compareAndSet(false, true)) {
+      executor.execute(this::poll);
+    }
+  }
+
+  /** Marks work as sent, call right after each send so sent work is never sent again. */
+  public void sent(List<Long> ids) {
+    WorkQueueDao.markSent(jdbi, table, ids);
+    sent.increment();
+  }
+
+  /**
+   * Schedules a retry of failed work, or marks it as failed if it is not retryable or has run out
+   * of attempts.
+   *
+   * @param work Logged with the error.
+   * @param cause Optional, logged with the error.
+   */
+  public void failed(
+      List<Long> ids, int attempts, String error, boolean retryable, Object work, Throwable cause) {
+    if (retryable && attempts < maxAttempts) {
+      retried.increment();
+      long delaySeconds = retryDelaySeconds(attempts, firstRetryDelaySeconds, maxRetryDelaySeconds);
+      log.warn(
+          "Failed to send {} {}, retrying in {}s, error: {}, {}",
+          table.getName(),
+          ids,
+          delaySeconds,
+          error,
+          work,
+          cause);
+      WorkQueueDao.markRetry(jdbi, table, ids, error, delaySeconds);
+    } else {
+      failed.increment();
+      log.error(
+          "Giving up on {} {} after {} attempts, error: {}, {}",
+          table.getName(),
+          ids,
+          attempts,
+          error,
+          work,
+          cause);
+      WorkQueueDao.markFailed(jdbi, table, ids, error);
+    }
+  }
+
+  /** Doubles with each attempt, starting at 'first' up to 'max'. */
+  public static long retryDelaySeconds(int attempts, long first, long max) {
+    long delay = first << Math.min(Math.max(attempts - 1, 0), 20);
+    return Math.min(delay, max);
+  }
+
+  /** Deletes work completed more than a number of days ago. */
+  public void deleteCompletedBefore(int days) {
+    int deleted = WorkQueueDao.deleteCompletedBefore(jdbi, table, days);
+    if (deleted > 0) {
+      log.info("Deleted {} completed rows of {}", deleted, table.getName());
+    }
+  }
+
+  public int countPending() {
+    return WorkQueueDao.countPending(jdbi, table);
+  }
+
+  public long sentCount() {
+    return sent.sum();
+  }
+
+  public long retriedCount() {
+    return retried.sum();
+  }
+
+  public long failedCount() {
+    return failed.sum();
+  }
+
+  public void shutdown() throws InterruptedException {
+    if (executor != null) {
+      executor.shutdown();
+      executor.awaitTermination(5, TimeUnit.SECONDS);
+    }
+  }
+}
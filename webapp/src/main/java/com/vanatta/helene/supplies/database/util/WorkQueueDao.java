@@ -0,0 +1,144 @@
+package com.vanatta.helene.supplies.database.util;
+
+import java.util.List;
+import java.util.Map;
+import lombok.Builder;
+import lombok.Value;
+import org.jdbi.v3.core.Jdbi;
+
+/**
+ * Queries shared by tables of work that a background worker sends, see {@link WorkQueue}. The
+ * tables have the columns: id, attempts, next_attempt_at, last_error, sent_at and failed_at.
+ */
+public class WorkQueueDao {
+
+  /** A work table. Names and conditions are constants of the DAO, never user input. */
+  @Value
+  @Builder
+  public static class Table {
+    String name;
+
+    /** Optional, extra condition a row has to meet to be pending (eg: not superseded). */
+    String pendingCondition;
+
+    /** When a row was completed, completed rows are deleted after a number of days. */
+    @Builder.Default String completedAt = "sent_at";
+
+    /** Optional, completed rows that meet this condition are kept (eg: a record of a broadcast). */
+    String keepCondition;
+
+    String pending() {
+      return "sent_at is null and failed_at is null"
+          + (pendingCondition == null ? "" : " and " + pendingCondition);
+    }
+  }
+
+  /**
+   * Claims the rows selected by 'claimableIds', a query that selects ids of due rows and locks them
+   * ('for update skip locked'). Claimed rows have their attempt count incremented and are not due
+   * again until the lease expires, so work whose worker dies is retried. Returns the 'returning'
+   * columns of the claimed rows, ordered by id.
+   */
+  public static <T> List<T> claim(
+      Jdbi jdbi,
+      Table table,
+      String claimableIds,
+      Map<String, ?> params,
+      int leaseSeconds,
+      String returning,
+      Class<T> rowType) {
+    String claim =
+        String.format(
+            """
+            with claimed as (
+              update %s set
+                attempts = attempts + 1,
+                next_attempt_at = now() + make_interval(secs => :leaseSeconds)
+              where id in (%s)
+              returning %s
+            )
+            select * from claimed order by id
+            """,
+            table.getName(), claimableIds, returning);
+    return jdbi.withHandle(
+        handle ->
+            handle
+                .createQuery(claim)
+                .bindMap(params)
+                .bind("leaseSeconds", leaseSeconds)
+                .mapToBean(rowType)
+                .list());
+  }
+
+  static void markSent(Jdbi jdbi, Table table, List<Long> ids) {
+    jdbi.useHandle(
+        handle ->
+            handle
+                .createUpdate(
+                    "update "
+                        + table.getName()
+                        + " set sent_at = now(), last_error = null where id in (<ids>)")
+                .bindList("ids", ids)
+                .execute());
+  }
+
+  static void markRetry(
+      Jdbi jdbi, Table table, List<Long> ids, String error, long retryDelaySeconds) {
+    jdbi.useHandle(
+        handle ->
+            handle
+                .createUpdate(
+                    String.format(
+                        """
+                        update %s set
+                          last_error = :error,
+                          next_attempt_at = now() + make_interval(secs => :delaySeconds)
+                        where id in (<ids>)
+                        """,
+                        table.getName()))
+                .bindList("ids", ids)
+                .bind("error", TruncateString.truncate(error, 512))
+                .bind("delaySeconds", retryDelaySeconds)
+                .execute());
+  }
+
+  static void markFailed(Jdbi jdbi, Table table, List<Long> ids, String error) {
+    jdbi.useHandle(
+        handle ->
+            handle
+                .createUpdate(
+                    "update "
+                        + table.getName()
+                        + " set failed_at = now(), last_error = :error where id in (<ids>)")
+                .bindList("ids", ids)
+                .bind("error", TruncateString.truncate(error, 512))
+                .execute());
+  }
+
+  public static int countPending(Jdbi jdbi, Table table) {
+    return jdbi.withHandle(
+        handle ->
+            handle
+                .createQuery(
+                    "select count(*) from " + table.getName() + " where " + table.pending())
+                .mapTo(Integer.class)
+                .one());
+  }
+
+  /** Removes rows completed more than a number of days ago. */
+  static int deleteCompletedBefore(Jdbi jdbi, Table table, int days) {
+    return jdbi.withHandle(
+        handle ->
+            handle
+                .createUpdate(
+                    String.format(
+                        "delete from %s where %s < now() - make_interval(days => :days)%s",
+                        table.getName(),
+                        table.getCompletedAt(),
+                        table.getKeepCondition() == null
+                            ? ""
+                            : " and not (" + table.getKeepCondition() + ")"))
+                .bind("days", days)
+                .execute());
+  }
+}
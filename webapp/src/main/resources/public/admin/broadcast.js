@@ -0,0 +1,85 @@
+const PROGRESS_POLL_INTERVAL_MS = 2000;
+
+async function sendBroadcast() {
+  const message = document.getElementById("message").value.trim();
+  const recipientCount = document.getElementById("recipientCount").innerText;
+  const errorMessage = document.getElementById("errorMessage");
+  errorMessage.innerText = "";
+  if (message === "") {
+    errorMessage.innerText = "Enter a message to send.";
+    return;
+  }
+  if (!confirm("Send this message to " + recipientCount + " site managers?")) {
+    return;
+  }
+
+  const sendButton = document.getElementById("sendButton");
+  sendButton.disabled = true;
+  try {
+    const response = await fetch("/admin/broadcast/send", {
+      method: 'POST',
+      headers: {
+        'Accept': 'application/json',
+        'Content-Type': 'application/json'
+      },
+      body: JSON.stringify({message: message})
+    });
+    const json = await response.json();
+    if (!response.ok) {
+      errorMessage.innerText = json.error || "Failed to send, please try again.";
+      sendButton.disabled = false;
+      return;
+    }
+    document.getElementById("message").value = "";
+    showProgress(json.broadcastId);
+  } catch (e) {
+    errorMessage.innerText = "Failed to send, please try again.";
+    sendButton.disabled = false;
+  }
+}
+
+/** Polls the progress of a broadcast until it is complete, then lists failed recipients. */
+async function showProgress(broadcastId) {
+  document.getElementById("progressFieldset").classList.remove("hidden");
+  const response = await fetch("/admin/broadcast/" + broadcastId + "/progress");
+  if (!response.ok) {
+    document.getElementById("progressText").innerText = "Failed to load progress.";
+    return;
+  }
+  const progress = await response.json();
+  const done = progress.sent + progress.failed;
+
+  const progressBar = document.getElementById("progressBar");
+  progressBar.max = Math.max(progress.total, 1);
+  progressBar.value = done;
+  document.getElementById("progressText").innerText =
+      "Sent " + progress.sent + " of " + progress.total
+      + (progress.failed > 0 ? ", failed: " + progress.failed : "")
+      + (progress.complete ? " (complete)" : "");
+
+  if (progress.complete) {
+    document.getElementById("sendButton").disabled = false;
+    if (progress.failed > 0) {
+      showFailedRecipients(broadcastId);
+    }
+  } else {
+    setTimeout(() => showProgress(broadcastId), PROGRESS_POLL_INTERVAL_MS);
+  }
+}
+
+async function showFailedRecipients(broadcastId) {
+  const response = await fetch("/admin/broadcast/" + broadcastId + "/failed");
+  if (!response.ok) {
+    return;
+  }
+  const recipients = await response.json();
+  const table = document.getElementById("failedTable");
+  const body = table.querySelector("tbody");
+  body.innerHTML = "";
+  recipients.forEach(recipient => {
+    const row = body.insertRow();
+    [recipient.phone, recipient.name, recipient.siteName, recipient.error]
+        .forEach(value => row.insertCell().innerText = value || "");
+  });
+  table.classList.remove("hidden");
+}
@@ -0,0 +1,116 @@
+let nextCursor = null;
+
+function initBoard() {
+  reloadBoard();
+  listenForChanges();
+}
+
+function filterParams() {
+  const params = new URLSearchParams();
+  const filters = {
+    status: document.getElementById("status").value,
+    from: document.getElementById("fromDate").value,
+    to: document.getElementById("toDate").value,
+    driver: document.getElementById("driver").value.trim(),
+    county: document.getElementById("county").value
+  };
+  for (const [name, value] of Object.entries(filters)) {
+    if (value) {
+      params.append(name, value);
+    }
+  }
+  return params;
+}
+
+function clearFilters() {
+  ["status", "fromDate", "toDate", "driver", "county"]
+  .forEach(id => document.getElementById(id).value = '');
+  reloadBoard();
+}
+
+function reloadBoard() {
+  document.getElementById("boardRows").innerHTML = "";
+  nextCursor = null;
+  loadPage();
+}
+
+function loadNextPage() {
+  if (nextCursor) {
+    loadPage();
+  }
+}
+
+function loadPage() {
+  const params = filterParams();
+  if (nextCursor) {
+    params.append("after", nextCursor);
+  }
+  const errorDiv = document.getElementById("errorMessage");
+  fetch("/delivery/board/deliveries?" + params.toString(), {
+    headers: {'Accept': 'application/json'}
+  })
+  .then(
+      async function (response) {
+        if (response.ok) {
+          errorDiv.innerHTML = "";
+          const page = await response.json();
+          const tbody = document.getElementById("boardRows");
+          page.deliveries.forEach(delivery => tbody.appendChild(createRow(delivery)));
+          nextCursor = page.nextCursor;
+          document.getElementById("loadMore").style.display = nextCursor ? "inline" : "none";
+          document.getElementById("noDeliveries").style.display =
+              tbody.children.length === 0 ? "block" : "none";
+        } else {
+          errorDiv.innerHTML = "Error loading deliveries: " + await response.text();
+        }
+      },
+      function (error) {
+        errorDiv.innerHTML = "Error, server not available: " + error;
+      });
+}
+
+function createRow(delivery) {
+  const row = document.createElement("tr");
+  row.id = "delivery-" + delivery.publicUrlKey;
+  const cells = [
+    delivery.deliveryId,
+    delivery.targetDeliveryDate || "Not yet set",
+    delivery.deliveryStatus || "",
+    delivery.driverStatus || "",
+    siteText(delivery.fromSiteName, delivery.fromCity),
+    siteText(delivery.toSiteName, delivery.toCity),
+    [delivery.driverName, delivery.driverNumber].filter(v => v).join(" "),
+    delivery.dispatcherName || ""
+  ];
+  cells.forEach((text, index) => {
+    const cell = document.createElement("td");
+    if (index === 0) {
+      const link = document.createElement("a");
+      link.href = "/delivery/" + delivery.publicUrlKey;
+      link.textContent = text;
+      cell.appendChild(link);
+    } else {
+      cell.textContent = text;
+    }
+    row.appendChild(cell);
+  });
+  return row;
+}
+
+function siteText(siteName, city) {
+  return [siteName, city].filter(v => v).join(", ");
+}
+
+/** Updates deliveries shown on the board when they change. */
+function listenForChanges() {
+  const events = new EventSource("/delivery/board/events");
+  events.addEventListener("delivery", function (event) {
+    const delivery = JSON.parse(event.data);
+    const existing = document.getElementById("delivery-" + delivery.publicUrlKey);
+    if (existing) {
+      const updated = createRow(delivery);
+      updated.classList.add("updated-row");
+      existing.replaceWith(updated);
+    }
+  });
+}
@@ -0,0 +1,38 @@
+package com.vanatta.helene.supplies.database;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+class ConnectionPoolMetricsTest {
+
+  @Test
+  void emptyReport() {
+    var report = new ConnectionPoolMetrics("web", 4).report();
+
+    assertThat(report.getName()).isEqualTo("web");
+    assertThat(report.getMaxSize()).isEqualTo(4);
+    assertThat(report.getAcquired()).isZero();
+    assertThat(report.getAverageAcquireMs()).isZero();
+    assertThat(report.getAcquireTimeHistogram().values()).allMatch(count -> count == 0);
+  }
+
+  @Test
+  void acquireTimesAreBucketed() {
+    var metrics = new ConnectionPoolMetrics("webhook", 2);
+    metrics.recordAcquire(0);
+    metrics.recordAcquire(7);
+    metrics.recordAcquire(9);
+    metrics.recordAcquire(10);
+    metrics.recordAcquire(60_000);
+
+    var report = metrics.report();
+    assertThat(report.getAcquired()).isEqualTo(5);
+    assertThat(report.getMaxAcquireMs()).isEqualTo(60_000);
+    assertThat(report.getAcquireTimeHistogram())
+        .containsEntry("<1ms", 1L)
+        .containsEntry("<10ms", 2L)
+        .containsEntry("<50ms", 1L)
+        .containsEntry(">=5000ms", 1L);
+  }
+}
@@ -0,0 +1,71 @@
+package com.vanatta.helene.supplies.database;
+
+import static com.vanatta.helene.supplies.database.TestConfiguration.jdbiTest;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class DeploymentRegistryTest {
+
+  DeploymentRegistry deploymentRegistry = new DeploymentRegistry(jdbiTest);
+
+  @ParameterizedTest
+  @CsvSource({
+    "wnc-supply-sites.com,WNC",
+    "socal-supply-sites.com,SoCal",
+    "WNC-Supply-Sites.com,WNC",
+    "www.wnc-supply-sites.com,WNC",
+    "wnc-supply-sites.com:443,WNC",
+    "staging.wnc-supply-sites.com,Staging"
+  })
+  void shortName(String host, String shortName) {
+    assertThat(deploymentRegistry.lookup(host).orElseThrow().getShortName()).isEqualTo(shortName);
+  }
+
+  @Test
+  void stateList() {
+    assertThat(deploymentRegistry.lookup("wnc-supply-sites.com").orElseThrow().getStates())
+        .contains("NC", "TN");
+    assertThat(deploymentRegistry.lookup("socal-supply-sites.com").orElseThrow().getStates())
+        .contains("CA");
+  }
+
+  @Test
+  void siteDescription() {
+    var result = deploymentRegistry.lookup("WNC-Supply-Sites.com").orElseThrow();
+    assertThat(result.getSiteDescription()).isEqualTo("Hurricane Helene Disaster Relief");
+    assertThat(result.getContactUsLink()).isNotNull();
+
+    result = deploymentRegistry.lookup("SoCal-Supply-Sites.com").orElseThrow();
+    assertThat(result.getSiteDescription()).isEqualTo("LA Fires Disaster Relief");
+    assertThat(result.getContactUsLink()).isNotNull();
+  }
+
+  @Test
+  void domains() {
+    assertThat(deploymentRegistry.domains())
+        .contains("wnc-supply-sites.com", "socal-supply-sites.com");
+  }
+
+  @ParameterizedTest
+  @ValueSource(
+      strings = {
+        "localhost",
+        "localhost:8080",
+        "wnc-supply-sites.com",
+        "www.socal-supply-sites.com"
+      })
+  void validHosts(String host) {
+    assertThat(deploymentRegistry.isValidHost(host)).isTrue();
+  }
+
+  @ParameterizedTest
+  @ValueSource(strings = {"", "127.0.0.1", "example.com", "wnc-supply-sites.com.example.com"})
+  void invalidHosts(String host) {
+    assertThat(deploymentRegistry.isValidHost(host)).isFalse();
+    assertThat(deploymentRegistry.lookup(host)).isEmpty();
+  }
+}
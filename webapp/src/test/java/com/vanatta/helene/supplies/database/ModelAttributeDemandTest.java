@@ -0,0 +1,96 @@
+package com.vanatta.helene.supplies.database;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.bind.annotation.ModelAttribute;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+
+class ModelAttributeDemandTest {
+
+  static class TestController {
+    String withStateList(
+        @ModelAttribute(DeploymentAdvice.DEPLOYMENT_STATE_LIST) List<String> stateList) {
+      return "";
+    }
+
+    String noParameters() {
+      return "";
+    }
+  }
+
+  final ModelAttributeDemand demand = new ModelAttributeDemand();
+
+  static MockHttpServletRequest requestTo(String method) throws Exception {
+    var request = new MockHttpServletRequest();
+    request.setAttribute(
+        HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE,
+        new HandlerMethod(
+            new TestController(),
+            TestController.class.getDeclaredMethod(
+                method,
+                method.equals("withStateList") ? new Class<?>[] {List.class} : new Class<?>[0])));
+    return request;
+  }
+
+  @Test
+  void attributeIsNeededWhenHandlerHasParameter() throws Exception {
+    var request = requestTo("withStateList");
+
+    assertThat(demand.isParameterOf(request, DeploymentAdvice.DEPLOYMENT_STATE_LIST, 1)).isTrue();
+    assertThat(demand.isParameterOf(request, DeploymentAdvice.DEPLOYMENT_DOMAIN_NAME, 1)).isFalse();
+  }
+
+  @Test
+  void unknownHandlerIsAlwaysNeeded() {
+    assertThat(
+            demand.isParameterOf(
+                new MockHttpServletRequest(), DeploymentAdvice.DEPLOYMENT_STATE_LIST, 1))
+        .isTrue();
+  }
+
+  @Test
+  void lazyValueIsComputedOnceWhenRead() throws Exception {
+    AtomicInteger calls = new AtomicInteger();
+    var value =
+        demand.lazy(
+            requestTo("noParameters"),
+            1,
+            () -> {
+              calls.incrementAndGet();
+              return "value";
+            });
+    assertThat(calls.get()).isZero();
+
+    assertThat(value.toString()).isEqualTo("value");
+    assertThat(value.get()).isEqualTo("value");
+    assertThat(calls.get()).isEqualTo(1);
+  }
+
+  @Test
+  void report() throws Exception {
+    // two requests that skip the state list, one of them reads a lazy value
+    var request1 = requestTo("noParameters");
+    demand.isParameterOf(request1, DeploymentAdvice.DEPLOYMENT_STATE_LIST, 1);
+    demand.lazy(request1, 1, () -> "unused");
+
+    var request2 = requestTo("noParameters");
+    demand.isParameterOf(request2, DeploymentAdvice.DEPLOYMENT_STATE_LIST, 1);
+    demand.lazy(request2, 1, () -> "used").get();
+
+    // handler that reads the state list, saves nothing
+    demand.isParameterOf(requestTo("withStateList"), DeploymentAdvice.DEPLOYMENT_STATE_LIST, 1);
+
+    var report = demand.report();
+
+    assertThat(report).hasSize(1);
+    assertThat(report.getFirst().getEndpoint()).isEqualTo("TestController.noParameters");
+    assertThat(report.getFirst().getRequests()).isEqualTo(2);
+    assertThat(report.getFirst().getQueriesSaved()).isEqualTo(3);
+    assertThat(report.getFirst().getQueriesSavedPerRequest()).isEqualTo(1.5);
+  }
+}
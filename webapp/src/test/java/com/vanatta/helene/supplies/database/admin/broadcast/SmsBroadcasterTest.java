@@ -0,0 +1,118 @@
+package com.vanatta.helene.supplies.database.admin.broadcast;
+
+import static com.vanatta.helene.supplies.database.TestConfiguration.jdbiTest;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.vanatta.helene.supplies.database.TestConfiguration;
+import com.vanatta.helene.supplies.database.auth.UserRole;
+import com.vanatta.helene.supplies.database.manage.contact.ContactDao;
+import com.vanatta.helene.supplies.database.twilio.sms.SmsDispatcher;
+import com.vanatta.helene.supplies.database.twilio.sms.SmsSender;
+import java.util.List;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+
+class SmsBroadcasterTest {
+
+  private static final List<String> STATES = List.of("NC");
+
+  @BeforeAll
+  static void setup() {
+    TestConfiguration.setupDatabase();
+
+    // the same number entered differently on two sites and as an additional manager
+    long siteId = addSiteWithContactNumber("(828) 555-0101");
+    addSiteWithContactNumber("828.555.0101");
+    ContactDao.addAdditionalSiteManager(jdbiTest, siteId, "manager A", "8285550101");
+    ContactDao.addAdditionalSiteManager(jdbiTest, siteId, "manager B", "828-555-0102");
+  }
+
+  private static long addSiteWithContactNumber(String contactNumber) {
+    long siteId = TestConfiguration.getSiteId(TestConfiguration.addSite());
+    jdbiTest.useHandle(
+        handle ->
+            handle
+                .createUpdate("update site set contact_number = :number where id = :id")
+                .bind("number", contactNumber)
+                .bind("id", siteId)
+                .execute());
+    return siteId;
+  }
+
+  /** Each phone number is listed once, site contacts before additional managers. */
+  @Test
+  void recipientsAreDeduplicatedByPhoneDigits() {
+    var recipients =
+        SmsBroadcastDao.fetchRecipients(jdbiTest, STATES).stream()
+            .filter(r -> r.getPhone().startsWith("82855501"))
+            .toList();
+
+    assertThat(recipients)
+        .extracting(SmsBroadcastDao.Recipient::getPhone)
+        .containsExactly("8285550101", "8285550102");
+    assertThat(recipients.getLast().getName()).isEqualTo("manager B");
+  }
+
+  /** Invalid numbers (eg: test data '555') and sites of other deployments are not recipients. */
+  @Test
+  void recipientsHaveValidNumbers() {
+    assertThat(SmsBroadcastDao.fetchRecipients(jdbiTest, STATES))
+        .allMatch(r -> r.getPhone().length() == 10);
+    assertThat(SmsBroadcastDao.fetchRecipients(jdbiTest, List.of("XX"))).isEmpty();
+  }
+
+  @Test
+  void broadcastIsSentThroughSmsQueue() {
+    var dispatcher = new SmsDispatcher(jdbiTest, SmsSender.newDisabled(jdbiTest), 0);
+    var broadcaster = new SmsBroadcaster(jdbiTest, dispatcher);
+    var recipients = SmsBroadcastDao.fetchRecipients(jdbiTest, STATES);
+
+    long id = broadcaster.broadcast("update your inventory", STATES, "5555555555", recipients);
+
+    var queued = broadcaster.progress(STATES, id).orElseThrow();
+    assertThat(queued.getTotal()).isEqualTo(recipients.size());
+    assertThat(queued.getSent()).isZero();
+    assertThat(queued.isComplete()).isFalse();
+
+    dispatcher.processDue();
+
+    SmsBroadcastDao.BroadcastSummary summary =
+        SmsBroadcastDao.fetchSummary(jdbiTest, STATES, id).orElseThrow();
+    assertThat(summary.getRecipientCount()).isEqualTo(recipients.size());
+    assertThat(summary.getSentCount()).isEqualTo(recipients.size());
+    assertThat(summary.getFailedCount()).isZero();
+    assertThat(summary.isComplete()).isTrue();
+    assertThat(broadcaster.progress(STATES, id).orElseThrow().isComplete()).isTrue();
+    assertThat(SmsBroadcastDao.fetchFailedRecipients(jdbiTest, STATES, id)).isEmpty();
+    assertThat(SmsBroadcastDao.fetchRecentSummaries(jdbiTest, STATES, 10))
+        .extracting(SmsBroadcastDao.BroadcastSummary::getId)
+        .contains(id);
+  }
+
+  /** Progress and failed recipients of a broadcast are not visible to other deployments. */
+  @Test
+  void broadcastIsNotVisibleToOtherDeployments() {
+    var broadcaster =
+        new SmsBroadcaster(
+            jdbiTest, new SmsDispatcher(jdbiTest, SmsSender.newDisabled(jdbiTest), 0));
+    long id =
+        broadcaster.broadcast(
+            "update your inventory",
+            STATES,
+            "5555555555",
+            SmsBroadcastDao.fetchRecipients(jdbiTest, STATES));
+
+    var controller = new SmsBroadcastController(jdbiTest, broadcaster);
+    var roles = List.of(UserRole.DISPATCHER);
+
+    assertThat(controller.progress(roles, STATES, id).getStatusCode()).isEqualTo(HttpStatus.OK);
+    assertThat(controller.failedRecipients(roles, STATES, id).getStatusCode())
+        .isEqualTo(HttpStatus.OK);
+    assertThat(controller.progress(roles, List.of("XX"), id).getStatusCode())
+        .isEqualTo(HttpStatus.NOT_FOUND);
+    assertThat(controller.failedRecipients(roles, List.of("XX"), id).getStatusCode())
+        .isEqualTo(HttpStatus.NOT_FOUND);
+    assertThat(SmsBroadcastDao.fetchFailedRecipients(jdbiTest, List.of("XX"), id)).isEmpty();
+  }
+}
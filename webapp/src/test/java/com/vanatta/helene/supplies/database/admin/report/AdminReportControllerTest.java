@@ -0,0 +1,28 @@
+package com.vanatta.helene.supplies.database.admin.report;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.vanatta.helene.supplies.database.auth.UserRole;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+
+class AdminReportControllerTest {
+
+  private final AdminReportController controller =
+      new AdminReportController(null, null, null, null, null, null);
+
+  @Test
+  void reportsAreOnlyForDispatchersAndDataAdmins() {
+    assertThat(controller.backgroundTaskReport(List.of(UserRole.SITE_MANAGER)).getStatusCode())
+        .isEqualTo(HttpStatus.FORBIDDEN);
+    assertThat(controller.outboundHttpReport(List.of()).getStatusCode())
+        .isEqualTo(HttpStatus.FORBIDDEN);
+
+    var report = controller.backgroundTaskReport(List.of(UserRole.DISPATCHER));
+    assertThat(report.getStatusCode()).isEqualTo(HttpStatus.OK);
+    assertThat(report.getBody()).isNotNull();
+    assertThat(controller.outboundHttpReport(List.of(UserRole.DATA_ADMIN)).getStatusCode())
+        .isEqualTo(HttpStatus.OK);
+  }
+}
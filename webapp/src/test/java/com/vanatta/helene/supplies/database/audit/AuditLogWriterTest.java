@@ -0,0 +1,99 @@
+package com.vanatta.helene.supplies.database.audit;
+
+import static com.vanatta.helene.supplies.database.TestConfiguration.jdbiTest;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+class AuditLogWriterTest {
+
+  static final String INSERT =
+      "insert into login_history(phone_number, result) values (:phoneNumber, :result)";
+
+  @Test
+  void flushWritesInBatches() {
+    AuditLogWriter auditLog = new AuditLogWriter(jdbiTest);
+    long before = countRows("9990001111");
+
+    int rowCount = AuditLogWriter.BATCH_SIZE * 2 + 5;
+    for (int i = 0; i < rowCount; i++) {
+      auditLog.append(INSERT, Map.of("phoneNumber", "9990001111", "result", true));
+    }
+    assertThat(countRows("9990001111")).isEqualTo(before);
+    assertThat(auditLog.metrics().getBuffered()).isEqualTo(rowCount);
+
+    auditLog.flush();
+
+    assertThat(countRows("9990001111")).isEqualTo(before + rowCount);
+    var metrics = auditLog.metrics();
+    assertThat(metrics.getBuffered()).isEqualTo(0);
+    assertThat(metrics.getWritten()).isEqualTo(rowCount);
+    assertThat(metrics.getFlushes()).isEqualTo(3);
+  }
+
+  @Test
+  void rowsAreDroppedWhenFull() {
+    AuditLogWriter auditLog = new AuditLogWriter(jdbiTest, 2);
+
+    assertThat(auditLog.append(INSERT, Map.of("phoneNumber", "1", "result", true))).isTrue();
+    assertThat(auditLog.append(INSERT, Map.of("phoneNumber", "2", "result", true))).isTrue();
+    assertThat(auditLog.append(INSERT, Map.of("phoneNumber", "3", "result", true))).isFalse();
+
+    assertThat(auditLog.metrics().getDropped()).isEqualTo(1);
+  }
+
+  @Test
+  void failedFlushIsCounted() {
+    AuditLogWriter auditLog = new AuditLogWriter(jdbiTest);
+    auditLog.append("insert into no_such_table(x) values (:x)", Map.of("x", 1));
+
+    auditLog.flush();
+
+    var metrics = auditLog.metrics();
+    assertThat(metrics.getFailedFlushes()).isEqualTo(1);
+    assertThat(metrics.getFailedRows()).isEqualTo(1);
+    assertThat(metrics.getBuffered()).isEqualTo(0);
+  }
+
+  /** A row that cannot be written is dropped, the other rows of its batch are still written. */
+  @Test
+  void badRowDoesNotDropItsBatch() {
+    AuditLogWriter auditLog = new AuditLogWriter(jdbiTest);
+    long before = countRows("9990003333");
+    auditLog.append(INSERT, Map.of("phoneNumber", "9990003333", "result", true));
+    // longer than the phone_number column
+    auditLog.append(INSERT, Map.of("phoneNumber", "9".repeat(20), "result", true));
+    auditLog.append(INSERT, Map.of("phoneNumber", "9990003333", "result", false));
+
+    auditLog.flush();
+
+    assertThat(countRows("9990003333")).isEqualTo(before + 2);
+    var metrics = auditLog.metrics();
+    assertThat(metrics.getWritten()).isEqualTo(2);
+    assertThat(metrics.getFailedFlushes()).isEqualTo(1);
+    assertThat(metrics.getFailedRows()).isEqualTo(1);
+  }
+
+  /** Shutting down drains whatever is still buffered. */
+  @Test
+  void shutdownDrainsBuffer() throws Exception {
+    AuditLogWriter auditLog = new AuditLogWriter(jdbiTest);
+    auditLog.start();
+    long before = countRows("9990002222");
+    auditLog.append(INSERT, Map.of("phoneNumber", "9990002222", "result", false));
+
+    auditLog.shutdown();
+
+    assertThat(countRows("9990002222")).isEqualTo(before + 1);
+  }
+
+  private static long countRows(String phone) {
+    return jdbiTest.withHandle(
+        h ->
+            h.createQuery("select count(*) from login_history where phone_number = :phone")
+                .bind("phone", phone)
+                .mapTo(Long.class)
+                .one());
+  }
+}
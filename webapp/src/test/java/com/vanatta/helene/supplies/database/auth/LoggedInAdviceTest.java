@@ -67,6 +67,19 @@ class LoggedInAdviceTest {
         .containsExactly(UserRole.AUTHORIZED, UserRole.SITE_MANAGER);
   }
 
+  /** Phone numbers are matched by digits only, formatting of the stored number does not matter. */
+  @Test
+  void siteManagerRole_formattedContactNumber() {
+    String siteName = TestConfiguration.addSite();
+    long siteId = TestConfiguration.getSiteId(siteName);
+    ManageSiteDao.updateSiteField(
+        jdbiTest, siteId, ManageSiteDao.SiteField.CONTACT_NUMBER, "(333) 444-2244");
+    assertThat(LoggedInAdvice.computeUserRoles(jdbiTest, token))
+        .containsExactly(UserRole.AUTHORIZED, UserRole.SITE_MANAGER);
+    assertThat(LoggedInAdvice.computeUserSites(jdbiTest, token, List.of(UserRole.SITE_MANAGER)))
+        .containsExactly(siteId);
+  }
+
   /** Dispatcher role is only granted through the wss_roles table and white listing. */
   @Test
   void dispatcherRole() {
@@ -4,9 +4,13 @@ import static com.vanatta.helene.supplies.database.TestConfiguration.jdbiTest;
 import static org.assertj.core.api.Assertions.assertThat;
 
 import com.vanatta.helene.supplies.database.TestConfiguration;
+import com.vanatta.helene.supplies.database.audit.AuditLogWriter;
 import com.vanatta.helene.supplies.database.driver.DriverDao;
+import java.time.Clock;
 import java.util.List;
 import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockHttpServletRequest;
 import org.springframework.mock.web.MockHttpServletResponse;
 import org.springframework.util.LinkedMultiValueMap;
 import org.springframework.util.MultiValueMap;
@@ -14,22 +18,60 @@ import org.springframework.web.servlet.ModelAndView;
 
 class LoginControllerTest {
 
+  LoginController loginController =
+      new LoginController(
+          TestConfiguration.jdbiTest,
+          "",
+          "",
+          false,
+          new PasswordVerifier(
+              (phone, password) -> PasswordDao.confirmPassword(jdbiTest, phone, password),
+              1,
+              8,
+              2,
+              50,
+              Clock.systemUTC()),
+          new SessionTokens(jdbiTest, ""),
+          new AuditLogWriter(jdbiTest));
+
   /**
    * If someone tries to login with a registered phone number, but has not yet set up their
    * password, and attemps login - then redirect them to the setup password flow.
    */
   @Test
   void registeredPhoneNumbersAreRedirectedToCreatePassword() {
-    LoginController loginController =
-        new LoginController(TestConfiguration.jdbiTest, "", "", false);
-
     DriverDao.upsert(jdbiTest, TestConfiguration.buildDriver(-555999L, "987 345 6789"));
 
     MultiValueMap<String, String> params = new LinkedMultiValueMap<>();
     params.put("user", List.of("987 345 6789"));
     params.put("password", List.of("a guess"));
-    ModelAndView modelAndView = loginController.doLogin(params, new MockHttpServletResponse());
+    ModelAndView modelAndView =
+        loginController.doLogin(
+            params, new MockHttpServletRequest(), new MockHttpServletResponse());
 
     assertThat(modelAndView.getViewName()).isEqualTo("redirect:/login/setup-password");
   }
+
+  /** Once the failure limit for a phone number is reached, logins get a 429 with a retry hint. */
+  @Test
+  void tooManyFailedAttemptsAreRejected() {
+    MultiValueMap<String, String> params = new LinkedMultiValueMap<>();
+    params.put("user", List.of("987 000 1111"));
+    params.put("password", List.of("a guess"));
+
+    for (int i = 0; i < 2; i++) {
+      ModelAndView modelAndView =
+          loginController.doLogin(
+              params, new MockHttpServletRequest(), new MockHttpServletResponse());
+      assertThat(modelAndView.getStatus()).isNull();
+      assertThat(modelAndView.getModel().get("errorMessage")).isEqualTo("Invalid Login");
+    }
+
+    MockHttpServletResponse response = new MockHttpServletResponse();
+    ModelAndView modelAndView =
+        loginController.doLogin(params, new MockHttpServletRequest(), response);
+    assertThat(modelAndView.getStatus()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS);
+    assertThat(modelAndView.getViewName()).isEqualTo("login/login");
+    assertThat(response.getHeader("Retry-After")).isNotNull();
+  }
 }
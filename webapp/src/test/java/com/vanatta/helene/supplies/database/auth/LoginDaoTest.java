@@ -3,6 +3,7 @@ package com.vanatta.helene.supplies.database.auth;
 import static org.assertj.core.api.Assertions.assertThat;
 
 import com.vanatta.helene.supplies.database.TestConfiguration;
+import com.vanatta.helene.supplies.database.audit.AuditLogWriter;
 import com.vanatta.helene.supplies.database.auth.setup.password.SetupPasswordHelper;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
@@ -51,12 +52,17 @@ class LoginDaoTest {
   void loginHistory() {
     long preCount = Helper.countLoginHistoryRows();
 
-    LoginDao.recordLoginSuccess(TestConfiguration.jdbiTest, "199-199-199-199");
+    AuditLogWriter auditLog = new AuditLogWriter(TestConfiguration.jdbiTest);
+    LoginDao.recordLoginSuccess(auditLog, "199-199-199-199");
+    // rows are buffered until flushed
+    assertThat(Helper.countLoginHistoryRows()).isEqualTo(preCount);
+    auditLog.flush();
 
     long postCount = Helper.countLoginHistoryRows();
     assertThat(postCount).isEqualTo(preCount + 1);
 
-    LoginDao.recordLoginFailure(TestConfiguration.jdbiTest, "199-199-199-199");
+    LoginDao.recordLoginFailure(auditLog, "199-199-199-199");
+    auditLog.flush();
 
     long postFailureCount = Helper.countLoginHistoryRows();
     assertThat(postFailureCount).isEqualTo(postCount + 1);
@@ -0,0 +1,142 @@
+package com.vanatta.helene.supplies.database.auth;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+class PasswordVerifierTest {
+
+  PrincipalCacheTest.TestClock clock = new PrincipalCacheTest.TestClock();
+
+  PasswordVerifier passwordVerifier =
+      new PasswordVerifier((_, password) -> password.equals("correct"), 1, 2, 3, 5, clock);
+
+  @Test
+  void validAndInvalid() {
+    assertThat(passwordVerifier.verify("5550001111", "correct", "ip").getOutcome())
+        .isEqualTo(PasswordVerifier.Outcome.VALID);
+    assertThat(passwordVerifier.verify("5550001111", "wrong", "ip").getOutcome())
+        .isEqualTo(PasswordVerifier.Outcome.INVALID);
+
+    var metrics = passwordVerifier.metrics();
+    assertThat(metrics.getValid()).isEqualTo(1);
+    assertThat(metrics.getInvalid()).isEqualTo(1);
+    assertThat(metrics.getVerifications()).isEqualTo(2);
+  }
+
+  /**
+   * After max failures a phone number is blocked, even the correct password is rejected, until the
+   * window ends. Phone numbers are matched by digits.
+   */
+  @Test
+  void phoneNumberIsBlockedAfterMaxFailures() {
+    for (int i = 0; i < 3; i++) {
+      passwordVerifier.verify("(555) 000-2222", "wrong", "ip" + i);
+    }
+
+    var result = passwordVerifier.verify("5550002222", "correct", "another ip");
+    assertThat(result.getOutcome()).isEqualTo(PasswordVerifier.Outcome.TOO_MANY_ATTEMPTS);
+    assertThat(result.getRetryAfterSeconds())
+        .isEqualTo(PasswordVerifier.ATTEMPT_WINDOW.toSeconds());
+    // other phone numbers are not affected
+    assertThat(passwordVerifier.verify("5550003333", "correct", "ip").getOutcome())
+        .isEqualTo(PasswordVerifier.Outcome.VALID);
+
+    clock.now = clock.now.plus(PasswordVerifier.ATTEMPT_WINDOW);
+    assertThat(passwordVerifier.verify("5550002222", "correct", "ip").getOutcome())
+        .isEqualTo(PasswordVerifier.Outcome.VALID);
+  }
+
+  @Test
+  void ipIsBlockedAfterMaxFailures() {
+    for (int i = 0; i < 5; i++) {
+      passwordVerifier.verify("555000444" + i, "wrong", "bad ip");
+    }
+    assertThat(passwordVerifier.verify("5550005555", "correct", "bad ip").getOutcome())
+        .isEqualTo(PasswordVerifier.Outcome.TOO_MANY_ATTEMPTS);
+    assertThat(passwordVerifier.verify("5550005555", "correct", "good ip").getOutcome())
+        .isEqualTo(PasswordVerifier.Outcome.VALID);
+  }
+
+  /** A successful login clears the failure count of the phone number. */
+  @Test
+  void successResetsFailures() {
+    passwordVerifier.verify("5550006666", "wrong", "ip");
+    passwordVerifier.verify("5550006666", "wrong", "ip");
+    passwordVerifier.verify("5550006666", "correct", "ip");
+    passwordVerifier.verify("5550006666", "wrong", "ip");
+    passwordVerifier.verify("5550006666", "wrong", "ip");
+    assertThat(passwordVerifier.verify("5550006666", "correct", "ip").getOutcome())
+        .isEqualTo(PasswordVerifier.Outcome.VALID);
+  }
+
+  /** A successful login does not clear the failure count of the IP. */
+  @Test
+  void successDoesNotResetIpFailures() {
+    for (int i = 0; i < 4; i++) {
+      passwordVerifier.verify("555000777" + i, "wrong", "spraying ip");
+    }
+    assertThat(passwordVerifier.verify("5550007777", "correct", "spraying ip").getOutcome())
+        .isEqualTo(PasswordVerifier.Outcome.VALID);
+
+    passwordVerifier.verify("5550007778", "wrong", "spraying ip");
+    assertThat(passwordVerifier.verify("5550007777", "correct", "spraying ip").getOutcome())
+        .isEqualTo(PasswordVerifier.Outcome.TOO_MANY_ATTEMPTS);
+  }
+
+  /** With the single thread busy and the queue full, further logins are rejected right away. */
+  @Test
+  void busyWhenQueueIsFull() throws Exception {
+    CountDownLatch release = new CountDownLatch(1);
+    CountDownLatch started = new CountDownLatch(1);
+    PasswordVerifier slowVerifier =
+        new PasswordVerifier(
+            (_, _) -> {
+              started.countDown();
+              try {
+                release.await();
+              } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+              }
+              return true;
+            },
+            1,
+            2,
+            10,
+            10,
+            clock);
+
+    var running = CompletableFuture.supplyAsync(() -> slowVerifier.verify("1", "pw", "ip"));
+    started.await();
+    var queued1 = CompletableFuture.supplyAsync(() -> slowVerifier.verify("2", "pw", "ip"));
+    var queued2 = CompletableFuture.supplyAsync(() -> slowVerifier.verify("3", "pw", "ip"));
+    while (slowVerifier.metrics().getQueueDepth() < 2) {
+      Thread.sleep(5);
+    }
+
+    var rejected = slowVerifier.verify("4", "pw", "ip");
+    assertThat(rejected.getOutcome()).isEqualTo(PasswordVerifier.Outcome.BUSY);
+    assertThat(rejected.getRetryAfterSeconds()).isEqualTo(PasswordVerifier.BUSY_RETRY_SECONDS);
+    assertThat(slowVerifier.metrics().getRejectedBusy()).isEqualTo(1);
+
+    release.countDown();
+    assertThat(running.get().getOutcome()).isEqualTo(PasswordVerifier.Outcome.VALID);
+    assertThat(queued1.get().getOutcome()).isEqualTo(PasswordVerifier.Outcome.VALID);
+    assertThat(queued2.get().getOutcome()).isEqualTo(PasswordVerifier.Outcome.VALID);
+    slowVerifier.shutdown();
+  }
+
+  /** nginx appends the client address, the last 'X-Forwarded-For' entry is the one to trust. */
+  @Test
+  void clientIp() {
+    var request = new MockHttpServletRequest();
+    request.setRemoteAddr("127.0.0.1");
+    assertThat(PasswordVerifier.clientIp(request)).isEqualTo("127.0.0.1");
+
+    request.addHeader("X-Forwarded-For", "1.1.1.1, 2.2.2.2");
+    assertThat(PasswordVerifier.clientIp(request)).isEqualTo("2.2.2.2");
+  }
+}
@@ -0,0 +1,94 @@
+package com.vanatta.helene.supplies.database.auth;
+
+import static com.vanatta.helene.supplies.database.TestConfiguration.jdbiTest;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.vanatta.helene.supplies.database.TestConfiguration;
+import com.vanatta.helene.supplies.database.auth.setup.password.SetupPasswordHelper;
+import com.vanatta.helene.supplies.database.driver.DriverDao;
+import com.vanatta.helene.supplies.database.manage.ManageSiteDao;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class PrincipalCacheTest {
+
+  /** Clock that only moves when told to. */
+  static class TestClock extends Clock {
+    Instant now = Instant.parse("2024-11-01T10:00:00Z");
+
+    @Override
+    public ZoneId getZone() {
+      return ZoneOffset.UTC;
+    }
+
+    @Override
+    public Clock withZone(ZoneId zone) {
+      return this;
+    }
+
+    @Override
+    public Instant instant() {
+      return now;
+    }
+  }
+
+  String number = "3334442255";
+  String token;
+  TestClock clock = new TestClock();
+  PrincipalCache principalCache = new PrincipalCache(jdbiTest, clock);
+
+  @BeforeEach
+  void setup() {
+    SetupPasswordHelper.setup();
+    TestConfiguration.setupDatabase();
+    SetupPasswordHelper.withRegisteredNumber(number);
+    token = LoginDao.generateAuthToken(jdbiTest, number);
+  }
+
+  @Test
+  void invalidToken() {
+    assertThat(principalCache.lookup("bad token")).isEmpty();
+  }
+
+  @Test
+  void principalIsLoaded() {
+    String siteName = TestConfiguration.addSite();
+    long siteId = TestConfiguration.getSiteId(siteName);
+    ManageSiteDao.updateSiteField(jdbiTest, siteId, ManageSiteDao.SiteField.CONTACT_NUMBER, number);
+
+    var principal = principalCache.lookup(token).orElseThrow();
+
+    assertThat(principal.getPhone()).isEqualTo(number);
+    assertThat(principal.getRoles()).containsExactly(UserRole.AUTHORIZED, UserRole.SITE_MANAGER);
+    assertThat(principal.getSiteIds()).containsExactly(siteId);
+  }
+
+  @Test
+  void principalIsCachedUntilInvalidated() {
+    assertThat(principalCache.lookup(token).orElseThrow().getRoles())
+        .containsExactly(UserRole.AUTHORIZED);
+
+    DriverDao.upsert(jdbiTest, TestConfiguration.buildDriver(-605L, number));
+    assertThat(principalCache.lookup(token).orElseThrow().getRoles())
+        .containsExactly(UserRole.AUTHORIZED);
+
+    principalCache.invalidateAll();
+    assertThat(principalCache.lookup(token).orElseThrow().getRoles())
+        .containsExactly(UserRole.AUTHORIZED, UserRole.DRIVER);
+  }
+
+  @Test
+  void principalExpires() {
+    principalCache.lookup(token);
+    DriverDao.upsert(jdbiTest, TestConfiguration.buildDriver(-606L, number));
+
+    clock.now = clock.now.plus(PrincipalCache.TTL).plusSeconds(1);
+
+    assertThat(principalCache.lookup(token).orElseThrow().getRoles())
+        .containsExactly(UserRole.AUTHORIZED, UserRole.DRIVER);
+  }
+}
@@ -0,0 +1,108 @@
+package com.vanatta.helene.supplies.database.auth;
+
+import static com.vanatta.helene.supplies.database.TestConfiguration.jdbiTest;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.vanatta.helene.supplies.database.TestConfiguration;
+import com.vanatta.helene.supplies.database.auth.setup.password.SetupPasswordHelper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class SessionTokensTest {
+  static final String SECRET = "test-secret-test-secret-test-secret";
+
+  String number = "3334442266";
+  PrincipalCacheTest.TestClock clock = new PrincipalCacheTest.TestClock();
+  SessionTokens sessionTokens = new SessionTokens(jdbiTest, SECRET, clock);
+
+  @BeforeEach
+  void setup() {
+    SetupPasswordHelper.setup();
+    TestConfiguration.setupDatabase();
+    SetupPasswordHelper.withRegisteredNumber(number);
+  }
+
+  @Test
+  void issueAndVerify() {
+    String token = sessionTokens.issue(number);
+
+    assertThat(SessionTokens.isSignedToken(token)).isTrue();
+    assertThat(sessionTokens.verify(token)).isPresent();
+  }
+
+  @Test
+  void tamperedTokensAreRejected() {
+    String token = sessionTokens.issue(number);
+    String[] parts = token.split("\\.");
+
+    // different user id, same signature
+    String otherUser = "v1." + (Long.parseLong(parts[1]) + 1) + "." + parts[2] + "." + parts[3];
+    assertThat(sessionTokens.verify(otherUser + "." + parts[4])).isEmpty();
+    // later expiry, same signature
+    String longerExpiry = "v1." + parts[1] + "." + parts[2] + "." + (Long.parseLong(parts[3]) + 1);
+    assertThat(sessionTokens.verify(longerExpiry + "." + parts[4])).isEmpty();
+    // signed with a different secret
+    assertThat(new SessionTokens(jdbiTest, SECRET + "x", clock).verify(token)).isEmpty();
+    assertThat(sessionTokens.verify("v1.garbage")).isEmpty();
+  }
+
+  @Test
+  void expiredTokensAreRejected() {
+    String token = sessionTokens.issue(number);
+    clock.now = clock.now.plus(SessionTokens.TOKEN_TTL);
+    assertThat(sessionTokens.verify(token)).isEmpty();
+  }
+
+  /** Revoking takes effect right away, new tokens issued after revoking are valid. */
+  @Test
+  void revoke() {
+    String token = sessionTokens.issue(number);
+    sessionTokens.revoke(number);
+    assertThat(sessionTokens.verify(token)).isEmpty();
+
+    assertThat(sessionTokens.verify(sessionTokens.issue(number))).isPresent();
+  }
+
+  /** Epochs changed directly in the database are picked up once the cached epoch expires. */
+  @Test
+  void revokeInDatabase() {
+    String token = sessionTokens.issue(number);
+    jdbiTest.withHandle(
+        h ->
+            h.createUpdate(
+                    "update wss_user set session_epoch = session_epoch + 1 where phone = :phone")
+                .bind("phone", number)
+                .execute());
+    assertThat(sessionTokens.verify(token)).isPresent();
+
+    clock.now = clock.now.plus(SessionTokens.EPOCH_CACHE_TTL);
+    assertThat(sessionTokens.verify(token)).isEmpty();
+  }
+
+  /** Disabled (no secret) means no signed token is accepted. */
+  @Test
+  void disabled() {
+    String token = sessionTokens.issue(number);
+    SessionTokens disabled = new SessionTokens(jdbiTest, "", clock);
+    assertThat(disabled.isEnabled()).isFalse();
+    assertThat(disabled.verify(token)).isEmpty();
+  }
+
+  /** Signed tokens resolve to the same principal as opaque tokens. */
+  @Test
+  void principalLookup() {
+    PrincipalCache principalCache = new PrincipalCache(jdbiTest, sessionTokens, clock);
+    String signed = sessionTokens.issue(number);
+    String opaque = LoginDao.generateAuthToken(jdbiTest, number);
+
+    assertThat(principalCache.isValid(signed)).isTrue();
+    assertThat(principalCache.lookup(signed)).isEqualTo(principalCache.lookup(opaque));
+    assertThat(principalCache.lookup(signed).orElseThrow().getPhone()).isEqualTo(number);
+
+    // revoked tokens are rejected even while the principal is cached
+    sessionTokens.revoke(number);
+    assertThat(principalCache.isValid(signed)).isFalse();
+    assertThat(principalCache.lookup(signed)).isEmpty();
+    assertThat(principalCache.isValid(opaque)).isTrue();
+  }
+}
@@ -4,6 +4,7 @@ import static com.vanatta.helene.supplies.database.TestConfiguration.jdbiTest;
 import static org.assertj.core.api.Assertions.assertThat;
 
 import com.vanatta.helene.supplies.database.TestConfiguration;
+import com.vanatta.helene.supplies.database.audit.AuditLogWriter;
 import com.vanatta.helene.supplies.database.auth.setup.password.SetupPasswordHelper;
 import com.vanatta.helene.supplies.database.manage.ManageSiteDao;
 import com.vanatta.helene.supplies.database.twilio.sms.SmsSender;
@@ -17,9 +18,11 @@ class SendAccessTokenControllerTest {
   private static final String accessCode = "123456";
   private static final String csrf = "csrf";
 
+  private final AuditLogWriter auditLog = new AuditLogWriter(jdbiTest);
+
   private final SendAccessTokenController controller =
       new SendAccessTokenController(
-          SmsSender.newDisabled(jdbiTest),
+          SmsSender.newDisabled(auditLog),
           jdbiTest,
           new AccessTokenGenerator() {
             @Override
@@ -69,6 +72,7 @@ class SendAccessTokenControllerTest {
     assertThat(response.getStatusCode().value()).isEqualTo(200);
     assertThat(response.getBody().getError()).isNull();
     assertThat(response.getBody().getCsrf()).isEqualTo(csrf);
+    auditLog.flush();
     assertThat(SetupPasswordHelper.countSendHistoryRecords()).isEqualTo(numberOfSmsSendsRow + 1);
     assertThat(SetupPasswordHelper.accessTokenExists(accessCode, csrf)).isTrue();
   }
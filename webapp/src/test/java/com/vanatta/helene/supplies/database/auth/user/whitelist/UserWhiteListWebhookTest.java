@@ -3,6 +3,8 @@ package com.vanatta.helene.supplies.database.auth.user.whitelist;
 import static com.vanatta.helene.supplies.database.TestConfiguration.jdbiTest;
 import static org.assertj.core.api.Assertions.assertThat;
 
+import com.vanatta.helene.supplies.database.auth.PrincipalCache;
+import com.vanatta.helene.supplies.database.auth.SessionTokens;
 import com.vanatta.helene.supplies.database.auth.UserRole;
 import java.util.List;
 import org.junit.jupiter.api.BeforeEach;
@@ -12,7 +14,9 @@ import org.junit.jupiter.params.provider.EnumSource;
 import org.junit.jupiter.params.provider.ValueSource;
 
 class UserWhiteListWebhookTest {
-  UserWhiteListWebhook webhook = new UserWhiteListWebhook(jdbiTest);
+  UserWhiteListWebhook webhook =
+      new UserWhiteListWebhook(
+          jdbiTest, new PrincipalCache(jdbiTest), new SessionTokens(jdbiTest, ""));
 
   String input =
       """
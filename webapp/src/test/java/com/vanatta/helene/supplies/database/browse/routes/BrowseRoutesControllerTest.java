@@ -5,6 +5,7 @@ import static org.assertj.core.api.Assertions.assertThat;
 
 import com.vanatta.helene.supplies.database.TestConfiguration;
 import com.vanatta.helene.supplies.database.auth.UserRole;
+import com.vanatta.helene.supplies.database.data.CountyAdjacency;
 import com.vanatta.helene.supplies.database.data.ItemStatus;
 import com.vanatta.helene.supplies.database.manage.ManageSiteDao;
 import com.vanatta.helene.supplies.database.manage.inventory.InventoryDao;
@@ -61,7 +62,8 @@ class BrowseRoutesControllerTest {
   /** Simple check that the browse routes page renders with all of its parameters. */
   @Test
   void validatePageRenders() {
-    var controller = new BrowseRoutesController(TestConfiguration.jdbiTest, "");
+    var controller =
+        new BrowseRoutesController(TestConfiguration.jdbiTest, new CountyAdjacency(), "");
 
     ModelAndView modelAndView =
         controller.browseRoutes(null, null, null, List.of(UserRole.DRIVER), List.of("NC"));
@@ -0,0 +1,67 @@
+package com.vanatta.helene.supplies.database.data;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.vanatta.helene.supplies.database.data.CountyAdjacency.County;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class CountyAdjacencyTest {
+
+  static final County buncombe = new County("Buncombe", "NC");
+  static final County madison = new County("Madison", "NC");
+  static final County watauga = new County("Watauga", "NC");
+
+  final CountyAdjacency countyAdjacency = new CountyAdjacency();
+
+  @Test
+  void parseCounty() {
+    assertThat(County.parse("Buncombe, NC")).isEqualTo(buncombe);
+    assertThat(County.parse(" Buncombe,NC ")).isEqualTo(buncombe);
+    assertThat(buncombe.toString()).isEqualTo("Buncombe, NC");
+    assertThatThrownBy(() -> County.parse("Buncombe")).isInstanceOf(IllegalArgumentException.class);
+  }
+
+  @Test
+  void adjacencyIsSymmetric() {
+    assertThat(countyAdjacency.hopDistance(buncombe, madison)).isEqualTo(1);
+    assertThat(countyAdjacency.hopDistance(madison, buncombe)).isEqualTo(1);
+    assertThat(countyAdjacency.hopDistance(buncombe, buncombe)).isZero();
+  }
+
+  @Test
+  void hopDistance() {
+    // Buncombe -> McDowell -> Avery -> Watauga
+    assertThat(countyAdjacency.hopDistance(buncombe, watauga)).isEqualTo(3);
+    assertThat(countyAdjacency.hopDistance(buncombe, new County("Los Angeles", "CA")))
+        .isEqualTo(-1);
+    assertThat(countyAdjacency.hopDistance(new County("Unknown", "NC"), buncombe)).isEqualTo(-1);
+  }
+
+  @Test
+  void expand() {
+    assertThat(countyAdjacency.expand(List.of(buncombe), 0)).containsExactly(buncombe);
+
+    var oneHop = countyAdjacency.expand(List.of(buncombe), 1);
+    assertThat(oneHop.getFirst()).isEqualTo(buncombe);
+    assertThat(oneHop).contains(madison).doesNotContain(watauga);
+
+    var threeHops = countyAdjacency.expand(List.of(buncombe), 3);
+    assertThat(threeHops).contains(madison, watauga);
+    // closer counties are listed first
+    assertThat(threeHops.indexOf(madison)).isLessThan(threeHops.indexOf(watauga));
+
+    assertThat(countyAdjacency.expand(List.of(new County("Unknown", "NC")), 2))
+        .containsExactly(new County("Unknown", "NC"));
+    assertThatThrownBy(
+            () -> countyAdjacency.expand(List.of(buncombe), CountyAdjacency.MAX_HOPS + 1))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+
+  @Test
+  void invalidDataFile() {
+    assertThatThrownBy(() -> CountyAdjacency.fromString("Buncombe,NC,Madison"))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+}
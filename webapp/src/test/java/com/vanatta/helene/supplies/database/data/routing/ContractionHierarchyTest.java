@@ -0,0 +1,152 @@
+package com.vanatta.helene.supplies.database.data.routing;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Arrays;
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+
+class ContractionHierarchyTest {
+
+  /**
+   * Builds a width x height grid with random drive times, roughly 1 in 10 roads are one-way. Node
+   * ids are 'row * width + column'.
+   */
+  static RoadGraph grid(int width, int height, long seed) {
+    Random random = new Random(seed);
+    var builder = new RoadGraph.Builder();
+    for (int i = 0; i < width * height; i++) {
+      builder.addNode(i);
+    }
+    for (int row = 0; row < height; row++) {
+      for (int col = 0; col < width; col++) {
+        int node = row * width + col;
+        if (col + 1 < width) {
+          int seconds = 10 + random.nextInt(90);
+          builder.addEdge(node, node + 1, seconds, seconds * 20, random.nextInt(10) == 0);
+        }
+        if (row + 1 < height) {
+          int seconds = 10 + random.nextInt(90);
+          builder.addEdge(node, node + width, seconds, seconds * 20, random.nextInt(10) == 0);
+        }
+      }
+    }
+    return builder.build();
+  }
+
+  /** Plain Dijkstra over the original graph, used as the reference answer. */
+  static int[] dijkstra(RoadGraph graph, int source) {
+    int[] dist = new int[graph.getNodeCount()];
+    Arrays.fill(dist, ContractionHierarchy.UNREACHABLE);
+    dist[source] = 0;
+    PriorityQueue<int[]> queue = new PriorityQueue<>((a, b) -> Integer.compare(a[0], b[0]));
+    queue.add(new int[] {0, source});
+    while (!queue.isEmpty()) {
+      int[] entry = queue.poll();
+      int u = entry[1];
+      if (entry[0] > dist[u]) {
+        continue;
+      }
+      for (int e = graph.edgeStart[u]; e < graph.edgeStart[u + 1]; e++) {
+        int candidate = dist[u] + graph.edgeSeconds[e];
+        if (candidate < dist[graph.edgeTarget[e]]) {
+          dist[graph.edgeTarget[e]] = candidate;
+          queue.add(new int[] {candidate, graph.edgeTarget[e]});
+        }
+      }
+    }
+    return dist;
+  }
+
+  @Test
+  void singleRoad() {
+    RoadGraph graph =
+        new RoadGraph.Builder()
+            .addNode(10)
+            .addNode(20)
+            .addNode(30)
+            .addEdge(10, 20, 60, 1000, false)
+            .addEdge(20, 30, 120, 3000, true)
+            .build();
+    var ch = ContractionHierarchy.build(graph);
+
+    assertThat(ch.query(0, 2)).isEqualTo(new ContractionHierarchy.Route(180, 4000));
+    assertThat(ch.query(1, 0)).isEqualTo(new ContractionHierarchy.Route(60, 1000));
+    assertThat(ch.query(0, 0)).isEqualTo(new ContractionHierarchy.Route(0, 0));
+
+    // last road is one-way
+    assertThat(ch.query(2, 0).isReachable()).isFalse();
+  }
+
+  @Test
+  void fastestRouteIsChosenOverShortest() {
+    // direct road is short but slow, the detour is longer but faster
+    RoadGraph graph =
+        new RoadGraph.Builder()
+            .addNode(1)
+            .addNode(2)
+            .addNode(3)
+            .addEdge(1, 3, 600, 5000, false)
+            .addEdge(1, 2, 100, 4000, false)
+            .addEdge(2, 3, 100, 4000, false)
+            .build();
+    var ch = ContractionHierarchy.build(graph);
+
+    assertThat(ch.query(0, 2)).isEqualTo(new ContractionHierarchy.Route(200, 8000));
+  }
+
+  @Test
+  void matchesDijkstraOnGrid() {
+    RoadGraph graph = grid(30, 30, 42L);
+    var ch = ContractionHierarchy.build(graph);
+
+    Random random = new Random(7L);
+    int[] sources = random.ints(20, 0, graph.getNodeCount()).toArray();
+    int[] targets = random.ints(50, 0, graph.getNodeCount()).toArray();
+
+    var matrix = ch.queryMatrix(sources, targets);
+    for (int s = 0; s < sources.length; s++) {
+      int[] expected = dijkstra(graph, sources[s]);
+      for (int t = 0; t < targets.length; t++) {
+        assertThat(matrix.get(s, t).getSeconds()).isEqualTo(expected[targets[t]]);
+        assertThat(ch.query(sources[s], targets[t]).getSeconds()).isEqualTo(expected[targets[t]]);
+      }
+    }
+  }
+
+  /** Queries share pooled search state, concurrent queries must not see each other's state. */
+  @Test
+  void concurrentQueries() {
+    RoadGraph graph = grid(30, 30, 5L);
+    var ch = ContractionHierarchy.build(graph);
+    int[] expected = dijkstra(graph, 0);
+
+    IntStream.range(0, 2_000)
+        .parallel()
+        .forEach(
+            i -> {
+              int target = i % graph.getNodeCount();
+              assertThat(ch.query(0, target).getSeconds()).isEqualTo(expected[target]);
+            });
+  }
+
+  /** A 1000 x 1000 matrix over a 6400 node grid, checked against Dijkstra for one source. */
+  @Test
+  void largeMatrix() {
+    RoadGraph graph = grid(80, 80, 3L);
+    var ch = ContractionHierarchy.build(graph);
+
+    Random random = new Random(11L);
+    int[] sources = random.ints(1000, 0, graph.getNodeCount()).toArray();
+    int[] targets = random.ints(1000, 0, graph.getNodeCount()).toArray();
+
+    var matrix = ch.queryMatrix(sources, targets);
+
+    int[] expected = dijkstra(graph, sources[0]);
+    for (int t = 0; t < targets.length; t++) {
+      assertThat(matrix.get(0, t).getSeconds()).isEqualTo(expected[targets[t]]);
+    }
+  }
+}
@@ -0,0 +1,93 @@
+package com.vanatta.helene.supplies.database.data.routing;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.vanatta.helene.supplies.database.data.DistanceApi;
+import com.vanatta.helene.supplies.database.data.SiteAddress;
+import java.nio.file.Path;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class RoadNetworkDistanceApiTest {
+
+  static final RoadNetworkDistanceApi distanceApi = load();
+
+  static RoadNetworkDistanceApi load() {
+    try {
+      var file = RoadNetworkDistanceApiTest.class.getResource("/routing/test-road-network.csv");
+      return new RoadNetworkDistanceApi(RoadGraph.load(Path.of(file.toURI())));
+    } catch (Exception e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  static SiteAddress address(String city) {
+    return SiteAddress.builder().address("1 Main St").city(city).state("NC").build();
+  }
+
+  @Test
+  void queryDistance() {
+    var result = distanceApi.queryDistance(address("Weaverville"), address("Marion"));
+
+    assertThat(result.isValid()).isTrue();
+    assertThat(result.getDuration()).isEqualTo(720L + 900L + 1200L);
+    // 72,000 meters
+    assertThat(result.getDistance()).isEqualTo(44.7);
+  }
+
+  @Test
+  void cityLookupIgnoresCaseAndWhitespace() {
+    var result = distanceApi.queryDistance(address(" asheville "), address("BLACK MOUNTAIN"));
+
+    assertThat(result.isValid()).isTrue();
+    assertThat(result.getDuration()).isEqualTo(900L);
+  }
+
+  @Test
+  void unknownCityIsInvalid() {
+    var result = distanceApi.queryDistance(address("Atlantis"), address("Marion"));
+
+    assertThat(result.isValid()).isFalse();
+  }
+
+  @Test
+  void unreachableIsInvalid() {
+    var result = distanceApi.queryDistance(address("Asheville"), address("Nowhere"));
+
+    assertThat(result.isValid()).isFalse();
+  }
+
+  @Test
+  void queryDistanceMatrix() {
+    List<List<DistanceApi.DistanceResponse>> results =
+        distanceApi.queryDistanceMatrix(
+            List.of(address("Asheville"), address("Atlantis")),
+            List.of(address("Asheville"), address("Marion"), address("Weaverville")));
+
+    assertThat(results).hasSize(2);
+    assertThat(results.get(0).stream().map(DistanceApi.DistanceResponse::getDuration))
+        .containsExactly(0L, 2100L, 720L);
+    assertThat(results.get(1)).allMatch(r -> !r.isValid());
+  }
+
+  /** Addresses that cannot be located are not routed, even an empty road network answers. */
+  @Test
+  void emptyRoadNetwork() {
+    var emptyApi = new RoadNetworkDistanceApi(RoadGraph.parse(""));
+
+    var results =
+        emptyApi.queryDistanceMatrix(
+            List.of(address("Asheville")), List.of(address("Marion"), address("Weaverville")));
+
+    assertThat(results).hasSize(1);
+    assertThat(results.getFirst()).hasSize(2).allMatch(r -> !r.isValid());
+  }
+
+  @Test
+  void invalidFileContents() {
+    assertThatThrownBy(() -> RoadGraph.parse("node,1\nedge,1,2,10,10"))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessageContaining("line: 2");
+  }
+}
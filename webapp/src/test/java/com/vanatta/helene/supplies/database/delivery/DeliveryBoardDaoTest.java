@@ -0,0 +1,146 @@
+package com.vanatta.helene.supplies.database.delivery;
+
+import static com.vanatta.helene.supplies.database.TestConfiguration.jdbiTest;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.vanatta.helene.supplies.database.TestConfiguration;
+import com.vanatta.helene.supplies.database.data.CountyAdjacency;
+import com.vanatta.helene.supplies.database.util.UnitOfWork;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+class DeliveryBoardDaoTest {
+
+  @BeforeAll
+  static void setup() {
+    TestConfiguration.setupDatabase();
+  }
+
+  private static final List<String> STATES = List.of("NC");
+
+  /** Test data deliveries 'XKCD' & 'BETA' are assigned to driver1 with status Creating Dispatch. */
+  private static DeliveryBoardDao.BoardFilter.BoardFilterBuilder driver1Filter() {
+    return DeliveryBoardDao.BoardFilter.builder()
+        .statuses(List.of(DeliveryStatus.CREATING_DISPATCH.getAirtableName()))
+        .driver("DRIVER1")
+        .states(STATES);
+  }
+
+  private static List<String> keys(List<DeliveryBoardDao.BoardRow> rows) {
+    return rows.stream().map(DeliveryBoardDao.BoardRow::getPublicUrlKey).toList();
+  }
+
+  @Test
+  void filterByStatusAndDriver() {
+    var rows = DeliveryBoardDao.fetchBoard(jdbiTest, driver1Filter().build(), null, 10);
+
+    // same date, newest delivery first
+    assertThat(keys(rows)).containsExactly("XKCD", "BETA");
+    assertThat(rows.getFirst().getTargetDeliveryDate()).isEqualTo("2024-12-13");
+    assertThat(rows.getFirst().getFromSiteName()).isEqualTo("site3");
+    assertThat(rows.getFirst().getToSiteName()).isEqualTo("site4");
+  }
+
+  /** Each page starts after the cursor of the previous page. */
+  @Test
+  void keysetPaging() {
+    var filter = driver1Filter().build();
+
+    var firstPage = DeliveryBoardDao.fetchBoard(jdbiTest, filter, null, 1);
+    assertThat(keys(firstPage)).containsExactly("XKCD");
+
+    var cursor = DeliveryBoardDao.Cursor.parse(firstPage.getLast().cursor().encode());
+    var secondPage = DeliveryBoardDao.fetchBoard(jdbiTest, filter, cursor, 1);
+    assertThat(keys(secondPage)).containsExactly("BETA");
+
+    var thirdPage = DeliveryBoardDao.fetchBoard(jdbiTest, filter, secondPage.getLast().cursor(), 1);
+    assertThat(thirdPage).isEmpty();
+  }
+
+  @Test
+  void filterByDateRange() {
+    var onDate =
+        driver1Filter()
+            .fromDate(LocalDate.of(2024, 12, 13))
+            .toDate(LocalDate.of(2024, 12, 13))
+            .build();
+    assertThat(keys(DeliveryBoardDao.fetchBoard(jdbiTest, onDate, null, 10)))
+        .containsExactly("XKCD", "BETA");
+
+    var afterDate = driver1Filter().fromDate(LocalDate.of(2024, 12, 14)).build();
+    assertThat(DeliveryBoardDao.fetchBoard(jdbiTest, afterDate, null, 10)).isEmpty();
+  }
+
+  @Test
+  void filterByCounty() {
+    var buncombe = driver1Filter().county(CountyAdjacency.County.parse("Buncombe, NC")).build();
+    assertThat(keys(DeliveryBoardDao.fetchBoard(jdbiTest, buncombe, null, 10)))
+        .containsExactly("XKCD", "BETA");
+
+    var watauga = driver1Filter().county(CountyAdjacency.County.parse("Watauga, NC")).build();
+    assertThat(DeliveryBoardDao.fetchBoard(jdbiTest, watauga, null, 10)).isEmpty();
+  }
+
+  /** Deliveries of other deployments are not listed. */
+  @Test
+  void filterByDeploymentStates() {
+    var otherStates = driver1Filter().states(List.of("XX")).build();
+    assertThat(DeliveryBoardDao.fetchBoard(jdbiTest, otherStates, null, 10)).isEmpty();
+  }
+
+  /** Deliveries without a target date are listed last. */
+  @Test
+  void deliveriesWithoutDateSortLast() {
+    var all = DeliveryBoardDao.BoardFilter.builder().states(STATES).build();
+    var rows = DeliveryBoardDao.fetchBoard(jdbiTest, all, null, 1000);
+
+    int noDateIndex = keys(rows).indexOf("ABCD");
+    assertThat(noDateIndex).isGreaterThan(keys(rows).indexOf("XKCD"));
+    assertThat(rows.get(noDateIndex).getSortDate()).isEqualTo(DeliveryBoardDao.NO_DATE);
+    assertThat(rows.subList(noDateIndex, rows.size()))
+        .allMatch(row -> row.getTargetDeliveryDate() == null);
+  }
+
+  @Test
+  void fetchBoardRow() {
+    var row = DeliveryBoardDao.fetchBoardRow(jdbiTest, "XKCD").orElseThrow();
+    assertThat(row.getDeliveryId()).isEqualTo(-2L);
+    assertThat(row.getFromState()).isEqualTo("NC");
+  }
+
+  /** Board listeners hear about a delivery change once it is committed, not when rolled back. */
+  @Test
+  void changeListenersAreCalledAfterCommit() {
+    List<String> changed = new ArrayList<>();
+    Consumer<String> listener = changed::add;
+    DeliveryChanges.addListener(listener);
+    try {
+      UnitOfWork.useTransaction(
+          jdbiTest,
+          () -> {
+            DeliveryDao.updateDeliveryStatus(jdbiTest, "BETA", DeliveryStatus.CREATING_DISPATCH);
+            assertThat(changed).isEmpty();
+          });
+      assertThat(changed).containsExactly("BETA");
+
+      changed.clear();
+      try {
+        UnitOfWork.useTransaction(
+            jdbiTest,
+            () -> {
+              DeliveryDao.updateDeliveryStatus(jdbiTest, "BETA", DeliveryStatus.CREATING_DISPATCH);
+              throw new IllegalStateException("rollback");
+            });
+      } catch (IllegalStateException expected) {
+        // expected
+      }
+      assertThat(changed).isEmpty();
+    } finally {
+      DeliveryChanges.removeListener(listener);
+    }
+  }
+}
@@ -6,6 +6,7 @@ import static org.assertj.core.api.Assertions.assertThat;
 
 import com.vanatta.helene.supplies.database.TestConfiguration;
 import com.vanatta.helene.supplies.database.data.GoogleDistanceApi;
+import com.vanatta.helene.supplies.database.twilio.sms.SmsDispatcher;
 import com.vanatta.helene.supplies.database.twilio.sms.SmsSender;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
@@ -21,12 +22,17 @@ class DeliveryConfirmationControllerTest {
     TestConfiguration.setupDatabase();
   }
 
+  NotificationStateMachine notificationStateMachine =
+      new NotificationStateMachine(new EtaEstimator(jdbiTest, GoogleDistanceApi.stubbed()));
+
+  SmsDispatcher smsDispatcher = new SmsDispatcher(jdbiTest, SmsSender.newDisabled(jdbiTest), 0);
+
+  DeliveryOutboxWorker outboxWorker =
+      new DeliveryOutboxWorker(
+          jdbiTest, smsDispatcher, SendDeliveryUpdate.disabled(), notificationStateMachine);
+
   DeliveryConfirmationController controller =
-      new DeliveryConfirmationController(
-          jdbiTest,
-          SmsSender.newDisabled(jdbiTest),
-          SendDeliveryUpdate.disabled(),
-          new NotificationStateMachine(GoogleDistanceApi.stubbed()));
+      new DeliveryConfirmationController(jdbiTest, outboxWorker, notificationStateMachine);
 
   @Test
   void dispatcherConfirm() {
@@ -40,6 +46,22 @@ class DeliveryConfirmationControllerTest {
     assertThat(delivery.getConfirmations()).isNotEmpty();
   }
 
+  /** Side effects of a confirmation are committed to the outbox and sent in the background. */
+  @Test
+  void dispatcherConfirm_addsOutboxEntries() {
+    Delivery delivery = DeliveryHelper.withNewDelivery();
+
+    controller.confirmRequest(delivery.getPublicKey(), delivery.getDispatchCode(), domain);
+
+    // Airtable status update, and SMS to driver, pickup & drop off site
+    assertThat(DeliveryOutboxDao.countPending(jdbiTest)).isEqualTo(1);
+    assertThat(smsDispatcher.metrics().getPending()).isEqualTo(3);
+    outboxWorker.processDue();
+    smsDispatcher.processDue();
+    assertThat(DeliveryOutboxDao.countPending(jdbiTest)).isZero();
+    assertThat(smsDispatcher.metrics().getPending()).isZero();
+  }
+
   @EnumSource(DeliveryConfirmation.ConfirmRole.class)
   @ParameterizedTest
   void confirm(DeliveryConfirmation.ConfirmRole role) {
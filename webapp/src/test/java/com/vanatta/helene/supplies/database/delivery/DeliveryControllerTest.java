@@ -31,6 +31,27 @@ class DeliveryControllerTest {
   DeliveryController deliveryController =
       new DeliveryController(jdbiTest, new GoogleMapWidget("dummy api key"));
 
+  /** Page views are cached, delivery updates through the DAOs invalidate the cached page. */
+  @Test
+  void pageIsCachedAndInvalidatedOnUpdate() {
+    Delivery delivery = DeliveryHelper.withNewDelivery();
+    long hits = DeliveryViewCache.metrics().getHits();
+
+    deliveryController.showDeliveryDetailPage(delivery.getPublicKey(), null);
+    deliveryController.showDeliveryDetailPage(delivery.getPublicKey(), null);
+    assertThat(DeliveryViewCache.metrics().getHits()).isEqualTo(hits + 1);
+
+    DeliveryDao.updateDeliveryStatus(
+        jdbiTest, delivery.getPublicKey(), DeliveryStatus.DELIVERY_CANCELLED);
+    var result = deliveryController.showDeliveryDetailPage(delivery.getPublicKey(), null);
+    assertThat(result.getModelMap().get(TemplateParams.deliveryStatus.name()))
+        .isEqualTo(DeliveryStatus.DELIVERY_CANCELLED.getAirtableName());
+
+    ConfirmationDao.dispatcherConfirm(jdbiTest, delivery.getPublicKey());
+    result = deliveryController.showDeliveryDetailPage(delivery.getPublicKey(), null);
+    assertThat(result.getModelMap().get(TemplateParams.driverConfirmed.name())).isNotNull();
+  }
+
   @Nested
   class RenderDetailPage {
 
@@ -5,6 +5,7 @@ import static org.assertj.core.api.Assertions.assertThat;
 
 import com.google.gson.Gson;
 import com.vanatta.helene.supplies.database.TestConfiguration;
+import com.vanatta.helene.supplies.database.supplies.site.details.SiteDetailDao;
 import java.util.List;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
@@ -80,6 +81,103 @@ class DeliveryDaoTest {
     assertThat(result).isNotNull();
   }
 
+  /** Each delivery of a site is returned with its own items and confirmations. */
+  @Test
+  void fetchDeliveriesBySiteId() {
+    long siteId = TestConfiguration.getSiteId(TestConfiguration.addSite());
+    long siteWssId = SiteDetailDao.lookupSiteById(jdbiTest, siteId).getWssId();
+    DeliveryUpdate base = new Gson().fromJson(upsertJson1, DeliveryUpdate.class);
+    DeliveryUpdate waterDelivery =
+        base.toBuilder()
+            .deliveryId(-300L)
+            .publicUrlKey("WTER")
+            .pickupSiteWssId(List.of(SITE1_WSS_ID))
+            .dropOffSiteWssId(List.of(siteWssId))
+            .itemListWssIds(List.of(WATER_WSS_ID))
+            .itemList(List.of("named item"))
+            .build();
+    DeliveryUpdate glovesDelivery =
+        base.toBuilder()
+            .deliveryId(-301L)
+            .publicUrlKey("GLVS")
+            .pickupSiteWssId(List.of(siteWssId))
+            .dropOffSiteWssId(List.of(SITE2_WSS_ID))
+            .itemListWssIds(List.of(GLOVES_WSS_ID))
+            .build();
+    DeliveryDao.upsert(jdbiTest, waterDelivery);
+    DeliveryDao.upsert(jdbiTest, glovesDelivery);
+    ConfirmationDao.dispatcherConfirm(jdbiTest, "GLVS");
+
+    var results = DeliveryDao.fetchDeliveriesBySiteId(jdbiTest, siteId);
+
+    assertThat(results).hasSize(2);
+    var water = results.stream().filter(d -> d.getPublicKey().equals("WTER")).findAny();
+    assertThat(water.orElseThrow().getItemList()).containsExactly("named item", "water");
+    assertThat(water.orElseThrow().getConfirmations()).isEmpty();
+    var gloves = results.stream().filter(d -> d.getPublicKey().equals("GLVS")).findAny();
+    assertThat(gloves.orElseThrow().getItemList()).containsExactly("gloves");
+    assertThat(gloves.orElseThrow().getConfirmations()).isNotEmpty();
+  }
+
+  /** Deliveries can be upserted as a batch, items are diffed against the stored items. */
+  @Test
+  void upsertAll() {
+    DeliveryUpdate base =
+        new Gson()
+            .fromJson(upsertJson1, DeliveryUpdate.class).toBuilder()
+                .pickupSiteWssId(List.of(SITE1_WSS_ID))
+                .dropOffSiteWssId(List.of(SITE2_WSS_ID))
+                .build();
+    DeliveryUpdate first =
+        base.toBuilder()
+            .deliveryId(-310L)
+            .publicUrlKey("BAT1")
+            .itemListWssIds(List.of(WATER_WSS_ID, GLOVES_WSS_ID))
+            .itemList(List.of("named item"))
+            .build();
+    DeliveryUpdate second =
+        base.toBuilder()
+            .deliveryId(-311L)
+            .publicUrlKey("BAT2")
+            .itemListWssIds(List.of(WATER_WSS_ID))
+            .build();
+
+    DeliveryDao.upsertAll(jdbiTest, List.of(first, second));
+
+    assertThat(DeliveryDao.fetchDeliveryByPublicKey(jdbiTest, "BAT1").orElseThrow().getItemList())
+        .containsExactly("gloves", "named item", "water");
+    assertThat(DeliveryDao.fetchDeliveryByPublicKey(jdbiTest, "BAT2").orElseThrow().getItemList())
+        .containsExactly("water");
+    long waterRowId = fetchDeliveryItemRowId(-310L, "water");
+
+    // remove gloves & the named item, water is not changed
+    DeliveryDao.upsertAll(
+        jdbiTest,
+        List.of(first.toBuilder().itemListWssIds(List.of(WATER_WSS_ID)).itemList(null).build()));
+
+    assertThat(DeliveryDao.fetchDeliveryByPublicKey(jdbiTest, "BAT1").orElseThrow().getItemList())
+        .containsExactly("water");
+    assertThat(fetchDeliveryItemRowId(-310L, "water")).isEqualTo(waterRowId);
+  }
+
+  private static long fetchDeliveryItemRowId(long airtableId, String itemName) {
+    return jdbiTest.withHandle(
+        handle ->
+            handle
+                .createQuery(
+                    """
+                    select di.id
+                    from delivery_item di
+                    join delivery d on d.id = di.delivery_id
+                    join item i on i.id = di.item_id
+                    where d.airtable_id = :airtableId and i.name = :itemName
+                    """)
+                .bind("airtableId", airtableId)
+                .bind("itemName", itemName)
+                .mapTo(Long.class)
+                .one());
+  }
+
   @Test
   void updateDeliveryStatus() {
     var delivery = DeliveryHelper.withNewDelivery();
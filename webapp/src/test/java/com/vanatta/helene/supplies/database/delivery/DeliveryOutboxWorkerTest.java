@@ -0,0 +1,154 @@
+package com.vanatta.helene.supplies.database.delivery;
+
+import static com.vanatta.helene.supplies.database.TestConfiguration.jdbiTest;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.sun.net.httpserver.HttpServer;
+import com.vanatta.helene.supplies.database.TestConfiguration;
+import com.vanatta.helene.supplies.database.data.GoogleDistanceApi;
+import com.vanatta.helene.supplies.database.twilio.sms.SmsDispatcher;
+import com.vanatta.helene.supplies.database.twilio.sms.SmsSender;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class DeliveryOutboxWorkerTest {
+
+  SmsDispatcher smsDispatcher = new SmsDispatcher(jdbiTest, SmsSender.newDisabled(jdbiTest), 0);
+
+  DeliveryOutboxWorker worker =
+      new DeliveryOutboxWorker(
+          jdbiTest,
+          smsDispatcher,
+          SendDeliveryUpdate.disabled(),
+          new NotificationStateMachine(new EtaEstimator(jdbiTest, GoogleDistanceApi.stubbed())));
+
+  @BeforeEach
+  void setup() {
+    TestConfiguration.setupDatabase();
+  }
+
+  /** SMS messages go to the SMS queue, other entries are sent by the outbox worker. */
+  @Test
+  void sendsPendingEntries() {
+    Delivery delivery = DeliveryHelper.withNewDelivery();
+    NotificationStateMachine.queueMessages(
+        jdbiTest,
+        List.of(
+            NotificationStateMachine.SmsMessage.builder().phone("5555555555").message("a").build(),
+            NotificationStateMachine.SmsMessage.builder()
+                .phone("5555555556")
+                .message("b")
+                .build()));
+    DeliveryOutboxDao.addAirtableUpdate(
+        jdbiTest, delivery.getPublicKey(), DeliveryStatus.CONFIRMING, "localhost");
+
+    assertThat(smsDispatcher.metrics().getPending()).isEqualTo(2);
+
+    worker.processDue();
+    smsDispatcher.processDue();
+
+    assertThat(DeliveryOutboxDao.countPending(jdbiTest)).isZero();
+    assertThat(worker.metrics().getSent()).isEqualTo(1);
+    assertThat(smsDispatcher.metrics().getPending()).isZero();
+    assertThat(smsDispatcher.metrics().getSent()).isEqualTo(2);
+  }
+
+  /** A failed entry stays pending and is not retried until its retry delay has passed. */
+  @Test
+  void failedEntryIsRetriedLater() {
+    DeliveryOutboxDao.addDepartedPickupSms(jdbiTest, "NONE", "localhost");
+
+    worker.processDue();
+    worker.processDue();
+
+    assertThat(DeliveryOutboxDao.countPending(jdbiTest)).isEqualTo(1);
+    assertThat(worker.metrics().getRetried()).isEqualTo(1);
+    String lastError =
+        jdbiTest.withHandle(
+            handle ->
+                handle
+                    .createQuery("select last_error from delivery_outbox")
+                    .mapTo(String.class)
+                    .one());
+    assertThat(lastError).contains("NONE");
+  }
+
+  /** An Airtable update rejected with a non-2xx response is not marked as sent. */
+  @Test
+  void rejectedAirtableUpdateIsRetried() throws IOException {
+    AtomicInteger requests = new AtomicInteger();
+    HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+    server.createContext(
+        "/",
+        exchange -> {
+          requests.incrementAndGet();
+          exchange.sendResponseHeaders(500, -1);
+          exchange.close();
+        });
+    server.start();
+    try {
+      String url = "http://127.0.0.1:" + server.getAddress().getPort() + "/update";
+      var airtableWorker =
+          new DeliveryOutboxWorker(
+              jdbiTest,
+              smsDispatcher,
+              new SendDeliveryUpdate(jdbiTest, true, url),
+              new NotificationStateMachine(
+                  new EtaEstimator(jdbiTest, GoogleDistanceApi.stubbed())));
+      Delivery delivery = DeliveryHelper.withConfirmedDelivery();
+      DeliveryOutboxDao.addAirtableUpdate(
+          jdbiTest, delivery.getPublicKey(), DeliveryStatus.CONFIRMED, "localhost");
+
+      airtableWorker.processDue();
+
+      assertThat(requests.get()).isEqualTo(1);
+      assertThat(airtableWorker.metrics().getSent()).isZero();
+      assertThat(airtableWorker.metrics().getRetried()).isEqualTo(1);
+      assertThat(DeliveryOutboxDao.countPending(jdbiTest)).isEqualTo(1);
+      boolean waitingForRetry =
+          jdbiTest.withHandle(
+              handle ->
+                  handle
+                      .createQuery(
+                          """
+                          select next_attempt_at > now() and last_error like '%500%'
+                          from delivery_outbox
+                          """)
+                      .mapTo(Boolean.class)
+                      .one());
+      assertThat(waitingForRetry).isTrue();
+    } finally {
+      server.stop(0);
+    }
+  }
+
+  /** Airtable updates of a delivery are sent in order, a newer update waits for a pending older. */
+  @Test
+  void airtableUpdatesAreSentInOrder() {
+    DeliveryOutboxDao.addAirtableUpdate(jdbiTest, "KEY1", DeliveryStatus.CONFIRMING, "localhost");
+    DeliveryOutboxDao.addAirtableUpdate(jdbiTest, "KEY1", DeliveryStatus.CONFIRMED, "localhost");
+    DeliveryOutboxDao.addAirtableUpdate(jdbiTest, "KEY2", DeliveryStatus.CONFIRMED, "localhost");
+
+    var claimed = DeliveryOutboxDao.claimDue(jdbiTest, 10, 60);
+
+    assertThat(claimed)
+        .extracting(DeliveryOutboxDao.OutboxEntry::getDeliveryPublicKey)
+        .containsExactly("KEY1", "KEY2");
+    assertThat(claimed.getFirst().getDeliveryStatus()).isEqualTo(DeliveryStatus.CONFIRMING);
+    // claimed entries are leased, they are not claimed again
+    assertThat(DeliveryOutboxDao.claimDue(jdbiTest, 10, 60)).isEmpty();
+  }
+
+  @Test
+  void retryDelay() {
+    assertThat(DeliveryOutboxWorker.retryDelaySeconds(1)).isEqualTo(30);
+    assertThat(DeliveryOutboxWorker.retryDelaySeconds(2)).isEqualTo(60);
+    assertThat(DeliveryOutboxWorker.retryDelaySeconds(3)).isEqualTo(120);
+    assertThat(DeliveryOutboxWorker.retryDelaySeconds(20))
+        .isEqualTo(DeliveryOutboxWorker.MAX_RETRY_DELAY_SECONDS);
+  }
+}
@@ -156,6 +156,20 @@ class DeliveryUpdateWebhookTest {
     deliveryUpdateWebhook.upsertDelivery(deliveryInput3);
   }
 
+  /** The webhook also accepts an array of deliveries, eg: from a bulk edit. */
+  @Test
+  void canUpsertArray() {
+    String secondDelivery =
+        deliveryInput3
+            .replace("\"deliveryId\":130", "\"deliveryId\":131")
+            .replace("\"publicUrlKey\":\"AAAA\"", "\"publicUrlKey\":\"AAAB\"");
+    deliveryUpdateWebhook.upsertDelivery("[" + deliveryInput3 + "," + secondDelivery + "]");
+
+    assertThat(DeliveryDao.fetchDeliveryByPublicKey(jdbiTest, "AAAA")).isPresent();
+    assertThat(DeliveryDao.fetchDeliveryByPublicKey(jdbiTest, "AAAB").orElseThrow().getItemList())
+        .containsExactly("AA Batteries");
+  }
+
   @Test
   void deliveryUpdateComplete() {
     var input =
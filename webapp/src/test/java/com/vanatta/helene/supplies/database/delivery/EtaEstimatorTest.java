@@ -0,0 +1,108 @@
+package com.vanatta.helene.supplies.database.delivery;
+
+import static com.vanatta.helene.supplies.database.TestConfiguration.jdbiTest;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.vanatta.helene.supplies.database.TestConfiguration;
+import com.vanatta.helene.supplies.database.data.GoogleDistanceApi;
+import com.vanatta.helene.supplies.database.data.SiteAddress;
+import com.vanatta.helene.supplies.database.util.DateTimeFormat;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class EtaEstimatorTest {
+
+  /** Counts the number of times the distance API is called, always returns 1 hour drive time. */
+  static class CountingDistanceApi extends GoogleDistanceApi {
+    final AtomicInteger calls = new AtomicInteger();
+
+    CountingDistanceApi() {
+      super("");
+    }
+
+    @Override
+    public DistanceResponse queryDistance(SiteAddress from, SiteAddress to) {
+      calls.incrementAndGet();
+      return DistanceResponse.builder().distance(60.0).duration(3600L).valid(true).build();
+    }
+  }
+
+  final CountingDistanceApi distanceApi = new CountingDistanceApi();
+  final EtaEstimator etaEstimator =
+      new EtaEstimator(jdbiTest, distanceApi, () -> LocalDateTime.of(2024, 11, 1, 10, 0));
+
+  static final Delivery delivery =
+      Delivery.builder()
+          .fromAddress("1 Main St")
+          .fromCity("Marion")
+          .fromState("NC")
+          .toAddress("2 Main St")
+          .toCity("Boone")
+          .toState("NC")
+          .build();
+
+  @BeforeEach
+  void setup() {
+    TestConfiguration.setupDatabase();
+  }
+
+  @Test
+  void usesDistanceApiWhenNoStoredDistance() {
+    assertThat(etaEstimator.driveSeconds(delivery)).contains(3600L);
+    assertThat(distanceApi.calls.get()).isEqualTo(1);
+  }
+
+  @Test
+  void distanceApiResultsAreCached() {
+    etaEstimator.driveSeconds(delivery);
+    etaEstimator.driveSeconds(delivery);
+    etaEstimator.estimateEta(delivery);
+
+    assertThat(distanceApi.calls.get()).isEqualTo(1);
+  }
+
+  @Test
+  void storedDistanceIsPreferred() {
+    long site1Id = TestConfiguration.getSiteId("site1");
+    long site2Id = TestConfiguration.getSiteId("site2");
+    jdbiTest.withHandle(
+        handle ->
+            handle
+                .createUpdate(
+                    """
+                    insert into site_distance_matrix(
+                      site1_id, site2_id, distance_miles, drive_time_seconds, valid)
+                    values (:site1Id, :site2Id, 10, 600, true)
+                    """)
+                .bind("site1Id", site1Id)
+                .bind("site2Id", site2Id)
+                .execute());
+
+    var withSites = delivery.toBuilder().fromSiteId(site1Id).toSiteId(site2Id).build();
+
+    assertThat(etaEstimator.driveSeconds(withSites)).contains(600L);
+    assertThat(etaEstimator.estimateEta(withSites)).isEqualTo(etaAt(10, 10));
+    assertThat(distanceApi.calls.get()).isZero();
+  }
+
+  @Test
+  void unknownDriveTime() {
+    var estimator =
+        new EtaEstimator(
+            jdbiTest,
+            new GoogleDistanceApi("") {
+              @Override
+              public DistanceResponse queryDistance(SiteAddress from, SiteAddress to) {
+                return DistanceResponse.builder().valid(false).build();
+              }
+            });
+
+    assertThat(estimator.estimateEta(delivery)).isEqualTo("unknown");
+  }
+
+  private static String etaAt(int hour, int minute) {
+    return DateTimeFormat.formatTime(LocalDateTime.of(2024, 11, 1, hour, minute));
+  }
+}
@@ -2,21 +2,25 @@ package com.vanatta.helene.supplies.database.delivery;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+import com.vanatta.helene.supplies.database.TestConfiguration;
 import com.vanatta.helene.supplies.database.data.GoogleDistanceApi;
 import com.vanatta.helene.supplies.database.data.SiteAddress;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.junit.jupiter.api.Test;
 
 class NotificationStateMachineTest {
   final String domain = "WNC-supply-sites.com";
   NotificationStateMachine notificationStateMachine =
       new NotificationStateMachine(
-          new GoogleDistanceApi("") {
-            @Override
-            public GoogleDistanceResponse queryDistance(SiteAddress from, SiteAddress to) {
-              return GoogleDistanceResponse.builder().distance(10.0).duration(3600L).build();
-            }
-          });
+          new EtaEstimator(
+              TestConfiguration.jdbiTest,
+              new GoogleDistanceApi("") {
+                @Override
+                public DistanceResponse queryDistance(SiteAddress from, SiteAddress to) {
+                  return DistanceResponse.builder().distance(10.0).duration(3600L).build();
+                }
+              }));
 
   static final String dispatcherNumber = "0000";
   static final String driverNumber = "1111";
@@ -180,8 +184,12 @@ class NotificationStateMachineTest {
 
   @Test
   void driverEnRoute() {
-    var results = notificationStateMachine.driverEnRoute(withPendingConfirmations, domain);
+    var delivery = withPendingConfirmations.toBuilder().publicKey("XKCD").build();
+    var results = notificationStateMachine.driverEnRoute(delivery, domain);
     assertPhoneNumbers(results, dispatcherNumber, pickupNumber);
+    assertThat(results)
+        .allMatch(m -> m.getDeliveryKey().equals("XKCD"))
+        .allMatch(m -> m.getTopic() == NotificationStateMachine.Topic.DRIVER_STATUS);
   }
 
   @Test
@@ -206,6 +214,25 @@ class NotificationStateMachineTest {
     assertPhoneNumbers(results, dispatcherNumber, dropOffNumber);
   }
 
+  /** The ETA is estimated once and sent to every recipient. */
+  @Test
+  void driverLeavingPickupEstimatesEtaOnce() {
+    AtomicInteger estimates = new AtomicInteger();
+    var stateMachine =
+        new NotificationStateMachine(
+            new EtaEstimator(TestConfiguration.jdbiTest, GoogleDistanceApi.stubbed()) {
+              @Override
+              String estimateEta(Delivery delivery) {
+                return "ETA-" + estimates.incrementAndGet();
+              }
+            });
+
+    var results = stateMachine.driverLeavingPickup(withPendingConfirmations, domain);
+
+    assertThat(estimates.get()).isEqualTo(1);
+    assertThat(results).hasSize(2).allMatch(m -> m.getMessage().contains("ETA: ETA-1"));
+  }
+
   @Test
   void driverArrivedToDropOff() {
     var results = NotificationStateMachine.driverArrivedToDropOff(withPendingConfirmations);
@@ -4,6 +4,7 @@ import static com.vanatta.helene.supplies.database.TestConfiguration.jdbiTest;
 import static org.assertj.core.api.Assertions.assertThat;
 
 import com.vanatta.helene.supplies.database.TestConfiguration;
+import com.vanatta.helene.supplies.database.auth.PrincipalCache;
 import com.vanatta.helene.supplies.database.util.PhoneNumberUtil;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
@@ -15,7 +16,8 @@ class DriverUpdatesWebhookTest {
     TestConfiguration.setupDatabase();
   }
 
-  private final DriverUpdatesWebhook driverUpdatesWebhook = new DriverUpdatesWebhook(jdbiTest);
+  private final DriverUpdatesWebhook driverUpdatesWebhook =
+      new DriverUpdatesWebhook(jdbiTest, new PrincipalCache(jdbiTest));
 
   static final String phoneNumber = "(919) 111-1111";
 
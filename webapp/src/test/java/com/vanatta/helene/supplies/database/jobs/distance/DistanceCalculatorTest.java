@@ -25,8 +25,8 @@ class DistanceCalculatorTest {
             TestConfiguration.jdbiTest,
             new GoogleDistanceApi("") {
               @Override
-              public GoogleDistanceResponse queryDistance(SiteAddress from, SiteAddress to) {
-                return GoogleDistanceResponse.builder()
+              public DistanceResponse queryDistance(SiteAddress from, SiteAddress to) {
+                return DistanceResponse.builder()
                     .distance(100.1)
                     .duration(360L)
                     .valid(true)
@@ -55,8 +55,8 @@ class DistanceCalculatorTest {
             TestConfiguration.jdbiTest,
             new GoogleDistanceApi("") {
               @Override
-              public GoogleDistanceResponse queryDistance(SiteAddress from, SiteAddress to) {
-                return GoogleDistanceResponse.builder().valid(false).build();
+              public DistanceResponse queryDistance(SiteAddress from, SiteAddress to) {
+                return DistanceResponse.builder().valid(false).build();
               }
             },
             true,
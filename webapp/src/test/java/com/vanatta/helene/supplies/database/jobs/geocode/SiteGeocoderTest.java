@@ -0,0 +1,77 @@
+package com.vanatta.helene.supplies.database.jobs.geocode;
+
+import static com.vanatta.helene.supplies.database.TestConfiguration.jdbiTest;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.vanatta.helene.supplies.database.TestConfiguration;
+import com.vanatta.helene.supplies.database.data.GoogleGeocodeApi;
+import com.vanatta.helene.supplies.database.data.SiteAddress;
+import java.math.BigDecimal;
+import java.util.Optional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class SiteGeocoderTest {
+
+  @BeforeEach
+  void setup() {
+    TestConfiguration.setupDatabase();
+  }
+
+  static Optional<BigDecimal> lookupLatitude(long siteId) {
+    return jdbiTest.withHandle(
+        handle ->
+            handle
+                .createQuery("select latitude from site where id = :siteId")
+                .bind("siteId", siteId)
+                .mapTo(BigDecimal.class)
+                .findOne());
+  }
+
+  @Test
+  void geocodeSites() {
+    var geocoder =
+        new SiteGeocoder(
+            jdbiTest,
+            new GoogleGeocodeApi("") {
+              @Override
+              public Optional<GeoLocation> geocode(SiteAddress address) {
+                return Optional.of(new GeoLocation(35.5, -82.5));
+              }
+            },
+            true,
+            0);
+    geocoder.geocodeSites();
+
+    long site1Id = TestConfiguration.getSiteId("site1");
+    assertThat(lookupLatitude(site1Id)).contains(new BigDecimal("35.500000"));
+    assertThat(SiteLocationDao.fetchSitesWithoutLocation(jdbiTest)).isEmpty();
+
+    // clearing the location causes it to be computed again
+    SiteLocationDao.clearLocation(jdbiTest, site1Id);
+    assertThat(SiteLocationDao.fetchSitesWithoutLocation(jdbiTest))
+        .extracting(SiteLocationDao.SiteAddressData::getSiteId)
+        .containsExactly(site1Id);
+  }
+
+  @Test
+  void addressNotFound() {
+    var geocoder =
+        new SiteGeocoder(
+            jdbiTest,
+            new GoogleGeocodeApi("") {
+              @Override
+              public Optional<GeoLocation> geocode(SiteAddress address) {
+                return Optional.empty();
+              }
+            },
+            true,
+            0);
+    geocoder.geocodeSites();
+
+    long site1Id = TestConfiguration.getSiteId("site1");
+    assertThat(lookupLatitude(site1Id).isEmpty() || lookupLatitude(site1Id).get() == null).isTrue();
+    // invalid addresses are not retried
+    assertThat(SiteLocationDao.fetchSitesWithoutLocation(jdbiTest)).isEmpty();
+  }
+}
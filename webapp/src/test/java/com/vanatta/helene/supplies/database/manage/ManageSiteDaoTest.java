@@ -166,6 +166,32 @@ class ManageSiteDaoTest {
     assertThat(oldValueResult).isEqualTo(String.format("%s,%s", oldCounty, oldState));
   }
 
+  /** Site state is a copy of the county state, it follows county changes. */
+  @Test
+  void siteStateFollowsCounty() {
+    long siteId = TestConfiguration.getSiteId(TestConfiguration.addSite());
+    assertThat(fetchSiteState(siteId)).isEqualTo("NC");
+    assertThat(
+            ManageSiteDao.fetchSiteList(TestConfiguration.jdbiTest, List.of(siteId), List.of("NC")))
+        .hasSize(1);
+
+    ManageSiteDao.updateCounty(TestConfiguration.jdbiTest, siteId, "Los Angeles", "CA");
+
+    assertThat(fetchSiteState(siteId)).isEqualTo("CA");
+    assertThat(
+            ManageSiteDao.fetchSiteList(TestConfiguration.jdbiTest, List.of(siteId), List.of("NC")))
+        .isEmpty();
+  }
+
+  private static String fetchSiteState(long siteId) {
+    return TestConfiguration.jdbiTest.withHandle(
+        h ->
+            h.createQuery("select state from site where id = :id")
+                .bind("id", siteId)
+                .mapTo(String.class)
+                .one());
+  }
+
   @Test
   void updatingFieldValuesAddToAuditLog() {
     int startingCount = auditLogCount();
@@ -3,6 +3,7 @@ package com.vanatta.helene.supplies.database.manage.add.site;
 import static org.assertj.core.api.Assertions.assertThat;
 
 import com.vanatta.helene.supplies.database.TestConfiguration;
+import com.vanatta.helene.supplies.database.auth.PrincipalCache;
 import com.vanatta.helene.supplies.database.data.SiteType;
 import com.vanatta.helene.supplies.database.export.update.SendSiteUpdate;
 import com.vanatta.helene.supplies.database.supplies.site.details.SiteDetailDao;
@@ -15,7 +16,10 @@ import org.springframework.http.ResponseEntity;
 class AddSiteControllerTest {
 
   AddSiteController addSiteController =
-      new AddSiteController(TestConfiguration.jdbiTest, SendSiteUpdate.newDisabled());
+      new AddSiteController(
+          TestConfiguration.jdbiTest,
+          SendSiteUpdate.newDisabled(),
+          new PrincipalCache(TestConfiguration.jdbiTest));
 
   @Test
   void addSite() {
@@ -3,6 +3,7 @@ package com.vanatta.helene.supplies.database.manage.contact;
 import static org.assertj.core.api.Assertions.assertThat;
 
 import com.vanatta.helene.supplies.database.TestConfiguration;
+import com.vanatta.helene.supplies.database.auth.PrincipalCache;
 import java.util.List;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.params.ParameterizedTest;
@@ -10,7 +11,8 @@ import org.junit.jupiter.params.provider.EnumSource;
 
 class SiteContactControllerTest {
   SiteContactController siteContactController =
-      new SiteContactController(TestConfiguration.jdbiTest);
+      new SiteContactController(
+          TestConfiguration.jdbiTest, new PrincipalCache(TestConfiguration.jdbiTest));
 
   @BeforeAll
   static void setupDb() {
@@ -4,6 +4,7 @@ import static org.assertj.core.api.Assertions.assertThat;
 
 import com.vanatta.helene.supplies.database.TestConfiguration;
 import com.vanatta.helene.supplies.database.auth.CookieAuthenticator;
+import com.vanatta.helene.supplies.database.data.CountyAdjacency;
 import com.vanatta.helene.supplies.database.data.ItemStatus;
 import com.vanatta.helene.supplies.database.data.SiteType;
 import com.vanatta.helene.supplies.database.delivery.ConfirmationDao;
@@ -26,7 +27,8 @@ class SuppliesControllerTest {
   static final Jdbi jdbiTest = TestConfiguration.jdbiTest;
 
   private final SuppliesController suppliesController =
-      new SuppliesController(jdbiTest, new CookieAuthenticator(jdbiTest, false));
+      new SuppliesController(
+          jdbiTest, new CookieAuthenticator(jdbiTest, false), new CountyAdjacency());
 
   @BeforeAll
   static void clearDatabase() {
@@ -161,6 +163,30 @@ class SuppliesControllerTest {
         .contains("site2", "site4");
   }
 
+  /** Haywood county has no sites, its neighbor Buncombe does. */
+  @Test
+  void requestByCountyWithNearbyCounties() {
+    var result =
+        suppliesController.getSuppliesData(
+            SiteSupplyRequest.builder()
+                .counties(List.of("Haywood, NC"))
+                .nearbyCountyHops(1)
+                .build(),
+            List.of("NC"));
+
+    assertThat(
+            result.getResults().stream().map(SiteSupplyResponse.SiteSupplyData::getSite).toList())
+        .contains("site2", "site4");
+    assertThat(result.getNearbyCounties()).contains("Buncombe, NC").doesNotContain("Haywood, NC");
+
+    // no widening unless requested
+    result =
+        suppliesController.getSuppliesData(
+            SiteSupplyRequest.builder().counties(List.of("Haywood, NC")).build(), List.of("NC"));
+    assertThat(result.getResultCount()).isZero();
+    assertThat(result.getNearbyCounties()).isEmpty();
+  }
+
   @Test
   void requestByItemStatus() {
     for (ItemStatus status : ItemStatus.values()) {
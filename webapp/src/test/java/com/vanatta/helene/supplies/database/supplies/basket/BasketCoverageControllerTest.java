@@ -0,0 +1,103 @@
+package com.vanatta.helene.supplies.database.supplies.basket;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.vanatta.helene.supplies.database.TestConfiguration;
+import com.vanatta.helene.supplies.database.auth.CookieAuthenticator;
+import com.vanatta.helene.supplies.database.data.ItemStatus;
+import com.vanatta.helene.supplies.database.manage.ManageSiteDao;
+import com.vanatta.helene.supplies.database.supplies.basket.BasketCoverageResponse.SiteCoverage;
+import java.util.List;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+class BasketCoverageControllerTest {
+
+  static final BasketCoverageController controller =
+      new BasketCoverageController(
+          TestConfiguration.jdbiTest, new CookieAuthenticator(TestConfiguration.jdbiTest, false));
+
+  static long destinationId;
+  static long supplier1Id;
+  static long supplier2Id;
+  static long notDistributingId;
+  static String item1;
+  static String item2;
+  static String item3;
+
+  @BeforeAll
+  static void setup() {
+    TestConfiguration.setupDatabase();
+    destinationId = TestConfiguration.getSiteId(TestConfiguration.addSite("destination"));
+    supplier1Id = TestConfiguration.getSiteId(TestConfiguration.addSite("supplier1"));
+    supplier2Id = TestConfiguration.getSiteId(TestConfiguration.addSite("supplier2"));
+
+    notDistributingId = TestConfiguration.getSiteId(TestConfiguration.addSite("notDistributing"));
+    ManageSiteDao.updateSiteDistributingDonationsFlag(
+        TestConfiguration.jdbiTest, notDistributingId, false);
+
+    item1 = TestConfiguration.addItem("basket").getName();
+    item2 = TestConfiguration.addItem("basket").getName();
+    item3 = TestConfiguration.addItem("basket").getName();
+
+    TestConfiguration.addItemToSite(destinationId, ItemStatus.URGENTLY_NEEDED, item3, -1001);
+    TestConfiguration.addItemToSite(supplier1Id, ItemStatus.AVAILABLE, item1, -1002);
+    TestConfiguration.addItemToSite(supplier1Id, ItemStatus.OVERSUPPLY, item2, -1003);
+    TestConfiguration.addItemToSite(supplier2Id, ItemStatus.AVAILABLE, item3, -1004);
+    // needed items are not something a site can supply
+    TestConfiguration.addItemToSite(supplier2Id, ItemStatus.NEEDED, item1, -1005);
+    // sites that do not distribute supplies are not suppliers
+    TestConfiguration.addItemToSite(notDistributingId, ItemStatus.AVAILABLE, item1, -1006);
+  }
+
+  @Test
+  void basketCoverage() {
+    var request =
+        BasketCoverageRequest.builder()
+            .siteId(destinationId)
+            .items(List.of(item1, item2, item3, "not an item"))
+            .build();
+
+    var result = controller.basketCoverage(request, List.of("NC"), true);
+
+    assertThat(result.getBasketSize()).isEqualTo(4);
+    assertThat(result.getUnavailableItems()).containsExactly("not an item");
+    assertThat(result.getSites().stream().map(SiteCoverage::getSiteId))
+        .containsExactly(supplier1Id, supplier2Id);
+    assertThat(result.getSites().get(1).getUrgentItemCount()).isEqualTo(1);
+    assertThat(result.getCombinations()).hasSize(1);
+    assertThat(result.getCombinations().getFirst().getItemCount()).isEqualTo(3);
+  }
+
+  @Test
+  void sitesNotDistributingAreExcluded() {
+    var request =
+        BasketCoverageRequest.builder().siteId(destinationId).items(List.of(item1)).build();
+
+    var result = controller.basketCoverage(request, List.of("NC"), false);
+
+    assertThat(result.getSites().stream().map(SiteCoverage::getSiteId))
+        .containsExactly(supplier1Id);
+  }
+
+  @Test
+  void otherStatesAreExcluded() {
+    var request =
+        BasketCoverageRequest.builder().siteId(destinationId).items(List.of(item1)).build();
+
+    var result = controller.basketCoverage(request, List.of("CA"), true);
+
+    assertThat(result.getSites()).isEmpty();
+    assertThat(result.getUnavailableItems()).containsExactly(item1);
+  }
+
+  @Test
+  void invalidSite() {
+    var request = BasketCoverageRequest.builder().siteId(-1L).items(List.of(item1)).build();
+
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> controller.basketCoverage(request, List.of("NC"), true));
+  }
+}
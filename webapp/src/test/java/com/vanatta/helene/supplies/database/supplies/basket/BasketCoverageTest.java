@@ -0,0 +1,154 @@
+package com.vanatta.helene.supplies.database.supplies.basket;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.vanatta.helene.supplies.database.supplies.basket.BasketCoverageResponse.SiteCombination;
+import com.vanatta.helene.supplies.database.supplies.basket.BasketCoverageResponse.SiteCoverage;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+
+class BasketCoverageTest {
+
+  static List<BasketCoverageDao.SupplierItemResult> site(
+      long id, Double distanceMiles, String... items) {
+    List<BasketCoverageDao.SupplierItemResult> rows = new ArrayList<>();
+    for (String item : items) {
+      var row = new BasketCoverageDao.SupplierItemResult();
+      row.setSiteId(id);
+      row.setSiteName("site" + id);
+      row.setItemName(item);
+      row.setDistanceMiles(distanceMiles);
+      row.setDriveTimeSeconds(distanceMiles == null ? null : (int) (distanceMiles * 60));
+      rows.add(row);
+    }
+    return rows;
+  }
+
+  @SafeVarargs
+  static List<BasketCoverageDao.SupplierItemResult> rows(
+      List<BasketCoverageDao.SupplierItemResult>... sites) {
+    List<BasketCoverageDao.SupplierItemResult> rows = new ArrayList<>();
+    for (var site : sites) {
+      rows.addAll(site);
+    }
+    return rows;
+  }
+
+  static final List<String> basket = List.of("water", "soap", "gloves", "heater", "batteries");
+
+  @Test
+  void singleSitesRankedByCoverageThenDistance() {
+    var coverage =
+        new BasketCoverage(
+            basket,
+            Set.of(),
+            rows(
+                site(1, 10.0, "water"),
+                site(2, 30.0, "water", "soap", "gloves"),
+                site(3, 5.0, "water", "soap", "gloves"),
+                site(4, null, "heater", "batteries")));
+
+    var result = coverage.compute(3, 10);
+
+    assertThat(result.getBasketSize()).isEqualTo(5);
+    assertThat(result.getUnavailableItems()).isEmpty();
+    assertThat(result.getSites().stream().map(SiteCoverage::getSiteId))
+        .containsExactly(3L, 2L, 4L, 1L);
+    assertThat(result.getSites().getFirst().getItems()).containsExactly("water", "soap", "gloves");
+  }
+
+  @Test
+  void urgentItemsCountDouble() {
+    var coverage =
+        new BasketCoverage(
+            basket,
+            Set.of("Heater"),
+            rows(site(1, 10.0, "water"), site(2, 30.0, "heater"), site(3, 5.0, "soap")));
+
+    var result = coverage.compute(3, 10);
+
+    assertThat(result.getSites().getFirst().getSiteId()).isEqualTo(2L);
+    assertThat(result.getSites().getFirst().getUrgentItemCount()).isEqualTo(1);
+  }
+
+  @Test
+  void greedyCombinationCoversBasket() {
+    var coverage =
+        new BasketCoverage(
+            basket,
+            Set.of(),
+            rows(
+                site(1, 10.0, "water", "soap"),
+                site(2, 20.0, "gloves", "heater"),
+                site(3, 30.0, "batteries"),
+                site(4, 5.0, "water")));
+
+    var result = coverage.compute(3, 10);
+
+    SiteCombination best = result.getCombinations().getFirst();
+    assertThat(best.getSites().stream().map(SiteCoverage::getSiteId))
+        .containsExactlyInAnyOrder(1L, 2L, 3L);
+    assertThat(best.getItemCount()).isEqualTo(5);
+    assertThat(best.getMissingItems()).isEmpty();
+    assertThat(best.getTotalDistanceMiles()).isEqualTo(60.0);
+  }
+
+  @Test
+  void combinationSizeIsLimited() {
+    var coverage =
+        new BasketCoverage(
+            basket,
+            Set.of(),
+            rows(
+                site(1, 10.0, "water", "soap"),
+                site(2, 20.0, "gloves", "heater"),
+                site(3, 30.0, "batteries")));
+
+    var result = coverage.compute(2, 10);
+
+    assertThat(result.getCombinations()).allMatch(c -> c.getSites().size() <= 2);
+    assertThat(result.getCombinations().getFirst().getMissingItems()).hasSize(1);
+  }
+
+  @Test
+  void unavailableItemsAndDuplicates() {
+    var coverage =
+        new BasketCoverage(
+            List.of("water", "WATER", "coffee"), Set.of(), rows(site(1, 10.0, "Water")));
+
+    var result = coverage.compute(3, 10);
+
+    assertThat(result.getBasketSize()).isEqualTo(2);
+    assertThat(result.getUnavailableItems()).containsExactly("coffee");
+    assertThat(result.getSites()).hasSize(1);
+    // single site already covers everything that is available, no combinations
+    assertThat(result.getCombinations()).isEmpty();
+  }
+
+  @Test
+  void largeBasket() {
+    List<String> bigBasket = new ArrayList<>();
+    for (int i = 0; i < 50; i++) {
+      bigBasket.add("item" + i);
+    }
+    List<BasketCoverageDao.SupplierItemResult> rows = new ArrayList<>();
+    for (int siteId = 0; siteId < 300; siteId++) {
+      List<String> items = new ArrayList<>();
+      for (int i = 0; i < 50; i++) {
+        if ((i * 7 + siteId) % 11 == 0) {
+          items.add("item" + i);
+        }
+      }
+      rows.addAll(site(siteId, (double) siteId, items.toArray(new String[0])));
+    }
+
+    var result = new BasketCoverage(bigBasket, Set.of("item1"), rows).compute(5, 25);
+
+    assertThat(result.getSites()).hasSize(25);
+    assertThat(result.getCombinations()).isNotEmpty();
+    assertThat(result.getCombinations().getFirst().getItemCount())
+        .isGreaterThan(result.getSites().getFirst().getItemCount());
+  }
+}
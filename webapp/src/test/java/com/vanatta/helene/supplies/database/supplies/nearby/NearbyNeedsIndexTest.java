@@ -0,0 +1,151 @@
+package com.vanatta.helene.supplies.database.supplies.nearby;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.vanatta.helene.supplies.database.TestConfiguration;
+import com.vanatta.helene.supplies.database.supplies.nearby.NearbyNeedsResponse.NearbySite;
+import com.vanatta.helene.supplies.database.supplies.nearby.NearbyNeedsResponse.NeededItem;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+class NearbyNeedsIndexTest {
+
+  // Asheville, NC
+  static final double ASHEVILLE_LAT = 35.5951;
+  static final double ASHEVILLE_LON = -82.5515;
+
+  static final List<NeededItem> items =
+      List.of(NeededItem.builder().name("water").displayClass("urgent").build());
+
+  static NearbyNeedsIndex.IndexedSite site(long id, String name, double lat, double lon) {
+    return NearbyNeedsIndex.IndexedSite.builder()
+        .id(id)
+        .site(name)
+        .state("NC")
+        .latitude(lat)
+        .longitude(lon)
+        .publiclyVisible(true)
+        .givingDonations(true)
+        .neededItems(items)
+        .build();
+  }
+
+  final NearbyNeedsIndex index = new NearbyNeedsIndex(TestConfiguration.jdbiTest);
+
+  @Test
+  void sitesAreFilteredByRadiusAndSortedByDistance() {
+    index.load(
+        List.of(
+            // Marion, ~30 miles east
+            site(1, "marion", 35.6840, -82.0093),
+            // Weaverville, ~9 miles north
+            site(2, "weaverville", 35.6971, -82.5607),
+            // Black Mountain, ~14 miles east
+            site(3, "black mountain", 35.6179, -82.3212),
+            // Boone, ~65 miles north east
+            site(4, "boone", 36.2168, -81.6746)));
+
+    var results = index.search(ASHEVILLE_LAT, ASHEVILLE_LON, 20, List.of("NC"), false);
+
+    assertThat(results.stream().map(NearbySite::getSite))
+        .containsExactly("weaverville", "black mountain");
+    assertThat(results.getFirst().getDistanceMiles()).isBetween(6.0, 8.0);
+  }
+
+  @Test
+  void stateAndVisibilityFilters() {
+    index.load(
+        List.of(
+            NearbyNeedsIndex.IndexedSite.builder()
+                .id(1)
+                .site("tennessee")
+                .state("TN")
+                .latitude(ASHEVILLE_LAT)
+                .longitude(ASHEVILLE_LON)
+                .publiclyVisible(true)
+                .givingDonations(true)
+                .neededItems(items)
+                .build(),
+            NearbyNeedsIndex.IndexedSite.builder()
+                .id(2)
+                .site("not public")
+                .state("NC")
+                .latitude(ASHEVILLE_LAT)
+                .longitude(ASHEVILLE_LON)
+                .publiclyVisible(false)
+                .givingDonations(true)
+                .neededItems(items)
+                .build(),
+            NearbyNeedsIndex.IndexedSite.builder()
+                .id(3)
+                .site("not giving")
+                .state("NC")
+                .latitude(ASHEVILLE_LAT)
+                .longitude(ASHEVILLE_LON)
+                .publiclyVisible(true)
+                .givingDonations(false)
+                .neededItems(items)
+                .build()));
+
+    assertThat(index.search(ASHEVILLE_LAT, ASHEVILLE_LON, 5, List.of("NC"), false)).isEmpty();
+    assertThat(
+            index.search(ASHEVILLE_LAT, ASHEVILLE_LON, 5, List.of("NC"), true).stream()
+                .map(NearbySite::getSite))
+        .containsExactlyInAnyOrder("not public", "not giving");
+    assertThat(
+            index.search(ASHEVILLE_LAT, ASHEVILLE_LON, 5, List.of("TN"), false).stream()
+                .map(NearbySite::getSite))
+        .containsExactly("tennessee");
+  }
+
+  /** Grid search should find exactly what a brute force scan of all sites finds. */
+  @Test
+  void matchesBruteForce() {
+    Random random = new Random(1L);
+    List<NearbyNeedsIndex.IndexedSite> sites = new ArrayList<>();
+    for (int i = 0; i < 5000; i++) {
+      sites.add(
+          site(i, "site" + i, 34.5 + random.nextDouble() * 2.5, -84.5 + random.nextDouble() * 4.0));
+    }
+    index.load(sites);
+
+    for (int q = 0; q < 200; q++) {
+      double lat = 34.5 + random.nextDouble() * 2.5;
+      double lon = -84.5 + random.nextDouble() * 4.0;
+      double radius = 1 + random.nextDouble() * 40;
+
+      long expected =
+          sites.stream()
+              .filter(
+                  s -> NearbyNeedsIndex.distanceMiles(lat, lon, s.latitude, s.longitude) <= radius)
+              .count();
+      assertThat(index.search(lat, lon, radius, List.of("NC"), false)).hasSize((int) expected);
+    }
+  }
+
+  /** Loads the index from the database, site1 in the test data has an urgently needed item. */
+  @Test
+  void refreshFromDatabase() {
+    TestConfiguration.setupDatabase();
+    long site1Id = TestConfiguration.getSiteId("site1");
+    TestConfiguration.jdbiTest.withHandle(
+        handle ->
+            handle
+                .createUpdate(
+                    "update site set latitude = :lat, longitude = :lon, location_valid = true where id = :id")
+                .bind("lat", ASHEVILLE_LAT)
+                .bind("lon", ASHEVILLE_LON)
+                .bind("id", site1Id)
+                .execute());
+
+    index.refresh();
+
+    var results = index.search(ASHEVILLE_LAT, ASHEVILLE_LON, 1, List.of("NC"), false);
+    assertThat(results).hasSize(1);
+    assertThat(results.getFirst().getId()).isEqualTo(site1Id);
+    assertThat(results.getFirst().getNeededItems().stream().map(NeededItem::getName))
+        .containsExactly("new clothes");
+  }
+}
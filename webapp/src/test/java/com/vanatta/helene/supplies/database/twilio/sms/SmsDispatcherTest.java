@@ -0,0 +1,218 @@
+package com.vanatta.helene.supplies.database.twilio.sms;
+
+import static com.vanatta.helene.supplies.database.TestConfiguration.jdbiTest;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.vanatta.helene.supplies.database.TestConfiguration;
+import com.vanatta.helene.supplies.database.audit.AuditLogWriter;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class SmsDispatcherTest {
+
+  TwilioStub twilio;
+  SmsDispatcher dispatcher;
+
+  @BeforeEach
+  void setup() throws Exception {
+    TestConfiguration.setupDatabase();
+    twilio = new TwilioStub();
+    dispatcher =
+        new SmsDispatcher(jdbiTest, twilio.newSmsSender(new AuditLogWriter(jdbiTest), 100), 0);
+  }
+
+  @AfterEach
+  void tearDown() {
+    twilio.close();
+  }
+
+  private static String lastError() {
+    return jdbiTest.withHandle(
+        handle -> handle.createQuery("select last_error from sms_queue").mapTo(String.class).one());
+  }
+
+  @Test
+  void sendsQueuedMessages() {
+    SmsQueueDao.enqueueAll(
+        jdbiTest,
+        List.of(
+            SmsQueueDao.OutgoingSms.builder().phone("5555555555").message("first").build(),
+            SmsQueueDao.OutgoingSms.builder().phone("5555555556").message("second").build()));
+
+    dispatcher.processDue();
+
+    assertThat(twilio.requests()).extracting(r -> r.get("Body")).containsExactly("first", "second");
+    assertThat(dispatcher.metrics().getPending()).isZero();
+    assertThat(dispatcher.metrics().getSent()).isEqualTo(2);
+  }
+
+  /** Each SMS is marked sent right after it is sent, not once the whole batch is done. */
+  @Test
+  void messagesAreMarkedSentOneAtATime() {
+    List<Integer> sentCountAtSend = new ArrayList<>();
+    SmsSender sender =
+        new SmsSender(
+            TwilioStub.FROM_NUMBER,
+            TwilioStub.ACCOUNT_SID,
+            TwilioStub.AUTH_TOKEN,
+            twilio.url(),
+            true,
+            100,
+            new AuditLogWriter(jdbiTest)) {
+          @Override
+          public SendResult attempt(String phoneNumber, String message) {
+            sentCountAtSend.add(
+                jdbiTest.withHandle(
+                    handle ->
+                        handle
+                            .createQuery("select count(*) from sms_queue where sent_at is not null")
+                            .mapTo(Integer.class)
+                            .one()));
+            return super.attempt(phoneNumber, message);
+          }
+        };
+    SmsQueueDao.enqueue(jdbiTest, "5555555555", "first");
+    SmsQueueDao.enqueue(jdbiTest, "5555555556", "second");
+
+    new SmsDispatcher(jdbiTest, sender, 0).processDue();
+
+    assertThat(sentCountAtSend).containsExactly(0, 1);
+  }
+
+  /** A transient failure stays queued and is not retried until its retry delay has passed. */
+  @Test
+  void transientFailureIsRetriedLater() {
+    twilio.respondNext(503, "Service Unavailable");
+    SmsQueueDao.enqueue(jdbiTest, "5555555555", "hello");
+
+    dispatcher.processDue();
+    dispatcher.processDue();
+
+    assertThat(twilio.requests()).hasSize(1);
+    assertThat(dispatcher.metrics().getPending()).isEqualTo(1);
+    assertThat(dispatcher.metrics().getRetried()).isEqualTo(1);
+    assertThat(lastError()).contains("503");
+  }
+
+  /** A permanent failure (eg: invalid number) is not retried. */
+  @Test
+  void permanentFailureIsNotRetried() {
+    twilio.respondNext(400, "{\"code\": 21211, \"message\": \"Invalid 'To' Phone Number\"}");
+    SmsQueueDao.enqueue(jdbiTest, "555", "hello");
+
+    dispatcher.processDue();
+
+    assertThat(dispatcher.metrics().getPending()).isZero();
+    assertThat(dispatcher.metrics().getFailed()).isEqualTo(1);
+    assertThat(lastError()).contains("21211");
+  }
+
+  private static SmsQueueDao.OutgoingSms deliveryMessage(
+      String phone, String message, String topic) {
+    return SmsQueueDao.OutgoingSms.builder()
+        .phone(phone)
+        .message(message)
+        .groupKey("XKCD")
+        .topic(topic)
+        .build();
+  }
+
+  /**
+   * Pending messages of a delivery to the same phone are sent as one SMS, of messages with the same
+   * topic only the newest is sent.
+   */
+  @Test
+  void coalescesMessagesOfSameDelivery() {
+    SmsQueueDao.enqueueAll(
+        jdbiTest,
+        List.of(
+            deliveryMessage("5555555555", "Confirmation received", "DELIVERY_STATUS"),
+            deliveryMessage("5555555555", "Driver is on the way", "DRIVER_STATUS"),
+            deliveryMessage("5555555556", "Driver is on the way", "DRIVER_STATUS"),
+            deliveryMessage("5555555555", "Delivery confirmed", "DELIVERY_STATUS")));
+
+    dispatcher.processDue();
+
+    assertThat(twilio.requests())
+        .extracting(r -> r.get("Body"))
+        .containsExactlyInAnyOrder(
+            "Driver is on the way\n\nDelivery confirmed", "Driver is on the way");
+    var metrics = dispatcher.metrics();
+    assertThat(metrics.getPending()).isZero();
+    assertThat(metrics.getSent()).isEqualTo(2);
+    assertThat(metrics.getCoalesced()).isEqualTo(1);
+    assertThat(metrics.getSuperseded()).isEqualTo(1);
+  }
+
+  /** Messages that would make a coalesced SMS too long are sent as the next SMS, not cut off. */
+  @Test
+  void coalescedSmsIsKeptWithinMaxLength() {
+    String first = "a".repeat(600);
+    String second = "b".repeat(600);
+    String third = "c".repeat(600);
+    SmsQueueDao.enqueueAll(
+        jdbiTest,
+        List.of(
+            deliveryMessage("5555555555", first, null),
+            deliveryMessage("5555555555", second, null),
+            deliveryMessage("5555555555", third, null)));
+
+    dispatcher.processDue();
+
+    assertThat(twilio.requests())
+        .extracting(r -> r.get("Body"))
+        .containsExactly(first + "\n\n" + second, third);
+    var metrics = dispatcher.metrics();
+    assertThat(metrics.getPending()).isZero();
+    assertThat(metrics.getSent()).isEqualTo(2);
+    assertThat(metrics.getCoalesced()).isEqualTo(1);
+  }
+
+  /** A message waiting for a retry is not sent early with a due message of its group. */
+  @Test
+  void retryBackoffIsKeptWithinGroup() {
+    SmsQueueDao.enqueueAll(
+        jdbiTest, List.of(deliveryMessage("5555555555", "Driver is on the way", "DRIVER_STATUS")));
+    jdbiTest.useHandle(
+        handle ->
+            handle.execute(
+                "update sms_queue set attempts = 1, next_attempt_at = now() + interval '10 minutes'"));
+    SmsQueueDao.enqueueAll(
+        jdbiTest, List.of(deliveryMessage("5555555555", "Delivery confirmed", "DELIVERY_STATUS")));
+
+    dispatcher.processDue();
+
+    assertThat(twilio.requests())
+        .extracting(r -> r.get("Body"))
+        .containsExactly("Delivery confirmed");
+    assertThat(dispatcher.metrics().getPending()).isEqualTo(1);
+  }
+
+  /** Grouped messages wait for the coalescing window, other messages are sent right away. */
+  @Test
+  void groupedMessagesWaitForCoalescingWindow() {
+    var windowDispatcher =
+        new SmsDispatcher(jdbiTest, twilio.newSmsSender(new AuditLogWriter(jdbiTest), 100), 60);
+    SmsQueueDao.enqueueAll(
+        jdbiTest,
+        List.of(
+            deliveryMessage("5555555555", "Driver is on the way", "DRIVER_STATUS"),
+            SmsQueueDao.OutgoingSms.builder().phone("5555555555").message("access code").build()));
+
+    windowDispatcher.processDue();
+
+    assertThat(twilio.requests()).extracting(r -> r.get("Body")).containsExactly("access code");
+    assertThat(windowDispatcher.metrics().getPending()).isEqualTo(1);
+  }
+
+  @Test
+  void retryDelay() {
+    assertThat(SmsDispatcher.retryDelaySeconds(1)).isEqualTo(15);
+    assertThat(SmsDispatcher.retryDelaySeconds(2)).isEqualTo(30);
+    assertThat(SmsDispatcher.retryDelaySeconds(20))
+        .isEqualTo(SmsDispatcher.MAX_RETRY_DELAY_SECONDS);
+  }
+}
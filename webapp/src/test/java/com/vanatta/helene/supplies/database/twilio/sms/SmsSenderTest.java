@@ -3,15 +3,34 @@ package com.vanatta.helene.supplies.database.twilio.sms;
 import static org.assertj.core.api.Assertions.assertThat;
 
 import com.vanatta.helene.supplies.database.TestConfiguration;
+import com.vanatta.helene.supplies.database.audit.AuditLogWriter;
+import java.util.Map;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 class SmsSenderTest {
 
+  TwilioStub twilio;
+  AuditLogWriter auditLog = new AuditLogWriter(TestConfiguration.jdbiTest);
+  SmsSender smsSender;
+
+  @BeforeEach
+  void setup() throws Exception {
+    twilio = new TwilioStub();
+    smsSender = twilio.newSmsSender(auditLog, 100);
+  }
+
+  @AfterEach
+  void tearDown() {
+    twilio.close();
+  }
+
   @Test
   void recordMessage() {
     int beforeCount = countSendHistoryRecords();
     SmsSender.recordMessage(
-        TestConfiguration.jdbiTest,
+        auditLog,
         SmsSender.MessageResult.builder()
             .toNumber("123")
             .messageLength("message".length())
@@ -20,10 +39,73 @@ class SmsSenderTest {
             .errorCode(-1)
             .errorMessage("SMS not enabled")
             .build());
+    auditLog.flush();
+
+    assertThat(countSendHistoryRecords()).isEqualTo(beforeCount + 1);
+  }
+
+  @Test
+  void send() {
+    int beforeCount = countSendHistoryRecords();
 
+    var result = smsSender.attempt("5555555555", "hello & goodbye");
+
+    assertThat(result.isSuccess()).isTrue();
+    assertThat(twilio.requests())
+        .containsExactly(
+            Map.of(
+                "To", "+15555555555", "From", TwilioStub.FROM_NUMBER, "Body", "hello & goodbye"));
+    assertThat(twilio.authorizations().getFirst()).startsWith("Basic ");
+    auditLog.flush();
     assertThat(countSendHistoryRecords()).isEqualTo(beforeCount + 1);
   }
 
+  /** Rate limited and server errors are transient, the message can be retried. */
+  @Test
+  void rateLimitedIsRetryable() {
+    twilio.respondNext(
+        429, "{\"code\": 20429, \"message\": \"Too Many Requests\", \"status\": 429}");
+    twilio.respondNext(503, "Service Unavailable");
+
+    var rateLimited = smsSender.attempt("5555555555", "hello");
+    assertThat(rateLimited.isSuccess()).isFalse();
+    assertThat(rateLimited.isRetryable()).isTrue();
+    assertThat(rateLimited.getError()).contains("20429");
+
+    var unavailable = smsSender.attempt("5555555555", "hello");
+    assertThat(unavailable.isSuccess()).isFalse();
+    assertThat(unavailable.isRetryable()).isTrue();
+  }
+
+  /** An invalid phone number is a permanent failure. */
+  @Test
+  void invalidNumberIsNotRetryable() {
+    twilio.respondNext(
+        400,
+        "{\"code\": 21211, \"message\": \"The 'To' number is not a valid phone number.\","
+            + " \"status\": 400}");
+
+    var result = smsSender.attempt("555", "hello");
+
+    assertThat(result.isSuccess()).isFalse();
+    assertThat(result.isRetryable()).isFalse();
+  }
+
+  /** Sends are spaced out to stay within the send rate. */
+  @Test
+  void sendRateIsLimited() {
+    SmsSender slowSender = twilio.newSmsSender(auditLog, 20);
+
+    long start = System.nanoTime();
+    for (int i = 0; i < 5; i++) {
+      slowSender.attempt("5555555555", "hello");
+    }
+    long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+    // first send is immediate, the next 4 are 50ms apart
+    assertThat(elapsedMillis).isGreaterThanOrEqualTo(190);
+  }
+
   private static int countSendHistoryRecords() {
     String count = "select count(*) from sms_send_history";
     return TestConfiguration.jdbiTest.withHandle(
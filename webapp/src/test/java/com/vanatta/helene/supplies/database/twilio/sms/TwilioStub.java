@@ -0,0 +1,107 @@
+package com.vanatta.helene.supplies.database.twilio.sms;
+
+import com.sun.net.httpserver.HttpServer;
+import com.vanatta.helene.supplies.database.audit.AuditLogWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.stream.Collectors;
+
+/**
+ * Local HTTP stand-in for the Twilio messages API. Records received messages and answers with
+ * queued responses, or with a 'queued' message response when none are queued.
+ */
+class TwilioStub implements AutoCloseable {
+  static final String ACCOUNT_SID = "AC123";
+  static final String AUTH_TOKEN = "token";
+  static final String FROM_NUMBER = "+15550001111";
+
+  record Response(int status, String body) {}
+
+  private final HttpServer server;
+  private final List<Map<String, String>> requests =
+      Collections.synchronizedList(new ArrayList<>());
+  private final List<String> authorizations = Collections.synchronizedList(new ArrayList<>());
+  private final Queue<Response> responses = new LinkedList<>();
+
+  TwilioStub() throws IOException {
+    server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+    server.createContext(
+        "/2010-04-01/Accounts/" + ACCOUNT_SID + "/Messages.json",
+        exchange -> {
+          String body =
+              new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+          requests.add(parseForm(body));
+          authorizations.add(exchange.getRequestHeaders().getFirst("Authorization"));
+
+          Response response;
+          synchronized (responses) {
+            response = responses.poll();
+          }
+          if (response == null) {
+            response =
+                new Response(
+                    201,
+                    """
+                    {"sid": "SM1", "status": "queued", "uri": "/2010-04-01/Accounts/AC123/Messages/SM1.json",
+                     "error_code": null, "error_message": null}
+                    """);
+          }
+          byte[] responseBody = response.body().getBytes(StandardCharsets.UTF_8);
+          exchange.getResponseHeaders().add("Content-Type", "application/json");
+          exchange.sendResponseHeaders(response.status(), responseBody.length);
+          try (OutputStream out = exchange.getResponseBody()) {
+            out.write(responseBody);
+          }
+        });
+    server.start();
+  }
+
+  /** Answers the next request with a status and JSON body. */
+  void respondNext(int status, String body) {
+    synchronized (responses) {
+      responses.add(new Response(status, body));
+    }
+  }
+
+  String url() {
+    return "http://localhost:" + server.getAddress().getPort();
+  }
+
+  /** An enabled SMS sender that sends to this stub. */
+  SmsSender newSmsSender(AuditLogWriter auditLog, double maxPerSecond) {
+    return new SmsSender(FROM_NUMBER, ACCOUNT_SID, AUTH_TOKEN, url(), true, maxPerSecond, auditLog);
+  }
+
+  /** Form parameters of the received requests, eg: To, From, Body. */
+  List<Map<String, String>> requests() {
+    return List.copyOf(requests);
+  }
+
+  List<String> authorizations() {
+    return List.copyOf(authorizations);
+  }
+
+  private static Map<String, String> parseForm(String body) {
+    return Arrays.stream(body.split("&"))
+        .map(pair -> pair.split("=", 2))
+        .collect(
+            Collectors.toMap(
+                pair -> URLDecoder.decode(pair[0], StandardCharsets.UTF_8),
+                pair -> pair.length > 1 ? URLDecoder.decode(pair[1], StandardCharsets.UTF_8) : ""));
+  }
+
+  @Override
+  public void close() {
+    server.stop(0);
+  }
+}
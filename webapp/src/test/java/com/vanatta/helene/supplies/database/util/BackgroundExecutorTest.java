@@ -0,0 +1,100 @@
+package com.vanatta.helene.supplies.database.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.MDC;
+
+class BackgroundExecutorTest {
+
+  BackgroundExecutor executor = new BackgroundExecutor("test", 2);
+
+  @AfterEach
+  void tearDown() {
+    MDC.clear();
+    executor.drain(Duration.ofSeconds(5));
+  }
+
+  @Test
+  void mdcIsCopiedToTask() throws Exception {
+    MDC.put("request", "abc");
+    CompletableFuture<String> taskMdc = new CompletableFuture<>();
+    CompletableFuture<Boolean> virtual = new CompletableFuture<>();
+
+    executor.run(
+        () -> {
+          taskMdc.complete(MDC.get("request"));
+          virtual.complete(Thread.currentThread().isVirtual());
+        });
+
+    assertThat(taskMdc.get(5, TimeUnit.SECONDS)).isEqualTo("abc");
+    assertThat(virtual.get(5, TimeUnit.SECONDS)).isTrue();
+    assertThat(MDC.get("request")).isEqualTo("abc");
+  }
+
+  /** Callers wait while the maximum number of tasks are running. */
+  @Test
+  void inFlightTasksAreBounded() throws Exception {
+    CountDownLatch release = new CountDownLatch(1);
+    Runnable blocking =
+        () -> {
+          try {
+            release.await();
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+          }
+        };
+    executor.run(blocking);
+    executor.run(blocking);
+
+    Thread caller = Thread.ofPlatform().start(() -> executor.run(blocking));
+    for (int i = 0; i < 100 && executor.metrics().getWaiting() == 0; i++) {
+      Thread.sleep(10);
+    }
+    assertThat(executor.metrics().getWaiting()).isEqualTo(1);
+    assertThat(executor.metrics().getInFlight()).isEqualTo(2);
+
+    release.countDown();
+    caller.join(5_000);
+    assertThat(executor.drain(Duration.ofSeconds(5))).isTrue();
+    assertThat(executor.metrics().getCompleted()).isEqualTo(3);
+    assertThat(executor.metrics().getInFlight()).isZero();
+  }
+
+  /** Drain waits for running tasks, later tasks run on the caller's thread. */
+  @Test
+  void drainWaitsForRunningTasks() throws Exception {
+    executor.run(
+        () -> {
+          try {
+            Thread.sleep(100);
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+          }
+        });
+
+    assertThat(executor.drain(Duration.ofSeconds(5))).isTrue();
+    assertThat(executor.metrics().getCompleted()).isEqualTo(1);
+
+    Thread caller = Thread.currentThread();
+    CompletableFuture<Thread> ranOn = new CompletableFuture<>();
+    executor.run(() -> ranOn.complete(Thread.currentThread()));
+    assertThat(ranOn.getNow(null)).isSameAs(caller);
+  }
+
+  @Test
+  void failedTasksAreCounted() {
+    executor.run(
+        () -> {
+          throw new IllegalStateException("expected");
+        });
+
+    assertThat(executor.drain(Duration.ofSeconds(5))).isTrue();
+    assertThat(executor.metrics().getFailed()).isEqualTo(1);
+  }
+}
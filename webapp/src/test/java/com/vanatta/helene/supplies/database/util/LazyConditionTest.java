@@ -0,0 +1,35 @@
+package com.vanatta.helene.supplies.database.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.samskivert.mustache.Mustache;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+class LazyConditionTest {
+
+  static final String template =
+      "{{#loggedIn}}logged in{{/loggedIn}}{{^loggedIn}}logged out{{/loggedIn}} {{name}}";
+
+  static String render(boolean loggedIn) {
+    return Mustache.compiler()
+        .compile(template)
+        .execute(
+            Map.of(
+                "loggedIn", new LazyCondition(new LazyValue<>(() -> loggedIn)),
+                "name", new LazyValue<>(() -> "wnc")));
+  }
+
+  @Test
+  void rendersAsSection() {
+    assertThat(render(true)).isEqualTo("logged in wnc");
+    assertThat(render(false)).isEqualTo("logged out wnc");
+  }
+
+  @Test
+  void notComputedUntilRendered() {
+    var value = new LazyValue<>(() -> true);
+    new LazyCondition(value);
+    assertThat(value.isResolved()).isFalse();
+  }
+}
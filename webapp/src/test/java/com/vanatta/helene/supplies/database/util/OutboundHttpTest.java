@@ -0,0 +1,96 @@
+package com.vanatta.helene.supplies.database.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class OutboundHttpTest {
+
+  private static final String HOST = "127.0.0.1";
+
+  HttpServer server;
+
+  @BeforeEach
+  void startServer() throws IOException {
+    server = HttpServer.create(new InetSocketAddress(HOST, 0), 0);
+    server.createContext(
+        "/",
+        exchange -> {
+          int status = exchange.getRequestURI().getPath().equals("/missing") ? 404 : 200;
+          byte[] body = "{\"ok\": true}".getBytes(StandardCharsets.UTF_8);
+          exchange.sendResponseHeaders(status, body.length);
+          try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+          }
+        });
+    server.start();
+  }
+
+  @AfterEach
+  void stopServer() {
+    server.stop(0);
+  }
+
+  private HttpRequest.Builder get(String path) {
+    return HttpRequest.newBuilder(
+            URI.create("http://" + HOST + ":" + server.getAddress().getPort() + path))
+        .GET();
+  }
+
+  private static OutboundHttp.HostReport report() {
+    return OutboundHttp.metrics().stream()
+        .filter(r -> r.getHost().equals(HOST))
+        .findAny()
+        .orElse(OutboundHttp.HostReport.builder().host(HOST).build());
+  }
+
+  @Test
+  void sendAndSendAsync() throws Exception {
+    long requestsBefore = report().getRequests();
+    long errorsBefore = report().getErrorResponses();
+
+    assertThat(OutboundHttp.send(get("/")).body()).isEqualTo("{\"ok\": true}");
+    assertThat(OutboundHttp.sendAsync(get("/")).get().statusCode()).isEqualTo(200);
+    assertThat(OutboundHttp.sendAsync(get("/missing")).get().statusCode()).isEqualTo(404);
+
+    assertThat(report().getRequests()).isEqualTo(requestsBefore + 3);
+    assertThat(report().getErrorResponses()).isEqualTo(errorsBefore + 1);
+  }
+
+  /** Requests that get no response are counted as failures. */
+  @Test
+  void connectionFailuresAreCounted() throws Exception {
+    int closedPort;
+    try (ServerSocket socket = new ServerSocket(0)) {
+      closedPort = socket.getLocalPort();
+    }
+    long failuresBefore = report().getFailures();
+
+    assertThatThrownBy(
+            () ->
+                OutboundHttp.send(
+                    HttpRequest.newBuilder(URI.create("http://" + HOST + ":" + closedPort))))
+        .isInstanceOf(IOException.class);
+
+    assertThat(report().getFailures()).isEqualTo(failuresBefore + 1);
+  }
+
+  @Test
+  void timeoutByHost() {
+    assertThat(OutboundHttp.timeoutFor("maps.googleapis.com")).isEqualTo(Duration.ofSeconds(10));
+    assertThat(OutboundHttp.timeoutFor("hook.us1.make.com")).isEqualTo(Duration.ofSeconds(60));
+    assertThat(OutboundHttp.timeoutFor("example.com")).isEqualTo(OutboundHttp.DEFAULT_TIMEOUT);
+  }
+}
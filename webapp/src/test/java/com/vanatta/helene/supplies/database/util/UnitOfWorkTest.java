@@ -0,0 +1,50 @@
+package com.vanatta.helene.supplies.database.util;
+
+import static com.vanatta.helene.supplies.database.TestConfiguration.jdbiTest;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.vanatta.helene.supplies.database.TestConfiguration;
+import com.vanatta.helene.supplies.database.manage.ManageSiteDao;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+class UnitOfWorkTest {
+
+  @BeforeAll
+  static void setup() {
+    TestConfiguration.setupDatabase();
+  }
+
+  private static int backendPid() {
+    return jdbiTest.withHandle(
+        handle -> handle.createQuery("select pg_backend_pid()").mapTo(Integer.class).one());
+  }
+
+  /** Separate calls within a unit of work run on the same database connection. */
+  @Test
+  void handleIsReused() {
+    boolean sameConnection = UnitOfWork.inTransaction(jdbiTest, () -> backendPid() == backendPid());
+    assertThat(sameConnection).isTrue();
+  }
+
+  /** If a unit of work fails, earlier updates within it are rolled back. */
+  @Test
+  void rollsBackOnFailure() {
+    long siteId = TestConfiguration.getSiteId(TestConfiguration.addSite());
+    String before = ManageSiteDao.fetchSiteName(jdbiTest, siteId);
+
+    assertThatThrownBy(
+            () ->
+                UnitOfWork.useTransaction(
+                    jdbiTest,
+                    () -> {
+                      ManageSiteDao.updateSiteField(
+                          jdbiTest, siteId, ManageSiteDao.SiteField.SITE_NAME, before + " updated");
+                      throw new IllegalStateException("fail");
+                    }))
+        .isInstanceOf(IllegalStateException.class);
+
+    assertThat(ManageSiteDao.fetchSiteName(jdbiTest, siteId)).isEqualTo(before);
+  }
+}
@@ -6,6 +6,10 @@ delete from wss_user;
 delete from driver;
 
 delete from site_distance_matrix;
+delete from delivery_outbox;
+delete from sms_queue;
+delete from sms_broadcast_recipient;
+delete from sms_broadcast;
 delete from delivery_item;
 delete from delivery_confirmation;
 delete from delivery;